@@ -55,6 +55,7 @@ public abstract class AbstractEslintSensor implements Sensor {
   public void execute(SensorContext context) {
     monitoring.startSensor(context, this);
     CacheStrategies.reset();
+    CacheStrategies.useCpdDictionary(getClass().getSimpleName());
     this.context = context;
     this.contextUtils = new ContextUtils(context);
     environments = Arrays.asList(context.config().getStringArray(JavaScriptPlugin.ENVIRONMENTS));
@@ -87,7 +88,9 @@ public abstract class AbstractEslintSensor implements Sensor {
         throw new IllegalStateException("Analysis failed (\"sonar.internal.analysis.failFast\"=true)", e);
       }
     } finally {
+      CacheStrategies.flush();
       CacheStrategies.logReport();
+      monitoring.cacheStatistics(CacheStrategies.getStatistics());
       monitoring.stopSensor();
     }
   }
@@ -96,6 +99,16 @@ public abstract class AbstractEslintSensor implements Sensor {
     LOG.error(msg, e);
   }
 
+  /**
+   * Initializes the linters of the bridge, cached analysis results are only replayed by the same linter, with the same
+   * configuration.
+   */
+  void initLinter(List<EslintRule> rules, AnalysisMode analysisMode) throws IOException {
+    eslintBridgeServer.initLinter(rules, environments, globals, analysisMode);
+    CacheStrategies.setLinterConfigDigest(LinterConfigDigest.of(rules, environments, globals));
+    CacheStrategies.setAnalysisMode(analysisMode);
+  }
+
   protected abstract void analyzeFiles(List<InputFile> inputFiles) throws IOException;
 
   protected abstract List<InputFile> getInputFiles();
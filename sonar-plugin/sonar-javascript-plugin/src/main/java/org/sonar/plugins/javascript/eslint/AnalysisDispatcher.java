@@ -0,0 +1,259 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
+
+/**
+ * Sends analysis requests to the eslint-bridge workers and hands the responses back to the sensor thread.
+ *
+ * A bounded window of requests is kept in flight, so that Node.js lints the next files while the responses
+ * of the previous ones are persisted. Responses are always processed on the thread which submitted them, in
+ * submission order, so that everything saved on the SensorContext remains sequential. Without any worker
+ * (e.g. when the server is mocked) requests are executed inline.
+ */
+class AnalysisDispatcher implements AutoCloseable {
+
+  /**
+   * Requests queued on each worker, one being linted while the other one is transferred or waits to be.
+   */
+  static final int REQUESTS_PER_WORKER = 2;
+
+  private final Monitoring monitoring;
+  private final int window;
+  private final int batchSize;
+  private final Deque<Pending> pending = new ArrayDeque<>();
+  private final List<Queued> batch = new ArrayList<>();
+  private BatchRequest batchRequest;
+  private ExecutorService executor;
+
+  /**
+   * @param monitoring used to track analyzed files, or null when the sensor doesn't report file metrics
+   * @param workers number of eslint-bridge workers able to serve the requests
+   */
+  AnalysisDispatcher(@Nullable Monitoring monitoring, int workers) {
+    this(monitoring, workers, 1);
+  }
+
+  /**
+   * @param monitoring used to track analyzed files, or null when the sensor doesn't report file metrics
+   * @param workers number of eslint-bridge workers able to serve the requests
+   * @param batchSize number of files sent within a single batch request, when batch requests are submitted
+   */
+  AnalysisDispatcher(@Nullable Monitoring monitoring, int workers, int batchSize) {
+    this.monitoring = monitoring;
+    this.window = Math.max(0, workers) * REQUESTS_PER_WORKER;
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /**
+   * Submits a blocking request, which is executed on a dispatcher thread when requests are pipelined.
+   */
+  void submit(InputFile file, Request request, ResponseHandler handler) throws IOException {
+    submit(file, request, () -> CompletableFuture.supplyAsync(() -> {
+      try {
+        return request.send();
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor()), handler);
+  }
+
+  /**
+   * Submits a request which has both a blocking and an asynchronous variant, the latter being used when requests
+   * are pipelined.
+   */
+  void submit(InputFile file, Request request, AsyncRequest asyncRequest, ResponseHandler handler) throws IOException {
+    if (window <= 1) {
+      startFile(file);
+      handler.handle(request.send());
+      return;
+    }
+    awaitWindow(1);
+    pending.add(new Pending(file, asyncRequest.send(), handler));
+    handleCompleted();
+  }
+
+  /**
+   * Submits a JavaScript / TypeScript analysis request which can be grouped with the following ones into a single
+   * batch request. The batch is sent once it is full, or when waiting for completion. Without batching, the request
+   * is submitted on its own as with {@link #submit(InputFile, Request, AsyncRequest, ResponseHandler)}.
+   */
+  void submit(InputFile file, JsAnalysisRequest jsRequest, Request request, AsyncRequest asyncRequest, BatchRequest batchRequest,
+    ResponseHandler handler) throws IOException {
+    if (window <= 1 || batchSize == 1) {
+      submit(file, request, asyncRequest, handler);
+      return;
+    }
+    batch.add(new Queued(file, jsRequest, handler));
+    this.batchRequest = batchRequest;
+    if (batch.size() >= batchSize) {
+      sendBatch();
+    }
+    handleCompleted();
+  }
+
+  private void sendBatch() throws IOException {
+    awaitWindow(batch.size());
+    var responses = batchRequest.send(batch.stream().map(queued -> queued.request).collect(Collectors.toList()));
+    for (int i = 0; i < batch.size(); i++) {
+      var index = i;
+      var queued = batch.get(i);
+      pending.add(new Pending(queued.file, responses.thenApply(list -> list.get(index)), queued.handler));
+    }
+    batch.clear();
+  }
+
+  /**
+   * Waits until the window of in-flight requests has room for the given number of files. The window is counted in
+   * files, a batch request filling as many slots as the files it contains.
+   */
+  private void awaitWindow(int files) throws IOException {
+    while (!pending.isEmpty() && pending.size() + files > window * batchSize) {
+      handle(pending.poll());
+    }
+  }
+
+  private void handleCompleted() throws IOException {
+    while (!pending.isEmpty() && pending.peek().response.isDone()) {
+      handle(pending.poll());
+    }
+  }
+
+  /**
+   * Waits for all submitted requests and processes their responses.
+   */
+  void awaitCompletion() throws IOException {
+    if (!batch.isEmpty()) {
+      sendBatch();
+    }
+    while (!pending.isEmpty()) {
+      handle(pending.poll());
+    }
+  }
+
+  private void handle(Pending next) throws IOException {
+    AnalysisResponse response;
+    try {
+      response = next.response.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for eslint-bridge response", e);
+    } catch (ExecutionException e) {
+      var cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+    // wall-clock time of interleaved requests can't be attributed to a single file, the file metric
+    // covers the processing of the response, while parse and analysis times are reported by the bridge
+    startFile(next.file);
+    next.handler.handle(response);
+  }
+
+  private void startFile(InputFile file) {
+    if (monitoring != null) {
+      monitoring.startFile(file);
+    }
+  }
+
+  private ExecutorService executor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(window, r -> {
+        var thread = new Thread(r);
+        thread.setName("eslint-bridge-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor;
+  }
+
+  @Override
+  public void close() {
+    pending.forEach(p -> p.response.cancel(true));
+    pending.clear();
+    batch.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  @FunctionalInterface
+  interface Request {
+    AnalysisResponse send() throws IOException;
+  }
+
+  @FunctionalInterface
+  interface AsyncRequest {
+    CompletableFuture<AnalysisResponse> send();
+  }
+
+  @FunctionalInterface
+  interface BatchRequest {
+    CompletableFuture<List<AnalysisResponse>> send(List<JsAnalysisRequest> requests);
+  }
+
+  @FunctionalInterface
+  interface ResponseHandler {
+    void handle(AnalysisResponse response) throws IOException;
+  }
+
+  private static class Queued {
+    final InputFile file;
+    final JsAnalysisRequest request;
+    final ResponseHandler handler;
+
+    Queued(InputFile file, JsAnalysisRequest request, ResponseHandler handler) {
+      this.file = file;
+      this.request = request;
+      this.handler = handler;
+    }
+  }
+
+  private static class Pending {
+    final InputFile file;
+    final CompletableFuture<AnalysisResponse> response;
+    final ResponseHandler handler;
+
+    Pending(InputFile file, CompletableFuture<AnalysisResponse> response, ResponseHandler handler) {
+      this.file = file;
+      this.response = response;
+      this.handler = handler;
+    }
+  }
+}
@@ -84,7 +84,7 @@ public enum AnalysisMode {
     return EslintRule.findAllBut(rules, blackListRuleKeys);
   }
 
-  String getLinterIdFor(InputFile file) {
+  public String getLinterIdFor(InputFile file) {
     if (this == SKIP_UNCHANGED && file.status() == InputFile.Status.SAME) {
       return UNCHANGED_LINTER_ID;
     } else {
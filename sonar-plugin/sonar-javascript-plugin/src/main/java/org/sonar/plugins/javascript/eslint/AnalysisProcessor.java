@@ -19,10 +19,13 @@
  */
 package org.sonar.plugins.javascript.eslint;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
@@ -43,7 +46,9 @@ import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
+import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 import org.sonarsource.sonarlint.plugin.api.SonarLintRuntime;
 import org.sonarsource.sonarlint.plugin.api.issue.NewSonarLintIssue;
@@ -74,6 +79,24 @@ public class AnalysisProcessor {
   }
 
   void processResponse(SensorContext context, AbstractChecks checks, InputFile file, AnalysisResponse response) {
+    processResponse(context, checks, file, response, null);
+  }
+
+  /**
+   * Creates the sink receiving highlights and CPD tokens of a JavaScript / TypeScript file while its response is decoded.
+   * The sink is then given back to {@link #processResponse(SensorContext, AbstractChecks, InputFile, AnalysisResponse, AnalysisResponseSink)}.
+   *
+   * CPD tokens remain in the response when the analysis of the file is written to the cache, and so do highlights when
+   * its results are written as well, see {@link #writeToCache(SensorContext, CacheStrategy, InputFile, JsAnalysisRequest, AnalysisResponse)}.
+   */
+  AnalysisResponseSink newResponseSink(SensorContext context, InputFile file, CacheStrategy cacheStrategy, JsAnalysisRequest request) {
+    var writesCache = cacheStrategy.isCacheWriteEnabled();
+    var skipCpd = writesCache || file.type() == InputFile.Type.TEST || new ContextUtils(context).isSonarLint();
+    var retainHighlights = writesCache && cachesResults(context, request);
+    return new AnalysisResponseSink(!skipCpd, !retainHighlights);
+  }
+
+  void processResponse(SensorContext context, AbstractChecks checks, InputFile file, AnalysisResponse response, @Nullable AnalysisResponseSink sink) {
     this.context = context;
     contextUtils = new ContextUtils(context);
     this.checks = checks;
@@ -94,27 +117,70 @@ public class AnalysisProcessor {
       // saving metrics should be done before saving issues so that NO SONAR lines with issues are indeed ignored
       saveMetrics(response.metrics);
       saveIssues(response.issues);
-      saveHighlights(response.highlights);
+      if (sink == null) {
+        saveHighlights(response.highlights);
+      } else {
+        sink.saveHighlighting(context, file, response.highlights);
+      }
       saveHighlightedSymbols(response.highlightedSymbols);
-      saveCpd(response.cpdTokens);
+      if (sink == null || !sink.acceptsCpdTokens()) {
+        saveCpd(response.cpdTokens);
+      } else {
+        sink.saveCpdTokens(context, file, response.cpdTokens);
+      }
       monitoring.stopFile(file, response.metrics.ncloc.length, response.perf);
     }
   }
 
-  void processCacheAnalysis(SensorContext context, InputFile file, CacheAnalysis cacheAnalysis) {
-    this.context = context;
-    contextUtils = new ContextUtils(context);
-    this.file = file;
+  /**
+   * Saves the results of a file which were extracted from the cache, as if they were received from the bridge.
+   */
+  void processCacheAnalysis(SensorContext context, AbstractChecks checks, InputFile file, CacheAnalysis cacheAnalysis) {
+    AnalysisResponse response;
+    try {
+      response = AnalysisResponseReader.readBinary(new ByteArrayInputStream(cacheAnalysis.getResults()), null);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read the analysis of " + file + " from the cache", e);
+    }
+    response.cpdTokens = cacheAnalysis.getCpdTokens();
+    // nothing was parsed nor analyzed by the bridge
+    response.perf = new EslintBridgeServer.Perf();
+    processResponse(context, checks, file, response);
+  }
 
-    if (YamlSensor.LANGUAGE.equals(file.language()) || HtmlSensor.LANGUAGE.equals(file.language())) {
-      // SonarQube expects that there is a single analyzer that saves analysis data like metrics, highlighting,
-      // and symbols. There is an exception for issues, though. Since sonar-iac saves such data for YAML files
-      // from Cloudformation configurations, we can only save issues for these files. Same applies for HTML and
-      // sonar-html plugin.
-      LOG.debug("Skipping processing of the analysis extracted from cache because the javascript plugin doesn't save analysis data of YAML files");
+  /**
+   * Writes the results of the analysis of a file to the cache, if the cache strategy of the file allows it.
+   * The response must have been decoded with the sink created by
+   * {@link #newResponseSink(SensorContext, InputFile, CacheStrategy, JsAnalysisRequest)}, which retains what is written.
+   *
+   * Nothing is written for parsing errors other than syntax errors, they depend on the environment of the analysis,
+   * e.g. a missing TypeScript, and must not be replayed once it is fixed.
+   *
+   * Results computed with type information also depend on the files the file imports, whose changes don't invalidate
+   * its cache entry. They are only written when {@link ContextUtils#CACHE_TYPE_AWARE_RESULTS} is set, accepting that
+   * issues depending on other files remain stale until the file itself changes. Otherwise, the entry only holds the
+   * UCFG files and the CPD tokens of the file.
+   */
+  void writeToCache(SensorContext context, CacheStrategy cacheStrategy, InputFile file, JsAnalysisRequest request,
+    AnalysisResponse response) throws IOException {
+    if (!cacheStrategy.isCacheWriteEnabled()) {
+      return;
+    }
+    if (response.parsingError != null && response.parsingError.code != EslintBridgeServer.ParsingErrorCode.PARSING) {
+      LOG.debug("Analysis of file {} is not cached, it failed with {}", file, response.parsingError.code);
+      return;
+    }
+    byte[] results = null;
+    if (cachesResults(context, request)) {
+      results = AnalysisResponseWriter.writeBinary(response);
     } else {
-      saveCpd(cacheAnalysis.getCpdTokens());
+      LOG.debug("Results of file {} are not cached, they rely on type information", file);
     }
+    cacheStrategy.writeAnalysisToCache(CacheAnalysis.fromResponse(response.ucfgPaths, response.cpdTokens, results, request.linterId), file);
+  }
+
+  private static boolean cachesResults(SensorContext context, JsAnalysisRequest request) {
+    return !request.isTypeAware() || new ContextUtils(context).cacheTypeAwareResults();
   }
 
   private void processParsingError(EslintBridgeServer.ParsingError parsingError) {
@@ -0,0 +1,237 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponseListener;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.CpdToken;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.HighlightedSymbol;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Issue;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Location;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Metrics;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.ParsingError;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Perf;
+import org.sonar.plugins.javascript.eslint.cache.VarLengthInputStream;
+
+/**
+ * Decodes an {@link AnalysisResponse} while it is read from the eslint-bridge, without materializing the whole body.
+ *
+ * Highlights and CPD tokens, which make up most of the response of big files, can be handed over one by one to an
+ * {@link AnalysisResponseListener} instead of being collected in the response.
+ *
+ * The response is either JSON or, when negotiated with the bridge, a compact binary encoding where highlights,
+ * highlighted symbols, line metrics and CPD tokens are variable-length integers and repeated strings are stored once.
+ * See {@code encoding.ts} on the bridge side for the layout.
+ */
+class AnalysisResponseReader {
+
+  static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+  static final int BINARY_VERSION = 1;
+
+  private static final Gson GSON = new Gson();
+  private static final Type ISSUES = new TypeToken<List<Issue>>() {}.getType();
+  private static final Type STRINGS = new TypeToken<List<String>>() {}.getType();
+
+  private AnalysisResponseReader() {
+  }
+
+  /**
+   * Reads the next response available from the reader, which is lenient as the bridge doesn't always send strict JSON.
+   */
+  static AnalysisResponse read(JsonReader reader, @Nullable AnalysisResponseListener listener) throws IOException {
+    reader.setLenient(true);
+    var response = new AnalysisResponse();
+    reader.beginObject();
+    while (reader.hasNext()) {
+      var name = reader.nextName();
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        continue;
+      }
+      switch (name) {
+        case "parsingError":
+          response.parsingError = GSON.fromJson(reader, ParsingError.class);
+          break;
+        case "issues":
+          response.issues = GSON.fromJson(reader, ISSUES);
+          break;
+        case "highlights":
+          response.highlights = readHighlights(reader, listener);
+          break;
+        case "highlightedSymbols":
+          response.highlightedSymbols = GSON.fromJson(reader, HighlightedSymbol[].class);
+          break;
+        case "metrics":
+          response.metrics = GSON.fromJson(reader, Metrics.class);
+          break;
+        case "cpdTokens":
+          response.cpdTokens = readCpdTokens(reader, listener);
+          break;
+        case "perf":
+          response.perf = GSON.fromJson(reader, Perf.class);
+          break;
+        case "ucfgPaths":
+          response.ucfgPaths = GSON.fromJson(reader, STRINGS);
+          break;
+        default:
+          reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return response;
+  }
+
+  private static Highlight[] readHighlights(JsonReader reader, @Nullable AnalysisResponseListener listener) throws IOException {
+    if (listener == null || !listener.acceptsHighlights()) {
+      return GSON.fromJson(reader, Highlight[].class);
+    }
+    reader.beginArray();
+    while (reader.hasNext()) {
+      listener.onHighlight(GSON.fromJson(reader, Highlight.class));
+    }
+    reader.endArray();
+    return new Highlight[0];
+  }
+
+  private static CpdToken[] readCpdTokens(JsonReader reader, @Nullable AnalysisResponseListener listener) throws IOException {
+    if (listener == null || !listener.acceptsCpdTokens()) {
+      return GSON.fromJson(reader, CpdToken[].class);
+    }
+    reader.beginArray();
+    while (reader.hasNext()) {
+      listener.onCpdToken(GSON.fromJson(reader, CpdToken.class));
+    }
+    reader.endArray();
+    return new CpdToken[0];
+  }
+
+  /**
+   * Reads a response encoded with the binary protocol.
+   */
+  static AnalysisResponse readBinary(InputStream input, @Nullable AnalysisResponseListener listener) throws IOException {
+    var in = new VarLengthInputStream(input);
+    var version = in.readByte();
+    if (version != BINARY_VERSION) {
+      throw new IllegalStateException("Unsupported version of binary response: " + version);
+    }
+    var response = read(new JsonReader(new StringReader(in.readUTF())), null);
+    var strings = new String[in.readInt()];
+    for (var i = 0; i < strings.length; i++) {
+      strings[i] = in.readUTF();
+    }
+    response.highlights = readHighlights(in, strings, listener);
+    response.highlightedSymbols = readHighlightedSymbols(in);
+    if (response.metrics == null) {
+      response.metrics = new Metrics();
+    }
+    response.metrics.ncloc = readLines(in);
+    response.metrics.commentLines = readLines(in);
+    response.metrics.nosonarLines = readLines(in);
+    response.metrics.executableLines = readLines(in);
+    response.cpdTokens = readCpdTokens(in, strings, listener);
+    return response;
+  }
+
+  private static Highlight[] readHighlights(VarLengthInputStream in, String[] strings, @Nullable AnalysisResponseListener listener)
+    throws IOException {
+    var streamed = listener != null && listener.acceptsHighlights();
+    var count = in.readInt();
+    List<Highlight> highlights = new ArrayList<>(streamed ? 0 : count);
+    for (var i = 0; i < count; i++) {
+      var highlight = new Highlight();
+      highlight.location = readLocation(in);
+      highlight.textType = string(strings, in.readInt());
+      if (streamed) {
+        listener.onHighlight(highlight);
+      } else {
+        highlights.add(highlight);
+      }
+    }
+    return highlights.toArray(new Highlight[0]);
+  }
+
+  private static HighlightedSymbol[] readHighlightedSymbols(VarLengthInputStream in) throws IOException {
+    var symbols = new HighlightedSymbol[in.readInt()];
+    for (var i = 0; i < symbols.length; i++) {
+      var symbol = new HighlightedSymbol();
+      symbol.declaration = readLocation(in);
+      symbol.references = new Location[in.readInt()];
+      for (var j = 0; j < symbol.references.length; j++) {
+        symbol.references[j] = readLocation(in);
+      }
+      symbols[i] = symbol;
+    }
+    return symbols;
+  }
+
+  private static int[] readLines(VarLengthInputStream in) throws IOException {
+    var lines = new int[in.readInt()];
+    for (var i = 0; i < lines.length; i++) {
+      lines[i] = in.readInt();
+    }
+    return lines;
+  }
+
+  private static CpdToken[] readCpdTokens(VarLengthInputStream in, String[] strings, @Nullable AnalysisResponseListener listener)
+    throws IOException {
+    var streamed = listener != null && listener.acceptsCpdTokens();
+    var count = in.readInt();
+    List<CpdToken> tokens = new ArrayList<>(streamed ? 0 : count);
+    for (var i = 0; i < count; i++) {
+      var token = new CpdToken();
+      token.location = readLocation(in);
+      token.image = string(strings, in.readInt());
+      if (streamed) {
+        listener.onCpdToken(token);
+      } else {
+        tokens.add(token);
+      }
+    }
+    return tokens.toArray(new CpdToken[0]);
+  }
+
+  private static Location readLocation(VarLengthInputStream in) throws IOException {
+    var location = new Location();
+    location.startLine = in.readInt();
+    location.startCol = in.readInt();
+    location.endLine = location.startLine + in.readInt();
+    location.endCol = in.readInt();
+    return location;
+  }
+
+  private static String string(String[] strings, int index) {
+    if (index < 0 || index >= strings.length) {
+      throw new IllegalStateException("Invalid string index in binary response: " + index);
+    }
+    return strings[index];
+  }
+}
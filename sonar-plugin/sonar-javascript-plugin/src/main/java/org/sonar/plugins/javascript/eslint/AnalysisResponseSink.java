@@ -0,0 +1,137 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponseListener;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.CpdToken;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Location;
+
+/**
+ * Collects the highlighting and the CPD tokens of a file while its analysis response is decoded, in compact arrays of
+ * locations rather than as objects of the response. They are saved by {@link AnalysisProcessor} once the response is
+ * processed. What is written to the cache remains in the response instead: the CPD tokens, and the highlights when the
+ * results of the file are written too.
+ *
+ * The sink is filled by the thread decoding the response, which never touches the sensor API: the highlighting and the
+ * CPD tokens are created and saved on the sensor thread once the response is available.
+ */
+class AnalysisResponseSink implements AnalysisResponseListener {
+
+  private static final TypeOfText[] TYPES_OF_TEXT = TypeOfText.values();
+
+  private final boolean acceptsCpdTokens;
+  private final boolean acceptsHighlights;
+  private final Locations highlights = new Locations();
+  private final Locations cpdTokens = new Locations();
+  private final List<String> cpdImages = new ArrayList<>();
+
+  AnalysisResponseSink(boolean acceptsCpdTokens, boolean acceptsHighlights) {
+    this.acceptsCpdTokens = acceptsCpdTokens;
+    this.acceptsHighlights = acceptsHighlights;
+  }
+
+  @Override
+  public void onHighlight(Highlight highlight) {
+    highlights.add(highlight.location, TypeOfText.valueOf(highlight.textType).ordinal());
+  }
+
+  @Override
+  public void onCpdToken(CpdToken cpdToken) {
+    cpdTokens.add(cpdToken.location, cpdImages.size());
+    cpdImages.add(cpdToken.image);
+  }
+
+  @Override
+  public boolean acceptsCpdTokens() {
+    return acceptsCpdTokens;
+  }
+
+  @Override
+  public boolean acceptsHighlights() {
+    return acceptsHighlights;
+  }
+
+  /**
+   * Saves the highlighting, along with the highlights which were collected in the response rather than handed over.
+   */
+  void saveHighlighting(SensorContext context, InputFile file, Highlight[] responseHighlights) {
+    var highlighting = context.newHighlighting().onFile(file);
+    for (var i = 0; i < highlights.size; i++) {
+      highlighting.highlight(highlights.toTextRange(file, i), TYPES_OF_TEXT[highlights.value(i)]);
+    }
+    for (Highlight highlight : responseHighlights) {
+      highlighting.highlight(highlight.location.toTextRange(file), TypeOfText.valueOf(highlight.textType));
+    }
+    highlighting.save();
+  }
+
+  /**
+   * Saves the CPD tokens, along with the tokens which were collected in the response rather than handed over.
+   */
+  void saveCpdTokens(SensorContext context, InputFile file, CpdToken[] responseTokens) {
+    var newCpdTokens = context.newCpdTokens().onFile(file);
+    for (var i = 0; i < cpdTokens.size; i++) {
+      newCpdTokens.addToken(cpdTokens.toTextRange(file, i), cpdImages.get(cpdTokens.value(i)));
+    }
+    for (CpdToken cpdToken : responseTokens) {
+      newCpdTokens.addToken(cpdToken.location.toTextRange(file), cpdToken.image);
+    }
+    newCpdTokens.save();
+  }
+
+  /**
+   * Growable array of locations, each one along with an int value.
+   */
+  private static class Locations {
+    private static final int STRIDE = 5;
+    private int[] data = new int[16 * STRIDE];
+    private int size;
+
+    void add(Location location, int value) {
+      if ((size + 1) * STRIDE > data.length) {
+        data = Arrays.copyOf(data, data.length * 2);
+      }
+      var offset = size * STRIDE;
+      data[offset] = location.startLine;
+      data[offset + 1] = location.startCol;
+      data[offset + 2] = location.endLine;
+      data[offset + 3] = location.endCol;
+      data[offset + 4] = value;
+      size++;
+    }
+
+    int value(int index) {
+      return data[index * STRIDE + 4];
+    }
+
+    TextRange toTextRange(InputFile file, int index) {
+      var offset = index * STRIDE;
+      return file.newRange(data[offset], data[offset + 1], data[offset + 2], data[offset + 3]);
+    }
+  }
+}
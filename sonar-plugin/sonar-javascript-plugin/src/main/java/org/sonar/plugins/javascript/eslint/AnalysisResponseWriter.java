@@ -0,0 +1,122 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.HighlightedSymbol;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Location;
+import org.sonar.plugins.javascript.eslint.cache.VarLengthOutputStream;
+
+/**
+ * Encodes an {@link AnalysisResponse} with the binary encoding of the bridge, so that the results of an analysis can be
+ * kept in the cache and read again with {@link AnalysisResponseReader#readBinary}.
+ *
+ * CPD tokens and UCFG paths are left out, they are cached on their own.
+ */
+class AnalysisResponseWriter {
+
+  private static final Gson GSON = new Gson();
+
+  private AnalysisResponseWriter() {
+  }
+
+  static byte[] writeBinary(AnalysisResponse response) throws IOException {
+    // the string table comes first, it is complete once highlights are encoded
+    Map<String, Integer> strings = new LinkedHashMap<>();
+    var body = new ByteArrayOutputStream();
+    try (var out = new VarLengthOutputStream(body)) {
+      writeHighlights(out, response.highlights, strings);
+      writeHighlightedSymbols(out, response.highlightedSymbols);
+      writeLines(out, response.metrics.ncloc);
+      writeLines(out, response.metrics.commentLines);
+      writeLines(out, response.metrics.nosonarLines);
+      writeLines(out, response.metrics.executableLines);
+      // CPD tokens
+      out.writeInt(0);
+    }
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new VarLengthOutputStream(bytes)) {
+      bytes.write(AnalysisResponseReader.BINARY_VERSION);
+      out.writeUTF(json(response));
+      out.writeInt(strings.size());
+      for (var string : strings.keySet()) {
+        out.writeUTF(string);
+      }
+    }
+    body.writeTo(bytes);
+    return bytes.toByteArray();
+  }
+
+  private static String json(AnalysisResponse response) {
+    var json = new JsonObject();
+    if (response.parsingError != null) {
+      json.add("parsingError", GSON.toJsonTree(response.parsingError));
+    }
+    json.add("issues", GSON.toJsonTree(response.issues));
+    var metrics = GSON.toJsonTree(response.metrics).getAsJsonObject();
+    // lines are encoded in the binary part
+    metrics.remove("ncloc");
+    metrics.remove("commentLines");
+    metrics.remove("nosonarLines");
+    metrics.remove("executableLines");
+    json.add("metrics", metrics);
+    return GSON.toJson(json);
+  }
+
+  private static void writeHighlights(VarLengthOutputStream out, Highlight[] highlights, Map<String, Integer> strings) throws IOException {
+    out.writeInt(highlights.length);
+    for (var highlight : highlights) {
+      writeLocation(out, highlight.location);
+      out.writeInt(strings.computeIfAbsent(highlight.textType, s -> strings.size()));
+    }
+  }
+
+  private static void writeHighlightedSymbols(VarLengthOutputStream out, HighlightedSymbol[] symbols) throws IOException {
+    out.writeInt(symbols.length);
+    for (var symbol : symbols) {
+      writeLocation(out, symbol.declaration);
+      out.writeInt(symbol.references.length);
+      for (var reference : symbol.references) {
+        writeLocation(out, reference);
+      }
+    }
+  }
+
+  private static void writeLines(VarLengthOutputStream out, int[] lines) throws IOException {
+    out.writeInt(lines.length);
+    for (var line : lines) {
+      out.writeInt(line);
+    }
+  }
+
+  private static void writeLocation(VarLengthOutputStream out, Location location) throws IOException {
+    out.writeInt(location.startLine);
+    out.writeInt(location.startCol);
+    out.writeInt(location.endLine - location.startLine);
+    out.writeInt(location.endCol);
+  }
+}
@@ -20,12 +20,15 @@
 package org.sonar.plugins.javascript.eslint;
 
 import java.io.IOException;
-import java.nio.file.Path;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.scanner.ScannerSide;
@@ -36,8 +39,8 @@ import org.sonar.plugins.javascript.CancellationException;
 import org.sonar.plugins.javascript.TypeScriptLanguage;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgram;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgramRequest;
-import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
 import org.sonar.plugins.javascript.eslint.cache.CacheStrategies;
+import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
 import org.sonar.plugins.javascript.utils.ProgressReport;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 
@@ -50,6 +53,11 @@ public class AnalysisWithProgram {
 
   private static final Logger LOG = Loggers.get(AnalysisWithProgram.class);
   private static final Profiler PROFILER = Profiler.create(LOG);
+
+  /**
+   * Maximum number of files within a program generated for files which are not part of any tsconfig.json.
+   */
+  static final int FALLBACK_PROGRAM_FILES = 1_000;
   private final EslintBridgeServer eslintBridgeServer;
   private final Monitoring monitoring;
   private final AnalysisProcessor processAnalysis;
@@ -76,24 +84,50 @@ public class AnalysisWithProgram {
     if (tsConfigs.isEmpty()) {
       LOG.info("No tsconfig.json file found");
     }
+    CacheStrategies.setLinterConfigDigest(LinterConfigDigest.withTsConfigs(CacheStrategies.getLinterConfigDigest(), tsConfigs));
     progressReport = new ProgressReport(PROGRESS_REPORT_TITLE, PROGRESS_REPORT_PERIOD);
     progressReport.start(inputFiles.size(), inputFiles.iterator().next().absolutePath());
     boolean success = false;
     try {
-      Deque<String> workList = new ArrayDeque<>(tsConfigs);
-      Set<String> analyzedProjects = new HashSet<>();
-      Set<InputFile> analyzedFiles = new HashSet<>();
-      while (!workList.isEmpty()) {
-        var tsConfig = Path.of(workList.pop()).toString();
-        // Use of path.of as it normalizes Unix and Windows paths. Otherwise, project references returned by typescript may not match system slash
-        if (!analyzedProjects.add(tsConfig)) {
-          LOG.debug("tsconfig.json already analyzed: '{}'. Skipping it.", tsConfig);
-          continue;
-        }
-        monitoring.startProgram(tsConfig);
+      var pendingFiles = processCachedFiles(inputFiles);
+      if (pendingFiles.isEmpty()) {
+        LOG.info("All files were restored from the cache, no TypeScript program is created");
+      } else {
+        analyzePrograms(tsConfigs, pendingFiles);
+      }
+      success = true;
+    } finally {
+      if (success) {
+        progressReport.stop();
+      } else {
+        progressReport.cancel();
+      }
+    }
+  }
+
+  private void analyzePrograms(List<String> tsConfigs, Map<InputFile, CacheStrategy> pendingFiles) throws IOException {
+    Set<InputFile> analyzedFiles = new HashSet<>();
+    analyzeScheduledPrograms(tsConfigs, pendingFiles, analyzedFiles);
+    Set<InputFile> skippedFiles = new HashSet<>(pendingFiles.keySet());
+    skippedFiles.removeAll(analyzedFiles);
+    if (!skippedFiles.isEmpty() && contextUtils.fallbackPrograms()) {
+      analyzeScheduledPrograms(createFallbackTsConfigs(skippedFiles), pendingFiles, analyzedFiles);
+      skippedFiles.removeAll(analyzedFiles);
+    }
+    if (!skippedFiles.isEmpty()) {
+      LOG.info("Skipped {} file(s) because they were not part of any tsconfig.json (enable debug logs to see the full list)", skippedFiles.size());
+      skippedFiles.forEach(f -> LOG.debug("File not part of any tsconfig.json: {}", f));
+    }
+  }
+
+  private void analyzeScheduledPrograms(List<String> tsConfigs, Map<InputFile, CacheStrategy> pendingFiles, Set<InputFile> analyzedFiles) throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, tsConfigs, contextUtils.maxPrograms(eslintBridgeServer.getWorkerCount()),
+      contextUtils.programMemoryBudget())) {
+      for (var scheduled = scheduler.next(); scheduled != null; scheduled = scheduler.next()) {
+        var tsConfig = scheduled.tsConfig;
         PROFILER.startInfo("Creating TypeScript program");
         LOG.info("TypeScript configuration file " + tsConfig);
-        var program = eslintBridgeServer.createProgram(new TsProgramRequest(tsConfig));
+        var program = scheduled.program();
         if (program.error != null) {
           LOG.error("Failed to create program: " + program.error);
           PROFILER.stopInfo();
@@ -105,75 +139,151 @@ public class AnalysisWithProgram {
           this.analysisWarnings.addUnique(msg);
         }
         PROFILER.stopInfo();
-        monitoring.stopProgram();
-        analyzeProgram(program, analyzedFiles);
-        workList.addAll(program.projectReferences);
+        monitoring.startProgram(tsConfig);
+        monitoring.stopProgram(program, scheduled.creationTime(), scheduled.waitTime());
+        if (scheduler.exceedsMemoryBudget(program) && splitProgram(scheduler, scheduled, program, pendingFiles, analyzedFiles)) {
+          eslintBridgeServer.deleteProgram(program);
+          continue;
+        }
+        analyzeProgram(program, pendingFiles, analyzedFiles);
         eslintBridgeServer.deleteProgram(program);
       }
-      Set<InputFile> skippedFiles = new HashSet<>(inputFiles);
-      skippedFiles.removeAll(analyzedFiles);
-      if (!skippedFiles.isEmpty()) {
-        LOG.info("Skipped {} file(s) because they were not part of any tsconfig.json (enable debug logs to see the full list)", skippedFiles.size());
-        skippedFiles.forEach(f -> LOG.debug("File not part of any tsconfig.json: {}", f));
+    }
+  }
+
+  /**
+   * Generates lightweight tsconfigs for the files which are not part of any tsconfig.json, each including up to
+   * {@link #FALLBACK_PROGRAM_FILES} files. Files are grouped by path, so that files of the same directory end up in the
+   * same program.
+   */
+  private List<String> createFallbackTsConfigs(Set<InputFile> files) {
+    var sortedFiles = files.stream().sorted(Comparator.comparing(InputFile::absolutePath)).collect(Collectors.toList());
+    List<String> tsConfigs = new ArrayList<>();
+    for (var i = 0; i < sortedFiles.size(); i += FALLBACK_PROGRAM_FILES) {
+      var group = sortedFiles.subList(i, Math.min(sortedFiles.size(), i + FALLBACK_PROGRAM_FILES));
+      try {
+        tsConfigs.add(eslintBridgeServer.createTsConfigFile(TsConfigProvider.fallbackTsConfig(group)).filename);
+      } catch (IOException e) {
+        LOG.warn("Generating tsconfig.json for files not part of any tsconfig.json failed", e);
       }
-      success = true;
-    } finally {
-      if (success) {
-        progressReport.stop();
-      } else {
-        progressReport.cancel();
+    }
+    LOG.info("Analyzing {} file(s) not part of any tsconfig.json with {} generated tsconfig.json file(s)", files.size(), tsConfigs.size());
+    return tsConfigs;
+  }
+
+  /**
+   * Replaces a program exceeding the memory budget with two smaller programs including the files which remain to be
+   * analyzed, as long as the scheduler allows it.
+   *
+   * @return true when the program was split and must not be analyzed
+   */
+  private boolean splitProgram(ProgramScheduler scheduler, ProgramScheduler.ScheduledProgram scheduled, TsProgram program,
+    Map<InputFile, CacheStrategy> pendingFiles, Set<InputFile> analyzedFiles) {
+    var files = new ArrayList<String>();
+    for (var file : program.files) {
+      var inputFile = typeScriptInputFile(file);
+      if (inputFile != null && pendingFiles.containsKey(inputFile) && !analyzedFiles.contains(inputFile)) {
+        files.add(file);
+      }
+    }
+    try {
+      if (!scheduler.split(scheduled, program, files)) {
+        return false;
       }
+    } catch (IOException e) {
+      LOG.warn("Failed to split TypeScript program of " + scheduled.tsConfig + ", it is analyzed as is", e);
+      return false;
     }
+    LOG.info("TypeScript program of {} exceeds the memory budget of the bridge, its {} file(s) are split over two programs. " +
+      "Consider increasing the memory of the bridge with property sonar.javascript.node.maxspace", scheduled.tsConfig, files.size());
+    return true;
   }
 
-  private void analyzeProgram(TsProgram program, Set<InputFile> analyzedFiles) throws IOException {
-    LOG.info("Starting analysis with current program");
+  @Nullable
+  private InputFile typeScriptInputFile(String file) {
     var fs = context.fileSystem();
-    var counter = 0;
-    for (var file : program.files) {
-      var inputFile = fs.inputFile(fs.predicates().and(
-        fs.predicates().hasAbsolutePath(file),
-        // we need to check the language, because project might contain files which were already analyzed with JS sensor
-        // this should be removed once we unify the two sensors
-        fs.predicates().hasLanguage(TypeScriptLanguage.KEY)));
-      if (inputFile == null) {
-        LOG.debug("File not part of the project: '{}'", file);
-        continue;
+    return fs.inputFile(fs.predicates().and(
+      fs.predicates().hasAbsolutePath(file),
+      // we need to check the language, because project might contain files which were already analyzed with JS sensor
+      // this should be removed once we unify the two sensors
+      fs.predicates().hasLanguage(TypeScriptLanguage.KEY)));
+  }
+
+  /**
+   * Files whose analysis is in the cache don't need to be part of a program, their results are saved right away.
+   *
+   * @return the cache strategies of the files which remain to be analyzed
+   */
+  private Map<InputFile, CacheStrategy> processCachedFiles(List<InputFile> inputFiles) throws IOException {
+    Map<InputFile, CacheStrategy> pendingFiles = new HashMap<>();
+    for (var entry : CacheStrategies.getStrategiesFor(context, inputFiles).entrySet()) {
+      if (context.isCancelled()) {
+        throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
       }
-      if (analyzedFiles.add(inputFile)) {
-        analyze(inputFile, program);
-        counter++;
+      var file = entry.getKey();
+      var cacheStrategy = entry.getValue();
+      if (cacheStrategy.isAnalysisRequired()) {
+        pendingFiles.put(file, cacheStrategy);
       } else {
-        LOG.debug("File already analyzed: '{}'. Check your project configuration to avoid files being part of multiple projects.", file);
+        LOG.debug("Processing cache analysis of file: {}", file.uri());
+        monitoring.startFile(file);
+        processAnalysis.processCacheAnalysis(context, checks, file, cacheStrategy.readAnalysisFromCache());
       }
     }
+    return pendingFiles;
+  }
+
+  private void analyzeProgram(TsProgram program, Map<InputFile, CacheStrategy> pendingFiles, Set<InputFile> analyzedFiles) throws IOException {
+    LOG.info("Starting analysis with current program");
+    var counter = 0;
+    // programs live on a single worker, all requests must be completed before the program is deleted
+    try (var dispatcher = new AnalysisDispatcher(monitoring, Math.min(1, eslintBridgeServer.getWorkerCount()))) {
+      for (var file : program.files) {
+        var inputFile = typeScriptInputFile(file);
+        if (inputFile == null) {
+          LOG.debug("File not part of the project: '{}'", file);
+          continue;
+        }
+        var cacheStrategy = pendingFiles.get(inputFile);
+        if (cacheStrategy == null) {
+          LOG.debug("File already processed from the cache: '{}'", file);
+          continue;
+        }
+        if (analyzedFiles.add(inputFile)) {
+          analyze(inputFile, cacheStrategy, program, dispatcher);
+          counter++;
+        } else {
+          LOG.debug("File already analyzed: '{}'. Check your project configuration to avoid files being part of multiple projects.", file);
+        }
+      }
+      dispatcher.awaitCompletion();
+    }
 
     LOG.info("Analyzed {} file(s) with current program", counter);
   }
 
-  private void analyze(InputFile file, TsProgram tsProgram) throws IOException {
+  private void analyze(InputFile file, CacheStrategy cacheStrategy, TsProgram tsProgram, AnalysisDispatcher dispatcher) throws IOException {
     if (context.isCancelled()) {
       throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
     }
-    var cacheStrategy = CacheStrategies.getStrategyFor(context, file);
-    if (cacheStrategy.isAnalysisRequired()) {
-      try {
-        LOG.debug("Analyzing file: {}", file.uri());
-        progressReport.nextFile(file.absolutePath());
-        monitoring.startFile(file);
-        EslintBridgeServer.JsAnalysisRequest request = new EslintBridgeServer.JsAnalysisRequest(file.absolutePath(),
-          file.type().toString(), null, contextUtils.ignoreHeaderComments(), null, tsProgram.programId, analysisMode.getLinterIdFor(file));
-        EslintBridgeServer.AnalysisResponse response = eslintBridgeServer.analyzeWithProgram(request);
-        processAnalysis.processResponse(context, checks, file, response);
-        cacheStrategy.writeAnalysisToCache(CacheAnalysis.fromResponse(response.ucfgPaths, response.cpdTokens), file);
-      } catch (IOException e) {
-        LOG.error("Failed to get response while analyzing " + file, e);
-        throw e;
-      }
-    } else {
-      LOG.debug("Processing cache analysis of file: {}", file.uri());
-      var cacheAnalysis = cacheStrategy.readAnalysisFromCache();
-      processAnalysis.processCacheAnalysis(context, file, cacheAnalysis);
+    LOG.debug("Analyzing file: {}", file.uri());
+    progressReport.nextFile(file.absolutePath());
+    EslintBridgeServer.JsAnalysisRequest request = new EslintBridgeServer.JsAnalysisRequest(file.absolutePath(),
+      file.type().toString(), null, contextUtils.ignoreHeaderComments(), null, tsProgram.programId, analysisMode.getLinterIdFor(file));
+    var sink = processAnalysis.newResponseSink(context, file, cacheStrategy, request);
+    dispatcher.submit(file, () -> analyzeWithProgram(file, request),
+      () -> eslintBridgeServer.analyzeWithProgramAsync(request, sink), response -> {
+      processAnalysis.processResponse(context, checks, file, response, sink);
+      processAnalysis.writeToCache(context, cacheStrategy, file, request, response);
+    });
+  }
+
+  private EslintBridgeServer.AnalysisResponse analyzeWithProgram(InputFile file, EslintBridgeServer.JsAnalysisRequest request) throws IOException {
+    try {
+      return eslintBridgeServer.analyzeWithProgram(request);
+    } catch (IOException e) {
+      LOG.error("Failed to get response while analyzing " + file, e);
+      throw e;
     }
   }
 
@@ -0,0 +1,158 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * A slot for a persistent eslint-bridge process, which outlives the analysis that started it so that the next
+ * analyses can attach to a warm Node.js process instead of paying for its startup and for loading the rules again.
+ *
+ * Daemons are grouped in a directory of the user home keyed by everything the Node.js process depends on: plugin
+ * version, bundles and startup arguments. Each slot is guarded by a file lock held for the whole analysis, as the
+ * bridge keeps per-analysis state (linters, TypeScript programs); concurrent analyses use different slots. The slot
+ * records the address of its process, which shuts down by itself once idle for long enough.
+ */
+class BridgeDaemon {
+
+  private static final Logger LOG = Loggers.get(BridgeDaemon.class);
+
+  private static final String DAEMONS_LOCATION = "js/eslint-bridge-daemon";
+  private static final int KEY_LENGTH = 16;
+
+  private final Path directory;
+  private final int slot;
+  private final FileLock lock;
+
+  private BridgeDaemon(Path directory, int slot, FileLock lock) {
+    this.directory = directory;
+    this.slot = slot;
+    this.lock = lock;
+  }
+
+  /**
+   * The directory holding the daemons, which is shared by all the analyses of the user.
+   */
+  static Path home(Path userHome) {
+    return userHome.resolve(DAEMONS_LOCATION);
+  }
+
+  /**
+   * Digests the values a Node.js process depends on, daemons can only be shared when they have the same key.
+   */
+  static String key(String... values) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      for (String value : values) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+      }
+      var key = new StringBuilder();
+      for (byte b : digest.digest()) {
+        key.append(String.format("%02x", b));
+      }
+      return key.substring(0, KEY_LENGTH);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Locks the first free slot of the directory, unless all the slots are used by other analyses.
+   */
+  static Optional<BridgeDaemon> acquire(Path directory, int maxSlots) throws IOException {
+    Files.createDirectories(directory);
+    for (int slot = 0; slot < maxSlots; slot++) {
+      var channel = FileChannel.open(directory.resolve("slot-" + slot + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock lock = null;
+      try {
+        lock = channel.tryLock();
+      } catch (OverlappingFileLockException e) {
+        // the slot is used by another analysis of this JVM
+      } catch (IOException e) {
+        channel.close();
+        throw e;
+      }
+      if (lock != null) {
+        LOG.debug("Acquired eslint-bridge daemon slot {} in {}", slot, directory);
+        return Optional.of(new BridgeDaemon(directory, slot, lock));
+      }
+      channel.close();
+    }
+    LOG.debug("No free eslint-bridge daemon slot in {}", directory);
+    return Optional.empty();
+  }
+
+  /**
+   * The Unix domain socket the process of this slot listens to, when sockets are used.
+   */
+  Path socket() {
+    return directory.resolve("slot-" + slot + ".sock");
+  }
+
+  /**
+   * The address of the process last started in this slot, which may not be running anymore.
+   */
+  Optional<String> address() {
+    var file = addressFile();
+    try {
+      return Files.exists(file) ? Optional.of(Files.readString(file, StandardCharsets.UTF_8).trim()) : Optional.empty();
+    } catch (IOException e) {
+      LOG.debug("Failed to read eslint-bridge daemon address from " + file, e);
+      return Optional.empty();
+    }
+  }
+
+  void record(String address) throws IOException {
+    Files.writeString(addressFile(), address, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Frees the slot for the next analysis, the process itself keeps running.
+   */
+  void release() {
+    try (var channel = lock.channel()) {
+      lock.release();
+    } catch (IOException e) {
+      LOG.debug("Failed to release eslint-bridge daemon slot " + slot, e);
+    }
+  }
+
+  private Path addressFile() {
+    return directory.resolve("slot-" + slot + ".address");
+  }
+
+  @Override
+  public String toString() {
+    return "slot " + slot + " in " + directory;
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nullable;
+
+/**
+ * The channel used to send requests to an eslint-bridge worker.
+ *
+ * Whatever the channel, requests and responses keep the shape of the bridge REST API: an endpoint, a JSON body, and
+ * a response whose content type tells how to decode it.
+ */
+interface BridgeTransport {
+
+  /**
+   * The address the Node.js process must listen to, passed as the first argument of the bridge script.
+   */
+  String address();
+
+  Response post(String endpoint, String json, Duration timeout) throws IOException, InterruptedException;
+
+  CompletableFuture<Response> postAsync(String endpoint, String json, Duration timeout);
+
+  Response get(String endpoint) throws IOException, InterruptedException;
+
+  /**
+   * Releases the resources of the transport once the worker is stopped.
+   */
+  void close();
+
+  class Response {
+    private final String contentType;
+    private final InputStream body;
+
+    Response(@Nullable String contentType, InputStream body) {
+      this.contentType = contentType;
+      this.body = body;
+    }
+
+    @Nullable
+    String contentType() {
+      return contentType;
+    }
+
+    InputStream body() {
+      return body;
+    }
+
+    String bodyAsString() throws IOException {
+      try (var input = body) {
+        return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+      }
+    }
+  }
+}
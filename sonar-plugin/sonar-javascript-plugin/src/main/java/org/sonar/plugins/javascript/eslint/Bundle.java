@@ -27,5 +27,10 @@ interface Bundle extends BundlePathResolver {
 
   void deploy(Path deployLocation) throws IOException;
 
+  /**
+   * Identifies the content of the bundle, which doesn't need to be deployed.
+   */
+  String checksum() throws IOException;
+
   String startServerScript();
 }
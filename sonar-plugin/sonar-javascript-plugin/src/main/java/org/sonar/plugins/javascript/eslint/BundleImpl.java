@@ -21,6 +21,7 @@ package org.sonar.plugins.javascript.eslint;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import org.sonar.api.scanner.ScannerSide;
 import org.sonar.api.utils.log.Logger;
@@ -40,8 +41,11 @@ public class BundleImpl implements Bundle {
   // this archive is created in eslint-bridge module
   private static final String BUNDLE_LOCATION = "/sonarjs-1.0.0.tgz";
   private static final String DEFAULT_STARTUP_SCRIPT = "package/bin/server";
+  // written once the bundle is fully extracted, so that a deployment location can be reused
+  private static final String DEPLOYED_MARKER = ".deployed";
   private Path deployLocation;
   private final String bundleLocation;
+  private String checksum;
 
   public BundleImpl() {
     this(BUNDLE_LOCATION);
@@ -53,15 +57,34 @@ public class BundleImpl implements Bundle {
 
   @Override
   public void deploy(Path deployLocation) throws IOException {
+    var marker = deployLocation.resolve(DEPLOYED_MARKER);
+    if (Files.exists(marker)) {
+      LOG.debug("eslint-bridge is already deployed in {}", deployLocation);
+      this.deployLocation = deployLocation;
+      return;
+    }
     PROFILER.startDebug("Deploying bundle");
     LOG.debug("Deploying eslint-bridge into {}", deployLocation);
+    BundleUtils.extractFromClasspath(bundle(), deployLocation);
+    Files.createFile(marker);
+    this.deployLocation = deployLocation;
+    PROFILER.stopDebug();
+  }
+
+  @Override
+  public synchronized String checksum() throws IOException {
+    if (checksum == null) {
+      checksum = BundleUtils.checksum(bundle());
+    }
+    return checksum;
+  }
+
+  private InputStream bundle() {
     InputStream bundle = getClass().getResourceAsStream(bundleLocation);
     if (bundle == null) {
       throw new IllegalStateException("eslint-bridge not found in plugin jar");
     }
-    BundleUtils.extractFromClasspath(bundle, deployLocation);
-    this.deployLocation = deployLocation;
-    PROFILER.stopDebug();
+    return bundle;
   }
 
   @Override
@@ -25,6 +25,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
 import java.util.Objects;
 import java.util.zip.GZIPInputStream;
 import org.apache.commons.compress.archivers.ArchiveEntry;
@@ -61,6 +66,62 @@ class BundleUtils {
     }
   }
 
+  /**
+   * Deploys a bundle in a cache shared by analyses, in a directory named after the checksum of the bundle, unless it
+   * is already there. The bundle is deployed in a temporary directory which is renamed once complete, so that a
+   * directory of the cache is always fully deployed, even when concurrent analyses deploy the same bundle.
+   *
+   * @return the directory where the bundle is deployed
+   */
+  static Path deployToCache(Path cache, String checksum, Deployment deployment) throws IOException {
+    Path target = cache.resolve(checksum);
+    if (Files.isDirectory(target)) {
+      return target;
+    }
+    Files.createDirectories(cache);
+    Path temp = Files.createTempDirectory(cache, checksum + ".tmp");
+    try {
+      deployment.deploy(temp);
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      delete(temp);
+      if (!Files.isDirectory(target)) {
+        throw e;
+      }
+      // deployed meanwhile by a concurrent analysis
+    }
+    return target;
+  }
+
+  private static void delete(Path directory) throws IOException {
+    try (var paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.deleteIfExists(path);
+      }
+    }
+  }
+
+  /**
+   * Computes the SHA-256 hex digest of a bundle, which identifies its content.
+   */
+  static String checksum(InputStream resource) throws IOException {
+    Objects.requireNonNull(resource);
+    try (var stream = new DigestInputStream(resource, MessageDigest.getInstance("SHA-256"))) {
+      stream.transferTo(OutputStream.nullOutputStream());
+      var checksum = new StringBuilder();
+      for (byte b : stream.getMessageDigest().digest()) {
+        checksum.append(String.format("%02x", b));
+      }
+      return checksum.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  interface Deployment {
+    void deploy(Path location) throws IOException;
+  }
+
   private static Path entryPath(Path targetPath, ArchiveEntry entry) {
     Path entryPath = targetPath.resolve(entry.getName()).normalize();
     if (!entryPath.startsWith(targetPath)) {
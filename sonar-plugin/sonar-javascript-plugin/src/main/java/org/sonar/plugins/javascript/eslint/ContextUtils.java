@@ -27,6 +27,22 @@ import org.sonar.plugins.javascript.JavaScriptPlugin;
 
 class ContextUtils {
 
+  // internal property to set the number of JavaScript / TypeScript files analyzed within a single request
+  static final String ANALYSIS_BATCH_SIZE = "sonar.javascript.analysis.batchSize";
+
+  // internal property to bound the TypeScript programs alive at once in the bridge, they dominate its memory
+  static final String MAX_PROGRAMS = "sonar.javascript.analysis.maxPrograms";
+
+  // internal property to set the share of the bridge heap, in percent, above which TypeScript programs are split, there
+  // is no budget when it is not set, and the bridge is only started with --expose-gc when it is
+  static final String PROGRAM_MEMORY_BUDGET = "sonar.javascript.analysis.programMemoryBudget";
+
+  // internal property to analyze the files which are not part of any tsconfig.json with generated lightweight programs
+  static final String FALLBACK_PROGRAMS = "sonar.javascript.analysis.fallbackPrograms";
+
+  // internal property to write to the cache the results of analyses relying on type information, which may be stale
+  static final String CACHE_TYPE_AWARE_RESULTS = "sonar.javascript.cache.typeAwareResults";
+
   private final SensorContext context;
 
   ContextUtils(SensorContext context) {
@@ -50,6 +66,29 @@ class ContextUtils {
     return isSonarLint() || !StandardCharsets.UTF_8.equals(file.charset());
   }
 
+  int analysisBatchSize() {
+    return context.config().getInt(ANALYSIS_BATCH_SIZE).orElse(1);
+  }
+
+  /**
+   * By default, the workers of the bridge hold one program each.
+   */
+  int maxPrograms(int workerCount) {
+    return Math.max(1, context.config().getInt(MAX_PROGRAMS).orElse(workerCount));
+  }
+
+  int programMemoryBudget() {
+    return context.config().getInt(PROGRAM_MEMORY_BUDGET).orElse(ProgramScheduler.DEFAULT_MEMORY_BUDGET);
+  }
+
+  boolean fallbackPrograms() {
+    return context.config().getBoolean(FALLBACK_PROGRAMS).orElse(false);
+  }
+
+  boolean cacheTypeAwareResults() {
+    return context.config().getBoolean(CACHE_TYPE_AWARE_RESULTS).orElse(false);
+  }
+
   boolean failFast() {
     return context.config().getBoolean("sonar.internal.analysis.failFast").orElse(false);
   }
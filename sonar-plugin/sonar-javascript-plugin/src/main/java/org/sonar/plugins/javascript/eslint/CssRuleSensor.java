@@ -95,19 +95,20 @@ public class CssRuleSensor extends AbstractEslintSensor {
     boolean success = false;
     List<StylelintRule> rules = cssRules.getStylelintRules();
 
-    try {
+    try (var dispatcher = new AnalysisDispatcher(null, eslintBridgeServer.getWorkerCount())) {
       progressReport.start(inputFiles.size(), inputFiles.iterator().next().absolutePath());
       for (InputFile inputFile : inputFiles) {
         if (context.isCancelled()) {
           throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
         }
-        if (!eslintBridgeServer.isAlive()) {
+        if (!eslintBridgeServer.isAliveCached()) {
           throw new IllegalStateException("eslint-bridge server is not answering");
         }
 
-        analyzeFile(inputFile, context, rules);
+        analyzeFile(inputFile, context, rules, dispatcher);
         progressReport.nextFile(inputFile.absolutePath());
       }
+      dispatcher.awaitCompletion();
       success = true;
 
     } finally {
@@ -120,6 +121,14 @@ public class CssRuleSensor extends AbstractEslintSensor {
   }
 
   void analyzeFile(InputFile inputFile, SensorContext context, List<StylelintRule> rules) {
+    // without any worker, the file is analyzed inline
+    try (var dispatcher = new AnalysisDispatcher(null, 0)) {
+      analyzeFile(inputFile, context, rules, dispatcher);
+    }
+  }
+
+  private void analyzeFile(InputFile inputFile, SensorContext context, List<StylelintRule> rules, AnalysisDispatcher dispatcher) {
+    EslintBridgeServer.CssAnalysisRequest request;
     try {
       URI uri = inputFile.uri();
       if (!"file".equalsIgnoreCase(uri.getScheme())) {
@@ -128,11 +137,30 @@ public class CssRuleSensor extends AbstractEslintSensor {
       }
       LOG.debug("Analyzing file: {}", uri);
       String fileContent = contextUtils.shouldSendFileContent(inputFile) ? inputFile.contents() : null;
-      EslintBridgeServer.CssAnalysisRequest request = new EslintBridgeServer.CssAnalysisRequest(new File(uri).getAbsolutePath(), fileContent, rules);
-      EslintBridgeServer.AnalysisResponse analysisResponse = eslintBridgeServer.analyzeCss(request);
+      request = new EslintBridgeServer.CssAnalysisRequest(new File(uri).getAbsolutePath(), fileContent, rules);
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalStateException("Failure during analysis of " + inputFile.uri(), e);
+    }
+    try {
+      dispatcher.submit(inputFile, () -> analyzeCss(inputFile, request), analysisResponse -> saveIssues(context, inputFile, analysisResponse));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failure during analysis of " + inputFile.uri(), e);
+    }
+  }
+
+  private EslintBridgeServer.AnalysisResponse analyzeCss(InputFile inputFile, EslintBridgeServer.CssAnalysisRequest request) {
+    try {
+      return eslintBridgeServer.analyzeCss(request);
+    } catch (IOException | RuntimeException e) {
+      throw new IllegalStateException("Failure during analysis of " + inputFile.uri(), e);
+    }
+  }
+
+  private void saveIssues(SensorContext context, InputFile inputFile, EslintBridgeServer.AnalysisResponse analysisResponse) {
+    try {
       LOG.debug("Found {} issue(s)", analysisResponse.issues.size());
       saveIssues(context, inputFile, analysisResponse.issues);
-    } catch (IOException | RuntimeException e) {
+    } catch (RuntimeException e) {
       throw new IllegalStateException("Failure during analysis of " + inputFile.uri(), e);
     }
   }
@@ -21,6 +21,7 @@ package org.sonar.plugins.javascript.eslint;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nullable;
 import org.sonar.api.Startable;
 import org.sonar.api.batch.fs.InputFile;
@@ -45,6 +46,38 @@ public interface EslintBridgeServer extends Startable {
 
   AnalysisResponse analyzeWithProgram(JsAnalysisRequest request) throws IOException;
 
+  /**
+   * Same as {@link #analyzeJavaScript(JsAnalysisRequest)}, without waiting for the response. Failures are reported
+   * by the returned future. When a listener is given, highlights and CPD tokens are handed over to it while the
+   * response is decoded, instead of being collected in the response.
+   */
+  CompletableFuture<AnalysisResponse> analyzeJavaScriptAsync(JsAnalysisRequest request, @Nullable AnalysisResponseListener listener);
+
+  /**
+   * Same as {@link #analyzeTypeScript(JsAnalysisRequest)}, without waiting for the response.
+   *
+   * @see #analyzeJavaScriptAsync(JsAnalysisRequest, AnalysisResponseListener)
+   */
+  CompletableFuture<AnalysisResponse> analyzeTypeScriptAsync(JsAnalysisRequest request, @Nullable AnalysisResponseListener listener);
+
+  /**
+   * Same as {@link #analyzeWithProgram(JsAnalysisRequest)}, without waiting for the response.
+   *
+   * @see #analyzeJavaScriptAsync(JsAnalysisRequest, AnalysisResponseListener)
+   */
+  CompletableFuture<AnalysisResponse> analyzeWithProgramAsync(JsAnalysisRequest request, @Nullable AnalysisResponseListener listener);
+
+  /**
+   * Analyzes several JavaScript or TypeScript files with a single request. Responses are in the order of the
+   * analysis requests of the batch.
+   */
+  List<AnalysisResponse> analyzeBatch(BatchAnalysisRequest request) throws IOException;
+
+  /**
+   * Same as {@link #analyzeBatch(BatchAnalysisRequest)}, without waiting for the responses.
+   */
+  CompletableFuture<List<AnalysisResponse>> analyzeBatchAsync(BatchAnalysisRequest request);
+
   AnalysisResponse analyzeCss(CssAnalysisRequest request) throws IOException;
 
   AnalysisResponse analyzeYaml(JsAnalysisRequest request) throws IOException;
@@ -57,6 +90,16 @@ public interface EslintBridgeServer extends Startable {
 
   boolean isAlive();
 
+  /**
+   * Cheap view of the liveness of the server, which can be checked before every file as it doesn't send any request.
+   */
+  boolean isAliveCached();
+
+  /**
+   * Number of Node.js processes serving requests, i.e. how many analysis requests can be processed concurrently.
+   */
+  int getWorkerCount();
+
   boolean newTsConfig();
 
   TsConfigFile loadTsConfig(String tsConfigAbsolutePath);
@@ -86,6 +129,48 @@ public interface EslintBridgeServer extends Startable {
       this.programId = programId;
       this.linterId = linterId;
     }
+
+    /**
+     * Whether the analysis relies on type information, which depends on the files the analyzed file imports.
+     */
+    boolean isTypeAware() {
+      return programId != null || (tsConfigs != null && !tsConfigs.isEmpty());
+    }
+  }
+
+  /**
+   * Receives the largest parts of an analysis response while it is decoded. It is called from the thread decoding
+   * the response, which is not necessarily the sensor thread.
+   */
+  interface AnalysisResponseListener {
+    void onHighlight(Highlight highlight);
+
+    void onCpdToken(CpdToken cpdToken);
+
+    /**
+     * Whether CPD tokens are handed over to the listener, otherwise they are collected in the response.
+     */
+    boolean acceptsCpdTokens();
+
+    /**
+     * Whether highlights are handed over to the listener, otherwise they are collected in the response.
+     */
+    default boolean acceptsHighlights() {
+      return true;
+    }
+  }
+
+  class BatchAnalysisRequest {
+    static final String JAVASCRIPT = "js";
+    static final String TYPESCRIPT = "ts";
+
+    final String language;
+    final List<JsAnalysisRequest> requests;
+
+    BatchAnalysisRequest(String language, List<JsAnalysisRequest> requests) {
+      this.language = language;
+      this.requests = requests;
+    }
   }
 
   class CssAnalysisRequest {
@@ -266,6 +351,13 @@ public interface EslintBridgeServer extends Startable {
     final List<String> projectReferences;
     final String error;
     final boolean missingTsConfig;
+    // source files parsed while creating the program, or reused from the other programs of the bridge
+    int parsedFiles;
+    int reusedFiles;
+    long parseTime;
+    // heap used by the bridge once the program is created, and its limit, in bytes
+    long heapUsed;
+    long heapLimit;
 
     TsProgram(@Nullable String programId, @Nullable List<String> files, @Nullable List<String> projectReferences, boolean missingTsConfig, @Nullable String error) {
       this.programId = programId;
@@ -287,6 +379,16 @@ public interface EslintBridgeServer extends Startable {
       this(null, null, null, false, error);
     }
 
+    TsProgram withProgramId(String programId) {
+      var program = new TsProgram(programId, files, projectReferences, missingTsConfig, error);
+      program.parsedFiles = parsedFiles;
+      program.reusedFiles = reusedFiles;
+      program.parseTime = parseTime;
+      program.heapUsed = heapUsed;
+      program.heapLimit = heapLimit;
+      return program;
+    }
+
     @Override
     public String toString() {
       if (error == null) {
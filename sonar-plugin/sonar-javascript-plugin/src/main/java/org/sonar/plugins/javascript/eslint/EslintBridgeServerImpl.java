@@ -20,40 +20,58 @@
 package org.sonar.plugins.javascript.eslint;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.InetAddress;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
 import org.sonar.plugins.javascript.nodejs.NodeCommand;
 import org.sonar.plugins.javascript.nodejs.NodeCommandBuilder;
+import org.sonar.plugins.javascript.nodejs.NodeCommandBuilderImpl;
 import org.sonar.plugins.javascript.nodejs.NodeCommandException;
 
 import static java.util.Collections.emptyList;
-import static org.sonar.plugins.javascript.eslint.NetUtils.findOpenPort;
+import static java.util.Comparator.comparingInt;
 
 public class EslintBridgeServerImpl implements EslintBridgeServer {
 
@@ -69,19 +87,37 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
   private static final int DEFAULT_TIMEOUT_SECONDS = 5 * 60;
   // internal property to set "--max-old-space-size" for Node process running this server
   private static final String MAX_OLD_SPACE_SIZE_PROPERTY = "sonar.javascript.node.maxspace";
+  // internal property to set the number of Node processes running this server
+  private static final String WORKERS_PROPERTY = "sonar.javascript.node.workers";
+  // internal property to disable the binary encoding of analysis responses
+  private static final String BINARY_PROTOCOL_PROPERTY = "sonar.javascript.node.binaryProtocol";
+  // internal property to talk to the Node processes over loopback HTTP instead of Unix domain sockets
+  private static final String UNIX_SOCKET_PROPERTY = "sonar.javascript.node.unixSocket";
+  // internal property to keep the Node processes running between analyses, so that next analyses attach to them
+  private static final String DAEMON_PROPERTY = "sonar.javascript.node.daemon";
+  // internal property to set the time in seconds after which an unused daemon shuts down
+  private static final String DAEMON_IDLE_TIMEOUT_PROPERTY = "sonar.javascript.node.daemon.idleTimeout";
+  private static final int DEFAULT_DAEMON_IDLE_TIMEOUT_SECONDS = 10 * 60;
+  // maximum number of daemons with the same key, i.e. of workers of concurrent analyses of a project
+  private static final int MAX_DAEMONS = 16;
   private static final String ALLOW_TS_PARSER_JS_FILES = "sonar.javascript.allowTsParserJsFiles";
   private static final Gson GSON = new Gson();
 
   private static final String DEPLOY_LOCATION = "eslint-bridge-bundle";
+  // bundles deployed in the user home, where they are reused by next analyses
+  private static final String BUNDLES_CACHE_LOCATION = "js/bundles";
 
   private final HttpClient client;
   private final NodeCommandBuilder nodeCommandBuilder;
   private final int timeoutSeconds;
   private final Bundle bundle;
   private final String hostAddress;
-  private int port;
-  private NodeCommand nodeCommand;
+  private final List<BridgeWorker> workers = new CopyOnWriteArrayList<>();
+  // programs created on other workers than the primary one, by the identifier handed over to the sensors
+  private final Map<String, ProgramOwner> programOwners = new ConcurrentHashMap<>();
   private Status status = Status.NOT_STARTED;
+  // last known liveness of the workers, see isAliveCached()
+  private volatile boolean alive;
   private final RulesBundles rulesBundles;
   private final NodeDeprecationWarning deprecationWarning;
   private final Path deployLocation;
@@ -130,8 +166,11 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
   }
 
   void startServer(SensorContext context, List<Path> deployedBundles) throws IOException {
+    startServer(context, deployedBundles, null);
+  }
+
+  private void startServer(SensorContext context, List<Path> deployedBundles, @Nullable Path daemons) throws IOException {
     PROFILER.startDebug("Starting server");
-    port = findOpenPort();
 
     File scriptFile = new File(bundle.startServerScript());
     if (!scriptFile.exists()) {
@@ -139,66 +178,228 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
     }
 
     String bundles = deployedBundles.stream().map(Path::toString).collect(Collectors.joining(File.pathSeparator));
-    initNodeCommand(context, scriptFile, context.fileSystem().workDir(), bundles);
-
-    LOG.debug("Starting Node.js process to start eslint-bridge server at port " + port);
-    nodeCommand.start();
+    int workerCount = Math.max(1, context.config().getInt(WORKERS_PROPERTY).orElse(1));
+    boolean unixSocket = context.config().getBoolean(UNIX_SOCKET_PROPERTY).orElse(true);
+    List<StartingWorker> startingWorkers = new ArrayList<>();
+    for (int i = 0; i < workerCount; i++) {
+      Optional<BridgeDaemon> daemon = daemons == null ? Optional.empty() : BridgeDaemon.acquire(daemons, MAX_DAEMONS);
+      try {
+        Optional<BridgeWorker> attached = daemon.isPresent() ? attachDaemon(context, scriptFile, bundles, daemon.get()) : Optional.empty();
+        if (attached.isPresent()) {
+          workers.add(attached.get());
+        } else {
+          startingWorkers.add(startWorker(context, scriptFile, bundles, unixSocket, daemon.orElse(null)));
+        }
+      } catch (IOException | RuntimeException e) {
+        daemon.ifPresent(BridgeDaemon::release);
+        stopStartingWorkers(startingWorkers);
+        stopWorkers();
+        throw e;
+      }
+    }
 
-    if (!waitServerToStart(timeoutSeconds * 1000)) {
+    if (!waitServerToStart(startingWorkers, timeoutSeconds * 1000)) {
+      stopWorkers();
       status = Status.FAILED;
       throw new NodeCommandException("Failed to start server (" + timeoutSeconds + "s timeout)");
     } else {
       status = Status.STARTED;
+      alive = true;
+      if (context.config().getBoolean(BINARY_PROTOCOL_PROPERTY).orElse(true)) {
+        negotiateBinaryProtocol();
+      }
       if (heartbeatFuture == null) {
         LOG.trace("Starting heartbeat service");
         heartbeatFuture = heartbeatService.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
       }
     }
     PROFILER.stopDebug();
-    deprecationWarning.logNodeDeprecation(nodeCommand.getActualNodeVersion().major());
+    deprecationWarning.logNodeDeprecation(primaryWorker().nodeCommand.getActualNodeVersion().major());
+  }
+
+  /**
+   * Starts the Node.js process of a worker. Without a Unix domain socket, the process listens to a port picked by the
+   * system, which it tells once it is ready. A daemon keeps running after the analysis.
+   */
+  private StartingWorker startWorker(SensorContext context, File scriptFile, String bundles,
+                                     boolean unixSocket, @Nullable BridgeDaemon daemon) throws IOException {
+    BridgeTransport transport = newTransport(unixSocket, daemon).orElse(null);
+    String idleTimeout = null;
+    if (daemon != null) {
+      var seconds = context.config().getInt(DAEMON_IDLE_TIMEOUT_PROPERTY).orElse(DEFAULT_DAEMON_IDLE_TIMEOUT_SECONDS);
+      idleTimeout = String.valueOf(TimeUnit.SECONDS.toMillis(seconds));
+    }
+    var ready = new CompletableFuture<String>();
+    NodeCommand nodeCommand = initNodeCommand(context, scriptFile, bundles, transport == null ? "0" : transport.address(),
+      idleTimeout, ready);
+    LOG.debug("Starting Node.js process to start eslint-bridge " + (daemon == null ? "server" : "daemon") + " at " +
+      (transport == null ? "a free port" : transport));
+    nodeCommand.start();
+    nodeCommand.onExit().thenAccept(exitValue -> ready.completeExceptionally(
+      new IllegalStateException("Node.js process exited with " + exitValue + " before eslint-bridge server was ready")));
+    return new StartingWorker(transport, nodeCommand, daemon, ready);
   }
 
-  boolean waitServerToStart(int timeoutMs) {
-    int sleepStep = 100;
-    long start = System.currentTimeMillis();
+  /**
+   * Waits for the readiness line of every process, which tells that the process listens to its address.
+   */
+  private boolean waitServerToStart(List<StartingWorker> startingWorkers, int timeoutMs) throws IOException {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    int started = 0;
     try {
-      Thread.sleep(sleepStep);
-      while (!isAlive()) {
-        if (System.currentTimeMillis() - start > timeoutMs) {
-          return false;
+      for (StartingWorker worker : startingWorkers) {
+        String address = worker.ready.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        BridgeTransport transport = worker.transport == null ? new HttpTransport(client, hostAddress, Integer.parseInt(address)) : worker.transport;
+        LOG.debug("eslint-bridge server is ready at " + transport);
+        if (worker.daemon != null) {
+          worker.daemon.record(transport.address());
         }
-        Thread.sleep(sleepStep);
+        var bridgeWorker = new BridgeWorker(transport, worker.nodeCommand, worker.daemon);
+        workers.add(bridgeWorker);
+        worker.nodeCommand.onExit().thenAccept(exitValue -> processExited(bridgeWorker, exitValue));
+        started++;
       }
+      return true;
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      LOG.debug(e.getCause().getMessage());
+    } catch (TimeoutException e) {
+      LOG.debug("eslint-bridge server is not ready after " + timeoutMs + "ms");
+    }
+    stopStartingWorkers(startingWorkers.subList(started, startingWorkers.size()));
+    return false;
+  }
+
+  /**
+   * Kills the processes which are not ready yet when the pool fails to start, including the ones of daemons.
+   */
+  private static void stopStartingWorkers(List<StartingWorker> startingWorkers) {
+    for (StartingWorker worker : startingWorkers) {
+      worker.nodeCommand.destroy();
+      if (worker.transport != null) {
+        worker.transport.close();
+      }
+      if (worker.daemon != null) {
+        worker.daemon.release();
+      }
+    }
+  }
+
+  /**
+   * Stops the workers which are ready when the pool fails to start, so that no process outlives the failure. Like on
+   * {@link #clean()}, daemons are only released as they keep serving the next analyses.
+   */
+  private void stopWorkers() {
+    for (BridgeWorker worker : workers) {
+      if (worker.daemon != null) {
+        worker.daemon.release();
+      } else {
+        worker.nodeCommand.destroy();
+      }
+      worker.transport.close();
+    }
+    workers.clear();
+  }
+
+  /**
+   * Attaches to the process of the daemon slot if it is still running. The command is built anyway, to check the
+   * version of Node.js.
+   */
+  private Optional<BridgeWorker> attachDaemon(SensorContext context, File scriptFile, String bundles,
+                                              BridgeDaemon daemon) throws IOException {
+    var attached = daemon.address().flatMap(this::daemonTransport);
+    if (attached.isPresent() && isAlive(attached.get())) {
+      var transport = attached.get();
+      LOG.debug("Attaching to eslint-bridge daemon at " + transport);
+      var nodeCommand = initNodeCommand(context, scriptFile, bundles, transport.address(), null, new CompletableFuture<>());
+      var worker = new BridgeWorker(transport, nodeCommand, daemon);
+      // the daemon may still hold the state of a previous analysis
+      request(worker, "", "new-tsconfig");
+      return Optional.of(worker);
+    }
+    attached.ifPresent(BridgeTransport::close);
+    return Optional.empty();
+  }
+
+  private Optional<BridgeTransport> daemonTransport(String address) {
+    if (!address.isEmpty() && address.chars().allMatch(Character::isDigit)) {
+      return Optional.of(new HttpTransport(client, hostAddress, Integer.parseInt(address)));
+    }
+    return UnixSocketTransport.create(Paths.get(address), false);
+  }
+
+  /**
+   * Unix domain sockets are preferred as they can't collide like ports picked on a shared host, and loopback HTTP
+   * remains the fallback where they are not available. A daemon listens to the socket of its slot.
+   */
+  private static Optional<BridgeTransport> newTransport(boolean unixSocket, @Nullable BridgeDaemon daemon) throws IOException {
+    if (!unixSocket) {
+      return Optional.empty();
     }
-    return true;
+    if (daemon == null) {
+      return UnixSocketTransport.create();
+    }
+    // the socket of a process which is not answering anymore
+    Files.deleteIfExists(daemon.socket());
+    return UnixSocketTransport.create(daemon.socket(), false);
   }
 
-  private void initNodeCommand(SensorContext context, File scriptFile, File workDir, String bundles) throws IOException {
+  /**
+   * Asks every worker to encode analysis responses in binary. Responses are decoded according to their content type,
+   * so a bridge which doesn't support or fails to negotiate the binary protocol keeps answering in JSON.
+   */
+  private void negotiateBinaryProtocol() {
+    for (BridgeWorker worker : workers) {
+      try {
+        var response = worker.transport.post("protocol", "{\"protocol\":\"binary\"}", Duration.ofSeconds(timeoutSeconds));
+        if ("binary".equals(response.bodyAsString())) {
+          LOG.debug("eslint-bridge server at {} uses binary protocol", worker.transport);
+        }
+      } catch (InterruptedException e) {
+        throw handleInterruptedException(e, "Protocol negotiation was interrupted.");
+      } catch (IOException e) {
+        LOG.debug("Failed to negotiate binary protocol, falling back to JSON", e);
+      }
+    }
+  }
+
+  private NodeCommand initNodeCommand(SensorContext context, File scriptFile, String bundles,
+                                      String address, @Nullable String idleTimeout, CompletableFuture<String> ready) throws IOException {
+    File workDir = context.fileSystem().workDir();
     boolean allowTsParserJsFiles = context.config().getBoolean(ALLOW_TS_PARSER_JS_FILES).orElse(true);
     boolean isSonarLint = context.runtime().getProduct() == SonarProduct.SONARLINT;
     if (isSonarLint) {
       LOG.info("Running in SonarLint context, metrics will not be computed.");
     }
-    var outputConsumer = monitoring.isMonitoringEnabled() ?
+    var logOutputConsumer = monitoring.isMonitoringEnabled() ?
       new LogOutputConsumer().andThen(new MonitoringOutputConsumer(monitoring)) : new LogOutputConsumer();
+    var outputConsumer = new ReadinessOutputConsumer(ready, logOutputConsumer);
     // enable per rule performance tracking https://eslint.org/docs/1.0.0/developer-guide/working-with-rules#per-rule-performance
 
+    List<String> args = new ArrayList<>(List.of(address, hostAddress, workDir.getAbsolutePath(), String.valueOf(allowTsParserJsFiles),
+      String.valueOf(isSonarLint), bundles));
+    if (idleTimeout != null) {
+      args.add(idleTimeout);
+    }
     nodeCommandBuilder
       .outputConsumer(outputConsumer)
       .pathResolver(bundle)
       .minNodeVersion(NodeDeprecationWarning.MIN_SUPPORTED_NODE_VERSION)
       .configuration(context.config())
       .script(scriptFile.getAbsolutePath())
-      .scriptArgs(String.valueOf(port), hostAddress, workDir.getAbsolutePath(), String.valueOf(allowTsParserJsFiles), String.valueOf(isSonarLint), bundles)
+      .scriptArgs(args.toArray(new String[0]))
       .env(getEnv());
 
     context.config()
       .getInt(MAX_OLD_SPACE_SIZE_PROPERTY)
       .ifPresent(nodeCommandBuilder::maxOldSpaceSize);
+    if (new ContextUtils(context).programMemoryBudget() > 0) {
+      // the heap usage compared to the memory budget of programs is measured after a garbage collection
+      nodeCommandBuilder.nodeJsArgs("--expose-gc");
+    }
 
-    nodeCommand = nodeCommandBuilder.build();
+    return nodeCommandBuilder.build();
   }
 
   private Map<String, String> getEnv() {
@@ -225,12 +426,19 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
         status = Status.FAILED;
         throw new ServerAlreadyFailedException();
       }
-      deploy();
-      List<Path> deployedBundles = rulesBundles.deploy(deployLocation.resolve("package"));
+      List<Path> deployedBundles;
+      if (context.runtime().getProduct() == SonarProduct.SONARLINT) {
+        // SonarLint deploys only once for all its analyses
+        deploy();
+        deployedBundles = rulesBundles.deploy(deployLocation.resolve("package"));
+      } else {
+        deployedBundles = deployToCache(userHome(context.config()).resolve(BUNDLES_CACHE_LOCATION));
+      }
+      Path daemons = daemons(context);
       rulesBundles
         .getUcfgRulesBundle()
         .ifPresent(rulesBundle -> PluginInfo.setUcfgPluginVersion(rulesBundle.bundleVersion()));
-      startServer(context, deployedBundles);
+      startServer(context, deployedBundles, daemons);
 
     } catch (NodeCommandException e) {
       status = Status.FAILED;
@@ -238,78 +446,214 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
     }
   }
 
+  /**
+   * The directory of the daemons which can be shared with this analysis, if daemons are enabled. SonarLint already
+   * keeps its server running between analyses.
+   */
+  @Nullable
+  private Path daemons(SensorContext context) throws IOException {
+    var config = context.config();
+    if (!config.getBoolean(DAEMON_PROPERTY).orElse(false) || context.runtime().getProduct() == SonarProduct.SONARLINT) {
+      return null;
+    }
+    var key = BridgeDaemon.key(
+      String.valueOf(PluginInfo.getVersion()),
+      bundle.checksum(),
+      rulesBundles.checksum(),
+      context.fileSystem().workDir().getAbsolutePath(),
+      String.valueOf(config.getBoolean(ALLOW_TS_PARSER_JS_FILES).orElse(true)),
+      config.get(MAX_OLD_SPACE_SIZE_PROPERTY).orElse(""),
+      config.get(NodeCommandBuilderImpl.NODE_EXECUTABLE_PROPERTY).orElse(""),
+      String.valueOf(monitoring.isMonitoringEnabled()),
+      String.valueOf(new ContextUtils(context).programMemoryBudget() > 0));
+    return BridgeDaemon.home(userHome(config)).resolve(key);
+  }
+
+  /**
+   * Bundles are extracted once in directories named after their checksum, then every analysis uses them as they are.
+   */
+  private List<Path> deployToCache(Path cache) throws IOException {
+    Path location = BundleUtils.deployToCache(cache.resolve("eslint-bridge"), bundle.checksum(), bundle::deploy);
+    // the bundle is complete in the cache, it is only told where it is deployed
+    bundle.deploy(location);
+    return rulesBundles.deployToCache(cache.resolve("custom-rules"));
+  }
+
+  private static Path userHome(Configuration config) {
+    return config.get("sonar.userHome")
+      .map(Paths::get)
+      .orElseGet(() -> Paths.get(System.getProperty("user.home"), ".sonar"));
+  }
+
   @Override
   public void initLinter(List<EslintRule> rules, List<String> environments, List<String> globals, AnalysisMode analysisMode) throws IOException {
-    initLinter(AnalysisMode.DEFAULT_LINTER_ID, rules, environments, globals);
+    for (InitLinterRequest initLinterRequest : initLinterRequests(rules, environments, globals, analysisMode)) {
+      initLinter(initLinterRequest);
+    }
+  }
 
+  static List<InitLinterRequest> initLinterRequests(List<EslintRule> rules, List<String> environments, List<String> globals,
+    AnalysisMode analysisMode) {
+    List<InitLinterRequest> requests = new ArrayList<>();
+    requests.add(new InitLinterRequest(AnalysisMode.DEFAULT_LINTER_ID, rules, environments, globals));
     if (analysisMode == AnalysisMode.SKIP_UNCHANGED) {
-      initLinter(AnalysisMode.UNCHANGED_LINTER_ID, AnalysisMode.getUnchangedFileRules(rules), environments, globals);
+      requests.add(new InitLinterRequest(AnalysisMode.UNCHANGED_LINTER_ID, AnalysisMode.getUnchangedFileRules(rules), environments, globals));
     }
+    return requests;
   }
 
-  private void initLinter(String linterId, List<EslintRule> rules, List<String> environments, List<String> globals) throws IOException {
-    InitLinterRequest initLinterRequest = new InitLinterRequest(linterId, rules, environments, globals);
+  private void initLinter(InitLinterRequest initLinterRequest) throws IOException {
     String request = GSON.toJson(initLinterRequest);
-    String response = request(request, "init-linter");
-    if (!"OK!".equals(response)) {
-      throw new IllegalStateException("Failed to initialize linter");
+    // every worker needs its own linter, as any of them can be picked to analyze a file
+    for (BridgeWorker worker : workers) {
+      String response = request(worker, request, "init-linter");
+      if (!"OK!".equals(response)) {
+        throw new IllegalStateException("Failed to initialize linter");
+      }
     }
   }
 
   @Override
   public AnalysisResponse analyzeJavaScript(JsAnalysisRequest request) throws IOException {
-    String json = GSON.toJson(request);
-    return response(request(json, "analyze-js"), request.filePath);
+    return analyze(nextWorker(), GSON.toJson(request), "analyze-js", request.filePath);
   }
 
   @Override
   public AnalysisResponse analyzeTypeScript(JsAnalysisRequest request) throws IOException {
-    String json = GSON.toJson(request);
-    return response(request(json, "analyze-ts"), request.filePath);
+    return analyze(nextWorker(), GSON.toJson(request), "analyze-ts", request.filePath);
   }
 
   @Override
   public AnalysisResponse analyzeWithProgram(JsAnalysisRequest request) throws IOException {
-    return response(request(GSON.toJson(request), "analyze-with-program"), request.filePath);
+    var owner = programOwner(request.programId);
+    return analyze(owner.worker, GSON.toJson(owner.request(request)), "analyze-with-program", request.filePath);
+  }
+
+  @Override
+  public CompletableFuture<AnalysisResponse> analyzeJavaScriptAsync(JsAnalysisRequest request, @Nullable AnalysisResponseListener listener) {
+    return analyzeAsync(nextWorker(), GSON.toJson(request), "analyze-js", request.filePath, listener);
+  }
+
+  @Override
+  public CompletableFuture<AnalysisResponse> analyzeTypeScriptAsync(JsAnalysisRequest request, @Nullable AnalysisResponseListener listener) {
+    return analyzeAsync(nextWorker(), GSON.toJson(request), "analyze-ts", request.filePath, listener);
+  }
+
+  @Override
+  public CompletableFuture<AnalysisResponse> analyzeWithProgramAsync(JsAnalysisRequest request, @Nullable AnalysisResponseListener listener) {
+    var owner = programOwner(request.programId);
+    return analyzeAsync(owner.worker, GSON.toJson(owner.request(request)), "analyze-with-program", request.filePath, listener);
+  }
+
+  @Override
+  public List<AnalysisResponse> analyzeBatch(BatchAnalysisRequest request) throws IOException {
+    var worker = nextWorker();
+    return batchResponse(send(worker, GSON.toJson(request), "analyze-batch", batchTimeout(request)).body(), request);
+  }
+
+  @Override
+  public CompletableFuture<List<AnalysisResponse>> analyzeBatchAsync(BatchAnalysisRequest request) {
+    return sendAsync(nextWorker(), GSON.toJson(request), "analyze-batch", batchTimeout(request))
+      .thenApply(response -> batchResponse(response.body(), request));
+  }
+
+  /**
+   * The timeout applies to the whole batch, while each file of the batch may take up to the timeout.
+   */
+  private Duration batchTimeout(BatchAnalysisRequest request) {
+    return Duration.ofSeconds(timeoutSeconds).multipliedBy(Math.max(1, request.requests.size()));
   }
 
   @Override
   public AnalysisResponse analyzeCss(CssAnalysisRequest request) throws IOException {
-    String json = GSON.toJson(request);
-    return response(request(json, "analyze-css"), request.filePath);
+    return analyze(nextWorker(), GSON.toJson(request), "analyze-css", request.filePath);
   }
 
   @Override
   public AnalysisResponse analyzeYaml(JsAnalysisRequest request) throws IOException {
-    String json = GSON.toJson(request);
-    return response(request(json, "analyze-yaml"), request.filePath);
+    return analyze(nextWorker(), GSON.toJson(request), "analyze-yaml", request.filePath);
   }
 
   @Override
   public AnalysisResponse analyzeHtml(JsAnalysisRequest request) throws IOException {
-    var json = GSON.toJson(request);
-    return response(request(json, "analyze-html"), request.filePath);
+    return analyze(nextWorker(), GSON.toJson(request), "analyze-html", request.filePath);
   }
 
-  private String request(String json, String endpoint) throws IOException {
-    var request = HttpRequest.newBuilder()
-      .uri(url(endpoint))
-      .timeout(Duration.ofSeconds(timeoutSeconds))
-      .header("Content-Type", "application/json")
-      .POST(HttpRequest.BodyPublishers.ofString(json))
-      .build();
+  private AnalysisResponse analyze(BridgeWorker worker, String json, String endpoint, String filePath) throws IOException {
+    return response(send(worker, json, endpoint, Duration.ofSeconds(timeoutSeconds)), filePath, null);
+  }
+
+  private CompletableFuture<AnalysisResponse> analyzeAsync(BridgeWorker worker, String json, String endpoint, String filePath,
+    @Nullable AnalysisResponseListener listener) {
+    return sendAsync(worker, json, endpoint, Duration.ofSeconds(timeoutSeconds))
+      .thenApply(response -> response(response, filePath, listener));
+  }
+
+  @Override
+  public int getWorkerCount() {
+    return workers.size();
+  }
+
+  private String request(BridgeWorker worker, String json, String endpoint) throws IOException {
+    var response = send(worker, json, endpoint, Duration.ofSeconds(timeoutSeconds));
+    try {
+      return response.bodyAsString();
+    } catch (IOException e) {
+      throw unresponsive(e);
+    }
+  }
 
+  private BridgeTransport.Response send(BridgeWorker worker, String json, String endpoint, Duration timeout) {
+    worker.inFlight.incrementAndGet();
     try {
-      var response = client.send(request, BodyHandlers.ofString());
-      return response.body();
+      return worker.transport.post(endpoint, json, timeout);
     } catch (InterruptedException e) {
       throw handleInterruptedException(e, "Request " + endpoint + " was interrupted.");
     } catch (IOException e) {
-      String msg = "eslint-bridge Node.js process is unresponsive. This is most likely caused by process running out of memory." +
-        " Consider setting sonar.javascript.node.maxspace to higher value (e.g. 4096).";
-      LOG.error(msg);
-      throw new IllegalStateException("eslint-bridge is unresponsive", e);
+      alive = false;
+      throw unresponsive(e);
+    } finally {
+      worker.inFlight.decrementAndGet();
+    }
+  }
+
+  private CompletableFuture<BridgeTransport.Response> sendAsync(BridgeWorker worker, String json, String endpoint, Duration timeout) {
+    worker.inFlight.incrementAndGet();
+    return worker.transport.postAsync(endpoint, json, timeout)
+      .handle((response, e) -> {
+        worker.inFlight.decrementAndGet();
+        if (e != null) {
+          alive = false;
+          throw unresponsive(e instanceof CompletionException ? e.getCause() : e);
+        }
+        return response;
+      });
+  }
+
+  private static IllegalStateException unresponsive(Throwable e) {
+    String msg = "eslint-bridge Node.js process is unresponsive. This is most likely caused by process running out of memory." +
+      " Consider setting sonar.javascript.node.maxspace to higher value (e.g. 4096).";
+    LOG.error(msg);
+    return new IllegalStateException("eslint-bridge is unresponsive", e);
+  }
+
+  /**
+   * Stateless requests go to the worker with the fewest requests in flight.
+   */
+  private BridgeWorker nextWorker() {
+    return workers.stream()
+      .min(comparingInt(worker -> worker.inFlight.get()))
+      .orElseThrow(() -> new IllegalStateException("eslint-bridge server is not started"));
+  }
+
+  /**
+   * Stateful requests (TypeScript programs, tsconfig lookups) go to the first worker, which owns that state.
+   */
+  private BridgeWorker primaryWorker() {
+    if (workers.isEmpty()) {
+      throw new IllegalStateException("eslint-bridge server is not started");
     }
+    return workers.get(0);
   }
 
   private IllegalStateException handleInterruptedException(InterruptedException e, String msg) {
@@ -318,25 +662,77 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
     return new IllegalStateException(msg, e);
   }
 
-  private static AnalysisResponse response(String result, String filePath) {
-    try {
-      return GSON.fromJson(result, AnalysisResponse.class);
-    } catch (JsonSyntaxException e) {
-      String msg = "Failed to parse response for file " + filePath + ": \n-----\n" + result + "\n-----\n";
-      LOG.error(msg, e);
+  /**
+   * Decodes the response while it is received, the body is never held as a whole in memory.
+   * The bridge answers in binary only if it was negotiated, and always reports errors in JSON.
+   */
+  private static AnalysisResponse response(BridgeTransport.Response response, String filePath, @Nullable AnalysisResponseListener listener) {
+    var contentType = response.contentType();
+    var binary = contentType != null && contentType.startsWith(AnalysisResponseReader.BINARY_CONTENT_TYPE);
+    try (var body = response.body()) {
+      if (binary) {
+        return AnalysisResponseReader.readBinary(body, listener);
+      }
+      return AnalysisResponseReader.read(new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8)), listener);
+    } catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException e) {
+      LOG.error("Failed to parse response for file " + filePath, e);
       throw new IllegalStateException("Failed to parse response", e);
+    } catch (IOException e) {
+      throw unresponsive(e);
+    }
+  }
+
+  /**
+   * The bridge streams back one JSON response per line, in the order of the batch.
+   */
+  private static List<AnalysisResponse> batchResponse(InputStream body, BatchAnalysisRequest request) {
+    List<AnalysisResponse> responses = new ArrayList<>(request.requests.size());
+    try (var reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      reader.setLenient(true);
+      while (reader.peek() != JsonToken.END_DOCUMENT && responses.size() < request.requests.size()) {
+        responses.add(AnalysisResponseReader.read(reader, null));
+      }
+    } catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException e) {
+      LOG.error("Failed to parse batch response for file " + request.requests.get(responses.size()).filePath, e);
+      throw new IllegalStateException("Failed to parse batch response", e);
+    } catch (IOException e) {
+      throw unresponsive(e);
     }
+    if (responses.size() != request.requests.size()) {
+      LOG.error("Expected " + request.requests.size() + " responses for batch analysis, got " + responses.size());
+      throw new IllegalStateException("Failed to parse batch response");
+    }
+    return responses;
   }
 
   public boolean isAlive() {
-    if (nodeCommand == null) {
-      return false;
+    alive = !workers.isEmpty() && workers.stream().allMatch(this::isAlive);
+    return alive;
+  }
+
+  /**
+   * Answers from the liveness last observed by the heartbeat, the Node.js processes exiting and the failed requests,
+   * without sending any request.
+   */
+  @Override
+  public boolean isAliveCached() {
+    return alive && !workers.isEmpty();
+  }
+
+  private void processExited(BridgeWorker worker, int exitValue) {
+    if (workers.contains(worker)) {
+      LOG.debug("Node.js process running eslint-bridge server at {} exited with {}", worker.transport, exitValue);
+      alive = false;
     }
-    var request = HttpRequest.newBuilder(url("status")).GET().build();
+  }
+
+  private boolean isAlive(BridgeWorker worker) {
+    return isAlive(worker.transport);
+  }
+
+  private boolean isAlive(BridgeTransport transport) {
     try {
-      var response = client.send(request, BodyHandlers.ofString());
-      String body = response.body();
-      return "OK!".equals(body);
+      return "OK!".equals(transport.get("status").bodyAsString());
     } catch (InterruptedException e) {
       throw handleInterruptedException(e, "isAlive was interrupted");
     } catch (IOException e) {
@@ -347,8 +743,11 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
   @Override
   public boolean newTsConfig() {
     try {
-      var response = request("", "new-tsconfig");
-      return "OK!".equals(response);
+      var success = true;
+      for (BridgeWorker worker : workers) {
+        success &= "OK!".equals(request(worker, "", "new-tsconfig"));
+      }
+      return success;
     } catch (IOException e) {
       LOG.error("Failed to post new-tsconfig", e);
     }
@@ -359,7 +758,7 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
     String result = null;
     try {
       TsConfigRequest tsConfigRequest = new TsConfigRequest(tsconfigAbsolutePath);
-      result = request(GSON.toJson(tsConfigRequest), "tsconfig-files");
+      result = request(primaryWorker(), GSON.toJson(tsConfigRequest), "tsconfig-files");
       return GSON.fromJson(result, TsConfigResponse.class);
     } catch (IOException e) {
       LOG.error("Failed to request files for tsconfig: " + tsconfigAbsolutePath, e);
@@ -380,20 +779,58 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
 
   @Override
   public TsProgram createProgram(TsProgramRequest tsProgramRequest) throws IOException {
-    var response = request(GSON.toJson(tsProgramRequest), "create-program");
-    return GSON.fromJson(response, TsProgram.class);
+    if (workers.size() <= 1) {
+      var response = request(primaryWorker(), GSON.toJson(tsProgramRequest), "create-program");
+      return GSON.fromJson(response, TsProgram.class);
+    }
+    var worker = programWorker();
+    try {
+      var program = GSON.fromJson(request(worker, GSON.toJson(tsProgramRequest), "create-program"), TsProgram.class);
+      if (program.programId == null) {
+        worker.programs.decrementAndGet();
+        return program;
+      }
+      // program identifiers are only unique within a worker
+      var programId = workers.indexOf(worker) + ":" + program.programId;
+      programOwners.put(programId, new ProgramOwner(worker, program.programId));
+      return program.withProgramId(programId);
+    } catch (IOException | RuntimeException e) {
+      worker.programs.decrementAndGet();
+      throw e;
+    }
   }
 
   @Override
   public boolean deleteProgram(TsProgram tsProgram) throws IOException {
-    var programToDelete = new TsProgram(tsProgram.programId, null, null);
-    var response = request(GSON.toJson(programToDelete), "delete-program");
+    var owner = programOwner(tsProgram.programId);
+    var programToDelete = new TsProgram(owner.programId, null, null);
+    var response = request(owner.worker, GSON.toJson(programToDelete), "delete-program");
+    if (tsProgram.programId != null && programOwners.remove(tsProgram.programId) != null) {
+      owner.worker.programs.decrementAndGet();
+    }
     return "OK!".equals(response);
   }
 
+  /**
+   * Programs are spread over the workers, so that they are created and analyzed concurrently. The program is
+   * accounted for on the worker as soon as it is picked, so that concurrent creations pick different workers.
+   */
+  private synchronized BridgeWorker programWorker() {
+    var worker = workers.stream()
+      .min(comparingInt((BridgeWorker w) -> w.programs.get()).thenComparingInt(w -> w.inFlight.get()))
+      .orElseThrow(() -> new IllegalStateException("eslint-bridge server is not started"));
+    worker.programs.incrementAndGet();
+    return worker;
+  }
+
+  private ProgramOwner programOwner(@Nullable String programId) {
+    var owner = programId == null ? null : programOwners.get(programId);
+    return owner == null ? new ProgramOwner(primaryWorker(), programId) : owner;
+  }
+
   @Override
   public TsConfigFile createTsConfigFile(String content) throws IOException {
-    var response = request(content, "create-tsconfig-file");
+    var response = request(primaryWorker(), content, "create-tsconfig-file");
     return GSON.fromJson(response, TsConfigFile.class);
   }
 
@@ -405,30 +842,38 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
   public void clean() {
     LOG.trace("Closing heartbeat service");
     heartbeatService.shutdownNow();
-    if (nodeCommand != null && isAlive()) {
-      try {
-        request("", "close");
-      } catch (IOException e) {
-        LOG.warn("Failed to close server", e);
+    for (BridgeWorker worker : workers) {
+      if (worker.daemon != null) {
+        // the process keeps running for the next analyses, until it is idle for too long
+        worker.daemon.release();
+      } else if (isAlive(worker)) {
+        try {
+          request(worker, "", "close");
+        } catch (IOException e) {
+          LOG.warn("Failed to close server", e);
+        }
+        worker.nodeCommand.waitFor();
       }
-      nodeCommand.waitFor();
-      nodeCommand = null;
+      worker.transport.close();
     }
+    workers.clear();
+    programOwners.clear();
+    alive = false;
   }
 
   /**
    * Required for testing purposes
    */
   void waitFor() {
-    nodeCommand.waitFor();
+    primaryWorker().nodeCommand.waitFor();
   }
 
   @Override
   public String getCommandInfo() {
-    if (nodeCommand == null) {
+    if (workers.isEmpty()) {
       return "Node.js command to start eslint-bridge server was not built yet.";
     } else {
-      return "Node.js command to start eslint-bridge was: " + nodeCommand;
+      return "Node.js command to start eslint-bridge was: " + primaryWorker().nodeCommand;
     }
   }
 
@@ -442,11 +887,65 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
     clean();
   }
 
-  private URI url(String endpoint) {
-    try {
-      return new URI("http", null, hostAddress, port, "/" + endpoint, null, null);
-    } catch (URISyntaxException e) {
-      throw new IllegalStateException("Invalid URI: " + e.getMessage(), e);
+  /**
+   * A Node.js process running the eslint-bridge server. The process of a daemon may have been started by a previous
+   * analysis, in which case the command was not started by this worker.
+   */
+  static class BridgeWorker {
+    final BridgeTransport transport;
+    final NodeCommand nodeCommand;
+    @Nullable
+    final BridgeDaemon daemon;
+    final AtomicInteger inFlight = new AtomicInteger();
+    // programs alive or being created on the worker
+    final AtomicInteger programs = new AtomicInteger();
+
+    BridgeWorker(BridgeTransport transport, NodeCommand nodeCommand, @Nullable BridgeDaemon daemon) {
+      this.transport = transport;
+      this.nodeCommand = nodeCommand;
+      this.daemon = daemon;
+    }
+  }
+
+  /**
+   * Worker holding a program, along with the identifier of the program within that worker.
+   */
+  private static class ProgramOwner {
+    final BridgeWorker worker;
+    @Nullable
+    final String programId;
+
+    ProgramOwner(BridgeWorker worker, @Nullable String programId) {
+      this.worker = worker;
+      this.programId = programId;
+    }
+
+    JsAnalysisRequest request(JsAnalysisRequest request) {
+      if (Objects.equals(request.programId, programId)) {
+        return request;
+      }
+      return new JsAnalysisRequest(request.filePath, request.fileType, request.fileContent, request.ignoreHeaderComments, request.tsConfigs,
+        programId, request.linterId);
+    }
+  }
+
+  /**
+   * A worker whose process is started but not ready yet. Its transport is only known once ready when the process
+   * listens to a port it picked.
+   */
+  private static class StartingWorker {
+    @Nullable
+    final BridgeTransport transport;
+    final NodeCommand nodeCommand;
+    @Nullable
+    final BridgeDaemon daemon;
+    final CompletableFuture<String> ready;
+
+    StartingWorker(@Nullable BridgeTransport transport, NodeCommand nodeCommand, @Nullable BridgeDaemon daemon, CompletableFuture<String> ready) {
+      this.transport = transport;
+      this.nodeCommand = nodeCommand;
+      this.daemon = daemon;
+      this.ready = ready;
     }
   }
 
@@ -508,6 +1007,31 @@ public class EslintBridgeServerImpl implements EslintBridgeServer {
     }
   }
 
+  /**
+   * Completes with the address printed by the bridge once it listens to it, i.e. the port or the Unix domain socket.
+   * The readiness line is not logged, other lines are forwarded.
+   */
+  static class ReadinessOutputConsumer implements Consumer<String> {
+
+    static final String READY = "READY ";
+    private final CompletableFuture<String> ready;
+    private final Consumer<String> next;
+
+    ReadinessOutputConsumer(CompletableFuture<String> ready, Consumer<String> next) {
+      this.ready = ready;
+      this.next = next;
+    }
+
+    @Override
+    public void accept(String message) {
+      if (!ready.isDone() && message.startsWith(READY)) {
+        ready.complete(message.substring(READY.length()).trim());
+      } else {
+        next.accept(message);
+      }
+    }
+  }
+
   static class LogOutputConsumer implements Consumer<String> {
 
     @Override
@@ -32,7 +32,6 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.javascript.CancellationException;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
-import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
 import org.sonar.plugins.javascript.eslint.cache.CacheStrategies;
 import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
 import org.sonar.plugins.javascript.utils.ProgressReport;
@@ -71,23 +70,29 @@ public class HtmlSensor extends AbstractEslintSensor {
     var progressReport = new ProgressReport("Analysis progress", TimeUnit.SECONDS.toMillis(10));
     analysisMode = AnalysisMode.getMode(context, checks.eslintRules());
     var success = false;
-    try {
+    try (var dispatcher = new AnalysisDispatcher(null, eslintBridgeServer.getWorkerCount())) {
       progressReport.start(inputFiles.size(), inputFiles.iterator().next().absolutePath());
-      eslintBridgeServer.initLinter(AnalysisMode.getHtmlFileRules(checks.eslintRules()), environments, globals, analysisMode);
-      for (var inputFile : inputFiles) {
+      initLinter(AnalysisMode.getHtmlFileRules(checks.eslintRules()), analysisMode);
+      var cacheStrategies = CacheStrategies.getStrategiesFor(context, inputFiles);
+      for (var entry : cacheStrategies.entrySet()) {
         if (context.isCancelled()) {
           throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
         }
-        if (eslintBridgeServer.isAlive()) {
+        if (eslintBridgeServer.isAliveCached()) {
+          var inputFile = entry.getKey();
+          var cacheStrategy = entry.getValue();
           progressReport.nextFile(inputFile.absolutePath());
-          var cacheStrategy = CacheStrategies.getStrategyFor(context, inputFile);
           if (cacheStrategy.isAnalysisRequired()) {
-            analyze(inputFile, cacheStrategy);
+            analyze(inputFile, cacheStrategy, dispatcher);
+          } else {
+            LOG.debug("Processing cache analysis of file: {}", inputFile.uri());
+            analysisProcessor.processCacheAnalysis(context, checks, inputFile, cacheStrategy.readAnalysisFromCache());
           }
         } else {
           throw new IllegalStateException("eslint-bridge server is not answering");
         }
       }
+      dispatcher.awaitCompletion();
       success = true;
     } finally {
       if (success) {
@@ -113,21 +118,26 @@ public class HtmlSensor extends AbstractEslintSensor {
     return StreamSupport.stream(inputFiles.spliterator(), false).collect(Collectors.toList());
   }
 
-  private void analyze(InputFile file, CacheStrategy cacheStrategy) throws IOException {
-    try {
-      LOG.debug("Analyzing file: {}", file.uri());
-      var fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
-      var jsAnalysisRequest = new JsAnalysisRequest(
-        file.absolutePath(),
-        file.type().toString(),
-        fileContent,
-        contextUtils.ignoreHeaderComments(),
-        null,
-        null,
-        analysisMode.getLinterIdFor(file));
-      var response = eslintBridgeServer.analyzeHtml(jsAnalysisRequest);
+  private void analyze(InputFile file, CacheStrategy cacheStrategy, AnalysisDispatcher dispatcher) throws IOException {
+    LOG.debug("Analyzing file: {}", file.uri());
+    var fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
+    var jsAnalysisRequest = new JsAnalysisRequest(
+      file.absolutePath(),
+      file.type().toString(),
+      fileContent,
+      contextUtils.ignoreHeaderComments(),
+      null,
+      null,
+      analysisMode.getLinterIdFor(file));
+    dispatcher.submit(file, () -> analyzeHtml(file, jsAnalysisRequest), response -> {
       analysisProcessor.processResponse(context, checks, file, response);
-      cacheStrategy.writeAnalysisToCache(CacheAnalysis.fromResponse(response.ucfgPaths, response.cpdTokens), file);
+      analysisProcessor.writeToCache(context, cacheStrategy, file, jsAnalysisRequest, response);
+    });
+  }
+
+  private EslintBridgeServer.AnalysisResponse analyzeHtml(InputFile file, JsAnalysisRequest request) throws IOException {
+    try {
+      return eslintBridgeServer.analyzeHtml(request);
     } catch (IOException e) {
       LOG.error("Failed to get response while analyzing " + file.uri(), e);
       throw e;
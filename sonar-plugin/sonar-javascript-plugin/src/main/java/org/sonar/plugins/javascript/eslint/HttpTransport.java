@@ -0,0 +1,100 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends requests over loopback HTTP, the transport available on every platform.
+ */
+class HttpTransport implements BridgeTransport {
+
+  private final HttpClient client;
+  private final String hostAddress;
+  private final int port;
+
+  HttpTransport(HttpClient client, String hostAddress, int port) {
+    this.client = client;
+    this.hostAddress = hostAddress;
+    this.port = port;
+  }
+
+  @Override
+  public String address() {
+    return String.valueOf(port);
+  }
+
+  @Override
+  public Response post(String endpoint, String json, Duration timeout) throws IOException, InterruptedException {
+    return response(client.send(postRequest(endpoint, json, timeout), BodyHandlers.ofInputStream()));
+  }
+
+  @Override
+  public CompletableFuture<Response> postAsync(String endpoint, String json, Duration timeout) {
+    return client.sendAsync(postRequest(endpoint, json, timeout), BodyHandlers.ofInputStream())
+      .thenApply(HttpTransport::response);
+  }
+
+  @Override
+  public Response get(String endpoint) throws IOException, InterruptedException {
+    var request = HttpRequest.newBuilder(url(endpoint)).GET().build();
+    return response(client.send(request, BodyHandlers.ofInputStream()));
+  }
+
+  @Override
+  public void close() {
+    // nothing to release, the client is shared by all the workers
+  }
+
+  private HttpRequest postRequest(String endpoint, String json, Duration timeout) {
+    return HttpRequest.newBuilder()
+      .uri(url(endpoint))
+      .timeout(timeout)
+      .header("Content-Type", "application/json")
+      .POST(HttpRequest.BodyPublishers.ofString(json))
+      .build();
+  }
+
+  private static Response response(HttpResponse<InputStream> response) {
+    return new Response(response.headers().firstValue("Content-Type").orElse(null), response.body());
+  }
+
+  private URI url(String endpoint) {
+    try {
+      return new URI("http", null, hostAddress, port, "/" + endpoint, null, null);
+    } catch (URISyntaxException e) {
+      throw new IllegalStateException("Invalid URI: " + e.getMessage(), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "port " + port;
+  }
+}
@@ -37,9 +37,10 @@ import org.sonar.plugins.javascript.CancellationException;
 import org.sonar.plugins.javascript.JavaScriptFilePredicate;
 import org.sonar.plugins.javascript.JavaScriptLanguage;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.BatchAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
-import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
 import org.sonar.plugins.javascript.eslint.cache.CacheStrategies;
+import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
 import org.sonar.plugins.javascript.eslint.TsConfigProvider.DefaultTsConfigProvider;
 import org.sonar.plugins.javascript.utils.ProgressReport;
 
@@ -95,21 +96,22 @@ public class JavaScriptEslintBasedSensor extends AbstractEslintSensor {
     analysisMode = AnalysisMode.getMode(context, checks.eslintRules());
     ProgressReport progressReport = new ProgressReport("Analysis progress", TimeUnit.SECONDS.toMillis(10));
     boolean success = false;
-    try {
+    try (var dispatcher = new AnalysisDispatcher(monitoring, eslintBridgeServer.getWorkerCount(), contextUtils.analysisBatchSize())) {
       progressReport.start(inputFiles.size(), inputFiles.iterator().next().absolutePath());
-      eslintBridgeServer.initLinter(checks.eslintRules(), environments, globals, analysisMode);
-      for (InputFile inputFile : inputFiles) {
-        monitoring.startFile(inputFile);
+      initLinter(checks.eslintRules(), analysisMode);
+      var cacheStrategies = CacheStrategies.getStrategiesFor(context, inputFiles);
+      for (var entry : cacheStrategies.entrySet()) {
         if (context.isCancelled()) {
           throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
         }
-        if (eslintBridgeServer.isAlive()) {
-          progressReport.nextFile(inputFile.absolutePath());
-          analyze(inputFile, tsConfigs);
+        if (eslintBridgeServer.isAliveCached()) {
+          progressReport.nextFile(entry.getKey().absolutePath());
+          analyze(entry.getKey(), entry.getValue(), tsConfigs, dispatcher);
         } else {
           throw new IllegalStateException("eslint-bridge server is not answering");
         }
       }
+      dispatcher.awaitCompletion();
       success = true;
     } finally {
       if (success) {
@@ -120,25 +122,33 @@ public class JavaScriptEslintBasedSensor extends AbstractEslintSensor {
     }
   }
 
-  private void analyze(InputFile file, List<String> tsConfigs) throws IOException {
-    var cacheStrategy = CacheStrategies.getStrategyFor(context, file);
+  private void analyze(InputFile file, CacheStrategy cacheStrategy, List<String> tsConfigs, AnalysisDispatcher dispatcher) throws IOException {
     if (cacheStrategy.isAnalysisRequired()) {
-      try {
-        LOG.debug("Analyzing file: {}", file.uri());
-        String fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
-        JsAnalysisRequest jsAnalysisRequest = new JsAnalysisRequest(file.absolutePath(), file.type().toString(),
-          fileContent, contextUtils.ignoreHeaderComments(), tsConfigs, null, analysisMode.getLinterIdFor(file));
-        AnalysisResponse response = eslintBridgeServer.analyzeJavaScript(jsAnalysisRequest);
-        processAnalysis.processResponse(context, checks, file, response);
-        cacheStrategy.writeAnalysisToCache(CacheAnalysis.fromResponse(response.ucfgPaths, response.cpdTokens), file);
-      } catch (IOException e) {
-        LOG.error("Failed to get response while analyzing " + file.uri(), e);
-        throw e;
-      }
+      LOG.debug("Analyzing file: {}", file.uri());
+      String fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
+      JsAnalysisRequest jsAnalysisRequest = new JsAnalysisRequest(file.absolutePath(), file.type().toString(),
+        fileContent, contextUtils.ignoreHeaderComments(), tsConfigs, null, analysisMode.getLinterIdFor(file));
+      var sink = processAnalysis.newResponseSink(context, file, cacheStrategy, jsAnalysisRequest);
+      dispatcher.submit(file, jsAnalysisRequest, () -> analyzeJavaScript(file, jsAnalysisRequest),
+        () -> eslintBridgeServer.analyzeJavaScriptAsync(jsAnalysisRequest, sink),
+        batch -> eslintBridgeServer.analyzeBatchAsync(new BatchAnalysisRequest(BatchAnalysisRequest.JAVASCRIPT, batch)), response -> {
+        processAnalysis.processResponse(context, checks, file, response, sink);
+        processAnalysis.writeToCache(context, cacheStrategy, file, jsAnalysisRequest, response);
+      });
     } else {
       LOG.debug("Processing cache analysis of file: {}", file.uri());
+      monitoring.startFile(file);
       var cacheAnalysis = cacheStrategy.readAnalysisFromCache();
-      processAnalysis.processCacheAnalysis(context, file, cacheAnalysis);
+      processAnalysis.processCacheAnalysis(context, checks, file, cacheAnalysis);
+    }
+  }
+
+  private AnalysisResponse analyzeJavaScript(InputFile file, JsAnalysisRequest request) throws IOException {
+    try {
+      return eslintBridgeServer.analyzeJavaScript(request);
+    } catch (IOException e) {
+      LOG.error("Failed to get response while analyzing " + file.uri(), e);
+      throw e;
     }
   }
 
@@ -0,0 +1,173 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Digests the configuration linters are initialized with: rules, rule parameters, environments and globals. The digest
+ * is stored along with cached analysis results, which can't be replayed once it changes. It doesn't depend on the
+ * analysis mode, so that results cached by an analysis of a branch remain usable by the analysis of a pull request.
+ */
+class LinterConfigDigest {
+
+  private static final Logger LOG = Loggers.get(LinterConfigDigest.class);
+  private static final Gson GSON = new Gson();
+  private static final int DIGEST_LENGTH = 16;
+
+  private LinterConfigDigest() {
+  }
+
+  static String of(List<EslintRule> rules, List<String> environments, List<String> globals) {
+    // rules are collected from several repositories in no particular order
+    var sortedRules = rules.stream().sorted(Comparator.comparing(EslintRule::getKey)).collect(Collectors.toList());
+    var digest = newDigest();
+    update(digest, GSON.toJson(sortedRules).getBytes(StandardCharsets.UTF_8));
+    update(digest, GSON.toJson(environments).getBytes(StandardCharsets.UTF_8));
+    update(digest, GSON.toJson(globals).getBytes(StandardCharsets.UTF_8));
+    return toHex(digest.digest());
+  }
+
+  /**
+   * Type-aware rules also depend on the compiler options of the tsconfig.json files the program is created from,
+   * including the ones inherited from the base configurations they extend. Other properties, e.g. file lists, are left
+   * out, as each cached file is keyed on its own content.
+   */
+  static String withTsConfigs(@Nullable String configDigest, List<String> tsConfigs) {
+    var digest = newDigest();
+    if (configDigest != null) {
+      update(digest, configDigest.getBytes(StandardCharsets.UTF_8));
+    }
+    for (var tsConfig : tsConfigs.stream().sorted().collect(Collectors.toList())) {
+      update(digest, tsConfig.getBytes(StandardCharsets.UTF_8));
+      updateWithCompilerOptions(digest, Path.of(tsConfig), new HashSet<>());
+    }
+    return toHex(digest.digest());
+  }
+
+  private static void updateWithCompilerOptions(MessageDigest digest, Path tsConfig, Set<Path> visited) {
+    if (!visited.add(tsConfig.toAbsolutePath().normalize())) {
+      return;
+    }
+    String content;
+    try {
+      content = Files.readString(tsConfig);
+    } catch (IOException e) {
+      LOG.debug("Failed to read {}, only its path is part of the configuration digest", tsConfig);
+      return;
+    }
+    JsonObject json;
+    try {
+      // parsing is lenient, tsconfig.json files may contain comments
+      json = JsonParser.parseString(content).getAsJsonObject();
+    } catch (JsonParseException | IllegalStateException e) {
+      LOG.debug("Failed to parse {}, its whole content is part of the configuration digest", tsConfig);
+      update(digest, content.getBytes(StandardCharsets.UTF_8));
+      return;
+    }
+    var compilerOptions = json.get("compilerOptions");
+    update(digest, compilerOptions == null ? new byte[0] : compilerOptions.toString().getBytes(StandardCharsets.UTF_8));
+    for (var base : extendedConfigs(json.get("extends"))) {
+      update(digest, base.getBytes(StandardCharsets.UTF_8));
+      resolveExtendedConfig(tsConfig, base).ifPresent(path -> updateWithCompilerOptions(digest, path, visited));
+    }
+  }
+
+  private static List<String> extendedConfigs(@Nullable JsonElement element) {
+    List<String> configs = new ArrayList<>();
+    if (element != null && element.isJsonArray()) {
+      element.getAsJsonArray().forEach(config -> configs.addAll(extendedConfigs(config)));
+    } else if (element != null && element.isJsonPrimitive()) {
+      configs.add(element.getAsString());
+    }
+    return configs;
+  }
+
+  /**
+   * Resolves a base configuration as TypeScript does: relative to the extending tsconfig.json, or as a package of the
+   * node_modules directories above it.
+   */
+  private static Optional<Path> resolveExtendedConfig(Path tsConfig, String base) {
+    var dir = tsConfig.toAbsolutePath().getParent();
+    try {
+      if (base.startsWith(".") || Path.of(base).isAbsolute()) {
+        return configFile(dir.resolve(base));
+      }
+      for (var parent = dir; parent != null; parent = parent.getParent()) {
+        var config = configFile(parent.resolve("node_modules").resolve(base));
+        if (config.isPresent()) {
+          return config;
+        }
+      }
+    } catch (InvalidPathException e) {
+      LOG.debug("Invalid base configuration {} in {}", base, tsConfig);
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<Path> configFile(Path path) {
+    return Stream.of(path, Path.of(path + ".json"), path.resolve("tsconfig.json"))
+      .filter(Files::isRegularFile)
+      .findFirst();
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void update(MessageDigest digest, byte[] value) {
+    digest.update(value);
+    digest.update((byte) 0);
+  }
+
+  private static String toHex(byte[] bytes) {
+    var hex = new StringBuilder();
+    for (byte b : bytes) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.substring(0, DIGEST_LENGTH);
+  }
+}
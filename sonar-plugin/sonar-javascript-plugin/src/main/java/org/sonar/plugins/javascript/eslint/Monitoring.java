@@ -41,8 +41,10 @@ import org.sonar.api.scanner.ScannerSide;
 import org.sonar.api.utils.ManifestUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.javascript.eslint.cache.CacheStatistics;
 import org.sonarsource.api.sonarlint.SonarLintSide;
 
+import static org.sonar.plugins.javascript.eslint.Monitoring.MetricType.CACHE;
 import static org.sonar.plugins.javascript.eslint.Monitoring.MetricType.FILE;
 import static org.sonar.plugins.javascript.eslint.Monitoring.MetricType.PROGRAM;
 import static org.sonar.plugins.javascript.eslint.Monitoring.MetricType.RULE;
@@ -181,12 +183,44 @@ public class Monitoring implements Startable {
     metrics.add(programMetric);
   }
 
+  /**
+   * The duration of a program is the time spent creating it, which may overlap the analysis of the previous program
+   * when it is created ahead, while the wait time is the time the analysis was blocked waiting for it. The time saved
+   * by reusing source files of other programs is estimated with the average parse time of the files parsed for the
+   * program. Like the other durations, times are reported in microseconds, the bridge measures them in milliseconds.
+   *
+   * @param creationTime time spent creating the program, in microseconds
+   * @param waitTime time spent waiting for the program created ahead, in microseconds
+   */
+  void stopProgram(EslintBridgeServer.TsProgram program, long creationTime, long waitTime) {
+    if (!enabled) {
+      return;
+    }
+    programMetric.parsedFiles = program.parsedFiles;
+    programMetric.reusedFiles = program.reusedFiles;
+    programMetric.parseTime = program.parseTime * 1_000;
+    programMetric.heapUsed = program.heapUsed;
+    programMetric.savedTime = program.parsedFiles == 0 ? 0 : (programMetric.parseTime * program.reusedFiles / program.parsedFiles);
+    programMetric.duration = creationTime;
+    programMetric.waitTime = waitTime;
+    metrics.add(programMetric);
+  }
+
+  void cacheStatistics(List<CacheStatistics> statistics) {
+    if (!enabled) {
+      return;
+    }
+    for (var fileStatistics : statistics) {
+      metrics.add(new CacheMetric(fileStatistics, executionId, sensorMetric.projectKey, canSkipUnchangedFiles));
+    }
+  }
+
   List<Metric> metrics() {
     return metrics;
   }
 
   enum MetricType {
-    SENSOR, FILE, RULE, PROGRAM
+    SENSOR, FILE, RULE, PROGRAM, CACHE
   }
 
 
@@ -238,6 +272,34 @@ public class Monitoring implements Startable {
     }
   }
 
+  static class CacheMetric extends Metric {
+    String strategy;
+    String missReason;
+    long bytesRead;
+    long bytesWritten;
+    // time is measured in microseconds
+    long hashTime;
+    long readTime;
+    long deserializeTime;
+    long restoreTime;
+    long writeTime;
+
+    CacheMetric(CacheStatistics statistics, String executionId, String projectKey, boolean canSkipUnchangedFiles) {
+      super(CACHE, executionId, canSkipUnchangedFiles);
+      this.projectKey = projectKey;
+      component = statistics.getComponent();
+      strategy = statistics.getStrategy();
+      missReason = statistics.getMissReason();
+      bytesRead = statistics.getBytesRead();
+      bytesWritten = statistics.getBytesWritten();
+      hashTime = statistics.getHashTime();
+      readTime = statistics.getReadTime();
+      deserializeTime = statistics.getDeserializeTime();
+      restoreTime = statistics.getRestoreTime();
+      writeTime = statistics.getWriteTime();
+    }
+  }
+
   static class Clock {
 
     final long start;
@@ -269,7 +331,14 @@ public class Monitoring implements Startable {
   static class ProgramMetric extends Metric {
 
     String tsConfig;
+    // time is measured in microseconds
     long duration;
+    long waitTime;
+    int parsedFiles;
+    int reusedFiles;
+    long parseTime;
+    long savedTime;
+    long heapUsed;
 
     ProgramMetric(String tsConfig, String executionId, String projectKey, boolean canSkipUnchangedFiles) {
       super(PROGRAM, executionId, canSkipUnchangedFiles);
@@ -0,0 +1,374 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import javax.annotation.CheckForNull;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgram;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgramRequest;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Creates the TypeScript programs of a worklist of tsconfigs ahead of their analysis.
+ *
+ * While a program is analyzed, the programs of the next tsconfigs are created concurrently, on the bridge workers
+ * which hold the fewest programs, up to a maximum of programs alive at once. Programs are handed over in the order
+ * of the worklist, and the project references of a program join the worklist once it is handed over, as they are
+ * only known when it is created. The files of the program handed over also bring forward the tsconfig sharing the
+ * most of them, so that the next program reuses the files parsed by the bridge. With a single program at once, programs are created inline when they are needed.
+ *
+ * Programs dominate the heap of the bridge, which reports its heap usage once a program is created. There is no memory
+ * budget by default, it is opt-in, and the bridge is only started with {@code --expose-gc} when it is set, so that its
+ * heap usage is measured after a garbage collection. When a program exceeds the budget, programs are no longer created
+ * ahead, the ones created ahead are deleted to be created again when they are needed, and the files of the program are
+ * split over two smaller programs. Such synthetic programs extend the original tsconfig and only include half of its
+ * files each. Programs are created ahead again once a program uses less than half of the budget. Splitting stops at
+ * {@link #MIN_PROGRAM_FILES} files per program, or when the halves of a program don't use less heap than the program
+ * itself.
+ */
+class ProgramScheduler implements AutoCloseable {
+
+  private static final Logger LOG = Loggers.get(ProgramScheduler.class);
+  private static final Gson GSON = new Gson();
+
+  /**
+   * Share of the bridge heap, in percent, programs may use, not positive as the budget is opt-in.
+   */
+  static final int DEFAULT_MEMORY_BUDGET = 0;
+
+  /**
+   * Programs are not split below this number of files, a smaller program mostly holds the type declarations it depends
+   * on, which its halves would hold as well.
+   */
+  static final int MIN_PROGRAM_FILES = 50;
+
+  private final EslintBridgeServer eslintBridgeServer;
+  private final int memoryBudget;
+  private final int configuredMaxPrograms;
+  private int maxPrograms;
+  private final Deque<String> workList;
+  private final Set<String> scheduledProjects = new HashSet<>();
+  private final Deque<ScheduledProgram> pending = new ArrayDeque<>();
+  // heap used by the programs which were split, by the synthetic tsconfigs of their halves
+  private final Map<String, Long> heapUsedBeforeSplit = new HashMap<>();
+  private ExecutorService executor;
+
+  /**
+   * @param maxPrograms maximum number of programs alive at once, including the one being analyzed
+   */
+  ProgramScheduler(EslintBridgeServer eslintBridgeServer, List<String> tsConfigs, int maxPrograms) {
+    this(eslintBridgeServer, tsConfigs, maxPrograms, DEFAULT_MEMORY_BUDGET);
+  }
+
+  /**
+   * @param maxPrograms maximum number of programs alive at once, including the one being analyzed
+   * @param memoryBudget share of the bridge heap, in percent, programs may use, there is no budget when it is not positive
+   */
+  ProgramScheduler(EslintBridgeServer eslintBridgeServer, List<String> tsConfigs, int maxPrograms, int memoryBudget) {
+    this.eslintBridgeServer = eslintBridgeServer;
+    this.configuredMaxPrograms = Math.max(1, maxPrograms);
+    this.maxPrograms = configuredMaxPrograms;
+    this.memoryBudget = memoryBudget;
+    this.workList = new ArrayDeque<>(tsConfigs);
+  }
+
+  /**
+   * Moves ahead in the worklist the tsconfig sharing the most files with the program handed over, as the bridge parses
+   * the files shared with the previous program only once. Files of a program are attributed to the closest tsconfig
+   * of the worklist in their parent directories, ties keep the order of the worklist.
+   */
+  private void preferTsConfigSharingFiles(List<String> files) {
+    Map<Path, Integer> indexByDirectory = new HashMap<>();
+    var index = 0;
+    for (var tsConfig : workList) {
+      var directory = Path.of(tsConfig).getParent();
+      if (directory != null) {
+        indexByDirectory.putIfAbsent(directory, index);
+      }
+      index++;
+    }
+    if (indexByDirectory.isEmpty()) {
+      return;
+    }
+    var sharedFiles = new int[workList.size()];
+    for (var file : files) {
+      for (var directory = Path.of(file).getParent(); directory != null; directory = directory.getParent()) {
+        var tsConfigIndex = indexByDirectory.get(directory);
+        if (tsConfigIndex != null) {
+          sharedFiles[tsConfigIndex]++;
+          break;
+        }
+      }
+    }
+    var best = 0;
+    for (var i = 1; i < sharedFiles.length; i++) {
+      if (sharedFiles[i] > sharedFiles[best]) {
+        best = i;
+      }
+    }
+    if (best > 0 && sharedFiles[best] > 0) {
+      var tsConfigs = new ArrayList<>(workList);
+      var tsConfig = tsConfigs.remove(best);
+      LOG.debug("Next TypeScript program is created from {}, which shares {} file(s) with the previous one", tsConfig, sharedFiles[best]);
+      workList.clear();
+      workList.add(tsConfig);
+      workList.addAll(tsConfigs);
+    }
+  }
+
+  /**
+   * Takes the next tsconfig of the worklist, whose program is created ahead or when it is first requested. The
+   * previous program must be deleted beforehand, as it counts among the programs alive.
+   *
+   * @return the next scheduled program, or null when the worklist is exhausted
+   */
+  @CheckForNull
+  ScheduledProgram next() {
+    schedule(maxPrograms);
+    return pending.poll();
+  }
+
+  private void schedule(int limit) {
+    while (pending.size() < limit && !workList.isEmpty()) {
+      // Use of path.of as it normalizes Unix and Windows paths. Otherwise, project references returned by typescript may not match system slash
+      var tsConfig = Path.of(workList.pop()).toString();
+      if (!scheduledProjects.add(tsConfig)) {
+        LOG.debug("tsconfig.json already analyzed: '{}'. Skipping it.", tsConfig);
+        continue;
+      }
+      var scheduled = new ScheduledProgram(tsConfig);
+      if (maxPrograms > 1) {
+        scheduled.ahead = true;
+        executor().execute(scheduled.task);
+      }
+      pending.add(scheduled);
+    }
+  }
+
+  /**
+   * Checks the heap usage reported by the bridge once the program was created. Above the memory budget, programs
+   * created ahead are deleted and no more programs are created ahead, until a program uses less than half of the
+   * budget.
+   *
+   * @return true when the program exceeds the memory budget
+   */
+  boolean exceedsMemoryBudget(TsProgram program) {
+    if (memoryBudget <= 0 || program.heapLimit <= 0) {
+      return false;
+    }
+    if (program.heapUsed * 100 <= program.heapLimit * memoryBudget) {
+      if (maxPrograms < configuredMaxPrograms && program.heapUsed * 200 <= program.heapLimit * memoryBudget) {
+        LOG.debug("The bridge uses less than half of the memory budget, programs are created ahead again");
+        maxPrograms = configuredMaxPrograms;
+      }
+      return false;
+    }
+    LOG.debug("The bridge uses {} MB out of {} MB of heap after creating a program", program.heapUsed / (1024 * 1024),
+      program.heapLimit / (1024 * 1024));
+    maxPrograms = 1;
+    for (var scheduled : pending) {
+      if (scheduled.ahead) {
+        deleteProgram(scheduled);
+      }
+      scheduledProjects.remove(scheduled.tsConfig);
+    }
+    var descending = pending.descendingIterator();
+    while (descending.hasNext()) {
+      workList.addFirst(descending.next().tsConfig);
+    }
+    pending.clear();
+    return true;
+  }
+
+  /**
+   * Replaces the program of a tsconfig with two smaller programs, each including half of the given files, which are
+   * created next. Programs are not split below {@link #MIN_PROGRAM_FILES} files each, nor when the program comes from
+   * a split which did not reduce the heap usage. The caller remains in charge of deleting the original program.
+   *
+   * @return true when the program was split
+   */
+  boolean split(ScheduledProgram scheduled, TsProgram program, List<String> files) throws IOException {
+    if (files.size() < 2 * MIN_PROGRAM_FILES) {
+      LOG.debug("TypeScript program of {} is not split as it has {} file(s) to analyze", scheduled.tsConfig, files.size());
+      return false;
+    }
+    var heapUsedBefore = heapUsedBeforeSplit.get(scheduled.tsConfig);
+    if (heapUsedBefore != null && program.heapUsed >= heapUsedBefore) {
+      LOG.debug("TypeScript program of {} is not split as splitting its original program did not reduce the heap usage", scheduled.tsConfig);
+      return false;
+    }
+    var half = (files.size() + 1) / 2;
+    var first = createTsConfigFile(scheduled.tsConfig, files.subList(0, half));
+    var second = createTsConfigFile(scheduled.tsConfig, files.subList(half, files.size()));
+    heapUsedBeforeSplit.put(Path.of(first).toString(), program.heapUsed);
+    heapUsedBeforeSplit.put(Path.of(second).toString(), program.heapUsed);
+    workList.addFirst(second);
+    workList.addFirst(first);
+    return true;
+  }
+
+  private String createTsConfigFile(String tsConfig, List<String> files) throws IOException {
+    Map<String, Object> content = new LinkedHashMap<>();
+    content.put("extends", tsConfig);
+    content.put("files", files);
+    content.put("include", emptyList());
+    return eslintBridgeServer.createTsConfigFile(GSON.toJson(content)).filename;
+  }
+
+  private ExecutorService executor() {
+    if (executor == null) {
+      executor = Executors.newFixedThreadPool(configuredMaxPrograms - 1, r -> {
+        var thread = new Thread(r);
+        thread.setName("eslint-bridge-programs");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor;
+  }
+
+  /**
+   * Deletes the programs created ahead which were not handed over, e.g. when the analysis is interrupted. Programs
+   * being created are awaited, as bridge workers may outlive the analysis.
+   */
+  @Override
+  public void close() {
+    for (var scheduled : pending) {
+      if (scheduled.ahead) {
+        deleteProgram(scheduled);
+      } else {
+        scheduled.task.cancel(false);
+      }
+    }
+    pending.clear();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private void deleteProgram(ScheduledProgram scheduled) {
+    try {
+      var program = get(scheduled.task);
+      if (program.programId != null) {
+        eslintBridgeServer.deleteProgram(program);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Failed to delete program of " + scheduled.tsConfig, e);
+    }
+  }
+
+  private static TsProgram get(FutureTask<TsProgram> task) throws IOException {
+    try {
+      return task.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while creating TypeScript program", e);
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  class ScheduledProgram {
+    final String tsConfig;
+    private final FutureTask<TsProgram> task;
+    // whether the program is created ahead on the executor, rather than inline when it is needed
+    private boolean ahead;
+    private boolean handedOver;
+    // times are measured in microseconds, the creation time is set by the task before it completes
+    private long creationTime;
+    private long waitTime;
+
+    private ScheduledProgram(String tsConfig) {
+      this.tsConfig = tsConfig;
+      this.task = new FutureTask<>(this::create);
+    }
+
+    private TsProgram create() throws IOException {
+      var clock = new Monitoring.Clock();
+      try {
+        return eslintBridgeServer.createProgram(new TsProgramRequest(tsConfig));
+      } finally {
+        creationTime = clock.stop();
+      }
+    }
+
+    /**
+     * Waits for the program, the programs of the next tsconfigs and of its project references are then created while
+     * it is analyzed.
+     */
+    TsProgram program() throws IOException {
+      var clock = new Monitoring.Clock();
+      // inline creation when the task was not handed over to the executor, running it again has no effect
+      task.run();
+      var program = get(task);
+      if (!handedOver) {
+        handedOver = true;
+        waitTime = ahead ? clock.stop() : 0;
+        if (program.error == null && program.projectReferences != null) {
+          workList.addAll(program.projectReferences);
+        }
+        if (program.error == null && program.files != null) {
+          preferTsConfigSharingFiles(program.files);
+        }
+        schedule(maxPrograms - 1);
+      }
+      return program;
+    }
+
+    /**
+     * @return time spent creating the program, in microseconds, whether it was created ahead or inline
+     */
+    long creationTime() {
+      return creationTime;
+    }
+
+    /**
+     * @return time the first hand-over was blocked waiting for the program created ahead, in microseconds, the
+     * creation of a program created inline is not counted as waiting
+     */
+    long waitTime() {
+      return waitTime;
+    }
+  }
+}
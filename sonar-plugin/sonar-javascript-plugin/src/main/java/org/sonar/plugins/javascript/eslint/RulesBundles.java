@@ -74,15 +74,8 @@ public class RulesBundles {
     bundleUrls.forEach(bundle -> {
       try {
         Path location = Files.createTempDirectory(target, "custom-rules");
-        LOG.debug("Deploying custom rules bundle {} to {}", bundle, location);
-        BundleUtils.extractFromClasspath(bundle.openStream(), location);
-        Path deployedBundle = location.resolve("package").toAbsolutePath();
-        if (!Files.exists(deployedBundle)) {
-          // Inside tgz we expect "package" directory, this is npm contract.
-          // see https://stackoverflow.com/questions/29717774/npm-pack-rename-package-directory
-          throw new IllegalStateException("Failed to deploy bundle " + bundle + ". Didn't find 'package' dir.");
-        }
-        unpackedBundles.add(deployedBundle);
+        extract(bundle, location);
+        unpackedBundles.add(deployedPackage(bundle, location));
       } catch (IOException e) {
         LOG.error("Failed to extract bundle " + bundle, e);
       }
@@ -90,6 +83,55 @@ public class RulesBundles {
     return unpackedBundles;
   }
 
+  /**
+   * Deploy bundles in a cache shared by analyses and return list of paths for deployed modules. Each bundle is
+   * extracted only once, in a directory named after its checksum.
+   */
+  public List<Path> deployToCache(Path cache) {
+    List<Path> unpackedBundles = new ArrayList<>();
+    bundleUrls.forEach(bundle -> {
+      try {
+        Path location = BundleUtils.deployToCache(cache, checksum(bundle), target -> extract(bundle, target));
+        unpackedBundles.add(deployedPackage(bundle, location));
+      } catch (IOException e) {
+        LOG.error("Failed to extract bundle " + bundle, e);
+      }
+    });
+    return unpackedBundles;
+  }
+
+  private static void extract(URL bundle, Path location) throws IOException {
+    LOG.debug("Deploying custom rules bundle {} to {}", bundle, location);
+    BundleUtils.extractFromClasspath(bundle.openStream(), location);
+  }
+
+  private static Path deployedPackage(URL bundle, Path location) {
+    Path deployedBundle = location.resolve("package").toAbsolutePath();
+    if (!Files.exists(deployedBundle)) {
+      // Inside tgz we expect "package" directory, this is npm contract.
+      // see https://stackoverflow.com/questions/29717774/npm-pack-rename-package-directory
+      throw new IllegalStateException("Failed to deploy bundle " + bundle + ". Didn't find 'package' dir.");
+    }
+    return deployedBundle;
+  }
+
+  /**
+   * Identifies the content of all the bundles, which don't need to be deployed.
+   */
+  public String checksum() throws IOException {
+    var checksums = new StringBuilder();
+    for (URL bundle : bundleUrls) {
+      checksums.append(checksum(bundle)).append(';');
+    }
+    return checksums.toString();
+  }
+
+  private static String checksum(URL bundle) throws IOException {
+    try (var stream = bundle.openStream()) {
+      return BundleUtils.checksum(stream);
+    }
+  }
+
   public Optional<RulesBundle> getUcfgRulesBundle() {
     return bundles.stream()
       .filter(bundle -> "ucfg".equals(bundle.bundleKey()))
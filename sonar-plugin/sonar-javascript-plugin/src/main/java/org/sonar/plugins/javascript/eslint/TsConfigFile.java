@@ -20,6 +20,7 @@
 package org.sonar.plugins.javascript.eslint;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -50,12 +51,20 @@ class TsConfigFile implements Predicate<InputFile> {
     return files.contains(inputFile.absolutePath());
   }
 
+  /**
+   * Assigns each input file to the first tsconfig which includes it, in linear time of the files of the tsconfigs and
+   * of the input files.
+   */
   static Map<TsConfigFile, List<InputFile>> inputFilesByTsConfig(List<TsConfigFile> tsConfigFiles, List<InputFile> inputFiles) {
+    Map<String, TsConfigFile> tsConfigByFile = new HashMap<>();
+    for (TsConfigFile tsConfigFile : tsConfigFiles) {
+      for (String file : tsConfigFile.files) {
+        tsConfigByFile.putIfAbsent(file, tsConfigFile);
+      }
+    }
     Map<TsConfigFile, List<InputFile>> result = new LinkedHashMap<>();
     inputFiles.forEach(inputFile -> {
-      TsConfigFile tsconfig = tsConfigFiles.stream()
-        .filter(tsConfigFile -> tsConfigFile.test(inputFile))
-        .findFirst().orElse(UNMATCHED_CONFIG);
+      TsConfigFile tsconfig = tsConfigByFile.getOrDefault(inputFile.absolutePath(), UNMATCHED_CONFIG);
       LOG.debug("{} matched {}", inputFile.absolutePath(), tsconfig);
       result.computeIfAbsent(tsconfig, t -> new ArrayList<>()).add(inputFile);
     });
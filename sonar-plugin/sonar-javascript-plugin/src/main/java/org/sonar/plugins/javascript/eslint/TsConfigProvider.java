@@ -99,6 +99,19 @@ class TsConfigProvider {
     return emptyList();
   }
 
+  /**
+   * Content of a lightweight tsconfig.json for files which are not part of any tsconfig.json. Imports are not
+   * resolved and no type declaration package is loaded, so that only the listed files and the default library are
+   * parsed, at the expense of the types coming from other files.
+   */
+  static String fallbackTsConfig(List<InputFile> inputFiles) {
+    var tsConfig = new GeneratedTsConfigFileProvider.TsConfig(inputFiles, null);
+    tsConfig.compilerOptions.put("noResolve", true);
+    tsConfig.compilerOptions.put("types", emptyList());
+    tsConfig.compilerOptions.put("skipLibCheck", true);
+    return new Gson().toJson(tsConfig);
+  }
+
   static class PropertyTsConfigProvider implements Provider {
 
     @Override
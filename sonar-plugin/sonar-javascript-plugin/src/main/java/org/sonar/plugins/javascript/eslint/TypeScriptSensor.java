@@ -30,6 +30,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.FilePredicate;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
@@ -42,9 +43,10 @@ import org.sonar.plugins.javascript.JavaScriptFilePredicate;
 import org.sonar.plugins.javascript.JavaScriptLanguage;
 import org.sonar.plugins.javascript.TypeScriptLanguage;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.BatchAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
-import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
 import org.sonar.plugins.javascript.eslint.cache.CacheStrategies;
+import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
 import org.sonar.plugins.javascript.utils.ProgressReport;
 
 import static java.util.Collections.singletonList;
@@ -90,7 +92,7 @@ public class TypeScriptSensor extends AbstractEslintSensor {
   @Override
   protected void analyzeFiles(List<InputFile> inputFiles) throws IOException {
     analysisMode = AnalysisMode.getMode(context, checks.eslintRules());
-    eslintBridgeServer.initLinter(checks.eslintRules(), environments, globals, analysisMode);
+    initLinter(checks.eslintRules(), analysisMode);
     if (shouldAnalyzeWithProgram(inputFiles)) {
       analysisWithProgram.analyzeFiles(context, checks, inputFiles);
       return;
@@ -103,19 +105,24 @@ public class TypeScriptSensor extends AbstractEslintSensor {
     }
     boolean success = false;
     ProgressReport progressReport = new ProgressReport(PROGRESS_REPORT_TITLE, PROGRESS_REPORT_PERIOD);
-    Map<TsConfigFile, List<InputFile>> filesByTsConfig = TsConfigFile.inputFilesByTsConfig(loadTsConfigs(tsConfigs), inputFiles);
+    // files missing from the cache come first, so that their analysis overlaps with the processing of the cache hits
+    var cacheStrategies = CacheStrategies.getStrategiesFor(context, inputFiles);
+    Map<TsConfigFile, List<InputFile>> filesByTsConfig = TsConfigFile.inputFilesByTsConfig(loadTsConfigs(tsConfigs), new ArrayList<>(cacheStrategies.keySet()));
     try {
       progressReport.start(inputFiles.size(), inputFiles.iterator().next().absolutePath());
       for (Map.Entry<TsConfigFile, List<InputFile>> entry : filesByTsConfig.entrySet()) {
         TsConfigFile tsConfigFile = entry.getKey();
         List<InputFile> files = entry.getValue();
         if (TsConfigFile.UNMATCHED_CONFIG.equals(tsConfigFile)) {
+          tsConfigFile = contextUtils.fallbackPrograms() ? createFallbackTsConfig(files) : null;
+        }
+        if (tsConfigFile == null) {
           LOG.info("Skipping {} files with no tsconfig.json", files.size());
           LOG.debug("Skipped files: " + files.stream().map(InputFile::toString).collect(Collectors.joining("\n")));
           continue;
         }
         LOG.info("Analyzing {} files using tsconfig: {}", files.size(), tsConfigFile);
-        analyzeFilesWithTsConfig(files, tsConfigFile, progressReport);
+        analyzeFilesWithTsConfig(files, tsConfigFile, cacheStrategies, progressReport);
         eslintBridgeServer.newTsConfig();
       }
       success = true;
@@ -128,44 +135,68 @@ public class TypeScriptSensor extends AbstractEslintSensor {
     }
   }
 
+  @Nullable
+  private TsConfigFile createFallbackTsConfig(List<InputFile> files) {
+    try {
+      var tsConfigFile = eslintBridgeServer.createTsConfigFile(TsConfigProvider.fallbackTsConfig(files));
+      LOG.info("Using generated tsconfig.json {} for {} files with no tsconfig.json", tsConfigFile.filename, files.size());
+      return tsConfigFile;
+    } catch (IOException e) {
+      LOG.warn("Generating tsconfig.json for files with no tsconfig.json failed", e);
+      return null;
+    }
+  }
+
   private boolean shouldAnalyzeWithProgram(List<InputFile> inputFiles) {
     return inputFiles.stream().noneMatch(f -> f.filename().endsWith(".vue")) && !contextUtils.isSonarLint();
   }
 
-  private void analyzeFilesWithTsConfig(List<InputFile> files, TsConfigFile tsConfigFile, ProgressReport progressReport) throws IOException {
-    for (InputFile inputFile : files) {
-      if (context.isCancelled()) {
-        throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
-      }
-      if (eslintBridgeServer.isAlive()) {
-        monitoring.startFile(inputFile);
-        analyze(inputFile, tsConfigFile);
-        progressReport.nextFile(inputFile.absolutePath());
-      } else {
-        throw new IllegalStateException("eslint-bridge server is not answering");
+  private void analyzeFilesWithTsConfig(List<InputFile> files, TsConfigFile tsConfigFile, Map<InputFile, CacheStrategy> cacheStrategies,
+                                        ProgressReport progressReport) throws IOException {
+    // all requests must be completed before the bridge is asked to drop the tsconfig
+    try (var dispatcher = new AnalysisDispatcher(monitoring, eslintBridgeServer.getWorkerCount(), contextUtils.analysisBatchSize())) {
+      for (InputFile inputFile : files) {
+        if (context.isCancelled()) {
+          throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
+        }
+        if (eslintBridgeServer.isAliveCached()) {
+          analyze(inputFile, cacheStrategies.get(inputFile), tsConfigFile, dispatcher);
+          progressReport.nextFile(inputFile.absolutePath());
+        } else {
+          throw new IllegalStateException("eslint-bridge server is not answering");
+        }
       }
+      dispatcher.awaitCompletion();
     }
   }
 
-  private void analyze(InputFile file, TsConfigFile tsConfigFile) throws IOException {
-    var cacheStrategy = CacheStrategies.getStrategyFor(context, file);
+  private void analyze(InputFile file, CacheStrategy cacheStrategy, TsConfigFile tsConfigFile, AnalysisDispatcher dispatcher) throws IOException {
     if (cacheStrategy.isAnalysisRequired()) {
-      try {
-        LOG.debug("Analyzing file: " + file.uri());
-        String fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
-        JsAnalysisRequest request = new JsAnalysisRequest(file.absolutePath(), file.type().toString(), fileContent,
-          contextUtils.ignoreHeaderComments(), singletonList(tsConfigFile.filename), null, analysisMode.getLinterIdFor(file));
-        AnalysisResponse response = eslintBridgeServer.analyzeTypeScript(request);
-        analysisProcessor.processResponse(context, checks, file, response);
-        cacheStrategy.writeAnalysisToCache(CacheAnalysis.fromResponse(response.ucfgPaths, response.cpdTokens), file);
-      } catch (IOException e) {
-        LOG.error("Failed to get response while analyzing " + file, e);
-        throw e;
-      }
+      LOG.debug("Analyzing file: " + file.uri());
+      String fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
+      JsAnalysisRequest request = new JsAnalysisRequest(file.absolutePath(), file.type().toString(), fileContent,
+        contextUtils.ignoreHeaderComments(), singletonList(tsConfigFile.filename), null, analysisMode.getLinterIdFor(file));
+      var sink = analysisProcessor.newResponseSink(context, file, cacheStrategy, request);
+      dispatcher.submit(file, request, () -> analyzeTypeScript(file, request),
+        () -> eslintBridgeServer.analyzeTypeScriptAsync(request, sink),
+        batch -> eslintBridgeServer.analyzeBatchAsync(new BatchAnalysisRequest(BatchAnalysisRequest.TYPESCRIPT, batch)), response -> {
+        analysisProcessor.processResponse(context, checks, file, response, sink);
+        analysisProcessor.writeToCache(context, cacheStrategy, file, request, response);
+      });
     } else {
       LOG.debug("Processing cache analysis of file: {}", file.uri());
+      monitoring.startFile(file);
       var cacheAnalysis = cacheStrategy.readAnalysisFromCache();
-      analysisProcessor.processCacheAnalysis(context, file, cacheAnalysis);
+      analysisProcessor.processCacheAnalysis(context, checks, file, cacheAnalysis);
+    }
+  }
+
+  private AnalysisResponse analyzeTypeScript(InputFile file, JsAnalysisRequest request) throws IOException {
+    try {
+      return eslintBridgeServer.analyzeTypeScript(request);
+    } catch (IOException e) {
+      LOG.error("Failed to get response while analyzing " + file, e);
+      throw e;
     }
   }
 
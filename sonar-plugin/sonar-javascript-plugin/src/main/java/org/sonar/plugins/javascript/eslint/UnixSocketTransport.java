@@ -0,0 +1,273 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Sends requests over a Unix domain socket, which avoids picking a free TCP port and the overhead of the TCP stack.
+ *
+ * The bridge keeps serving its REST API on the socket: every request is a plain HTTP/1.0 exchange on its own
+ * connection, so that the response body simply ends when the bridge closes the connection.
+ *
+ * Unix domain socket channels are only available since Java 16 while the plugin still runs on Java 11, hence they are
+ * looked up reflectively. The transport is not available on Windows either, where Node.js listens to named pipes.
+ */
+class UnixSocketTransport implements BridgeTransport {
+
+  private static final Logger LOG = Loggers.get(UnixSocketTransport.class);
+
+  // Unix domain socket paths are limited to 104 bytes on macOS and 108 bytes on Linux, including the terminating null
+  private static final int MAX_PATH_LENGTH = 100;
+  private static final int MAX_HEADER_LINE_LENGTH = 8192;
+
+  private final Path socket;
+  private final boolean owned;
+  private final SocketAddress socketAddress;
+  private final Method open;
+  private final ProtocolFamily family;
+  private final ScheduledExecutorService timeouts;
+  private final ExecutorService executor;
+
+  private UnixSocketTransport(Path socket, boolean owned, SocketAddress socketAddress, Method open, ProtocolFamily family) {
+    this.socket = socket;
+    this.owned = owned;
+    this.socketAddress = socketAddress;
+    this.open = open;
+    this.family = family;
+    this.timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "eslint-bridge-socket-timeout"));
+    this.executor = Executors.newCachedThreadPool(runnable -> daemon(runnable, "eslint-bridge-socket"));
+  }
+
+  /**
+   * Creates a transport on a socket in a new temporary directory, or nothing if Unix domain sockets can't be used.
+   * The socket is not in the (possibly deep) work directory because of the limited length of socket paths.
+   */
+  static Optional<BridgeTransport> create() throws IOException {
+    if (System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows")) {
+      return Optional.empty();
+    }
+    var socket = Files.createTempDirectory("eslint-bridge").resolve("bridge.sock");
+    var transport = create(socket, true);
+    if (transport.isEmpty()) {
+      Files.deleteIfExists(socket.getParent());
+    }
+    return transport;
+  }
+
+  /**
+   * Creates a transport on the given socket. Unless the transport owns the socket, the socket is left in place when
+   * the transport is closed, e.g. for a daemon which keeps listening to it.
+   */
+  static Optional<BridgeTransport> create(Path socket, boolean owned) {
+    if (socket.toString().getBytes(StandardCharsets.UTF_8).length > MAX_PATH_LENGTH) {
+      LOG.debug("Unix domain socket path is too long: {}", socket);
+      return Optional.empty();
+    }
+    try {
+      var addressClass = Class.forName("java.net.UnixDomainSocketAddress");
+      var socketAddress = (SocketAddress) addressClass.getMethod("of", Path.class).invoke(null, socket);
+      var open = SocketChannel.class.getMethod("open", ProtocolFamily.class);
+      var family = StandardProtocolFamily.valueOf("UNIX");
+      return Optional.of(new UnixSocketTransport(socket, owned, socketAddress, open, family));
+    } catch (ReflectiveOperationException | IllegalArgumentException e) {
+      LOG.debug("Unix domain sockets are not supported by this Java runtime");
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public String address() {
+    return socket.toString();
+  }
+
+  @Override
+  public Response post(String endpoint, String json, Duration timeout) throws IOException {
+    var body = json.getBytes(StandardCharsets.UTF_8);
+    var head = "POST /" + endpoint + " HTTP/1.0\r\n" +
+      "Content-Type: application/json\r\n" +
+      "Content-Length: " + body.length + "\r\n\r\n";
+    return exchange(head, body, timeout);
+  }
+
+  @Override
+  public CompletableFuture<Response> postAsync(String endpoint, String json, Duration timeout) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return post(endpoint, json, timeout);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+  }
+
+  @Override
+  public Response get(String endpoint) throws IOException {
+    return exchange("GET /" + endpoint + " HTTP/1.0\r\n\r\n", new byte[0], null);
+  }
+
+  @Override
+  public void close() {
+    timeouts.shutdownNow();
+    executor.shutdownNow();
+    if (!owned) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(socket);
+      Files.deleteIfExists(socket.getParent());
+    } catch (IOException e) {
+      LOG.debug("Failed to delete Unix domain socket " + socket, e);
+    }
+  }
+
+  /**
+   * Sends the request and waits for the response head, the body is read by the caller. Like with HTTP, the timeout
+   * only applies until the response starts: the connection is then closed, which fails the pending read.
+   */
+  private Response exchange(String head, byte[] body, @Nullable Duration timeout) throws IOException {
+    var channel = open();
+    var timeoutTask = timeout == null ? null : timeouts.schedule(() -> closeQuietly(channel), timeout.toMillis(), TimeUnit.MILLISECONDS);
+    try {
+      channel.connect(socketAddress);
+      writeFully(channel, ByteBuffer.wrap(head.getBytes(StandardCharsets.ISO_8859_1)));
+      writeFully(channel, ByteBuffer.wrap(body));
+      var response = readResponse(Channels.newInputStream(channel));
+      if (timeoutTask != null && !timeoutTask.cancel(false)) {
+        throw new IOException("Request timed out after " + timeout);
+      }
+      return response;
+    } catch (IOException | RuntimeException e) {
+      closeQuietly(channel);
+      throw e;
+    } finally {
+      if (timeoutTask != null) {
+        timeoutTask.cancel(false);
+      }
+    }
+  }
+
+  private SocketChannel open() throws IOException {
+    try {
+      return (SocketChannel) open.invoke(null, family);
+    } catch (InvocationTargetException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException("Failed to open Unix domain socket channel", e.getCause());
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Failed to open Unix domain socket channel", e);
+    }
+  }
+
+  /**
+   * Reads the status line and the headers of an HTTP/1.0 response, the remaining stream being the body.
+   */
+  static Response readResponse(InputStream input) throws IOException {
+    var in = new BufferedInputStream(input);
+    var statusLine = readLine(in);
+    if (statusLine == null || !statusLine.startsWith("HTTP/")) {
+      throw new IOException("Invalid response from eslint-bridge: " + statusLine);
+    }
+    String contentType = null;
+    String line;
+    while ((line = readLine(in)) != null && !line.isEmpty()) {
+      var separator = line.indexOf(':');
+      if (separator > 0 && "content-type".equalsIgnoreCase(line.substring(0, separator).trim())) {
+        contentType = line.substring(separator + 1).trim();
+      }
+    }
+    if (line == null) {
+      throw new IOException("Unexpected end of response headers from eslint-bridge");
+    }
+    return new Response(contentType, in);
+  }
+
+  @Nullable
+  private static String readLine(InputStream in) throws IOException {
+    var line = new ByteArrayOutputStream();
+    int b;
+    while ((b = in.read()) != -1) {
+      if (b == '\n') {
+        return trimCarriageReturn(line.toString(StandardCharsets.ISO_8859_1));
+      }
+      if (line.size() >= MAX_HEADER_LINE_LENGTH) {
+        throw new IOException("Response header line from eslint-bridge is too long");
+      }
+      line.write(b);
+    }
+    return line.size() == 0 ? null : trimCarriageReturn(line.toString(StandardCharsets.ISO_8859_1));
+  }
+
+  private static String trimCarriageReturn(String line) {
+    return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+  }
+
+  private static void writeFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static void closeQuietly(SocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // nothing to do, the channel is unusable anyway
+    }
+  }
+
+  private static Thread daemon(Runnable runnable, String name) {
+    var thread = new Thread(runnable, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  @Override
+  public String toString() {
+    return "socket " + socket;
+  }
+}
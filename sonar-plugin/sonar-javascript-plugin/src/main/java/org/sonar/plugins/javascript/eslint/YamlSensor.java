@@ -34,8 +34,8 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.javascript.CancellationException;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
-import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
 import org.sonar.plugins.javascript.eslint.cache.CacheStrategies;
+import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
 import org.sonar.plugins.javascript.utils.ProgressReport;
 
 public class YamlSensor extends AbstractEslintSensor {
@@ -74,20 +74,22 @@ public class YamlSensor extends AbstractEslintSensor {
     analysisMode = AnalysisMode.getMode(context, checks.eslintRules());
     var progressReport = new ProgressReport("Analysis progress", TimeUnit.SECONDS.toMillis(10));
     var success = false;
-    try {
+    try (var dispatcher = new AnalysisDispatcher(null, eslintBridgeServer.getWorkerCount())) {
       progressReport.start(inputFiles.size(), inputFiles.iterator().next().absolutePath());
-      eslintBridgeServer.initLinter(checks.eslintRules(), environments, globals, analysisMode);
-      for (var inputFile : inputFiles) {
+      initLinter(checks.eslintRules(), analysisMode);
+      var cacheStrategies = CacheStrategies.getStrategiesFor(context, inputFiles);
+      for (var entry : cacheStrategies.entrySet()) {
         if (context.isCancelled()) {
           throw new CancellationException("Analysis interrupted because the SensorContext is in cancelled state");
         }
-        if (eslintBridgeServer.isAlive()) {
-          progressReport.nextFile(inputFile.absolutePath());
-          analyze(inputFile);
+        if (eslintBridgeServer.isAliveCached()) {
+          progressReport.nextFile(entry.getKey().absolutePath());
+          analyze(entry.getKey(), entry.getValue(), dispatcher);
         } else {
           throw new IllegalStateException("eslint-bridge server is not answering");
         }
       }
+      dispatcher.awaitCompletion();
       success = true;
     } finally {
       if (success) {
@@ -139,29 +141,35 @@ public class YamlSensor extends AbstractEslintSensor {
     return false;
   }
 
-  private void analyze(InputFile file) throws IOException {
-    var cacheStrategy = CacheStrategies.getStrategyFor(context, file);
-    // When there is no analysis required, the sensor doesn't need to do anything as the CPD tokens are handled by the sonar-iac plugin.
-    // See AnalysisProcessor for more details.
+  private void analyze(InputFile file, CacheStrategy cacheStrategy, AnalysisDispatcher dispatcher) throws IOException {
+    // Only issues are saved for YAML files, CPD tokens are handled by the sonar-iac plugin. See AnalysisProcessor for more details.
     if (cacheStrategy.isAnalysisRequired()) {
-      try {
-        LOG.debug("Analyzing file: {}", file.uri());
-        var fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
-        var jsAnalysisRequest = new JsAnalysisRequest(
-          file.absolutePath(),
-          file.type().toString(),
-          fileContent,
-          contextUtils.ignoreHeaderComments(),
-          null,
-          null,
-          analysisMode.getLinterIdFor(file));
-        var response = eslintBridgeServer.analyzeYaml(jsAnalysisRequest);
+      LOG.debug("Analyzing file: {}", file.uri());
+      var fileContent = contextUtils.shouldSendFileContent(file) ? file.contents() : null;
+      var jsAnalysisRequest = new JsAnalysisRequest(
+        file.absolutePath(),
+        file.type().toString(),
+        fileContent,
+        contextUtils.ignoreHeaderComments(),
+        null,
+        null,
+        analysisMode.getLinterIdFor(file));
+      dispatcher.submit(file, () -> analyzeYaml(file, jsAnalysisRequest), response -> {
         analysisProcessor.processResponse(context, checks, file, response);
-        cacheStrategy.writeAnalysisToCache(CacheAnalysis.fromResponse(response.ucfgPaths, response.cpdTokens), file);
-      } catch (IOException e) {
-        LOG.error("Failed to get response while analyzing " + file.uri(), e);
-        throw e;
-      }
+        analysisProcessor.writeToCache(context, cacheStrategy, file, jsAnalysisRequest, response);
+      });
+    } else {
+      LOG.debug("Processing cache analysis of file: {}", file.uri());
+      analysisProcessor.processCacheAnalysis(context, checks, file, cacheStrategy.readAnalysisFromCache());
+    }
+  }
+
+  private EslintBridgeServer.AnalysisResponse analyzeYaml(InputFile file, JsAnalysisRequest request) throws IOException {
+    try {
+      return eslintBridgeServer.analyzeYaml(request);
+    } catch (IOException e) {
+      LOG.error("Failed to get response while analyzing " + file.uri(), e);
+      throw e;
     }
   }
 }
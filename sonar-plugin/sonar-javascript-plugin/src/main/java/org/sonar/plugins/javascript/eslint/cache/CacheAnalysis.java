@@ -27,18 +27,29 @@ public class CacheAnalysis {
 
   private final List<String> ucfgPaths;
   private final EslintBridgeServer.CpdToken[] cpdTokens;
+  private final byte[] results;
+  private final String linterId;
 
-  public CacheAnalysis(@Nullable List<String> ucfgPaths, EslintBridgeServer.CpdToken[] cpdTokens) {
+  /**
+   * @param results  the encoded analysis response, with issues, metrics, highlighting and symbols of the file, or null
+   *                 when only the UCFG files and the CPD tokens of the file are cached
+   * @param linterId the linter of the bridge which produced the results
+   */
+  public CacheAnalysis(@Nullable List<String> ucfgPaths, EslintBridgeServer.CpdToken[] cpdTokens, @Nullable byte[] results,
+    @Nullable String linterId) {
     this.ucfgPaths = ucfgPaths;
     this.cpdTokens = cpdTokens;
+    this.results = results;
+    this.linterId = linterId;
   }
 
-  public static CacheAnalysis fromResponse(List<String> ucfgPaths, EslintBridgeServer.CpdToken[] cpdTokens) {
-    return new CacheAnalysis(ucfgPaths, cpdTokens);
+  public static CacheAnalysis fromResponse(List<String> ucfgPaths, EslintBridgeServer.CpdToken[] cpdTokens, @Nullable byte[] results,
+    String linterId) {
+    return new CacheAnalysis(ucfgPaths, cpdTokens, results, linterId);
   }
 
-  static CacheAnalysis fromCache(EslintBridgeServer.CpdToken[] cpdTokens) {
-    return new CacheAnalysis(null, cpdTokens);
+  static CacheAnalysis fromCache(EslintBridgeServer.CpdToken[] cpdTokens, @Nullable byte[] results) {
+    return new CacheAnalysis(null, cpdTokens, results, null);
   }
 
   @Nullable
@@ -50,4 +61,14 @@ public class CacheAnalysis {
     return cpdTokens;
   }
 
+  @Nullable
+  public byte[] getResults() {
+    return results;
+  }
+
+  @Nullable
+  public String getLinterId() {
+    return linterId;
+  }
+
 }
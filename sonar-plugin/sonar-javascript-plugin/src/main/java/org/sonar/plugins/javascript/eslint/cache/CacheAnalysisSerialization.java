@@ -19,57 +19,155 @@
  */
 package org.sonar.plugins.javascript.eslint.cache;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer;
+import org.sonar.plugins.javascript.eslint.cache.PackedCacheEntry.Section;
 
 import static java.util.Arrays.asList;
 
 public class CacheAnalysisSerialization extends CacheSerialization {
 
-  private final UCFGFilesSerialization ucfgFileSerialization;
-  private final CpdSerialization cpdSerialization;
-  private final JsonSerialization<FileMetadata> fileMetadataSerialization;
+  private static final Logger LOG = Loggers.get(CacheAnalysisSerialization.class);
+  private static final Gson GSON = new Gson();
+
+  private final FileFingerprints fingerprints;
+  private final CpdDictionary cpdDictionary;
+  private final CacheBudget budget;
+  private final UCFGFilesSerialization ucfgFiles;
+  private final String linterConfigDigest;
+  private final CacheStatistics statistics = new CacheStatistics();
+  private PackedCacheEntry entry;
 
   CacheAnalysisSerialization(SensorContext context, CacheKey cacheKey) {
-    super(context, cacheKey);
-    ucfgFileSerialization = new UCFGFilesSerialization(context, cacheKey.forUcfg());
-    cpdSerialization = new CpdSerialization(context, cacheKey.forCpd());
-    fileMetadataSerialization = new JsonSerialization<>(FileMetadata.class, context, cacheKey.forFileMetadata());
+    this(context, cacheKey, new FileFingerprints(), new CpdDictionary(), new CacheBudget(), new UCFGFilesSerialization(), null);
   }
 
-  @Override
-  boolean isInCache() {
-    return ucfgFileSerialization.isInCache() && cpdSerialization.isInCache();
+  CacheAnalysisSerialization(SensorContext context, CacheKey cacheKey, FileFingerprints fingerprints, CpdDictionary cpdDictionary,
+                             CacheBudget budget, UCFGFilesSerialization ucfgFiles, @Nullable String linterConfigDigest) {
+    super(context, cacheKey.forAnalysis());
+    this.fingerprints = fingerprints;
+    this.cpdDictionary = cpdDictionary;
+    this.budget = budget;
+    this.ucfgFiles = ucfgFiles;
+    this.linterConfigDigest = linterConfigDigest;
   }
 
-  Optional<FileMetadata> fileMetadata() throws IOException {
-    if (fileMetadataSerialization.isInCache()) {
-      return Optional.of(fileMetadataSerialization.readFromCache());
-    } else {
-      return Optional.empty();
+  /**
+   * Reads the entry from the previous cache, it is only read once.
+   */
+  private PackedCacheEntry entry() throws IOException {
+    if (entry == null) {
+      var start = System.nanoTime();
+      try (var input = getInputStream()) {
+        entry = PackedCacheEntry.unpack(input);
+      }
+      statistics.addRead(entry.size(), CacheStatistics.elapsedSince(start));
     }
+    return entry;
   }
 
-  CacheAnalysis readFromCache() throws IOException {
-    ucfgFileSerialization.readFromCache();
+  /**
+   * Copies the entry read from the previous cache to the next one, within the budget of the cache.
+   */
+  void copyFromPreviousWithinBudget() {
+    budget.copyFromPrevious(this, statistics.getBytesRead());
+  }
+
+  CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  FileMetadata fileMetadata() throws IOException {
+    var json = new String(entry().get(Section.FILE_METADATA), StandardCharsets.UTF_8);
+    var start = System.nanoTime();
+    try {
+      var fileMetadata = GSON.fromJson(json, FileMetadata.class);
+      if (fileMetadata == null) {
+        throw new IOException("The file metadata is missing for key " + getCacheKey());
+      }
+      return fileMetadata;
+    } catch (JsonParseException e) {
+      throw new IOException("Failure when parsing cache entry JSON", e);
+    } finally {
+      statistics.addDeserializeTime(CacheStatistics.elapsedSince(start));
+    }
+  }
 
-    var cpdData = cpdSerialization.readFromCache();
-    return CacheAnalysis.fromCache(cpdData.getCpdTokens().toArray(new EslintBridgeServer.CpdToken[0]));
+  /**
+   * Metadata of the results held by the entry, or null when they are left out of the entry.
+   */
+  @Nullable
+  ResultsMetadata resultsMetadata() throws IOException {
+    var cacheEntry = entry();
+    if (cacheEntry.get(Section.RESULTS).length == 0) {
+      return null;
+    }
+    var json = new String(cacheEntry.get(Section.RESULTS_METADATA), StandardCharsets.UTF_8);
+    try {
+      var resultsMetadata = GSON.fromJson(json, ResultsMetadata.class);
+      if (resultsMetadata == null) {
+        throw new IOException("The results metadata is missing for key " + getCacheKey());
+      }
+      return resultsMetadata;
+    } catch (JsonParseException e) {
+      throw new IOException("Failure when parsing cache entry JSON", e);
+    }
+  }
+
+  CacheAnalysis readFromCache() throws IOException {
+    var cacheEntry = entry();
+    var start = System.nanoTime();
+    ucfgFiles.fromBinary(getWorkingDirectoryAbsolutePath(), cacheEntry.get(Section.UCFG_MANIFEST), cacheEntry.get(Section.UCFG_FILES));
+    statistics.addRestoreTime(CacheStatistics.elapsedSince(start));
+    start = System.nanoTime();
+    var cpdData = CpdDeserializer.fromBinary(cacheEntry.get(Section.CPD_DATA), cacheEntry.get(Section.CPD_STRING_TABLE), cpdDictionary);
+    statistics.addDeserializeTime(CacheStatistics.elapsedSince(start));
+    var results = cacheEntry.get(Section.RESULTS);
+    if (results.length == 0) {
+      results = null;
+    }
+    // the analysis holds everything needed from now on
+    entry = null;
+    LOG.debug("Cache entry extracted for key '{}'", getCacheKey());
+    return CacheAnalysis.fromCache(cpdData.getCpdTokens().toArray(new EslintBridgeServer.CpdToken[0]), results);
   }
 
   void writeToCache(CacheAnalysis analysis, InputFile file) throws IOException {
-    ucfgFileSerialization.writeToCache(analysis.getUcfgPaths());
-    cpdSerialization.writeToCache(new CpdData(asList(analysis.getCpdTokens())));
-    fileMetadataSerialization.writeToCache(FileMetadata.from(file));
+    var start = System.nanoTime();
+    var sections = new EnumMap<Section, byte[]>(Section.class);
+    var ucfgData = UCFGFilesSerialization.toBinary(getWorkingDirectoryAbsolutePath(), analysis.getUcfgPaths());
+    sections.put(Section.UCFG_MANIFEST, ucfgData.getManifest());
+    sections.put(Section.UCFG_FILES, ucfgData.getData());
+    var cpdData = CpdSerializer.toBinary(new CpdData(asList(analysis.getCpdTokens())), cpdDictionary);
+    sections.put(Section.CPD_DATA, cpdData.getData());
+    sections.put(Section.CPD_STRING_TABLE, cpdData.getStringTable());
+    if (analysis.getResults() != null) {
+      sections.put(Section.RESULTS, analysis.getResults());
+      sections.put(Section.RESULTS_METADATA, GSON.toJson(new ResultsMetadata(analysis.getLinterId(), linterConfigDigest)).getBytes(StandardCharsets.UTF_8));
+    }
+    sections.put(Section.FILE_METADATA, GSON.toJson(fingerprints.of(file)).getBytes(StandardCharsets.UTF_8));
+    var bytes = PackedCacheEntry.pack(sections);
+    if (!budget.admit(bytes.length)) {
+      LOG.debug("Cache entry of {} bytes for key '{}' exceeds the cache budget, it is not stored", bytes.length, getCacheKey());
+      return;
+    }
+    writeToCache(bytes);
+    statistics.addWrite(bytes.length, CacheStatistics.elapsedSince(start));
+    LOG.debug("Cache entry created for key '{}'", getCacheKey());
   }
 
-  @Override
-  void copyFromPrevious() {
-    ucfgFileSerialization.copyFromPrevious();
-    cpdSerialization.copyFromPrevious();
+  private Path getWorkingDirectoryAbsolutePath() {
+    return getContext().fileSystem().workDir().toPath();
   }
 
 }
@@ -0,0 +1,149 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Bounds the size of the entries stored in the next cache, so that the cache exchanged between the scanner and the
+ * server doesn't grow without limit. Entries above the budget are not stored and their files are analyzed again
+ * in the next analysis.
+ *
+ * When a total budget is set, the entries of the files analyzed by the current analysis, which changed recently, are
+ * stored first. The entries of the cache hits are only copied from the previous cache at the end of the sensor, as
+ * long as they fit in what remains of the budget.
+ *
+ * The total budget is shared by all the sensors of an analysis, which write to the same next cache. The CPD
+ * dictionaries are charged to it as well, but they are always stored since the entries of their sensor depend on them.
+ */
+class CacheBudget {
+
+  private static final Logger LOG = Loggers.get(CacheBudget.class);
+
+  // internal properties, in KB, the budgets are unlimited when they are not set
+  static final String MAX_ENTRY_SIZE = "sonar.javascript.cache.maxEntrySize";
+  static final String MAX_SIZE = "sonar.javascript.cache.maxSize";
+
+  private static final long UNLIMITED = Long.MAX_VALUE;
+
+  private final List<DeferredCopy> deferredCopies = new ArrayList<>();
+  private boolean loaded;
+  private WriteCache nextCache;
+  private long maxEntrySize = UNLIMITED;
+  private long maxSize = UNLIMITED;
+  private long size;
+  private int evictedEntries;
+  private long evictedSize;
+
+  /**
+   * Loads the budget of the analysis, the size already used by the previous sensors of the same analysis is kept.
+   */
+  synchronized void load(SensorContext context) {
+    if (loaded && context.nextCache() == nextCache) {
+      return;
+    }
+    loaded = true;
+    nextCache = context.nextCache();
+    size = 0;
+    maxEntrySize = UNLIMITED;
+    maxSize = UNLIMITED;
+    var config = context.config();
+    if (config != null) {
+      maxEntrySize = config.getLong(MAX_ENTRY_SIZE).filter(kb -> kb > 0).map(kb -> kb * 1024).orElse(UNLIMITED);
+      maxSize = config.getLong(MAX_SIZE).filter(kb -> kb > 0).map(kb -> kb * 1024).orElse(UNLIMITED);
+    }
+  }
+
+  /**
+   * Reserves room for a new entry of the given size.
+   *
+   * @return false when the entry doesn't fit in the budget and must not be stored
+   */
+  synchronized boolean admit(long entrySize) {
+    if (entrySize > maxEntrySize || entrySize > maxSize - size) {
+      evictedEntries++;
+      evictedSize += entrySize;
+      return false;
+    }
+    size += entrySize;
+    return true;
+  }
+
+  /**
+   * Charges an entry that is stored regardless of the budget.
+   */
+  synchronized void charge(long entrySize) {
+    size += entrySize;
+  }
+
+  /**
+   * Copies the entry from the previous cache, right away without a total budget and at the end of the sensor
+   * otherwise.
+   */
+  synchronized void copyFromPrevious(CacheSerialization serialization, long entrySize) {
+    if (maxSize == UNLIMITED) {
+      if (admit(entrySize)) {
+        serialization.copyFromPrevious();
+      }
+    } else {
+      deferredCopies.add(new DeferredCopy(serialization, entrySize));
+    }
+  }
+
+  synchronized void flush() {
+    for (var copy : deferredCopies) {
+      if (admit(copy.entrySize)) {
+        copy.serialization.copyFromPrevious();
+      }
+    }
+    deferredCopies.clear();
+    if (evictedEntries > 0) {
+      LOG.info("Skipped {} cache entries ({} KB) exceeding the cache size budget, their files will be analyzed again", evictedEntries,
+        evictedSize / 1024);
+    }
+    evictedEntries = 0;
+    evictedSize = 0;
+  }
+
+  /**
+   * Starts a new sensor, the budget itself is only reloaded for another analysis.
+   */
+  synchronized void reset() {
+    deferredCopies.clear();
+    evictedEntries = 0;
+    evictedSize = 0;
+  }
+
+  private static class DeferredCopy {
+
+    private final CacheSerialization serialization;
+    private final long entrySize;
+
+    DeferredCopy(CacheSerialization serialization, long entrySize) {
+      this.serialization = serialization;
+      this.entrySize = entrySize;
+    }
+  }
+}
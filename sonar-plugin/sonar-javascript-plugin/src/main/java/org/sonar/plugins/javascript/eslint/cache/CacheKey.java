@@ -47,22 +47,26 @@ class CacheKey {
     return new CacheKey(emptyList(), pluginVersion, inputFile.key());
   }
 
-  CacheKey forCpd() {
-    return withPrefix("js", "cpd");
+  /**
+   * Key of the dictionary of CPD strings shared by the files analyzed in the scope, usually a sensor.
+   */
+  static CacheKey forCpdDictionary(String scope, @Nullable String pluginVersion) {
+    return new CacheKey(List.of("js", "cpd-dictionary"), pluginVersion, scope);
   }
 
-  CacheKey forUcfg() {
-    return withPrefix("jssecurity", "ucfgs",
+  /**
+   * Key of the packed entry holding everything cached for the file. UCFG files depend on the version of the security
+   * frontend. The linter configuration is not part of the key, so that the sections which don't depend on it remain
+   * readable when it changes.
+   */
+  CacheKey forAnalysis() {
+    return withPrefix("js", "analysis",
       // UCFG version will be missing in the first period after this change as sonar-security does not have the change yet.
       // We might consider throwing when "ucfgVersion" is not defined some time later (e.g. when SQ 10.x series development starts).
       // Note that we should consider SonarJS running in the context without sonar-security (SQ with Community Edition)
       PluginInfo.getUcfgPluginVersion().orElse(null));
   }
 
-  CacheKey forFileMetadata() {
-    return withPrefix("js", "filemetadata");
-  }
-
   CacheKey withPrefix(String... prefixes) {
     return new CacheKey(Stream.concat(this.prefixes.stream(), Arrays.stream(prefixes)).collect(toList()), pluginVersion, file);
   }
@@ -19,9 +19,12 @@
  */
 package org.sonar.plugins.javascript.eslint.cache;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
@@ -36,13 +39,14 @@ class CacheReporter {
 
   private static final Logger LOG = Loggers.get(CacheReporter.class);
 
-  private final Map<Optional<CacheStrategies.MissReason>, AtomicInteger> counters = new HashMap<>();
+  private final Map<Optional<CacheStrategies.MissReason>, AtomicInteger> counters = new ConcurrentHashMap<>();
+  private final Queue<CacheStatistics> statistics = new ConcurrentLinkedQueue<>();
 
-  private static String getStrategyMessage(CacheStrategy strategy, @Nullable InputFile inputFile, @Nullable CacheStrategies.MissReason missReason) {
+  private static String getStrategyMessage(CacheStrategy strategy, @Nullable String component, @Nullable CacheStrategies.MissReason missReason) {
     var logBuilder = new StringBuilder("Cache strategy set to '");
     logBuilder.append(strategy.getName()).append("'");
-    if (inputFile != null) {
-      logBuilder.append(" for file '").append(inputFile).append("'");
+    if (component != null) {
+      logBuilder.append(" for file '").append(component).append("'");
     }
     if (missReason != null) {
       logBuilder.append(" as ").append(missReason.getDescription());
@@ -55,14 +59,23 @@ class CacheReporter {
   }
 
   void logAndIncrement(CacheStrategy strategy, InputFile inputFile, @Nullable CacheStrategies.MissReason missReason) {
+    var component = inputFile.toString();
     if (LOG.isDebugEnabled()) {
-      LOG.debug(getStrategyMessage(strategy, inputFile, missReason));
+      LOG.debug(getStrategyMessage(strategy, component, missReason));
     }
     getCounter(missReason).incrementAndGet();
+    var fileStatistics = strategy.getStatistics();
+    fileStatistics.setOutcome(component, strategy.getName(), missReason);
+    statistics.add(fileStatistics);
   }
 
   void reset() {
     counters.clear();
+    statistics.clear();
+  }
+
+  List<CacheStatistics> getStatistics() {
+    return List.copyOf(statistics);
   }
 
   void logReport() {
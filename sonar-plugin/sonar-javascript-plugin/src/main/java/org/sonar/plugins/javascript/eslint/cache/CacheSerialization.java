@@ -19,7 +19,6 @@
  */
 package org.sonar.plugins.javascript.eslint.cache;
 
-import java.io.IOException;
 import java.io.InputStream;
 import org.sonar.api.batch.sensor.SensorContext;
 
@@ -38,7 +37,11 @@ class CacheSerialization {
   }
 
   void copyFromPrevious() {
-    context.nextCache().copyFromPrevious(cacheKey.toString());
+    var nextCache = context.nextCache();
+    // the cache of the scanner is not meant to be written concurrently
+    synchronized (nextCache) {
+      nextCache.copyFromPrevious(cacheKey.toString());
+    }
   }
 
   SensorContext getContext() {
@@ -53,18 +56,18 @@ class CacheSerialization {
     return context.previousCache().read(cacheKey.toString());
   }
 
-  byte[] readBytesFromCache() throws IOException {
-    try (var input = getInputStream()) {
-      return input.readAllBytes();
-    }
-  }
-
   void writeToCache(byte[] bytes) {
-    context.nextCache().write(cacheKey.toString(), bytes);
+    var nextCache = context.nextCache();
+    synchronized (nextCache) {
+      nextCache.write(cacheKey.toString(), bytes);
+    }
   }
 
   void writeToCache(InputStream sequence) {
-    context.nextCache().write(cacheKey.toString(), sequence);
+    var nextCache = context.nextCache();
+    synchronized (nextCache) {
+      nextCache.write(cacheKey.toString(), sequence);
+    }
   }
 
 }
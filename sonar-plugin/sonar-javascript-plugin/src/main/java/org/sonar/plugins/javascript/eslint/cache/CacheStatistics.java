@@ -0,0 +1,114 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * What the cache did for a file: the strategy and reason of a miss, the size of the entry read and written, and the
+ * time spent on each step, in microseconds.
+ */
+public class CacheStatistics {
+
+  private String component;
+  private String strategy;
+  private String missReason;
+  private long bytesRead;
+  private long bytesWritten;
+  private long hashTime;
+  private long readTime;
+  private long deserializeTime;
+  private long restoreTime;
+  private long writeTime;
+
+  static long elapsedSince(long startNanos) {
+    return (System.nanoTime() - startNanos) / 1_000;
+  }
+
+  void setOutcome(String component, String strategy, @Nullable CacheStrategies.MissReason missReason) {
+    this.component = component;
+    this.strategy = strategy;
+    this.missReason = missReason == null ? null : missReason.name();
+  }
+
+  void addRead(long bytes, long time) {
+    bytesRead += bytes;
+    readTime += time;
+  }
+
+  void addWrite(long bytes, long time) {
+    bytesWritten += bytes;
+    writeTime += time;
+  }
+
+  void addHashTime(long time) {
+    hashTime += time;
+  }
+
+  void addDeserializeTime(long time) {
+    deserializeTime += time;
+  }
+
+  void addRestoreTime(long time) {
+    restoreTime += time;
+  }
+
+  public String getComponent() {
+    return component;
+  }
+
+  public String getStrategy() {
+    return strategy;
+  }
+
+  @CheckForNull
+  public String getMissReason() {
+    return missReason;
+  }
+
+  public long getBytesRead() {
+    return bytesRead;
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten;
+  }
+
+  public long getHashTime() {
+    return hashTime;
+  }
+
+  public long getReadTime() {
+    return readTime;
+  }
+
+  public long getDeserializeTime() {
+    return deserializeTime;
+  }
+
+  public long getRestoreTime() {
+    return restoreTime;
+  }
+
+  public long getWriteTime() {
+    return writeTime;
+  }
+}
@@ -20,6 +20,13 @@
 package org.sonar.plugins.javascript.eslint.cache;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.InputFile;
@@ -38,8 +45,25 @@ public class CacheStrategies {
 
   private static final Logger LOG = Loggers.get(CacheStrategies.class);
 
+  /**
+   * Upper bound of the threads evaluating cache strategies, reading the cache is mostly bound by the disk.
+   */
+  static final int MAX_THREADS = 8;
+
   private static final CacheReporter REPORTER = new CacheReporter();
 
+  private static final FileFingerprints FINGERPRINTS = new FileFingerprints();
+
+  private static final CpdDictionary CPD_DICTIONARY = new CpdDictionary();
+
+  private static final CacheBudget BUDGET = new CacheBudget();
+
+  private static final UCFGFilesSerialization UCFG_FILES = new UCFGFilesSerialization();
+
+  private static volatile String linterConfigDigest;
+
+  private static volatile AnalysisMode analysisMode = AnalysisMode.DEFAULT;
+
   private CacheStrategies() {
   }
 
@@ -62,6 +86,75 @@ public class CacheStrategies {
     return getStrategyFor(context, inputFile, PluginInfo.getVersion());
   }
 
+  /**
+   * Evaluates the cache strategies of the files on a bounded thread pool before they are analyzed, so that hashing
+   * the files and restoring the cache hits don't happen between requests to the bridge.
+   *
+   * @return the strategies of the files which require an analysis, followed by the ones of the cache hits, both in the
+   * order of the given files
+   */
+  public static Map<InputFile, CacheStrategy> getStrategiesFor(SensorContext context, List<InputFile> inputFiles) throws IOException {
+    return getStrategiesFor(context, inputFiles, PluginInfo.getVersion(), Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS));
+  }
+
+  static Map<InputFile, CacheStrategy> getStrategiesFor(SensorContext context, List<InputFile> inputFiles, @Nullable String pluginVersion,
+    int threads) throws IOException {
+    var strategies = new ArrayList<CacheStrategy>(inputFiles.size());
+    if (threads <= 1 || inputFiles.size() <= 1) {
+      for (var inputFile : inputFiles) {
+        strategies.add(getStrategyFor(context, inputFile, pluginVersion));
+      }
+    } else {
+      var executor = Executors.newFixedThreadPool(threads, r -> {
+        var thread = new Thread(r);
+        thread.setName("cache-strategies");
+        thread.setDaemon(true);
+        return thread;
+      });
+      try {
+        var futures = new ArrayList<Future<CacheStrategy>>(inputFiles.size());
+        for (var inputFile : inputFiles) {
+          futures.add(executor.submit(() -> getStrategyFor(context, inputFile, pluginVersion)));
+        }
+        for (var future : futures) {
+          strategies.add(get(future));
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    var result = new LinkedHashMap<InputFile, CacheStrategy>();
+    for (var i = 0; i < inputFiles.size(); i++) {
+      if (strategies.get(i).isAnalysisRequired()) {
+        result.put(inputFiles.get(i), strategies.get(i));
+      }
+    }
+    for (var i = 0; i < inputFiles.size(); i++) {
+      if (!strategies.get(i).isAnalysisRequired()) {
+        result.put(inputFiles.get(i), strategies.get(i));
+      }
+    }
+    return result;
+  }
+
+  private static CacheStrategy get(Future<CacheStrategy> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while evaluating cache strategies", e);
+    } catch (ExecutionException e) {
+      var cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
   static CacheStrategy getStrategyFor(SensorContext context, InputFile inputFile, @Nullable String pluginVersion) throws IOException {
     if (!isRuntimeApiCompatible(context)) {
       var strategy = noCache();
@@ -69,8 +162,10 @@ public class CacheStrategies {
       return strategy;
     }
 
+    CPD_DICTIONARY.load(context, pluginVersion);
+    BUDGET.load(context);
     var cacheKey = CacheKey.forFile(inputFile, pluginVersion);
-    var serialization = new CacheAnalysisSerialization(context, cacheKey);
+    var serialization = new CacheAnalysisSerialization(context, cacheKey, FINGERPRINTS, CPD_DICTIONARY, BUDGET, UCFG_FILES, linterConfigDigest);
 
     if (!AnalysisMode.isRuntimeApiCompatible(context) || !context.canSkipUnchangedFiles()) {
       var strategy = writeOnly(serialization);
@@ -78,16 +173,29 @@ public class CacheStrategies {
       return strategy;
     }
 
-    var fileMetadata = serialization.fileMetadata();
-    if (fileMetadata.isEmpty() || !isSameFile(fileMetadata.get(), inputFile)) {
+    if (!serialization.isInCache()) {
+      var strategy = writeOnly(serialization);
+      REPORTER.logAndIncrement(strategy, inputFile, MissReason.FILE_NOT_IN_CACHE);
+      return strategy;
+    }
+
+    var fileMetadata = readFileMetadata(serialization);
+    if (fileMetadata == null) {
+      var strategy = writeOnly(serialization);
+      REPORTER.logAndIncrement(strategy, inputFile, MissReason.CACHE_CORRUPTED);
+      return strategy;
+    }
+
+    if (!isSameFile(fileMetadata, inputFile, serialization.getStatistics())) {
       var strategy = writeOnly(serialization);
       REPORTER.logAndIncrement(strategy, inputFile, MissReason.FILE_CHANGED);
       return strategy;
     }
 
-    if (!serialization.isInCache()) {
+    var resultsMissReason = getResultsMissReason(serialization, inputFile);
+    if (resultsMissReason != null) {
       var strategy = writeOnly(serialization);
-      REPORTER.logAndIncrement(strategy, inputFile, MissReason.FILE_NOT_IN_CACHE);
+      REPORTER.logAndIncrement(strategy, inputFile, resultsMissReason);
       return strategy;
     }
 
@@ -103,14 +211,49 @@ public class CacheStrategies {
     return strategy;
   }
 
-  private static boolean isSameFile(FileMetadata fileMetadata, InputFile inputFile) throws IOException {
-    return fileMetadata.compareTo(inputFile);
+  private static boolean isSameFile(FileMetadata fileMetadata, InputFile inputFile, CacheStatistics statistics) throws IOException {
+    var start = System.nanoTime();
+    var fingerprint = FINGERPRINTS.of(inputFile);
+    statistics.addHashTime(CacheStatistics.elapsedSince(start));
+    return fileMetadata.compareTo(fingerprint);
+  }
+
+  @Nullable
+  private static FileMetadata readFileMetadata(CacheAnalysisSerialization serialization) {
+    try {
+      return serialization.fileMetadata();
+    } catch (IOException e) {
+      LOG.error("Failure when reading cache entry", e);
+      return null;
+    }
+  }
+
+  /**
+   * Results are only replayed when they were produced by the linter the file would be analyzed with, using the current
+   * linter configuration. The other sections of the entry depend on neither.
+   */
+  @Nullable
+  private static MissReason getResultsMissReason(CacheAnalysisSerialization serialization, InputFile inputFile) {
+    try {
+      var resultsMetadata = serialization.resultsMetadata();
+      if (resultsMetadata == null) {
+        return MissReason.RESULTS_NOT_CACHED;
+      } else if (!resultsMetadata.isProducedBy(getLinterIdFor(inputFile))) {
+        return MissReason.LINTER_CHANGED;
+      } else if (!resultsMetadata.isComputedWith(linterConfigDigest)) {
+        return MissReason.LINTER_CONFIG_CHANGED;
+      }
+      return null;
+    } catch (IOException e) {
+      LOG.error("Failure when reading cache entry", e);
+      return MissReason.CACHE_CORRUPTED;
+    }
   }
 
   static CacheAnalysis readFromCache(CacheAnalysisSerialization serialization) {
     try {
       var cacheAnalysis = serialization.readFromCache();
-      serialization.copyFromPrevious();
+      serialization.copyFromPreviousWithinBudget();
       return cacheAnalysis;
     } catch (IOException e) {
       LOG.error("Failure when reading cache entry", e);
@@ -118,20 +261,76 @@ public class CacheStrategies {
     }
   }
 
+  /**
+   * Analysis results are only replayed when the linter configuration they were computed with has the same digest.
+   */
+  public static void setLinterConfigDigest(@Nullable String digest) {
+    linterConfigDigest = digest;
+  }
+
+  @Nullable
+  public static String getLinterConfigDigest() {
+    return linterConfigDigest;
+  }
+
+  /**
+   * The analysis mode decides which linter of the bridge analyzes each file, e.g. unchanged files are only part of the
+   * UCFG generation when they can be skipped.
+   */
+  public static void setAnalysisMode(AnalysisMode mode) {
+    analysisMode = mode;
+  }
+
+  static String getLinterIdFor(InputFile inputFile) {
+    return analysisMode.getLinterIdFor(inputFile);
+  }
+
+  /**
+   * CPD strings shared by the files of the scope are stored once, in a dictionary saved at the end of the analysis.
+   */
+  public static void useCpdDictionary(String scope) {
+    CPD_DICTIONARY.setScope(scope);
+  }
+
+  /**
+   * Completes the next cache at the end of the sensor: the CPD dictionary is saved and charged to the budget, then the
+   * cache hits deferred by a total budget are copied as long as they fit.
+   */
+  public static void flush() {
+    BUDGET.charge(CPD_DICTIONARY.save());
+    BUDGET.flush();
+  }
+
   public static void reset() {
     REPORTER.reset();
+    FINGERPRINTS.reset();
+    CPD_DICTIONARY.reset();
+    BUDGET.reset();
+    UCFG_FILES.reset();
+    linterConfigDigest = null;
+    analysisMode = AnalysisMode.DEFAULT;
   }
 
   public static void logReport() {
     REPORTER.logReport();
   }
 
+  /**
+   * Statistics of the files whose cache strategy was evaluated since the last reset.
+   */
+  public static List<CacheStatistics> getStatistics() {
+    return REPORTER.getStatistics();
+  }
+
   enum MissReason {
     RUNTIME_API_INCOMPATIBLE("the runtime API is not compatible"),
     CACHE_DISABLED("cache is disabled"),
     ANALYSIS_MODE_INELIGIBLE("current analysis requires all files to be analyzed"),
     FILE_CHANGED("the current file is changed"),
     FILE_NOT_IN_CACHE("the current file is not cached"),
+    RESULTS_NOT_CACHED("the results of the current file are not cached"),
+    LINTER_CHANGED("the cached results were produced by another linter"),
+    LINTER_CONFIG_CHANGED("the linter configuration changed"),
     CACHE_CORRUPTED("the cache is corrupted");
 
     private final String description;
@@ -33,11 +33,13 @@ public class CacheStrategy {
   private final String name;
   private final CacheAnalysis cacheAnalysis;
   private final CacheAnalysisSerialization serialization;
+  private final CacheStatistics statistics;
 
   private CacheStrategy(String name, @Nullable CacheAnalysis cacheAnalysis, @Nullable CacheAnalysisSerialization serialization) {
     this.name = name;
     this.cacheAnalysis = cacheAnalysis;
     this.serialization = serialization;
+    this.statistics = serialization == null ? new CacheStatistics() : serialization.getStatistics();
   }
 
   static CacheStrategy noCache() {
@@ -56,10 +58,18 @@ public class CacheStrategy {
     return name;
   }
 
+  CacheStatistics getStatistics() {
+    return statistics;
+  }
+
   public boolean isAnalysisRequired() {
     return cacheAnalysis == null;
   }
 
+  public boolean isCacheWriteEnabled() {
+    return serialization != null;
+  }
+
   public void writeAnalysisToCache(CacheAnalysis analysis, InputFile file) throws IOException {
     if (serialization != null) {
       serialization.writeToCache(analysis, file);
@@ -29,15 +29,18 @@ public class CpdDeserializer {
   private final VarLengthInputStream in;
   private final VarLengthInputStream stringTableIn;
 
+  private final CpdDictionary dictionary;
+
   private StringTable stringTable;
 
-  private CpdDeserializer(byte[] data, byte[] stringTable) {
+  private CpdDeserializer(byte[] data, byte[] stringTable, CpdDictionary dictionary) {
     in = new VarLengthInputStream(data);
     stringTableIn = new VarLengthInputStream(stringTable);
+    this.dictionary = dictionary;
   }
 
-  public static CpdData fromBinary(byte[] data, byte[] stringTable) throws IOException {
-    var deserializer = new CpdDeserializer(data, stringTable);
+  static CpdData fromBinary(byte[] data, byte[] stringTable, CpdDictionary dictionary) throws IOException {
+    var deserializer = new CpdDeserializer(data, stringTable, dictionary);
     return deserializer.convert();
   }
 
@@ -79,10 +82,22 @@ public class CpdDeserializer {
   }
 
   private String readString() throws IOException {
-    return stringTable.getString(in.readInt());
+    var index = in.readInt();
+    if ((index & 1) == 0) {
+      return dictionary.getString(index >>> 1);
+    }
+    var localIndex = index >>> 1;
+    if (localIndex >= stringTable.getStringList().size()) {
+      throw new IOException("Invalid index in the string table: " + localIndex);
+    }
+    return stringTable.getString(localIndex);
   }
 
   private StringTable readStringTable() throws IOException {
+    var dictionaryId = stringTableIn.readUTF();
+    if (!dictionaryId.isEmpty() && !dictionaryId.equals(dictionary.getId())) {
+      throw new IOException("The CPD dictionary " + dictionaryId + " is not available");
+    }
     var size = stringTableIn.readInt();
     var byIndex = new ArrayList<String>(size);
     for (int i = 0; i < size; i++) {
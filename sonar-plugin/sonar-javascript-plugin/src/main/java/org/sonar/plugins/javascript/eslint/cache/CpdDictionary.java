@@ -0,0 +1,233 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Strings shared by the CPD tokens of the files of a sensor, stored once per analysis under their own cache key
+ * instead of in the string table of every file.
+ *
+ * A string enters the dictionary the second time it is seen in a file, so that identifiers used in a single file
+ * remain local to the cache entry of that file. The dictionary only grows during an analysis and starts from the one
+ * of the previous analysis, so that the entries copied from the previous cache keep referencing the right strings.
+ * A new dictionary gets a new identifier, entries referencing another dictionary are not read.
+ *
+ * Every entry of the next cache is either written or read during the analysis, so the strings that were not used by
+ * any of them are not referenced anymore once the analysis is over. They are stored as free slots, which the next
+ * analysis gives to new strings, and the dictionary keeps making room for the strings of the current code base.
+ */
+class CpdDictionary {
+
+  private static final Logger LOG = Loggers.get(CpdDictionary.class);
+
+  static final int MAX_SIZE = 100_000;
+
+  private final Map<String, Integer> indexes = new HashMap<>();
+  private final List<String> strings = new ArrayList<>();
+  private final Set<String> seenOnce = new HashSet<>();
+  private final Deque<Integer> freeIndexes = new ArrayDeque<>();
+  private final BitSet used = new BitSet();
+
+  private String scope;
+  private SensorContext context;
+  private CacheKey cacheKey;
+  private String id = "";
+  private boolean loadedFromCache;
+  private boolean modified;
+  private long size;
+
+  /**
+   * The dictionary is only used once a scope is set, one dictionary is stored per scope and analysis.
+   */
+  synchronized void setScope(@Nullable String scope) {
+    this.scope = scope;
+  }
+
+  synchronized void load(SensorContext context, @Nullable String pluginVersion) {
+    if (scope == null || this.context != null) {
+      return;
+    }
+    this.context = context;
+    cacheKey = CacheKey.forCpdDictionary(scope, pluginVersion);
+    var key = cacheKey.toString();
+    if (context.previousCache() != null && context.previousCache().contains(key)) {
+      try (var input = context.previousCache().read(key)) {
+        var bytes = input.readAllBytes();
+        read(bytes);
+        size = bytes.length;
+        loadedFromCache = true;
+        LOG.debug("CPD dictionary of {} string(s) loaded from key '{}'", strings.size() - freeIndexes.size(), key);
+        return;
+      } catch (IOException e) {
+        LOG.warn("Failure when reading the CPD dictionary from key '{}', a new one is created", key);
+        clearStrings();
+      }
+    }
+    id = UUID.randomUUID().toString();
+    modified = true;
+  }
+
+  synchronized String getId() {
+    return id;
+  }
+
+  /**
+   * Returns the index of the string in the dictionary, or -1 when the string remains local to the file.
+   */
+  synchronized int indexOf(String string) {
+    var index = indexes.get(string);
+    if (index != null) {
+      used.set(index);
+      return index;
+    }
+    if (context == null || (strings.size() >= MAX_SIZE && freeIndexes.isEmpty())) {
+      return -1;
+    }
+    if (seenOnce.remove(string)) {
+      if (freeIndexes.isEmpty()) {
+        index = strings.size();
+        strings.add(string);
+      } else {
+        index = freeIndexes.poll();
+        strings.set(index, string);
+      }
+      indexes.put(string, index);
+      used.set(index);
+      modified = true;
+      return index;
+    }
+    if (seenOnce.size() < MAX_SIZE) {
+      seenOnce.add(string);
+    }
+    return -1;
+  }
+
+  synchronized String getString(int index) throws IOException {
+    if (index < 0 || index >= strings.size() || strings.get(index) == null) {
+      throw new IOException("Invalid index in the CPD dictionary: " + index);
+    }
+    used.set(index);
+    return strings.get(index);
+  }
+
+  /**
+   * Stores the dictionary in the next cache.
+   *
+   * @return the size of the stored dictionary, 0 when nothing is stored
+   */
+  synchronized long save() {
+    if (context == null || context.nextCache() == null) {
+      return 0;
+    }
+    var key = cacheKey.toString();
+    var unused = strings.size() - freeIndexes.size() - used.cardinality();
+    if (modified || !loadedFromCache || unused > 0) {
+      try {
+        var bytes = write();
+        context.nextCache().write(key, bytes);
+        size = bytes.length;
+        LOG.debug("CPD dictionary of {} string(s) stored with key '{}', {} unused string(s) removed", used.cardinality(), key, unused);
+      } catch (IOException e) {
+        LOG.warn("Failure when storing the CPD dictionary with key '{}'", key);
+        return 0;
+      }
+    } else {
+      context.nextCache().copyFromPrevious(key);
+    }
+    return size;
+  }
+
+  synchronized void reset() {
+    scope = null;
+    context = null;
+    cacheKey = null;
+    id = "";
+    loadedFromCache = false;
+    modified = false;
+    size = 0;
+    clearStrings();
+  }
+
+  private void clearStrings() {
+    indexes.clear();
+    strings.clear();
+    seenOnce.clear();
+    freeIndexes.clear();
+    used.clear();
+  }
+
+  private void read(byte[] bytes) throws IOException {
+    try (var in = new VarLengthInputStream(bytes)) {
+      id = in.readUTF();
+      var size = in.readInt();
+      for (var i = 0; i < size; i++) {
+        var string = in.readUTF();
+        indexes.put(string, i);
+        strings.add(string);
+      }
+      var freeCount = in.readInt();
+      for (var i = 0; i < freeCount; i++) {
+        var index = in.readInt();
+        if (index >= size || strings.get(index) == null) {
+          throw new IOException("Can't read data from cache, format corrupted");
+        }
+        indexes.remove(strings.set(index, null), index);
+        freeIndexes.add(index);
+      }
+      if (id.isEmpty() || !"END".equals(in.readUTF())) {
+        throw new IOException("Can't read data from cache, format corrupted");
+      }
+    }
+  }
+
+  private byte[] write() throws IOException {
+    var stream = new ByteArrayOutputStream();
+    try (var out = new VarLengthOutputStream(stream)) {
+      out.writeUTF(id);
+      out.writeInt(strings.size());
+      for (var i = 0; i < strings.size(); i++) {
+        // the strings that were not used during the analysis become free slots
+        out.writeUTF(used.get(i) ? strings.get(i) : null);
+      }
+      out.writeInt(strings.size() - used.cardinality());
+      for (var i = used.nextClearBit(0); i < strings.size(); i = used.nextClearBit(i + 1)) {
+        out.writeInt(i);
+      }
+      out.writeUTF("END");
+    }
+    return stream.toByteArray();
+  }
+}
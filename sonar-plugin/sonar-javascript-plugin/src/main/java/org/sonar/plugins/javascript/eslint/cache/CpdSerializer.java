@@ -21,28 +21,38 @@ package org.sonar.plugins.javascript.eslint.cache;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import javax.annotation.Nullable;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer;
 
+/**
+ * Images of the CPD tokens are written as an index in the {@link CpdDictionary} when the image is shared with other
+ * files, or as an index in the string table of the file otherwise. The lowest bit of the index tells them apart.
+ */
 class CpdSerializer {
 
   private final ByteArrayOutputStream stream;
   private final VarLengthOutputStream out;
   private final StringTable stringTable;
+  private final CpdDictionary dictionary;
+  private final Map<String, Integer> dictionaryIndexes;
 
-  private CpdSerializer() {
+  private CpdSerializer(CpdDictionary dictionary) {
     stream = new ByteArrayOutputStream();
     out = new VarLengthOutputStream(stream);
     stringTable = new StringTable();
+    this.dictionary = dictionary;
+    dictionaryIndexes = new HashMap<>();
   }
 
-  static SerializationResult toBinary(CpdData cpdData) throws IOException {
-    var serializer = new CpdSerializer();
+  static SerializationResult toBinary(CpdData cpdData, CpdDictionary dictionary) throws IOException {
+    var serializer = new CpdSerializer(dictionary);
     return serializer.convert(cpdData);
   }
 
-
   private SerializationResult convert(CpdData cpdData) throws IOException {
     try (out; stream) {
       var cpdTokens = cpdData.getCpdTokens();
@@ -69,7 +79,14 @@ class CpdSerializer {
   }
 
   private void writeText(@Nullable String text) throws IOException {
-    out.writeInt(stringTable.getIndex(text));
+    var string = Objects.requireNonNullElse(text, "");
+    // the dictionary is only asked once per string of the file, it counts the files in which a string is seen
+    var dictionaryIndex = dictionaryIndexes.computeIfAbsent(string, dictionary::indexOf);
+    if (dictionaryIndex >= 0) {
+      out.writeInt(dictionaryIndex << 1);
+    } else {
+      out.writeInt((stringTable.getIndex(string) << 1) | 1);
+    }
   }
 
   private void writeInt(int number) throws IOException {
@@ -80,6 +97,7 @@ class CpdSerializer {
     ByteArrayOutputStream stringTableStream = new ByteArrayOutputStream();
     VarLengthOutputStream output = new VarLengthOutputStream(stringTableStream);
     List<String> byIndex = stringTable.getStringList();
+    output.writeUTF(dictionary.getId());
     output.writeInt(byIndex.size());
     for (String string : byIndex) {
       output.writeUTF(string);
@@ -0,0 +1,55 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Metadata of the files of the current analysis, each file is read once when its cache entry is checked and the
+ * result is reused when the analysis of the file is written to the cache.
+ */
+class FileFingerprints {
+
+  private final Map<InputFile, FileMetadata> fingerprints = new ConcurrentHashMap<>();
+
+  FileMetadata of(InputFile file) throws IOException {
+    try {
+      return fingerprints.computeIfAbsent(file, FileFingerprints::compute);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  void reset() {
+    fingerprints.clear();
+  }
+
+  private static FileMetadata compute(InputFile file) {
+    try {
+      return FileMetadata.from(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
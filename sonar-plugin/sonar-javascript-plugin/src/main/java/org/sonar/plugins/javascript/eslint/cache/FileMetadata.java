@@ -20,41 +20,52 @@
 package org.sonar.plugins.javascript.eslint.cache;
 
 import java.io.IOException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.CRC32C;
 import org.sonar.api.batch.fs.InputFile;
 
 public class FileMetadata {
 
+  /**
+   * The hash only serves change detection, a checksum is enough. Metadata recorded with another algorithm never match.
+   */
+  static final String ALGORITHM = "CRC32C";
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final String algorithm;
+
   private final long size;
 
   private final byte[] hash;
 
-  FileMetadata(long size, byte[] hash) {
+  FileMetadata(String algorithm, long size, byte[] hash) {
+    this.algorithm = algorithm;
     this.size = size;
     this.hash = hash;
   }
 
+  /**
+   * Streams the raw bytes of the file through the checksum, its size is counted in the same pass.
+   */
   static FileMetadata from(InputFile file) throws IOException {
-    return new FileMetadata(fileSize(file), computeHash(file));
-  }
-
-  boolean compareTo(InputFile file) throws IOException {
-    return size == fileSize(file) && Arrays.equals(hash, computeHash(file));
-  }
-
-  static int fileSize(InputFile file) throws IOException {
-    return file.contents().getBytes(file.charset()).length;
+    var checksum = new CRC32C();
+    long size = 0;
+    try (var input = file.inputStream()) {
+      var buffer = new byte[BUFFER_SIZE];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        checksum.update(buffer, 0, read);
+        size += read;
+      }
+    }
+    var hash = ByteBuffer.allocate(Integer.BYTES).putInt((int) checksum.getValue()).array();
+    return new FileMetadata(ALGORITHM, size, hash);
   }
 
-  static byte[] computeHash(InputFile file) throws IOException {
-    try {
-      var digest = MessageDigest.getInstance("SHA-256");
-      var bytes = file.contents().getBytes(file.charset());
-      return digest.digest(bytes);
-    } catch (NoSuchAlgorithmException e) {
-      throw new IllegalStateException(e);
-    }
+  boolean compareTo(FileMetadata other) {
+    return Objects.equals(algorithm, other.algorithm) && size == other.size && Arrays.equals(hash, other.hash);
   }
 }
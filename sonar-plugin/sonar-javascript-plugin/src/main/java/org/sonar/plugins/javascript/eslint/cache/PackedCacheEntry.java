@@ -0,0 +1,128 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.commons.io.input.CountingInputStream;
+
+/**
+ * Everything cached for a file, packed in a single cache entry so that it is read and written with one call to the
+ * cache.
+ *
+ * The entry starts with a version byte, followed by the number of sections and the end offset of each section in the
+ * payload, all encoded as variable-length integers. The payload holds the sections one after the other, in the order
+ * of {@link Section}.
+ */
+class PackedCacheEntry {
+
+  static final int VERSION = 2;
+
+  enum Section {
+    FILE_METADATA,
+    CPD_DATA,
+    CPD_STRING_TABLE,
+    UCFG_MANIFEST,
+    UCFG_FILES,
+    RESULTS,
+    RESULTS_METADATA
+  }
+
+  private final byte[] payload;
+  private final int[] endOffsets;
+  private final int size;
+
+  private PackedCacheEntry(byte[] payload, int[] endOffsets, int size) {
+    this.payload = payload;
+    this.endOffsets = endOffsets;
+    this.size = size;
+  }
+
+  static byte[] pack(Map<Section, byte[]> sections) throws IOException {
+    var sectionCount = Section.values().length;
+    var payload = new ByteArrayOutputStream();
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new VarLengthOutputStream(bytes)) {
+      bytes.write(VERSION);
+      out.writeInt(sectionCount);
+      for (var section : Section.values()) {
+        payload.write(sections.getOrDefault(section, new byte[0]));
+        out.writeInt(payload.size());
+      }
+    }
+    payload.writeTo(bytes);
+    return bytes.toByteArray();
+  }
+
+  static PackedCacheEntry unpack(byte[] bytes) throws IOException {
+    return unpack(new ByteArrayInputStream(bytes));
+  }
+
+  /**
+   * Reads an entry from the stream. Only the bytes announced by the header are read, a stream that is longer than
+   * that, or even unbounded, is rejected without being read to the end.
+   */
+  static PackedCacheEntry unpack(InputStream input) throws IOException {
+    var counting = new CountingInputStream(input);
+    try (var in = new VarLengthInputStream(counting)) {
+      var version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported version of cache entry: " + version);
+      }
+      var sectionCount = in.readInt();
+      if (sectionCount != Section.values().length) {
+        throw new IOException("Unexpected number of sections in cache entry: " + sectionCount);
+      }
+      var endOffsets = new int[sectionCount];
+      for (var i = 0; i < sectionCount; i++) {
+        endOffsets[i] = in.readInt();
+        if (endOffsets[i] < (i == 0 ? 0 : endOffsets[i - 1])) {
+          throw new IOException("Invalid offset of section " + Section.values()[i] + " in cache entry: " + endOffsets[i]);
+        }
+      }
+      var payload = counting.readNBytes(endOffsets[sectionCount - 1]);
+      var size = counting.getCount();
+      if (payload.length != endOffsets[sectionCount - 1]) {
+        throw new IOException("Unexpected size of cache entry: " + size);
+      }
+      if (counting.read() != -1) {
+        throw new IOException("Unexpected size of cache entry: more than " + size);
+      }
+      return new PackedCacheEntry(payload, endOffsets, size);
+    }
+  }
+
+  /**
+   * Size of the entry in bytes, header included.
+   */
+  int size() {
+    return size;
+  }
+
+  byte[] get(Section section) {
+    var index = section.ordinal();
+    var start = index == 0 ? 0 : endOffsets[index - 1];
+    return Arrays.copyOfRange(payload, start, endOffsets[index]);
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * Describes how the results of a cache entry were computed. Unlike the UCFG files and the CPD tokens of the entry,
+ * results depend on the linter which produced them and on its configuration. They are only replayed when the file
+ * would be analyzed by the same linter, with the same configuration.
+ */
+class ResultsMetadata {
+
+  private final String linterId;
+
+  private final String configDigest;
+
+  ResultsMetadata(@Nullable String linterId, @Nullable String configDigest) {
+    this.linterId = linterId;
+    this.configDigest = configDigest;
+  }
+
+  /**
+   * Results of the linter limited to UCFG generation, for instance, lack the issues of the other rules.
+   */
+  boolean isProducedBy(String linterId) {
+    return linterId.equals(this.linterId);
+  }
+
+  boolean isComputedWith(@Nullable String linterConfigDigest) {
+    return Objects.equals(configDigest, linterConfigDigest);
+  }
+}
@@ -19,51 +19,163 @@
  */
 package org.sonar.plugins.javascript.eslint.cache;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import org.sonar.api.batch.sensor.SensorContext;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 
-class UCFGFilesSerialization extends CacheSerialization {
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
-  static final String SEQ_PREFIX = "SEQ";
-  static final String JSON_PREFIX = "JSON";
+/**
+ * Serializes the UCFG files generated for a file as a manifest, with their names relative to the working directory
+ * and their sizes, and their contents one after the other.
+ *
+ * An instance restores the files of a sensor and remembers the directories it created, it is reset with the other
+ * cache state at the start of each sensor.
+ */
+class UCFGFilesSerialization {
 
-  private final JsonSerialization<FilesManifest> json;
-  private final SequenceSerialization sequence;
+  private static final Logger LOG = Loggers.get(UCFGFilesSerialization.class);
+  private static final Gson GSON = new Gson();
+  private static final String ENTRY_SEPARATOR = "/";
 
-  UCFGFilesSerialization(SensorContext context, CacheKey cacheKey) {
-    super(context, cacheKey);
-    json = new JsonSerialization<>(FilesManifest.class, context, cacheKey.withPrefix(JSON_PREFIX));
-    sequence = new SequenceSerialization(context, cacheKey.withPrefix(SEQ_PREFIX));
+  private final Set<Path> createdDirectories = ConcurrentHashMap.newKeySet();
+
+  private static String convertToEntryName(Path baseAbsolutePath, Path fileAbsolutePath) {
+    var relativePath = baseAbsolutePath.relativize(fileAbsolutePath);
+    return StreamSupport.stream(relativePath.spliterator(), false)
+      .map(Path::getFileName)
+      .map(Path::toString)
+      .collect(joining(ENTRY_SEPARATOR));
   }
 
-  void writeToCache(List<String> files) throws IOException {
-    var manifest = sequence.writeToCache(files);
-    json.writeToCache(manifest);
+  private static Path convertFromEntryName(Path baseAbsolutePath, String entryName) {
+    var fileAbsolutePath = baseAbsolutePath;
+    for (var name : entryName.split(ENTRY_SEPARATOR)) {
+      // This validates that the name is a valid OS path.
+      fileAbsolutePath = fileAbsolutePath.resolve(Path.of(name));
+    }
+    return fileAbsolutePath;
   }
 
-  @Override
-  boolean isInCache() {
-    if (!json.isInCache()) {
-      return false;
-    } else {
-      return sequence.isInCache();
+  static SerializationResult toBinary(Path workDir, @Nullable List<String> generatedFiles) {
+    List<Path> paths = generatedFiles == null ? emptyList() : generatedFiles.stream().map(Path::of).collect(toList());
+    var data = new ByteArrayOutputStream();
+    var fileSizes = new ArrayList<FilesManifest.FileSize>(paths.size());
+
+    for (var path : paths) {
+      var bytes = read(path);
+      data.writeBytes(bytes);
+      fileSizes.add(new FilesManifest.FileSize(convertToEntryName(workDir, path), bytes.length));
     }
+
+    var manifest = new FilesManifest(fileSizes);
+    return new SerializationResult(GSON.toJson(manifest).getBytes(StandardCharsets.UTF_8), data.toByteArray());
   }
 
-  void readFromCache() throws IOException {
-    var manifest = json.readFromCache();
-    if (manifest == null) {
-      throw new IOException("The manifest is null for key " + getCacheKey());
+  private static byte[] read(Path file) {
+    try {
+      return Files.readAllBytes(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failure when opening file", e);
     }
+  }
 
-    sequence.readFromCache(manifest);
+  /**
+   * Restores the UCFG files, the manifest is fully checked before writing any file and the directories are created
+   * once per sensor.
+   */
+  void fromBinary(Path workDir, byte[] manifestBytes, byte[] data) throws IOException {
+    FilesManifest manifest;
+    try {
+      manifest = GSON.fromJson(new String(manifestBytes, StandardCharsets.UTF_8), FilesManifest.class);
+    } catch (JsonParseException e) {
+      throw new IOException("Failure when parsing cache entry JSON", e);
+    }
+    if (manifest == null || manifest.getFileSizes() == null) {
+      throw new IOException("The manifest of UCFG files is missing");
+    }
+
+    var files = new ArrayList<Path>(manifest.getFileSizes().size());
+    var directories = new LinkedHashSet<Path>();
+    var offset = 0L;
+    for (var fileSize : manifest.getFileSizes()) {
+      var file = convertFromEntryName(workDir, fileSize.getName());
+      if (fileSize.getSize() > data.length - offset) {
+        throw new IOException(String.format("The cache stream is too small (<%d) for file %s", fileSize.getSize(), file));
+      }
+      files.add(file);
+      directories.add(file.getParent());
+      offset += fileSize.getSize();
+    }
+    if (offset < data.length) {
+      throw new IOException(String.format("The cache stream is too big (>%d) for UCFG files", offset));
+    }
+
+    for (var directory : directories) {
+      if (!createdDirectories.contains(directory)) {
+        Files.createDirectories(directory);
+        createdDirectories.add(directory);
+      }
+    }
+    var position = 0;
+    for (var i = 0; i < files.size(); i++) {
+      var size = (int) manifest.getFileSizes().get(i).getSize();
+      write(files.get(i), ByteBuffer.wrap(data, position, size));
+      position += size;
+    }
+
+    LOG.debug("Cache entry extracted containing {} UCFG file(s)", files.size());
+  }
+
+  private static void write(Path file, ByteBuffer buffer) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
   }
 
-  @Override
-  void copyFromPrevious() {
-    json.copyFromPrevious();
-    sequence.copyFromPrevious();
+  void reset() {
+    createdDirectories.clear();
+  }
+
+  static class SerializationResult {
+
+    private final byte[] manifest;
+    private final byte[] data;
+
+    private SerializationResult(byte[] manifest, byte[] data) {
+      this.manifest = manifest;
+      this.data = data;
+    }
+
+    byte[] getManifest() {
+      return manifest;
+    }
+
+    byte[] getData() {
+      return data;
+    }
+
   }
 
 }
@@ -23,6 +23,7 @@ import java.io.ByteArrayInputStream;
 import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 /**
@@ -34,7 +35,11 @@ public class VarLengthInputStream implements Closeable {
   private final DataInputStream in;
 
   public VarLengthInputStream(byte[] input) {
-    in = new DataInputStream(new ByteArrayInputStream(input));
+    this(new ByteArrayInputStream(input));
+  }
+
+  public VarLengthInputStream(InputStream input) {
+    in = new DataInputStream(input);
   }
 
   public String readUTF() throws IOException {
@@ -49,6 +54,10 @@ public class VarLengthInputStream implements Closeable {
     int shift = 0;
     int b;
     do {
+      if (shift > 28) {
+        // an int never takes more than 5 bytes
+        throw new IOException("Malformed variable length integer");
+      }
       // get 7 bits from next byte and add them to correct position
       b = readByte();
       result |= (b & 0x7F) << shift;
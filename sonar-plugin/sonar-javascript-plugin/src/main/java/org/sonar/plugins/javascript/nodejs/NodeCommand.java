@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import javax.annotation.Nullable;
@@ -114,6 +115,22 @@ public class NodeCommand {
     }
   }
 
+  /**
+   * Kill the external process, if it was started
+   */
+  public void destroy() {
+    if (process != null) {
+      processWrapper.destroyForcibly(process);
+    }
+  }
+
+  /**
+   * Completes with the exit value of the external process once it terminates
+   */
+  public CompletableFuture<Integer> onExit() {
+    return processWrapper.onExit(process).thenApply(processWrapper::exitValue);
+  }
+
   @Override
   public String toString() {
     return String.join(" ", command);
@@ -49,7 +49,7 @@ public class NodeCommandBuilderImpl implements NodeCommandBuilder {
   public static final String NODE_EXECUTABLE_DEFAULT = "node";
   private static final String NODE_EXECUTABLE_DEFAULT_MACOS = "package/node_modules/run-node/run-node";
 
-  private static final String NODE_EXECUTABLE_PROPERTY = "sonar.nodejs.executable";
+  public static final String NODE_EXECUTABLE_PROPERTY = "sonar.nodejs.executable";
 
   private static final Pattern NODEJS_VERSION_PATTERN = Pattern.compile("v?(\\d+)\\.(\\d+)\\.(\\d+)");
 
@@ -132,7 +132,7 @@ public class NodeCommandBuilderImpl implements NodeCommandBuilder {
   /**
    * Retrieves node executable from sonar.node.executable property or using default if absent.
    * Then will check Node.js version by running {@code node -v}, then
-   * returns {@link NodeCommand} instance.
+   * returns {@link NodeCommand} instance. Node.js and script arguments are cleared once the command is built.
    *
    * @throws NodeCommandException when actual Node.js version doesn't satisfy minimum version requested,
    * or if failed to run {@code node -v}
@@ -148,7 +148,7 @@ public class NodeCommandBuilderImpl implements NodeCommandBuilder {
     if (scriptFilename == null && !args.isEmpty()) {
       throw new IllegalArgumentException("No script provided, but script arguments found.");
     }
-    return new NodeCommand(
+    var nodeCommand = new NodeCommand(
       processWrapper,
       nodeExecutable,
       actualNodeVersion,
@@ -158,6 +158,10 @@ public class NodeCommandBuilderImpl implements NodeCommandBuilder {
       outputConsumer,
       errorConsumer,
       env);
+    // arguments accumulate, they start over so that the builder can build the command of another process
+    nodeJsArgs = new ArrayList<>();
+    args = new ArrayList<>();
+    return nodeCommand;
   }
 
   private void checkNodeCompatibility(String nodeExecutable) throws NodeCommandException {
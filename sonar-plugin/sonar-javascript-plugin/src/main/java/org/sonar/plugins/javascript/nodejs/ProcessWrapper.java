@@ -22,6 +22,7 @@ package org.sonar.plugins.javascript.nodejs;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import javax.annotation.CheckForNull;
@@ -56,4 +57,6 @@ public interface ProcessWrapper {
   String getenv(String name);
 
   int exitValue(Process process);
+
+  CompletableFuture<Process> onExit(Process process);
 }
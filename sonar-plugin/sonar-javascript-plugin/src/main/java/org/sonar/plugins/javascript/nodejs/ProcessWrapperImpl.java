@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import javax.annotation.CheckForNull;
@@ -85,4 +86,9 @@ public class ProcessWrapperImpl implements ProcessWrapper {
     return process.exitValue();
   }
 
+  @Override
+  public CompletableFuture<Process> onExit(Process process) {
+    return process.onExit();
+  }
+
 }
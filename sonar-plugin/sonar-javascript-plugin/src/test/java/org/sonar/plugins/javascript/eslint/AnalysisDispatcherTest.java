@@ -0,0 +1,172 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisDispatcherTest {
+
+  @Test
+  void should_process_inline_without_worker() throws Exception {
+    var handled = new ArrayList<String>();
+    var sendingThreads = new ArrayList<Thread>();
+    try (var dispatcher = new AnalysisDispatcher(null, 0)) {
+      for (var file : files(3)) {
+        dispatcher.submit(file, () -> {
+          sendingThreads.add(Thread.currentThread());
+          return new AnalysisResponse();
+        }, response -> handled.add(file.filename()));
+        // request is processed before submit returns
+        assertThat(handled).endsWith(file.filename());
+      }
+      dispatcher.awaitCompletion();
+    }
+    assertThat(handled).containsExactly("file0.js", "file1.js", "file2.js");
+    assertThat(sendingThreads).containsOnly(Thread.currentThread());
+  }
+
+  @Test
+  void should_process_responses_on_submitting_thread() throws Exception {
+    var handled = new ArrayList<String>();
+    var handlingThreads = new ArrayList<Thread>();
+    var sendingThreads = new ArrayList<Thread>();
+    var bothSent = new CountDownLatch(2);
+    // a single worker is enough to have two requests in flight
+    try (var dispatcher = new AnalysisDispatcher(null, 1)) {
+      for (var file : files(2)) {
+        dispatcher.submit(file, () -> {
+          synchronized (sendingThreads) {
+            sendingThreads.add(Thread.currentThread());
+          }
+          bothSent.countDown();
+          // both requests must be in flight at the same time
+          await(bothSent);
+          return new AnalysisResponse();
+        }, response -> {
+          handled.add(file.filename());
+          handlingThreads.add(Thread.currentThread());
+        });
+      }
+      dispatcher.awaitCompletion();
+    }
+    assertThat(handled).containsExactlyInAnyOrder("file0.js", "file1.js");
+    assertThat(handlingThreads).containsOnly(Thread.currentThread());
+    assertThat(sendingThreads).doesNotContain(Thread.currentThread());
+  }
+
+  @Test
+  void should_pipeline_async_requests_in_submission_order() throws Exception {
+    var handled = new ArrayList<String>();
+    var responses = new ArrayList<CompletableFuture<AnalysisResponse>>();
+    try (var dispatcher = new AnalysisDispatcher(null, 1)) {
+      for (var file : files(3)) {
+        var response = new CompletableFuture<AnalysisResponse>();
+        responses.add(response);
+        dispatcher.submit(file, AnalysisResponse::new, () -> response, r -> handled.add(file.filename()));
+        if (responses.size() == 2) {
+          // window is full, the second response arrives before the first one
+          responses.get(1).complete(new AnalysisResponse());
+          responses.get(0).complete(new AnalysisResponse());
+        }
+      }
+      assertThat(handled).containsExactly("file0.js", "file1.js");
+      responses.get(2).complete(new AnalysisResponse());
+      dispatcher.awaitCompletion();
+    }
+    assertThat(handled).containsExactly("file0.js", "file1.js", "file2.js");
+  }
+
+  @Test
+  void should_group_requests_in_batches() throws Exception {
+    var handled = new ArrayList<String>();
+    var batches = new ArrayList<List<JsAnalysisRequest>>();
+    try (var dispatcher = new AnalysisDispatcher(null, 1, 2)) {
+      for (var file : files(3)) {
+        var request = new JsAnalysisRequest(file.absolutePath(), "MAIN", null, true, null, null, AnalysisMode.DEFAULT_LINTER_ID);
+        dispatcher.submit(file, request, AnalysisResponse::new, () -> CompletableFuture.completedFuture(new AnalysisResponse()), batch -> {
+          batches.add(batch);
+          return CompletableFuture.completedFuture(batch.stream().map(r -> new AnalysisResponse()).collect(Collectors.toList()));
+        }, response -> handled.add(file.filename()));
+      }
+      assertThat(batches).hasSize(1);
+      assertThat(handled).containsExactly("file0.js", "file1.js");
+      dispatcher.awaitCompletion();
+    }
+    assertThat(batches).extracting(List::size).containsExactly(2, 1);
+    assertThat(handled).containsExactly("file0.js", "file1.js", "file2.js");
+  }
+
+  @Test
+  void should_propagate_async_request_failure() throws Exception {
+    try (var dispatcher = new AnalysisDispatcher(null, 1)) {
+      var file = files(1).get(0);
+      dispatcher.submit(file, AnalysisResponse::new, () -> CompletableFuture.failedFuture(new IllegalStateException("unresponsive")), response -> {
+      });
+      assertThatThrownBy(dispatcher::awaitCompletion)
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("unresponsive");
+    }
+  }
+
+  @Test
+  void should_propagate_request_failure() throws Exception {
+    try (var dispatcher = new AnalysisDispatcher(null, 2)) {
+      var file = files(1).get(0);
+      dispatcher.submit(file, () -> {
+        throw new IOException("boom");
+      }, response -> {
+      });
+      assertThatThrownBy(dispatcher::awaitCompletion)
+        .isInstanceOf(IOException.class)
+        .hasMessage("boom");
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static List<InputFile> files(int count) {
+    var files = new ArrayList<InputFile>();
+    for (int i = 0; i < count; i++) {
+      files.add(TestInputFileBuilder.create("moduleKey", "file" + i + ".js").build());
+    }
+    return files;
+  }
+}
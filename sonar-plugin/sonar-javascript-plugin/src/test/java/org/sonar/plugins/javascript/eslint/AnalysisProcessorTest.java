@@ -0,0 +1,149 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.issue.NoSonarFilter;
+import org.sonar.api.measures.FileLinesContextFactory;
+import org.mockito.ArgumentCaptor;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.CpdToken;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.ParsingError;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.ParsingErrorCode;
+import org.sonar.plugins.javascript.eslint.cache.CacheAnalysis;
+import org.sonar.plugins.javascript.eslint.cache.CacheStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisProcessorTest {
+
+  @TempDir
+  Path baseDir;
+
+  SensorContextTester context;
+  InputFile file;
+  CacheStrategy cacheStrategy;
+  AnalysisProcessor analysisProcessor;
+
+  @BeforeEach
+  void setUp() {
+    context = SensorContextTester.create(baseDir);
+    file = new TestInputFileBuilder("moduleKey", "file.ts").setContents("foo();").build();
+    cacheStrategy = mock(CacheStrategy.class);
+    when(cacheStrategy.isCacheWriteEnabled()).thenReturn(true);
+    analysisProcessor = new AnalysisProcessor(mock(NoSonarFilter.class), mock(FileLinesContextFactory.class), mock(Monitoring.class));
+  }
+
+  @Test
+  void should_cache_syntax_errors() throws IOException {
+    analysisProcessor.writeToCache(context, cacheStrategy, file, request(null), response(ParsingErrorCode.PARSING));
+    verify(cacheStrategy).writeAnalysisToCache(any(), any());
+  }
+
+  @Test
+  void should_not_cache_environment_errors() throws IOException {
+    for (var code : List.of(ParsingErrorCode.MISSING_TYPESCRIPT, ParsingErrorCode.UNSUPPORTED_TYPESCRIPT,
+      ParsingErrorCode.FAILING_TYPESCRIPT, ParsingErrorCode.GENERAL_ERROR)) {
+      analysisProcessor.writeToCache(context, cacheStrategy, file, request(null), response(code));
+    }
+    verify(cacheStrategy, never()).writeAnalysisToCache(any(), any());
+  }
+
+  @Test
+  void should_only_cache_type_aware_results_when_enabled() throws IOException {
+    var response = new AnalysisResponse();
+    response.ucfgPaths = List.of("ucfg/file_ts_1.ucfg");
+    response.cpdTokens = new CpdToken[] { new CpdToken() };
+    analysisProcessor.writeToCache(context, cacheStrategy, file, request("1"), response);
+    analysisProcessor.writeToCache(context, cacheStrategy, file, new JsAnalysisRequest(file.absolutePath(), "MAIN", null, true,
+      List.of("tsconfig.json"), null, "default"), response);
+    var captor = ArgumentCaptor.forClass(CacheAnalysis.class);
+    verify(cacheStrategy, times(2)).writeAnalysisToCache(captor.capture(), eq(file));
+    assertThat(captor.getAllValues()).allSatisfy(cacheAnalysis -> {
+      assertThat(cacheAnalysis.getUcfgPaths()).containsExactly("ucfg/file_ts_1.ucfg");
+      assertThat(cacheAnalysis.getCpdTokens()).containsExactly(response.cpdTokens);
+      assertThat(cacheAnalysis.getResults()).isNull();
+    });
+
+    reset(cacheStrategy);
+    when(cacheStrategy.isCacheWriteEnabled()).thenReturn(true);
+    context.setSettings(new MapSettings().setProperty(ContextUtils.CACHE_TYPE_AWARE_RESULTS, true));
+    analysisProcessor.writeToCache(context, cacheStrategy, file, request("1"), response);
+    verify(cacheStrategy).writeAnalysisToCache(captor.capture(), eq(file));
+    assertThat(captor.getValue().getUcfgPaths()).containsExactly("ucfg/file_ts_1.ucfg");
+    assertThat(captor.getValue().getResults()).isNotEmpty();
+    assertThat(captor.getValue().getLinterId()).isEqualTo("default");
+  }
+
+  @Test
+  void should_only_retain_what_is_written_to_cache() {
+    var sink = analysisProcessor.newResponseSink(context, file, cacheStrategy, request(null));
+    assertThat(sink.acceptsHighlights()).isFalse();
+    assertThat(sink.acceptsCpdTokens()).isFalse();
+
+    // results of type-aware analyses are not written, their highlights are handed over
+    sink = analysisProcessor.newResponseSink(context, file, cacheStrategy, request("1"));
+    assertThat(sink.acceptsHighlights()).isTrue();
+    assertThat(sink.acceptsCpdTokens()).isFalse();
+
+    when(cacheStrategy.isCacheWriteEnabled()).thenReturn(false);
+    sink = analysisProcessor.newResponseSink(context, file, cacheStrategy, request(null));
+    assertThat(sink.acceptsHighlights()).isTrue();
+    assertThat(sink.acceptsCpdTokens()).isTrue();
+  }
+
+  @Test
+  void should_not_write_without_cache() throws IOException {
+    when(cacheStrategy.isCacheWriteEnabled()).thenReturn(false);
+    analysisProcessor.writeToCache(context, cacheStrategy, file, request(null), new AnalysisResponse());
+    verify(cacheStrategy, never()).writeAnalysisToCache(any(), any());
+  }
+
+  private JsAnalysisRequest request(@Nullable String programId) {
+    return new JsAnalysisRequest(file.absolutePath(), "MAIN", null, true, null, programId, "default");
+  }
+
+  private static AnalysisResponse response(ParsingErrorCode code) {
+    var response = new AnalysisResponse();
+    response.parsingError = new ParsingError();
+    response.parsingError.message = "error";
+    response.parsingError.code = code;
+    return response;
+  }
+}
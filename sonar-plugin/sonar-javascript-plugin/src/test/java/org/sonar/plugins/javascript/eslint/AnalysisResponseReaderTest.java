@@ -0,0 +1,244 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import com.google.gson.stream.JsonReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponseListener;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.CpdToken;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
+import org.sonar.plugins.javascript.eslint.cache.VarLengthOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AnalysisResponseReaderTest {
+
+  private static final String RESPONSE = "{" +
+    "issues: [{line: 1, column: 2, endLine: 3, endColumn: 4, message: 'message', ruleId: 'rule', secondaryLocations: []}]," +
+    "highlights: [{location: {startLine: 1, startCol: 0, endLine: 1, endCol: 5}, textType: 'KEYWORD'}]," +
+    "highlightedSymbols: [{declaration: {startLine: 1, startCol: 6, endLine: 1, endCol: 7}, references: []}]," +
+    "metrics: {ncloc: [1, 2], functions: 3}," +
+    "cpdTokens: [{location: {startLine: 1, startCol: 0, endLine: 1, endCol: 5}, image: 'const'}, " +
+    "{location: {startLine: 1, startCol: 6, endLine: 1, endCol: 7}, image: 'x'}]," +
+    "perf: {parseTime: 10, analysisTime: 20}," +
+    "ucfgPaths: ['path']," +
+    "unknown: {nested: [1, 2, 3]}" +
+    "}";
+
+  @Test
+  void should_read_response() throws Exception {
+    var response = read(RESPONSE, null);
+    assertThat(response.parsingError).isNull();
+    assertThat(response.issues).hasSize(1);
+    assertThat(response.issues.get(0).ruleId).isEqualTo("rule");
+    assertThat(response.highlights).hasSize(1);
+    assertThat(response.highlights[0].textType).isEqualTo("KEYWORD");
+    assertThat(response.highlightedSymbols).hasSize(1);
+    assertThat(response.metrics.ncloc).containsExactly(1, 2);
+    assertThat(response.metrics.functions).isEqualTo(3);
+    assertThat(response.cpdTokens).extracting(t -> t.image).containsExactly("const", "x");
+    assertThat(response.perf.parseTime).isEqualTo(10);
+    assertThat(response.ucfgPaths).containsExactly("path");
+  }
+
+  @Test
+  void should_hand_over_highlights_and_cpd_tokens() throws Exception {
+    var listener = new TestListener(true);
+    var response = read(RESPONSE, listener);
+    assertThat(response.highlights).isEmpty();
+    assertThat(response.cpdTokens).isEmpty();
+    assertThat(listener.highlights).extracting(h -> h.textType).containsExactly("KEYWORD");
+    assertThat(listener.cpdTokens).extracting(t -> t.image).containsExactly("const", "x");
+    assertThat(response.issues).hasSize(1);
+  }
+
+  @Test
+  void should_keep_cpd_tokens_when_not_accepted() throws Exception {
+    var listener = new TestListener(false);
+    var response = read(RESPONSE, listener);
+    assertThat(listener.highlights).hasSize(1);
+    assertThat(listener.cpdTokens).isEmpty();
+    assertThat(response.cpdTokens).hasSize(2);
+  }
+
+  @Test
+  void should_keep_defaults_for_missing_and_null_fields() throws Exception {
+    var response = read("{ parsingError: { message: 'error', line: 3, code: 'PARSING' }, issues: null }", null);
+    assertThat(response.parsingError.line).isEqualTo(3);
+    assertThat(response.parsingError.code).isEqualTo(EslintBridgeServer.ParsingErrorCode.PARSING);
+    assertThat(response.issues).isEmpty();
+    assertThat(response.highlights).isEmpty();
+    assertThat(response.metrics.ncloc).isEmpty();
+  }
+
+  @Test
+  void should_read_consecutive_responses() throws Exception {
+    var reader = new JsonReader(new StringReader("{ issues: [] }\n{ ucfgPaths: ['a'] }\n"));
+    assertThat(AnalysisResponseReader.read(reader, null).issues).isEmpty();
+    assertThat(AnalysisResponseReader.read(reader, null).ucfgPaths).containsExactly("a");
+  }
+
+  @Test
+  void should_fail_on_invalid_response() {
+    assertThatThrownBy(() -> read("Invalid response", null)).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  void should_read_binary_response() throws Exception {
+    var response = AnalysisResponseReader.readBinary(new ByteArrayInputStream(binaryResponse()), null);
+    assertThat(response.issues).hasSize(1);
+    assertThat(response.issues.get(0).ruleId).isEqualTo("rule");
+    assertThat(response.highlights).hasSize(1);
+    assertThat(response.highlights[0].textType).isEqualTo("KEYWORD");
+    assertThat(response.highlights[0].location.endLine).isEqualTo(3);
+    assertThat(response.highlightedSymbols).hasSize(1);
+    assertThat(response.highlightedSymbols[0].references).hasSize(1);
+    assertThat(response.highlightedSymbols[0].references[0].endCol).isEqualTo(200);
+    assertThat(response.metrics.ncloc).containsExactly(1, 2);
+    assertThat(response.metrics.commentLines).isEmpty();
+    assertThat(response.metrics.nosonarLines).containsExactly(2);
+    assertThat(response.metrics.executableLines).containsExactly(70000);
+    assertThat(response.metrics.functions).isEqualTo(3);
+    assertThat(response.cpdTokens).extracting(t -> t.image).containsExactly("KEYWORD", "\"é\"");
+    assertThat(response.ucfgPaths).containsExactly("path");
+  }
+
+  @Test
+  void should_hand_over_highlights_and_cpd_tokens_of_binary_response() throws Exception {
+    var listener = new TestListener(true);
+    var response = AnalysisResponseReader.readBinary(new ByteArrayInputStream(binaryResponse()), listener);
+    assertThat(response.highlights).isEmpty();
+    assertThat(response.cpdTokens).isEmpty();
+    assertThat(listener.highlights).extracting(h -> h.textType).containsExactly("KEYWORD");
+    assertThat(listener.cpdTokens).extracting(t -> t.image).containsExactly("KEYWORD", "\"é\"");
+  }
+
+  @Test
+  void should_keep_highlights_when_not_accepted() throws Exception {
+    var listener = new TestListener(true) {
+      @Override
+      public boolean acceptsHighlights() {
+        return false;
+      }
+    };
+    var response = AnalysisResponseReader.readBinary(new ByteArrayInputStream(binaryResponse()), listener);
+    assertThat(listener.highlights).isEmpty();
+    assertThat(response.highlights).extracting(h -> h.textType).containsExactly("KEYWORD");
+    assertThat(listener.cpdTokens).hasSize(2);
+  }
+
+  @Test
+  void should_fail_on_invalid_binary_response() throws Exception {
+    var truncated = binaryResponse();
+    var input = new ByteArrayInputStream(truncated, 0, truncated.length - 1);
+    assertThatThrownBy(() -> AnalysisResponseReader.readBinary(input, null)).isInstanceOf(EOFException.class);
+    assertThatThrownBy(() -> AnalysisResponseReader.readBinary(new ByteArrayInputStream(new byte[] {42}), null))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Unsupported version of binary response: 42");
+  }
+
+  /**
+   * Same layout as the one written by the bridge, see encoding.ts
+   */
+  private static byte[] binaryResponse() throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new VarLengthOutputStream(bytes)) {
+      bytes.write(AnalysisResponseReader.BINARY_VERSION);
+      out.writeUTF("{\"issues\":[{\"line\":1,\"ruleId\":\"rule\"}],\"metrics\":{\"functions\":3},\"ucfgPaths\":[\"path\"]}");
+      // string table
+      out.writeInt(2);
+      out.writeUTF("KEYWORD");
+      out.writeUTF("\"é\"");
+      // highlights
+      out.writeInt(1);
+      writeLocation(out);
+      out.writeInt(0);
+      // highlighted symbols
+      out.writeInt(1);
+      writeLocation(out);
+      out.writeInt(1);
+      writeLocation(out);
+      // ncloc, commentLines, nosonarLines, executableLines
+      writeLines(out, 1, 2);
+      writeLines(out);
+      writeLines(out, 2);
+      writeLines(out, 70000);
+      // CPD tokens
+      out.writeInt(2);
+      writeLocation(out);
+      out.writeInt(0);
+      writeLocation(out);
+      out.writeInt(1);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void writeLocation(VarLengthOutputStream out) throws IOException {
+    out.writeInt(1);
+    out.writeInt(0);
+    out.writeInt(2);
+    out.writeInt(200);
+  }
+
+  private static void writeLines(VarLengthOutputStream out, int... lines) throws IOException {
+    out.writeInt(lines.length);
+    for (int line : lines) {
+      out.writeInt(line);
+    }
+  }
+
+  private static AnalysisResponse read(String json, AnalysisResponseListener listener) throws IOException {
+    return AnalysisResponseReader.read(new JsonReader(new StringReader(json)), listener);
+  }
+
+  private static class TestListener implements AnalysisResponseListener {
+    final List<Highlight> highlights = new ArrayList<>();
+    final List<CpdToken> cpdTokens = new ArrayList<>();
+    final boolean acceptsCpdTokens;
+
+    TestListener(boolean acceptsCpdTokens) {
+      this.acceptsCpdTokens = acceptsCpdTokens;
+    }
+
+    @Override
+    public void onHighlight(Highlight highlight) {
+      highlights.add(highlight);
+    }
+
+    @Override
+    public void onCpdToken(CpdToken cpdToken) {
+      cpdTokens.add(cpdToken);
+    }
+
+    @Override
+    public boolean acceptsCpdTokens() {
+      return acceptsCpdTokens;
+    }
+  }
+}
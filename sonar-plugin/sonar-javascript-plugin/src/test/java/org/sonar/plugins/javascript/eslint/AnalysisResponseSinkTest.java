@@ -0,0 +1,116 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.CpdToken;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisResponseSinkTest {
+
+  @TempDir
+  Path baseDir;
+
+  @Test
+  void should_save_collected_and_response_entries() throws Exception {
+    var context = SensorContextTester.create(baseDir);
+    var file = inputFile(context);
+    var sink = new AnalysisResponseSink(true, true);
+    // the response is decoded on another thread, which doesn't touch the sensor API
+    var decoder = new Thread(() -> {
+      sink.onHighlight(highlight(1, 0, 1, 5, "KEYWORD"));
+      sink.onCpdToken(cpdToken(1, 0, 1, 5, "const"));
+    });
+    decoder.start();
+    decoder.join();
+
+    sink.saveHighlighting(context, file, new Highlight[] {highlight(2, 0, 2, 3, "COMMENT")});
+    sink.saveCpdTokens(context, file, new CpdToken[] {cpdToken(2, 0, 2, 3, "foo")});
+
+    assertThat(context.highlightingTypeAt(file.key(), 1, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(context.highlightingTypeAt(file.key(), 2, 0)).containsExactly(TypeOfText.COMMENT);
+    assertThat(context.cpdTokens(file.key())).extracting(line -> line.getValue()).containsExactly("const", "foo");
+  }
+
+  @Test
+  void should_grow_beyond_initial_capacity() {
+    var context = SensorContextTester.create(baseDir);
+    var file = inputFile(context);
+    var sink = new AnalysisResponseSink(true, true);
+    for (var col = 0; col < 40; col++) {
+      sink.onHighlight(highlight(3, col, 3, col + 1, "CONSTANT"));
+      sink.onCpdToken(cpdToken(3, col, 3, col + 1, "x"));
+    }
+
+    sink.saveHighlighting(context, file, new Highlight[0]);
+    sink.saveCpdTokens(context, file, new CpdToken[0]);
+
+    assertThat(context.highlightingTypeAt(file.key(), 3, 39)).containsExactly(TypeOfText.CONSTANT);
+    assertThat(context.cpdTokens(file.key())).extracting(line -> line.getValue()).containsExactly("x".repeat(40));
+  }
+
+  @Test
+  void should_tell_what_it_accepts() {
+    var sink = new AnalysisResponseSink(false, false);
+    assertThat(sink.acceptsCpdTokens()).isFalse();
+    assertThat(sink.acceptsHighlights()).isFalse();
+  }
+
+  private InputFile inputFile(SensorContextTester context) {
+    var file = new TestInputFileBuilder("moduleKey", baseDir.toFile(), baseDir.resolve("file.js").toFile())
+      .setLanguage("js")
+      .setContents("const a = 1;\nfoo();\n" + "x".repeat(40) + "\n")
+      .build();
+    context.fileSystem().add(file);
+    return file;
+  }
+
+  private static Highlight highlight(int startLine, int startCol, int endLine, int endCol, String textType) {
+    var highlight = new Highlight();
+    highlight.location = location(startLine, startCol, endLine, endCol);
+    highlight.textType = textType;
+    return highlight;
+  }
+
+  private static CpdToken cpdToken(int startLine, int startCol, int endLine, int endCol, String image) {
+    var cpdToken = new CpdToken();
+    cpdToken.location = location(startLine, startCol, endLine, endCol);
+    cpdToken.image = image;
+    return cpdToken;
+  }
+
+  private static Location location(int startLine, int startCol, int endLine, int endCol) {
+    var location = new Location();
+    location.startLine = startLine;
+    location.startCol = startCol;
+    location.endLine = endLine;
+    location.endCol = endCol;
+    return location;
+  }
+}
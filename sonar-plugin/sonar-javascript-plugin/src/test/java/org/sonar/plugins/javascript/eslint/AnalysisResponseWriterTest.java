@@ -0,0 +1,108 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.HighlightedSymbol;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Issue;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Location;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.ParsingError;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.ParsingErrorCode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisResponseWriterTest {
+
+  @Test
+  void should_write_response_readable_by_reader() throws Exception {
+    var response = new AnalysisResponse();
+    var issue = new Issue();
+    issue.line = 1;
+    issue.message = "message";
+    issue.ruleId = "rule";
+    issue.secondaryLocations = List.of();
+    response.issues = List.of(issue);
+    response.highlights = new Highlight[] { highlight(1, "KEYWORD"), highlight(2, "COMMENT"), highlight(3, "KEYWORD") };
+    var symbol = new HighlightedSymbol();
+    symbol.declaration = location(1);
+    symbol.references = new Location[] { location(2), location(70000) };
+    response.highlightedSymbols = new HighlightedSymbol[] { symbol };
+    response.metrics.ncloc = new int[] { 1, 2 };
+    response.metrics.executableLines = new int[] { 2 };
+    response.metrics.functions = 3;
+    response.metrics.cognitiveComplexity = 4;
+    response.ucfgPaths = List.of("path");
+
+    var read = AnalysisResponseReader.readBinary(new ByteArrayInputStream(AnalysisResponseWriter.writeBinary(response)), null);
+    assertThat(read.parsingError).isNull();
+    assertThat(read.issues).hasSize(1);
+    assertThat(read.issues.get(0).ruleId).isEqualTo("rule");
+    assertThat(read.issues.get(0).message).isEqualTo("message");
+    assertThat(read.highlights).extracting(h -> h.textType).containsExactly("KEYWORD", "COMMENT", "KEYWORD");
+    assertThat(read.highlights[2].location.startLine).isEqualTo(3);
+    assertThat(read.highlights[2].location.endLine).isEqualTo(4);
+    assertThat(read.highlightedSymbols).hasSize(1);
+    assertThat(read.highlightedSymbols[0].references).extracting(l -> l.startLine).containsExactly(2, 70000);
+    assertThat(read.metrics.ncloc).containsExactly(1, 2);
+    assertThat(read.metrics.commentLines).isEmpty();
+    assertThat(read.metrics.executableLines).containsExactly(2);
+    assertThat(read.metrics.functions).isEqualTo(3);
+    assertThat(read.metrics.cognitiveComplexity).isEqualTo(4);
+    // cached on their own
+    assertThat(read.cpdTokens).isEmpty();
+    assertThat(read.ucfgPaths).isEmpty();
+  }
+
+  @Test
+  void should_write_parsing_error() throws Exception {
+    var response = new AnalysisResponse();
+    response.parsingError = new ParsingError();
+    response.parsingError.message = "error";
+    response.parsingError.line = 3;
+    response.parsingError.code = ParsingErrorCode.PARSING;
+
+    var read = AnalysisResponseReader.readBinary(new ByteArrayInputStream(AnalysisResponseWriter.writeBinary(response)), null);
+    assertThat(read.parsingError.message).isEqualTo("error");
+    assertThat(read.parsingError.line).isEqualTo(3);
+    assertThat(read.parsingError.code).isEqualTo(ParsingErrorCode.PARSING);
+    assertThat(read.issues).isEmpty();
+    assertThat(read.highlights).isEmpty();
+  }
+
+  private static Highlight highlight(int line, String textType) {
+    var highlight = new Highlight();
+    highlight.location = location(line);
+    highlight.textType = textType;
+    return highlight;
+  }
+
+  private static Location location(int line) {
+    var location = new Location();
+    location.startLine = line;
+    location.startCol = 0;
+    location.endLine = line + 1;
+    location.endCol = 5;
+    return location;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BridgeDaemonTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void key() {
+    assertThat(BridgeDaemon.key("1.0", "abc"))
+      .hasSize(16)
+      .isEqualTo(BridgeDaemon.key("1.0", "abc"))
+      .isNotEqualTo(BridgeDaemon.key("1.0", "abd"))
+      .isNotEqualTo(BridgeDaemon.key("1.0a", "bc"));
+  }
+
+  @Test
+  void home() {
+    assertThat(BridgeDaemon.home(dir)).isEqualTo(dir.resolve("js/eslint-bridge-daemon"));
+  }
+
+  @Test
+  void should_lock_slots() throws Exception {
+    var first = BridgeDaemon.acquire(dir, 2).orElseThrow();
+    var second = BridgeDaemon.acquire(dir, 2).orElseThrow();
+    assertThat(first.socket()).isEqualTo(dir.resolve("slot-0.sock"));
+    assertThat(second.socket()).isEqualTo(dir.resolve("slot-1.sock"));
+    assertThat(BridgeDaemon.acquire(dir, 2)).isEmpty();
+
+    first.release();
+    var third = BridgeDaemon.acquire(dir, 2).orElseThrow();
+    assertThat(third.socket()).isEqualTo(first.socket());
+    second.release();
+    third.release();
+  }
+
+  @Test
+  void should_record_address() throws Exception {
+    var daemon = BridgeDaemon.acquire(dir, 1).orElseThrow();
+    assertThat(daemon.address()).isEmpty();
+    daemon.record("1234");
+    assertThat(daemon.address()).contains("1234");
+    daemon.release();
+
+    daemon = BridgeDaemon.acquire(dir, 1).orElseThrow();
+    assertThat(daemon.address()).contains("1234");
+    daemon.release();
+  }
+}
@@ -51,4 +51,23 @@ class BundleImplTest {
     bundle.deploy(deployLocation);
     // no exception expected
   }
+
+  @Test
+  void should_reuse_deployed_bundle() throws Exception {
+    new BundleImpl("/test-bundle.tgz").deploy(deployLocation);
+    Files.delete(deployLocation.resolve("package/bin/server"));
+
+    BundleImpl bundle = new BundleImpl("/test-bundle.tgz");
+    bundle.deploy(deployLocation);
+    assertThat(bundle.startServerScript()).isEqualTo(deployLocation.resolve("package/bin/server").toString());
+    assertThat(deployLocation.resolve("package/bin/server")).doesNotExist();
+  }
+
+  @Test
+  void checksum() throws Exception {
+    BundleImpl bundle = new BundleImpl("/test-bundle.tgz");
+    assertThat(bundle.checksum())
+      .hasSize(64)
+      .isEqualTo(new BundleImpl("/test-bundle.tgz").checksum());
+  }
 }
@@ -99,7 +99,7 @@ class CssRuleSensorTest {
   @BeforeEach
   public void setUp() throws IOException {
     MockitoAnnotations.initMocks(this);
-    when(eslintBridgeServerMock.isAlive()).thenReturn(true);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(true);
     when(eslintBridgeServerMock.analyzeCss(any()))
       .thenReturn(response("{ issues: [{\"line\":2,\"ruleId\":\"block-no-empty\",\"message\":\"Unexpected empty block\"}]}"));
     when(eslintBridgeServerMock.getCommandInfo()).thenReturn("eslintBridgeServerMock command info");
@@ -249,7 +249,7 @@ class CssRuleSensorTest {
   @Test
   void analysis_stop_when_server_is_not_anymore_alive() {
     addInputFile("file.css");
-    when(eslintBridgeServerMock.isAlive()).thenReturn(false);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(false);
     sensor.execute(context);
     assertThat(logTester.logs(LoggerLevel.ERROR)).contains("Failure during analysis, eslintBridgeServerMock command info");
   }
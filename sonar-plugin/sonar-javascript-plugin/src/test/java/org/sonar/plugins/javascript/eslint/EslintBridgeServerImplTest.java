@@ -21,13 +21,17 @@ package org.sonar.plugins.javascript.eslint;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.http.HttpClient;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.awaitility.Awaitility;
@@ -49,6 +53,7 @@ import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.LogTesterJUnit5;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.BatchAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.CssAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgram;
@@ -62,7 +67,12 @@ import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.sonar.api.utils.log.LoggerLevel.DEBUG;
 import static org.sonar.api.utils.log.LoggerLevel.ERROR;
@@ -88,6 +98,9 @@ class EslintBridgeServerImplTest {
   @TempDir
   File tempDir;
 
+  @TempDir
+  Path userHome;
+
   TempFolder tempFolder;
 
   private SensorContextTester context;
@@ -101,6 +114,7 @@ class EslintBridgeServerImplTest {
   public void setUp() throws Exception {
     context = SensorContextTester.create(moduleBase);
     context.fileSystem().setWorkDir(workDir);
+    context.settings().setProperty("sonar.userHome", userHome.toString());
     tempFolder = new DefaultTempFolder(tempDir, true);
   }
 
@@ -171,6 +185,38 @@ class EslintBridgeServerImplTest {
     assertThat(eslintBridgeServer.analyzeJavaScript(request).issues).isEmpty();
   }
 
+  @Test
+  void should_get_async_answer_from_server() throws Exception {
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.deploy();
+    eslintBridgeServer.startServer(context, emptyList());
+
+    DefaultInputFile inputFile = TestInputFileBuilder.create("foo", "foo.ts")
+      .setContents("alert('Fly, you fools!')")
+      .build();
+    JsAnalysisRequest request = new JsAnalysisRequest(inputFile.absolutePath(), inputFile.type().toString(), null, true, null, null, DEFAULT_LINTER_ID);
+    var jsResponse = eslintBridgeServer.analyzeJavaScriptAsync(request, null);
+    var tsResponse = eslintBridgeServer.analyzeTypeScriptAsync(request, null);
+    var programResponse = eslintBridgeServer.analyzeWithProgramAsync(request, null);
+    assertThat(jsResponse.get().issues).isEmpty();
+    assertThat(tsResponse.get().issues).isEmpty();
+    assertThat(programResponse.get().issues).isEmpty();
+  }
+
+  @Test
+  void should_get_answer_from_server_for_batch_request() throws Exception {
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.deploy();
+    eslintBridgeServer.startServer(context, emptyList());
+
+    List<JsAnalysisRequest> requests = Arrays.asList(
+      new JsAnalysisRequest("/absolute/path/file1.js", "MAIN", null, true, null, null, DEFAULT_LINTER_ID),
+      new JsAnalysisRequest("/absolute/path/file2.js", "MAIN", null, true, null, null, DEFAULT_LINTER_ID));
+    BatchAnalysisRequest request = new BatchAnalysisRequest(BatchAnalysisRequest.JAVASCRIPT, requests);
+    assertThat(eslintBridgeServer.analyzeBatch(request)).hasSize(2).allSatisfy(response -> assertThat(response.issues).isEmpty());
+    assertThat(eslintBridgeServer.analyzeBatchAsync(request).get()).hasSize(2);
+  }
+
   @Test
   void test_init() throws Exception {
     eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
@@ -289,6 +335,7 @@ class EslintBridgeServerImplTest {
 
     assertThat(eslintBridgeServer.getCommandInfo()).contains("Node.js command to start eslint-bridge was: ", "node", START_SERVER_SCRIPT);
     assertThat(eslintBridgeServer.getCommandInfo()).doesNotContain("--max-old-space-size");
+    assertThat(eslintBridgeServer.getCommandInfo()).doesNotContain("--expose-gc");
   }
 
   @Test
@@ -303,6 +350,16 @@ class EslintBridgeServerImplTest {
     assertThat(eslintBridgeServer.getCommandInfo()).contains("--max-old-space-size=2048");
   }
 
+  @Test
+  void should_expose_gc_with_program_memory_budget() throws Exception {
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.deploy();
+    context.setSettings(new MapSettings().setProperty("sonar.javascript.analysis.programMemoryBudget", 70));
+    eslintBridgeServer.startServer(context, emptyList());
+
+    assertThat(eslintBridgeServer.getCommandInfo()).contains("--expose-gc");
+  }
+
   @Test
   void should_set_allowTsParserJsFiles_to_false() throws Exception {
     eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
@@ -334,10 +391,203 @@ class EslintBridgeServerImplTest {
     assertThat(eslintBridgeServer.isAlive()).isFalse();
   }
 
+  @Test
+  void test_isAliveCached() throws Exception {
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    assertThat(eslintBridgeServer.isAliveCached()).isFalse();
+    eslintBridgeServer.startServerLazily(context);
+    assertThat(eslintBridgeServer.isAliveCached()).isTrue();
+    eslintBridgeServer.clean();
+    assertThat(eslintBridgeServer.isAliveCached()).isFalse();
+  }
+
+  @Test
+  void should_not_be_alive_once_request_failed() throws Exception {
+    eslintBridgeServer = createEslintBridgeServer("timeout.js");
+    eslintBridgeServer.startServerLazily(context);
+    assertThat(eslintBridgeServer.isAliveCached()).isTrue();
+
+    JsAnalysisRequest request = new JsAnalysisRequest("/absolute/path/file.js", "MAIN", null, true, null, null, DEFAULT_LINTER_ID);
+    assertThatThrownBy(() -> eslintBridgeServer.analyzeJavaScript(request)).isInstanceOf(IllegalStateException.class);
+    assertThat(eslintBridgeServer.isAliveCached()).isFalse();
+    eslintBridgeServer.heartbeat();
+    assertThat(eslintBridgeServer.isAliveCached()).isTrue();
+  }
+
+  @Test
+  void should_throw_if_process_exits_before_being_ready() {
+    eslintBridgeServer = new EslintBridgeServerImpl(NodeCommand.builder(), 60, new TestBundle("throw.js"), emptyRulesBundles,
+      deprecationWarning, tempFolder, monitoring);
+    long start = System.currentTimeMillis();
+    assertThatThrownBy(() -> eslintBridgeServer.startServerLazily(context))
+      .isInstanceOf(NodeCommandException.class)
+      .hasMessage("Failed to start server (60s timeout)");
+    assertThat(System.currentTimeMillis() - start).isLessThan(30_000);
+    assertThat(logTester.logs(DEBUG)).anyMatch(l -> l.startsWith("Node.js process exited with 1 before eslint-bridge server was ready"));
+  }
+
+  @Test
+  void should_start_pool_of_workers() throws Exception {
+    context.setSettings(new MapSettings().setProperty("sonar.javascript.node.workers", "2"));
+    var nodeCommandBuilder = spy(NodeCommand.builder());
+    eslintBridgeServer = new EslintBridgeServerImpl(nodeCommandBuilder, TEST_TIMEOUT_SECONDS, new TestBundle(START_SERVER_SCRIPT), emptyRulesBundles,
+      deprecationWarning, tempFolder, monitoring);
+    eslintBridgeServer.deploy();
+    eslintBridgeServer.startServer(context, emptyList());
+
+    // every worker is built with the injected builder
+    verify(nodeCommandBuilder, times(2)).build();
+    assertThat(eslintBridgeServer.getWorkerCount()).isEqualTo(2);
+    assertThat(eslintBridgeServer.isAlive()).isTrue();
+    assertThat(logTester.logs(DEBUG).stream().filter(l -> l.startsWith("Starting Node.js process to start eslint-bridge server at "))).hasSize(2);
+
+    DefaultInputFile inputFile = TestInputFileBuilder.create("foo", "foo.js")
+      .setContents("alert('Fly, you fools!')")
+      .build();
+    JsAnalysisRequest request = new JsAnalysisRequest(inputFile.absolutePath(), inputFile.type().toString(), null, true, null, null, DEFAULT_LINTER_ID);
+    assertThat(eslintBridgeServer.analyzeJavaScript(request).issues).isEmpty();
+    assertThat(eslintBridgeServer.analyzeJavaScript(request).issues).isEmpty();
+
+    eslintBridgeServer.clean();
+    assertThat(eslintBridgeServer.getWorkerCount()).isZero();
+    assertThat(eslintBridgeServer.isAlive()).isFalse();
+  }
+
+  @Test
+  void should_stop_started_workers_when_pool_fails_to_start() throws Exception {
+    context.setSettings(new MapSettings().setProperty("sonar.javascript.node.workers", "2"));
+    var nodeCommandBuilder = spy(NodeCommand.builder());
+    List<NodeCommand> nodeCommands = new ArrayList<>();
+    doAnswer(invocation -> {
+      if (!nodeCommands.isEmpty()) {
+        // the second worker exits before being ready
+        nodeCommandBuilder.script(new File("src/test/resources/mock-eslint-bridge/throw.js").getAbsolutePath());
+      }
+      var nodeCommand = (NodeCommand) invocation.callRealMethod();
+      nodeCommands.add(nodeCommand);
+      return nodeCommand;
+    }).when(nodeCommandBuilder).build();
+    eslintBridgeServer = new EslintBridgeServerImpl(nodeCommandBuilder, TEST_TIMEOUT_SECONDS, new TestBundle(START_SERVER_SCRIPT), emptyRulesBundles,
+      deprecationWarning, tempFolder, monitoring);
+    eslintBridgeServer.deploy();
+
+    assertThatThrownBy(() -> eslintBridgeServer.startServer(context, emptyList()))
+      .isInstanceOf(NodeCommandException.class)
+      .hasMessage("Failed to start server (" + TEST_TIMEOUT_SECONDS + "s timeout)");
+    assertThat(nodeCommands).hasSize(2);
+    assertThat(eslintBridgeServer.getWorkerCount()).isZero();
+    assertThat(eslintBridgeServer.isAlive()).isFalse();
+    // the process of the first worker was ready, it is killed along with the pool
+    assertThat(nodeCommands.get(0).onExit().get(5, TimeUnit.SECONDS)).isNotZero();
+  }
+
+  @Test
+  void should_spread_programs_over_workers() throws Exception {
+    context.setSettings(new MapSettings().setProperty("sonar.javascript.node.workers", "2"));
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.deploy();
+    eslintBridgeServer.startServer(context, emptyList());
+
+    // both workers return the same identifier, which is only unique within a worker
+    TsProgram first = eslintBridgeServer.createProgram(new TsProgramRequest("/absolute/path/tsconfig.json"));
+    TsProgram second = eslintBridgeServer.createProgram(new TsProgramRequest("/absolute/path/other/tsconfig.json"));
+    assertThat(first.programId).isEqualTo("0:42");
+    assertThat(second.programId).isEqualTo("1:42");
+    assertThat(second.files).hasSize(3);
+
+    JsAnalysisRequest request = new JsAnalysisRequest("/absolute/path/file.ts", "MAIN", null, true, null, second.programId, DEFAULT_LINTER_ID);
+    assertThat(eslintBridgeServer.analyzeWithProgram(request).issues).isEmpty();
+    assertThat(eslintBridgeServer.analyzeWithProgramAsync(request, null).get().issues).isEmpty();
+
+    assertThat(eslintBridgeServer.deleteProgram(first)).isTrue();
+    assertThat(eslintBridgeServer.deleteProgram(second)).isTrue();
+
+    // the worker of the deleted program is picked again
+    TsProgram third = eslintBridgeServer.createProgram(new TsProgramRequest("/absolute/path/tsconfig.json"));
+    assertThat(third.programId).isEqualTo("0:42");
+
+    TsProgram invalid = eslintBridgeServer.createProgram(new TsProgramRequest("/absolute/path/invalid.json"));
+    assertThat(invalid.programId).isNull();
+    assertThat(invalid.error).isEqualTo("failed to create program");
+  }
+
+  @Test
+  void should_fall_back_to_http_transport() throws Exception {
+    context.setSettings(new MapSettings().setProperty("sonar.javascript.node.unixSocket", "false"));
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.deploy();
+    eslintBridgeServer.startServer(context, emptyList());
+
+    assertThat(logTester.logs(DEBUG)).contains("Starting Node.js process to start eslint-bridge server at a free port");
+    assertThat(logTester.logs(DEBUG)).anyMatch(l -> l.startsWith("eslint-bridge server is ready at port "));
+    JsAnalysisRequest request = new JsAnalysisRequest("/absolute/path/file.js", "MAIN", null, true, null, null, DEFAULT_LINTER_ID);
+    assertThat(eslintBridgeServer.analyzeJavaScript(request).issues).isEmpty();
+  }
+
+  @Test
+  void should_use_unix_domain_socket_transport() throws Exception {
+    var probe = UnixSocketTransport.create();
+    probe.ifPresent(BridgeTransport::close);
+    assumeTrue(probe.isPresent());
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.deploy();
+    eslintBridgeServer.startServer(context, emptyList());
+
+    var socket = logTester.logs(DEBUG).stream()
+      .filter(l -> l.startsWith("Starting Node.js process to start eslint-bridge server at socket "))
+      .map(l -> Path.of(l.substring("Starting Node.js process to start eslint-bridge server at socket ".length())))
+      .findFirst();
+    assertThat(socket).isPresent();
+    assertThat(socket.get()).exists();
+    JsAnalysisRequest request = new JsAnalysisRequest("/absolute/path/file.js", "MAIN", null, true, null, null, DEFAULT_LINTER_ID);
+    assertThat(eslintBridgeServer.analyzeJavaScript(request).issues).isEmpty();
+    assertThat(eslintBridgeServer.analyzeJavaScriptAsync(request, null).get().issues).isEmpty();
+
+    eslintBridgeServer.clean();
+    assertThat(socket.get()).doesNotExist();
+  }
+
+  @Test
+  void should_attach_to_daemon_started_by_previous_analysis() throws Exception {
+    context.setSettings(new MapSettings()
+      .setProperty("sonar.javascript.node.daemon", "true")
+      .setProperty("sonar.javascript.node.unixSocket", "false")
+      .setProperty("sonar.userHome", userHome.toString()));
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.startServerLazily(context);
+    assertThat(logTester.logs(DEBUG)).anyMatch(l -> l.startsWith("Starting Node.js process to start eslint-bridge daemon at "));
+    eslintBridgeServer.clean();
+
+    logTester.clear();
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.startServerLazily(context);
+    try {
+      assertThat(logTester.logs(DEBUG)).anyMatch(l -> l.startsWith("Attaching to eslint-bridge daemon at port "));
+      assertThat(logTester.logs(DEBUG)).noneMatch(l -> l.startsWith("Starting Node.js process"));
+      JsAnalysisRequest request = new JsAnalysisRequest("/absolute/path/file.js", "MAIN", null, true, null, null, DEFAULT_LINTER_ID);
+      assertThat(eslintBridgeServer.analyzeJavaScript(request).issues).isEmpty();
+    } finally {
+      // the daemon is not stopped by the analysis
+      try (var addresses = Files.walk(userHome)) {
+        var address = Files.readString(addresses.filter(p -> p.endsWith("slot-0.address")).findFirst().orElseThrow());
+        new HttpTransport(HttpClient.newHttpClient(), "127.0.0.1", Integer.parseInt(address)).post("close", "", Duration.ofSeconds(1));
+      }
+    }
+  }
+
+  @Test
+  void should_deploy_bundle_to_user_home() throws Exception {
+    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
+    eslintBridgeServer.startServerLazily(context);
+    try (var deployed = Files.list(userHome.resolve("js/bundles/eslint-bridge"))) {
+      assertThat(deployed).containsExactly(userHome.resolve("js/bundles/eslint-bridge").resolve(START_SERVER_SCRIPT));
+    }
+  }
+
   @Test
   void test_lazy_start() throws Exception {
     String alreadyStarted = "eslint-bridge server is up, no need to start.";
-    String starting = "Starting Node.js process to start eslint-bridge server at port";
+    String starting = "Starting Node.js process to start eslint-bridge server at ";
     eslintBridgeServer = createEslintBridgeServer("startServer.js");
     eslintBridgeServer.startServerLazily(context);
     assertThat(logTester.logs(DEBUG).stream().anyMatch(s -> s.startsWith(starting))).isTrue();
@@ -376,7 +626,10 @@ class EslintBridgeServerImplTest {
     eslintBridgeServer = createEslintBridgeServer("startAndClose.js");
     eslintBridgeServer.startServerLazily(context);
 
+    // the server closes once it is asked for its status
+    eslintBridgeServer.heartbeat();
     eslintBridgeServer.waitFor();
+    await().until(() -> !eslintBridgeServer.isAliveCached());
 
     assertThatThrownBy(() -> eslintBridgeServer.startServerLazily(context))
       .isInstanceOf(ServerAlreadyFailedException.class);
@@ -510,14 +763,22 @@ class EslintBridgeServerImplTest {
   }
 
   @Test
-  void waitServerToStart_can_be_interrupted() throws InterruptedException {
-    eslintBridgeServer = createEslintBridgeServer(START_SERVER_SCRIPT);
-    // try to connect to a port that does not exists
-    Thread worker = new Thread(() -> eslintBridgeServer.waitServerToStart(1000));
+  void waitServerToStart_can_be_interrupted() throws Exception {
+    eslintBridgeServer = new EslintBridgeServerImpl(NodeCommand.builder(), 60, new TestBundle("notReady.js"), emptyRulesBundles,
+      deprecationWarning, tempFolder, monitoring);
+    eslintBridgeServer.deploy();
+    // the process never prints its readiness line, which is awaited until the timeout
+    Thread worker = new Thread(() -> {
+      try {
+        eslintBridgeServer.startServer(context, emptyList());
+      } catch (Exception e) {
+        // expected
+      }
+    });
     worker.start();
-    Awaitility.setDefaultTimeout(1, TimeUnit.SECONDS);
-    // wait for the worker thread to start and to be blocked on Thread.sleep(20);
-    await().until(() -> worker.getState() == Thread.State.TIMED_WAITING);
+    Awaitility.setDefaultTimeout(5, TimeUnit.SECONDS);
+    await().until(() -> logTester.logs(DEBUG).stream().anyMatch(l -> l.startsWith("Starting Node.js process")) &&
+      worker.getState() == Thread.State.TIMED_WAITING);
 
     long start = System.currentTimeMillis();
     worker.interrupt();
@@ -526,6 +787,19 @@ class EslintBridgeServerImplTest {
     assertThat(timeToInterrupt).isLessThan(20);
   }
 
+  @Test
+  void should_complete_readiness_with_address() {
+    List<String> logged = new ArrayList<>();
+    var ready = new CompletableFuture<String>();
+    var consumer = new EslintBridgeServerImpl.ReadinessOutputConsumer(ready, logged::add);
+    consumer.accept("DEBUG starting");
+    assertThat(ready).isNotDone();
+    consumer.accept("READY 1234");
+    consumer.accept("READY 5678");
+    assertThat(ready).isCompletedWithValue("1234");
+    assertThat(logged).containsExactly("DEBUG starting", "READY 5678");
+  }
+
   @Test
   void test_tsProgram_toString() {
     TsProgram tsProgram = new TsProgram("42", singletonList("path/file.ts"), singletonList("path/tsconfig.json"));
@@ -595,6 +869,11 @@ class EslintBridgeServerImplTest {
       // no-op for unit test
     }
 
+    @Override
+    public String checksum() {
+      return startServerScript;
+    }
+
     @Override
     public String startServerScript() {
       return "src/test/resources/mock-eslint-bridge/" + startServerScript;
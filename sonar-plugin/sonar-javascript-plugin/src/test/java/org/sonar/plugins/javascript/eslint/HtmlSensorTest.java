@@ -95,7 +95,7 @@ class HtmlSensorTest {
     // reset is required as this static value might be set by another test
     PluginInfo.setUcfgPluginVersion(null);
 
-    when(eslintBridgeServerMock.isAlive()).thenReturn(true);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(true);
     when(eslintBridgeServerMock.analyzeHtml(any())).thenReturn(new AnalysisResponse());
     when(eslintBridgeServerMock.getCommandInfo()).thenReturn("eslintBridgeServerMock command info");
 
@@ -221,7 +221,7 @@ class HtmlSensorTest {
 
   @Test
   void stop_analysis_if_server_is_not_responding() throws Exception {
-    when(eslintBridgeServerMock.isAlive()).thenReturn(false);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(false);
 
     HtmlSensor HtmlSensor = createSensor();
     createInputFile(context);
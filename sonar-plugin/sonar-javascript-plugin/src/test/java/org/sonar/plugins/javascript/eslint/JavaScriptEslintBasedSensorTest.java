@@ -78,6 +78,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -118,7 +119,7 @@ class JavaScriptEslintBasedSensorTest {
     // reset is required as this static value might be set by another test
     PluginInfo.setUcfgPluginVersion(null);
 
-    when(eslintBridgeServerMock.isAlive()).thenReturn(true);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(true);
     when(eslintBridgeServerMock.analyzeJavaScript(any())).thenReturn(new AnalysisResponse());
     when(eslintBridgeServerMock.getCommandInfo()).thenReturn("eslintBridgeServerMock command info");
     context = SensorContextTester.create(baseDir);
@@ -467,7 +468,7 @@ class JavaScriptEslintBasedSensorTest {
 
   @Test
   void stop_analysis_if_server_is_not_responding() throws Exception {
-    when(eslintBridgeServerMock.isAlive()).thenReturn(false);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(false);
     JavaScriptEslintBasedSensor javaScriptEslintBasedSensor = createSensor();
     createInputFile(context);
     javaScriptEslintBasedSensor.execute(context);
@@ -592,6 +593,9 @@ class JavaScriptEslintBasedSensorTest {
     sensor.execute(context);
 
     assertThat(context.cpdTokens(file.key())).hasSize(2);
+    assertThat(context.highlightingTypeAt(file.key(), 1, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(context.measure(file.key(), CoreMetrics.NCLOC).value()).isEqualTo(4);
+    verify(eslintBridgeServerMock, never()).analyzeJavaScript(any());
     assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Processing cache analysis of file: " + file.uri());
   }
 
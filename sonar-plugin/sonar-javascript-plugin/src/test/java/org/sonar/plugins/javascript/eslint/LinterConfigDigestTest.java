@@ -0,0 +1,99 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinterConfigDigestTest {
+
+  private static final EslintRule RULE = new EslintRule("rule", List.of("config"), List.of(InputFile.Type.MAIN));
+  private static final EslintRule UCFG = new EslintRule(EslintRule.UCFG_ESLINT_KEY, emptyList(), List.of(InputFile.Type.MAIN));
+
+  @TempDir
+  Path baseDir;
+
+  @Test
+  void should_not_depend_on_rule_order() {
+    assertThat(digest(List.of(RULE, UCFG), List.of("node"), List.of("foo")))
+      .isEqualTo(digest(List.of(UCFG, RULE), List.of("node"), List.of("foo")))
+      .hasSize(16);
+  }
+
+  @Test
+  void should_change_with_linter_config() {
+    var digest = digest(List.of(RULE, UCFG), List.of("node"), List.of("foo"));
+    var otherConfig = new EslintRule("rule", List.of("other"), List.of(InputFile.Type.MAIN));
+    assertThat(digest(List.of(otherConfig, UCFG), List.of("node"), List.of("foo"))).isNotEqualTo(digest);
+    assertThat(digest(List.of(RULE), List.of("node"), List.of("foo"))).isNotEqualTo(digest);
+    assertThat(digest(List.of(RULE, UCFG), List.of("browser"), List.of("foo"))).isNotEqualTo(digest);
+    assertThat(digest(List.of(RULE, UCFG), List.of("node"), List.of("bar"))).isNotEqualTo(digest);
+  }
+
+  @Test
+  void should_change_with_tsconfigs() throws Exception {
+    var digest = digest(List.of(RULE), emptyList(), emptyList());
+    var tsConfig = Files.writeString(baseDir.resolve("tsconfig.json"), "{}").toString();
+    var withTsConfig = LinterConfigDigest.withTsConfigs(digest, List.of(tsConfig));
+    assertThat(withTsConfig).isNotEqualTo(digest).isEqualTo(LinterConfigDigest.withTsConfigs(digest, List.of(tsConfig)));
+
+    Files.writeString(baseDir.resolve("tsconfig.json"), "{ \"compilerOptions\": { \"strict\": true } }");
+    assertThat(LinterConfigDigest.withTsConfigs(digest, List.of(tsConfig))).isNotEqualTo(withTsConfig);
+    assertThat(LinterConfigDigest.withTsConfigs(digest, List.of(baseDir.resolve("missing.json").toString()))).hasSize(16);
+  }
+
+  @Test
+  void should_only_depend_on_compiler_options_of_tsconfigs() throws Exception {
+    var tsConfig = Files.writeString(baseDir.resolve("tsconfig.json"), "{ \"files\": [\"a.ts\"] }").toString();
+    var digest = LinterConfigDigest.withTsConfigs(null, List.of(tsConfig));
+
+    Files.writeString(baseDir.resolve("tsconfig.json"), "// comments are allowed\n{ \"files\": [\"a.ts\", \"b.ts\"] }");
+    assertThat(LinterConfigDigest.withTsConfigs(null, List.of(tsConfig))).isEqualTo(digest);
+  }
+
+  @Test
+  void should_change_with_extended_tsconfigs() throws Exception {
+    var packageDir = Files.createDirectories(baseDir.resolve("node_modules/@tsconfig/node16"));
+    Files.writeString(packageDir.resolve("tsconfig.json"), "{ \"compilerOptions\": { \"target\": \"es2021\" } }");
+    Files.writeString(baseDir.resolve("base.json"), "{ \"extends\": \"@tsconfig/node16/tsconfig.json\" }");
+    var appDir = Files.createDirectories(baseDir.resolve("app"));
+    var tsConfig = Files.writeString(appDir.resolve("tsconfig.json"), "{ \"extends\": [\"../base\"] }").toString();
+    var digest = LinterConfigDigest.withTsConfigs(null, List.of(tsConfig));
+
+    Files.writeString(packageDir.resolve("tsconfig.json"), "{ \"compilerOptions\": { \"target\": \"es2022\" } }");
+    var withOtherBase = LinterConfigDigest.withTsConfigs(null, List.of(tsConfig));
+    assertThat(withOtherBase).isNotEqualTo(digest);
+
+    // cycles between configurations are ignored
+    Files.writeString(baseDir.resolve("base.json"), "{ \"extends\": \"./app/tsconfig.json\" }");
+    assertThat(LinterConfigDigest.withTsConfigs(null, List.of(tsConfig))).isNotEqualTo(withOtherBase).hasSize(16);
+  }
+
+  private static String digest(List<EslintRule> rules, List<String> environments, List<String> globals) {
+    return LinterConfigDigest.of(rules, environments, globals);
+  }
+}
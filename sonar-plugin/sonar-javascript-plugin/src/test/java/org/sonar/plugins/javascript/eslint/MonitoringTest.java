@@ -25,6 +25,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -39,9 +40,14 @@ import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.Version;
+import org.sonar.plugins.javascript.eslint.cache.CacheStatistics;
 
+import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class MonitoringTest {
 
@@ -124,6 +130,49 @@ class MonitoringTest {
     }
   }
 
+  @Test
+  void test_cache_metric() throws Exception {
+    var statistics = mock(CacheStatistics.class);
+    when(statistics.getComponent()).thenReturn("path");
+    when(statistics.getStrategy()).thenReturn("WRITE_ONLY");
+    when(statistics.getMissReason()).thenReturn("FILE_CHANGED");
+    when(statistics.getBytesRead()).thenReturn(10L);
+    when(statistics.getBytesWritten()).thenReturn(20L);
+    when(statistics.getHashTime()).thenReturn(1L);
+    when(statistics.getReadTime()).thenReturn(2L);
+    when(statistics.getDeserializeTime()).thenReturn(3L);
+    when(statistics.getRestoreTime()).thenReturn(4L);
+    when(statistics.getWriteTime()).thenReturn(5L);
+
+    monitoring.startSensor(sensorContextTester, new TestSensor());
+    monitoring.cacheStatistics(List.of(statistics));
+    monitoring.stopSensor();
+    monitoring.stop();
+
+    try (BufferedReader br = Files.newBufferedReader(monitoringPath.resolve("metrics.json"))) {
+      var cacheMetric = gson.fromJson(br.readLine(), Monitoring.CacheMetric.class);
+      assertThat(cacheMetric.metricType).isEqualTo(Monitoring.MetricType.CACHE);
+      assertThat(cacheMetric.component).isEqualTo("path");
+      assertThat(cacheMetric.strategy).isEqualTo("WRITE_ONLY");
+      assertThat(cacheMetric.missReason).isEqualTo("FILE_CHANGED");
+      assertThat(cacheMetric.bytesRead).isEqualTo(10);
+      assertThat(cacheMetric.bytesWritten).isEqualTo(20);
+      assertThat(cacheMetric.hashTime).isEqualTo(1);
+      assertThat(cacheMetric.readTime).isEqualTo(2);
+      assertThat(cacheMetric.deserializeTime).isEqualTo(3);
+      assertThat(cacheMetric.restoreTime).isEqualTo(4);
+      assertThat(cacheMetric.writeTime).isEqualTo(5);
+    }
+  }
+
+  @Test
+  void test_cache_metric_not_enabled() {
+    monitoring = new Monitoring(new MapSettings().asConfig());
+    monitoring.startSensor(sensorContextTester, new TestSensor());
+    monitoring.cacheStatistics(List.of(mock(CacheStatistics.class)));
+    assertThat(monitoring.metrics()).isEmpty();
+  }
+
   @Test
   void test_file_mismatch() throws Exception {
     TestSensor sensor = new TestSensor();
@@ -152,6 +201,27 @@ class MonitoringTest {
     assertThat(metric.canSkipUnchangedFiles).isFalse();
   }
 
+  @Test
+  void test_program_metric_with_reused_files() {
+    monitoring.startSensor(sensorContextTester, new TestSensor());
+    var program = new EslintBridgeServer.TsProgram("1", emptyList(), emptyList());
+    program.parsedFiles = 10;
+    program.reusedFiles = 30;
+    program.parseTime = 20;
+    program.heapUsed = 1_024;
+    monitoring.startProgram("tsconfig.json");
+    monitoring.stopProgram(program, 40_000, 5_000);
+    monitoring.startProgram("tsconfig2.json");
+    monitoring.stopProgram(new EslintBridgeServer.TsProgram("2", emptyList(), emptyList()), 10_000, 0);
+
+    assertThat(monitoring.metrics()).extracting(m -> (Monitoring.ProgramMetric) m)
+      .extracting(m -> m.tsConfig, m -> m.duration, m -> m.waitTime, m -> m.parsedFiles, m -> m.reusedFiles, m -> m.parseTime, m -> m.savedTime,
+        m -> m.heapUsed)
+      .containsExactly(
+        tuple("tsconfig.json", 40_000L, 5_000L, 10, 30, 20_000L, 60_000L, 1_024L),
+        tuple("tsconfig2.json", 10_000L, 0L, 0, 0, 0L, 0L, 0L));
+  }
+
   @Test
   void test_can_skip_unchanged_files() {
     SensorContextTester sensorContextTester = SensorContextTester.create(baseDir);
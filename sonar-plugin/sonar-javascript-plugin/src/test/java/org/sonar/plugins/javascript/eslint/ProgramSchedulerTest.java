@@ -0,0 +1,307 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import com.google.gson.Gson;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgram;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgramRequest;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProgramSchedulerTest {
+
+  static final Gson GSON = new Gson();
+
+  static final String TSCONFIG_1 = Path.of("/project/tsconfig.json").toString();
+  static final String TSCONFIG_2 = Path.of("/project/dir/tsconfig.json").toString();
+  static final String TSCONFIG_3 = Path.of("/project/ref/tsconfig.json").toString();
+
+  EslintBridgeServer eslintBridgeServer;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    eslintBridgeServer = mock(EslintBridgeServer.class);
+    when(eslintBridgeServer.createProgram(any())).thenAnswer(invocation -> {
+      String tsConfig = invocation.<TsProgramRequest>getArgument(0).tsConfig;
+      List<String> references = TSCONFIG_1.equals(tsConfig) ? List.of(TSCONFIG_3, TSCONFIG_2) : emptyList();
+      return new TsProgram(tsConfig, emptyList(), references);
+    });
+  }
+
+  @Test
+  void should_create_programs_inline_in_worklist_order() throws IOException {
+    List<String> tsConfigs = new ArrayList<>();
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1, TSCONFIG_2), 1)) {
+      for (var scheduled = scheduler.next(); scheduled != null; scheduled = scheduler.next()) {
+        var tsConfig = scheduled.tsConfig;
+        verify(eslintBridgeServer, never()).createProgram(argThat(request -> request.tsConfig.equals(tsConfig)));
+        assertThat(scheduled.program().programId).isEqualTo(scheduled.tsConfig);
+        tsConfigs.add(scheduled.tsConfig);
+      }
+    }
+    // referenced projects come after the worklist, and are only analyzed once
+    assertThat(tsConfigs).containsExactly(TSCONFIG_1, TSCONFIG_2, TSCONFIG_3);
+    verify(eslintBridgeServer, never()).deleteProgram(any());
+  }
+
+  @Test
+  void should_create_next_programs_ahead() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1), 2)) {
+      var first = scheduler.next();
+      assertThat(first.program().programId).isEqualTo(TSCONFIG_1);
+      // the first reference is created while the first program is analyzed
+      verify(eslintBridgeServer, timeout(5_000)).createProgram(argThat(request -> request.tsConfig.equals(TSCONFIG_3)));
+      verify(eslintBridgeServer, never()).createProgram(argThat(request -> request.tsConfig.equals(TSCONFIG_2)));
+
+      var second = scheduler.next();
+      assertThat(second.tsConfig).isEqualTo(TSCONFIG_3);
+      assertThat(second.program().projectReferences).isEmpty();
+      var third = scheduler.next();
+      assertThat(third.program().programId).isEqualTo(TSCONFIG_2);
+      assertThat(scheduler.next()).isNull();
+    }
+    verify(eslintBridgeServer, never()).deleteProgram(any());
+  }
+
+  @Test
+  void should_time_creation_and_wait_separately() throws Exception {
+    var created = new CountDownLatch(2);
+    when(eslintBridgeServer.createProgram(any())).thenAnswer(invocation -> {
+      Thread.sleep(50);
+      created.countDown();
+      return new TsProgram(invocation.<TsProgramRequest>getArgument(0).tsConfig, emptyList(), emptyList());
+    });
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1, TSCONFIG_2), 1)) {
+      var inline = scheduler.next();
+      inline.program();
+      // creating the program inline is not waiting for it
+      assertThat(inline.creationTime()).isGreaterThanOrEqualTo(50_000);
+      assertThat(inline.waitTime()).isZero();
+    }
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1, TSCONFIG_2), 2)) {
+      var ahead = scheduler.next();
+      assertThat(created.await(5, TimeUnit.SECONDS)).isTrue();
+      ahead.program();
+      // the program was created before it was requested, the analysis barely waited for it
+      assertThat(ahead.creationTime()).isGreaterThanOrEqualTo(50_000);
+      assertThat(ahead.waitTime()).isLessThan(ahead.creationTime());
+    }
+  }
+
+  @Test
+  void should_delete_programs_created_ahead_on_close() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1, TSCONFIG_2), 2)) {
+      scheduler.next().program();
+    }
+    verify(eslintBridgeServer).deleteProgram(argThat(program -> program.programId.equals(TSCONFIG_2)));
+  }
+
+  @Test
+  void should_fail_when_program_creation_fails() throws IOException {
+    when(eslintBridgeServer.createProgram(any())).thenThrow(new IOException("bridge is down"));
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1), 2)) {
+      var scheduled = scheduler.next();
+      assertThatThrownBy(scheduled::program)
+        .isInstanceOf(IOException.class)
+        .hasMessage("bridge is down");
+    }
+  }
+
+  @Test
+  void should_not_schedule_references_of_failed_programs() throws IOException {
+    when(eslintBridgeServer.createProgram(any())).thenReturn(new TsProgram("failed to create program"));
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1), 1)) {
+      assertThat(scheduler.next().program().error).isEqualTo("failed to create program");
+      assertThat(scheduler.next()).isNull();
+    }
+  }
+
+  @Test
+  void should_bring_forward_tsconfig_sharing_files() throws IOException {
+    var tsConfigA = Path.of("/project/a/tsconfig.json").toString();
+    var tsConfigB = Path.of("/project/b/tsconfig.json").toString();
+    var tsConfigC = Path.of("/project/c/tsconfig.json").toString();
+    var files = List.of("/project/index.ts", "/project/a/x.ts", "/project/b/src/y.ts", "/project/b/z.ts");
+    when(eslintBridgeServer.createProgram(any())).thenAnswer(invocation -> {
+      String tsConfig = invocation.<TsProgramRequest>getArgument(0).tsConfig;
+      return new TsProgram(tsConfig, TSCONFIG_1.equals(tsConfig) ? files : emptyList(), emptyList());
+    });
+
+    List<String> tsConfigs = new ArrayList<>();
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1, tsConfigA, tsConfigC, tsConfigB), 1)) {
+      for (var scheduled = scheduler.next(); scheduled != null; scheduled = scheduler.next()) {
+        scheduled.program();
+        tsConfigs.add(scheduled.tsConfig);
+      }
+    }
+    // files are attributed to the closest tsconfig, without programs sharing files the order is kept
+    assertThat(tsConfigs).containsExactly(TSCONFIG_1, tsConfigB, tsConfigA, tsConfigC);
+  }
+
+  @Test
+  void should_evict_programs_created_ahead_above_memory_budget() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1, TSCONFIG_2), 3, 50)) {
+      var program = scheduler.next().program();
+      verify(eslintBridgeServer, timeout(5_000)).createProgram(argThat(request -> request.tsConfig.equals(TSCONFIG_3)));
+
+      program.heapLimit = 100;
+      program.heapUsed = 50;
+      assertThat(scheduler.exceedsMemoryBudget(program)).isFalse();
+      program.heapUsed = 60;
+      assertThat(scheduler.exceedsMemoryBudget(program)).isTrue();
+      verify(eslintBridgeServer).deleteProgram(argThat(deleted -> deleted.programId.equals(TSCONFIG_2)));
+      verify(eslintBridgeServer).deleteProgram(argThat(deleted -> deleted.programId.equals(TSCONFIG_3)));
+
+      // evicted programs are created again, inline and in the same order
+      var second = scheduler.next();
+      assertThat(second.tsConfig).isEqualTo(TSCONFIG_2);
+      assertThat(second.program().programId).isEqualTo(TSCONFIG_2);
+      assertThat(scheduler.next().tsConfig).isEqualTo(TSCONFIG_3);
+      assertThat(scheduler.next()).isNull();
+    }
+  }
+
+  @Test
+  void should_create_programs_ahead_again_below_half_of_memory_budget() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1), 2, 50)) {
+      var program = scheduler.next().program();
+      program.heapLimit = 100;
+      program.heapUsed = 60;
+      assertThat(scheduler.exceedsMemoryBudget(program)).isTrue();
+
+      var second = scheduler.next();
+      assertThat(second.tsConfig).isEqualTo(TSCONFIG_3);
+      var secondProgram = second.program();
+      verify(eslintBridgeServer, never()).createProgram(argThat(request -> request.tsConfig.equals(TSCONFIG_2)));
+      secondProgram.heapLimit = 100;
+      secondProgram.heapUsed = 30;
+      assertThat(scheduler.exceedsMemoryBudget(secondProgram)).isFalse();
+      verify(eslintBridgeServer, never()).createProgram(argThat(request -> request.tsConfig.equals(TSCONFIG_2)));
+      secondProgram.heapUsed = 25;
+      assertThat(scheduler.exceedsMemoryBudget(secondProgram)).isFalse();
+
+      // the next program is created ahead, without waiting for it to be requested
+      assertThat(scheduler.next().tsConfig).isEqualTo(TSCONFIG_2);
+      verify(eslintBridgeServer, timeout(5_000)).createProgram(argThat(request -> request.tsConfig.equals(TSCONFIG_2)));
+    }
+  }
+
+  @Test
+  void should_not_evict_programs_without_memory_budget() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1), 2)) {
+      var program = scheduler.next().program();
+      program.heapLimit = 100;
+      program.heapUsed = 99;
+      assertThat(scheduler.exceedsMemoryBudget(program)).isFalse();
+    }
+  }
+
+  @Test
+  void should_not_evict_programs_without_heap_statistics() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_1), 1, 50)) {
+      var program = scheduler.next().program();
+      program.heapUsed = 1_000;
+      assertThat(scheduler.exceedsMemoryBudget(program)).isFalse();
+    }
+  }
+
+  @Test
+  void should_split_program_over_synthetic_tsconfigs() throws IOException {
+    var contents = new ArrayList<String>();
+    when(eslintBridgeServer.createTsConfigFile(any())).thenAnswer(invocation -> {
+      contents.add(invocation.getArgument(0));
+      return new TsConfigFile(Path.of("/tmp/tsconfig-" + contents.size() + ".json").toString(), emptyList(), emptyList());
+    });
+    var files = files(2 * ProgramScheduler.MIN_PROGRAM_FILES + 1);
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_2), 1, 50)) {
+      var scheduled = scheduler.next();
+      var program = scheduled.program();
+      assertThat(scheduler.split(scheduled, program, files)).isTrue();
+
+      var half = ProgramScheduler.MIN_PROGRAM_FILES + 1;
+      assertThat(contents).containsExactly(
+        "{\"extends\":\"" + TSCONFIG_2.replace("\\", "\\\\") + "\",\"files\":" + GSON.toJson(files.subList(0, half)) + ",\"include\":[]}",
+        "{\"extends\":\"" + TSCONFIG_2.replace("\\", "\\\\") + "\",\"files\":" + GSON.toJson(files.subList(half, files.size())) + ",\"include\":[]}");
+      assertThat(scheduler.next().tsConfig).isEqualTo(Path.of("/tmp/tsconfig-1.json").toString());
+      assertThat(scheduler.next().tsConfig).isEqualTo(Path.of("/tmp/tsconfig-2.json").toString());
+      assertThat(scheduler.next()).isNull();
+    }
+  }
+
+  @Test
+  void should_not_split_programs_below_min_files() throws IOException {
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_2), 1, 50)) {
+      var scheduled = scheduler.next();
+      var program = scheduled.program();
+      assertThat(scheduler.split(scheduled, program, files(2 * ProgramScheduler.MIN_PROGRAM_FILES - 1))).isFalse();
+      assertThat(scheduler.next()).isNull();
+    }
+    verify(eslintBridgeServer, never()).createTsConfigFile(any());
+  }
+
+  @Test
+  void should_not_split_programs_when_splitting_does_not_reduce_heap_usage() throws IOException {
+    when(eslintBridgeServer.createTsConfigFile(any())).thenAnswer(invocation ->
+      new TsConfigFile(Path.of("/tmp/tsconfig-" + invocation.getArgument(0).hashCode() + ".json").toString(), emptyList(), emptyList()));
+    var files = files(8 * ProgramScheduler.MIN_PROGRAM_FILES);
+    try (var scheduler = new ProgramScheduler(eslintBridgeServer, List.of(TSCONFIG_2), 1, 50)) {
+      var scheduled = scheduler.next();
+      var program = scheduled.program();
+      program.heapUsed = 100;
+      assertThat(scheduler.split(scheduled, program, files)).isTrue();
+
+      // the first half uses less heap than the original program, it can be split again
+      var first = scheduler.next();
+      var firstProgram = first.program();
+      firstProgram.heapUsed = 80;
+      var firstFiles = files.subList(0, files.size() / 2);
+      assertThat(scheduler.split(first, firstProgram, firstFiles)).isTrue();
+
+      // a quarter uses as much heap as the half it comes from, it is analyzed as is
+      var quarter = scheduler.next();
+      var quarterProgram = quarter.program();
+      quarterProgram.heapUsed = 80;
+      assertThat(scheduler.split(quarter, quarterProgram, firstFiles.subList(0, firstFiles.size() / 2))).isFalse();
+    }
+  }
+
+  private static List<String> files(int count) {
+    return IntStream.range(0, count).mapToObj(i -> "file" + i + ".ts").collect(Collectors.toList());
+  }
+}
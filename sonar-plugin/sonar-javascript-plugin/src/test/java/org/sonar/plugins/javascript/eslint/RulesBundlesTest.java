@@ -19,6 +19,7 @@
  */
 package org.sonar.plugins.javascript.eslint;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -49,6 +50,24 @@ class RulesBundlesTest {
     assertThat(paths.get(0).resolve("bin/server")).hasContent("#!/usr/bin/env node\n\n");
   }
 
+  @Test
+  void should_deploy_to_cache_once() throws Exception {
+    TestRulesBundle rulesBundle = new TestRulesBundle("/test-bundle.tgz");
+    RulesBundles rulesBundles = new RulesBundles(new TestRulesBundle[]{rulesBundle});
+    List<Path> paths = rulesBundles.deployToCache(tempDir);
+    assertThat(paths).hasSize(1);
+    assertThat(paths.get(0).resolve("bin/server")).hasContent("#!/usr/bin/env node\n\n");
+    assertThat(paths.get(0).getParent().getParent()).isEqualTo(tempDir);
+    assertThat(paths.get(0).getParent().getFileName()).hasToString(rulesBundles.checksum().replace(";", ""));
+
+    logTester.clear();
+    assertThat(rulesBundles.deployToCache(tempDir)).isEqualTo(paths);
+    assertThat(logTester.logs(LoggerLevel.DEBUG)).isEmpty();
+    try (var files = Files.list(tempDir)) {
+      assertThat(files).hasSize(1);
+    }
+  }
+
   @Test
   void test_not_exists() {
     RulesBundle[] missingBundle = {new TestRulesBundle("missing.tgz")};
@@ -19,6 +19,7 @@
  */
 package org.sonar.plugins.javascript.eslint;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +59,66 @@ class TsConfigFileTest {
     );
   }
 
+  @Test
+  void should_match_first_tsconfig() {
+    List<InputFile> inputFiles = Arrays.asList(
+      TestInputFileBuilder.create("foo", "dir/file1.ts").build(),
+      TestInputFileBuilder.create("foo", "dir/file2.ts").build(),
+      TestInputFileBuilder.create("foo", "other/file3.ts").build()
+    );
+
+    List<TsConfigFile> tsConfigFiles = Arrays.asList(
+      new TsConfigFile("dir/tsconfig.json", singletonList("foo/dir/file2.ts"), emptyList()),
+      new TsConfigFile("tsconfig.json", Arrays.asList("foo/dir/file1.ts", "foo/dir/file2.ts"), emptyList())
+    );
+
+    Map<TsConfigFile, List<InputFile>> result = TsConfigFile.inputFilesByTsConfig(tsConfigFiles, inputFiles);
+    assertThat(result).containsExactly(
+      entry(tsConfigFiles.get(1), singletonList(inputFiles.get(0))),
+      entry(tsConfigFiles.get(0), singletonList(inputFiles.get(1))),
+      entry(TsConfigFile.UNMATCHED_CONFIG, singletonList(inputFiles.get(2)))
+    );
+  }
+
+  /**
+   * Synthetic monorepo where the files of each package are also included by a root tsconfig listed last, the files of
+   * the packages go to the tsconfig of their package and only the remaining files go to the root tsconfig.
+   */
+  @Test
+  void should_match_workspace_files_to_first_tsconfig() {
+    int packages = 50;
+    int filesPerPackage = 20;
+    List<TsConfigFile> tsConfigFiles = new ArrayList<>();
+    List<String> allFiles = new ArrayList<>();
+    List<InputFile> inputFiles = new ArrayList<>();
+    for (int i = 0; i < packages; i++) {
+      List<String> files = new ArrayList<>();
+      for (int j = 0; j < filesPerPackage; j++) {
+        String relativePath = "packages/p" + i + "/src/file" + j + ".ts";
+        files.add("foo/" + relativePath);
+        inputFiles.add(TestInputFileBuilder.create("foo", relativePath).build());
+      }
+      allFiles.addAll(files);
+      tsConfigFiles.add(new TsConfigFile("packages/p" + i + "/tsconfig.json", files, emptyList()));
+    }
+    InputFile rootFile = TestInputFileBuilder.create("foo", "scripts/build.ts").build();
+    InputFile unmatchedFile = TestInputFileBuilder.create("foo", "other/file.ts").build();
+    inputFiles.add(rootFile);
+    inputFiles.add(unmatchedFile);
+    allFiles.add("foo/scripts/build.ts");
+    TsConfigFile root = new TsConfigFile("tsconfig.json", allFiles, emptyList());
+    tsConfigFiles.add(root);
+
+    Map<TsConfigFile, List<InputFile>> result = TsConfigFile.inputFilesByTsConfig(tsConfigFiles, inputFiles);
+
+    assertThat(result).hasSize(packages + 2);
+    for (int i = 0; i < packages; i++) {
+      assertThat(result.get(tsConfigFiles.get(i))).containsExactlyElementsOf(inputFiles.subList(i * filesPerPackage, (i + 1) * filesPerPackage));
+    }
+    assertThat(result.get(root)).containsExactly(rootFile);
+    assertThat(result.get(TsConfigFile.UNMATCHED_CONFIG)).containsExactly(unmatchedFile);
+  }
+
   @Test
   void failsToLoad() {
     List<TsConfigFile> tsConfigFiles = singletonList(new TsConfigFile("tsconfig/path", emptyList(), emptyList()));
@@ -177,6 +177,16 @@ class TsConfigProviderTest {
     assertThat(tsconfig).isEqualTo("{\"files\":[\"moduleKey/file1.ts\",\"moduleKey/file2.ts\"],\"compilerOptions\":{\"allowJs\":true,\"noImplicitAny\":true}}");
   }
 
+  @Test
+  void should_create_fallback_tsconfig() {
+    SensorContextTester ctx = SensorContextTester.create(baseDir);
+    var file1 = createInputFile(ctx, "file1.ts");
+    var file2 = createInputFile(ctx, "file2.ts");
+
+    assertThat(TsConfigProvider.fallbackTsConfig(List.of(file1, file2))).isEqualTo("{\"files\":[\"moduleKey/file1.ts\",\"moduleKey/file2.ts\"]," +
+      "\"compilerOptions\":{\"allowJs\":true,\"noImplicitAny\":true,\"noResolve\":true,\"types\":[],\"skipLibCheck\":true}}");
+  }
+
   @Test
   void should_create_wildcard_tsconfig() throws Exception {
     var ctx = SensorContextTester.create(baseDir);
@@ -236,12 +246,13 @@ class TsConfigProviderTest {
     assertThat(wildcardTsConfigProvider.tsconfigs(ctx)).isEmpty();
   }
 
-  private static void createInputFile(SensorContextTester context, String relativePath) {
+  private static DefaultInputFile createInputFile(SensorContextTester context, String relativePath) {
     DefaultInputFile inputFile = new TestInputFileBuilder("moduleKey", relativePath)
       .setLanguage("ts")
       .setContents("if (cond)\ndoFoo(); \nelse \ndoFoo();")
       .build();
     context.fileSystem().add(inputFile);
+    return inputFile;
   }
 
   private static String createTsConfigFile(String content) throws IOException {
@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +40,8 @@ import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.sonar.api.SonarEdition;
+import org.sonar.api.SonarQubeSide;
 import org.sonar.api.batch.fs.FilePredicates;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
@@ -72,6 +75,8 @@ import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.javascript.checks.CheckList;
 import org.sonar.plugins.javascript.TestUtils;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponse;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.AnalysisResponseListener;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer.Highlight;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.JsAnalysisRequest;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.ParsingErrorCode;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer.TsProgramRequest;
@@ -85,7 +90,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -127,7 +135,7 @@ class TypeScriptSensorTest {
     // reset is required as this static value might be set by another test
     PluginInfo.setUcfgPluginVersion(null);
 
-    when(eslintBridgeServerMock.isAlive()).thenReturn(true);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(true);
     when(eslintBridgeServerMock.analyzeTypeScript(any())).thenReturn(new AnalysisResponse());
     when(eslintBridgeServerMock.getCommandInfo()).thenReturn("eslintBridgeServerMock command info");
     when(eslintBridgeServerMock.loadTsConfig(any())).thenAnswer(
@@ -483,6 +491,27 @@ class TypeScriptSensorTest {
     assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("File not part of any tsconfig.json: dir/file.ts");
   }
 
+  @Test
+  void should_analyze_files_not_part_of_any_tsconfig_with_fallback_program() throws IOException {
+    var ctx = createSensorContext(baseDir);
+    ctx.setSettings(new MapSettings().setProperty("sonar.javascript.analysis.fallbackPrograms", true));
+    var file = createInputFile(ctx);
+    var fallbackTsConfig = baseDir.resolve("fallback-tsconfig.json").toString();
+    when(eslintBridgeServerMock.createTsConfigFile(any())).thenReturn(new TsConfigFile(fallbackTsConfig, emptyList(), emptyList()));
+    when(eslintBridgeServerMock.createProgram(any())).thenReturn(new TsProgram("1", singletonList(file.absolutePath()), emptyList()));
+    when(eslintBridgeServerMock.analyzeWithProgram(any())).thenReturn(new AnalysisResponse());
+
+    createSensor().execute(ctx);
+
+    verify(eslintBridgeServerMock).createTsConfigFile(contains("\"noResolve\":true"));
+    verify(eslintBridgeServerMock).createProgram(argThat(request -> request.tsConfig.equals(fallbackTsConfig)));
+    verify(eslintBridgeServerMock).analyzeWithProgram(any());
+    verify(eslintBridgeServerMock).deleteProgram(any());
+    assertThat(logTester.logs(LoggerLevel.INFO))
+      .contains("Analyzing 1 file(s) not part of any tsconfig.json with 1 generated tsconfig.json file(s)")
+      .noneMatch(log -> log.startsWith("Skipped"));
+  }
+
   @Test
   void should_resolve_project_references_from_tsconfig() throws Exception {
     Path baseDir = Paths.get("src/test/resources/solution-tsconfig");
@@ -565,7 +594,7 @@ class TypeScriptSensorTest {
 
   @Test
   void stop_analysis_if_server_is_not_responding() throws Exception {
-    when(eslintBridgeServerMock.isAlive()).thenReturn(false);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(false);
     TypeScriptSensor sensor = createSensor();
     createTsConfigFile();
     createVueInputFile();
@@ -614,6 +643,35 @@ class TypeScriptSensorTest {
     assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Analyzing file: " + inputFile.uri());
   }
 
+  @Test
+  void should_stream_highlights_of_type_aware_analysis_written_to_cache() throws IOException {
+    var context = createSensorContext(baseDir);
+    context.setRuntime(SonarRuntimeImpl.forSonarQube(Version.create(9, 6), SonarQubeSide.SCANNER, SonarEdition.ENTERPRISE));
+    var file = createInputFile(context);
+    createTsConfigFile();
+    when(eslintBridgeServerMock.getWorkerCount()).thenReturn(1);
+    when(eslintBridgeServerMock.createProgram(any())).thenReturn(new TsProgram("1", List.of(file.absolutePath()), List.of()));
+    var response = createResponse();
+    var highlights = response.highlights;
+    response.highlights = new Highlight[0];
+    when(eslintBridgeServerMock.analyzeWithProgramAsync(any(), any())).thenAnswer(invocation -> {
+      AnalysisResponseListener listener = invocation.getArgument(1);
+      // only UCFG files and CPD tokens are cached for type-aware analyses, highlights are handed over
+      assertThat(listener.acceptsHighlights()).isTrue();
+      assertThat(listener.acceptsCpdTokens()).isFalse();
+      Arrays.stream(highlights).forEach(listener::onHighlight);
+      return CompletableFuture.completedFuture(response);
+    });
+
+    createSensor().execute(context);
+
+    assertThat(context.highlightingTypeAt(file.key(), 1, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(context.highlightingTypeAt(file.key(), 2, 1)).containsExactly(TypeOfText.CONSTANT);
+    assertThat(context.cpdTokens(file.key())).hasSize(2);
+    verify(context.nextCache()).write(contains(file.key()), any(byte[].class));
+    verify(eslintBridgeServerMock, never()).analyzeWithProgram(any());
+  }
+
   @Test
   void should_save_cached_cpd() throws IOException {
     var path = "dir/file.ts";
@@ -645,7 +703,11 @@ class TypeScriptSensorTest {
     sensor.execute(context);
 
     assertThat(context.cpdTokens(file.key())).hasSize(2);
+    assertThat(context.highlightingTypeAt(file.key(), 1, 0)).containsExactly(TypeOfText.KEYWORD);
+    assertThat(context.measure(file.key(), CoreMetrics.NCLOC).value()).isEqualTo(4);
+    verify(eslintBridgeServerMock, never()).createProgram(any());
     assertThat(logTester.logs(LoggerLevel.DEBUG)).contains("Processing cache analysis of file: " + file.uri());
+    assertThat(logTester.logs(LoggerLevel.INFO)).contains("All files were restored from the cache, no TypeScript program is created");
   }
 
   private TypeScriptSensor createSensor() {
@@ -0,0 +1,67 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UnixSocketTransportTest {
+
+  @Test
+  void should_read_response() throws Exception {
+    var response = UnixSocketTransport.readResponse(input("HTTP/1.1 200 OK\r\n" +
+      "X-Powered-By: Express\r\n" +
+      "content-type: application/octet-stream\r\n" +
+      "Connection: close\r\n" +
+      "\r\n" +
+      "body\r\nwith lines"));
+    assertThat(response.contentType()).isEqualTo("application/octet-stream");
+    assertThat(response.bodyAsString()).isEqualTo("body\r\nwith lines");
+  }
+
+  @Test
+  void should_read_response_without_content_type() throws Exception {
+    var response = UnixSocketTransport.readResponse(input("HTTP/1.0 200 OK\n\nOK!"));
+    assertThat(response.contentType()).isNull();
+    assertThat(response.bodyAsString()).isEqualTo("OK!");
+  }
+
+  @Test
+  void should_fail_on_invalid_response() {
+    assertThatThrownBy(() -> UnixSocketTransport.readResponse(input("")))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Invalid response from eslint-bridge: null");
+    assertThatThrownBy(() -> UnixSocketTransport.readResponse(input("{ issues: [] }")))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Invalid response from eslint-bridge: { issues: [] }");
+    assertThatThrownBy(() -> UnixSocketTransport.readResponse(input("HTTP/1.1 200 OK\r\nContent-Type: text/html")))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unexpected end of response headers from eslint-bridge");
+  }
+
+  private static ByteArrayInputStream input(String response) {
+    return new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -97,7 +97,7 @@ class YamlSensorTest {
     // reset is required as this static value might be set by another test
     PluginInfo.setUcfgPluginVersion(null);
 
-    when(eslintBridgeServerMock.isAlive()).thenReturn(true);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(true);
     when(eslintBridgeServerMock.analyzeYaml(any())).thenReturn(new AnalysisResponse());
     when(eslintBridgeServerMock.getCommandInfo()).thenReturn("eslintBridgeServerMock command info");
 
@@ -198,7 +198,7 @@ class YamlSensorTest {
 
   @Test
   void stop_analysis_if_server_is_not_responding() throws Exception {
-    when(eslintBridgeServerMock.isAlive()).thenReturn(false);
+    when(eslintBridgeServerMock.isAliveCached()).thenReturn(false);
 
     YamlSensor yamlSensor = createSensor();
     createInputFile(context);
@@ -0,0 +1,163 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.log.LogTesterJUnit5;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheBudgetTest {
+
+  @RegisterExtension
+  LogTesterJUnit5 logTester = new LogTesterJUnit5();
+
+  SensorContext context;
+  MapSettings settings;
+  CacheBudget budget;
+
+  @BeforeEach
+  void setUp() {
+    settings = new MapSettings();
+    context = mock(SensorContext.class);
+    when(context.config()).thenReturn(settings.asConfig());
+    budget = new CacheBudget();
+  }
+
+  @Test
+  void should_be_unlimited_by_default() {
+    budget.load(context);
+    var serialization = mock(CacheSerialization.class);
+
+    assertThat(budget.admit(Long.MAX_VALUE / 2)).isTrue();
+    budget.copyFromPrevious(serialization, Long.MAX_VALUE / 4);
+    verify(serialization).copyFromPrevious();
+
+    budget.flush();
+    assertThat(logTester.logs()).isEmpty();
+  }
+
+  @Test
+  void should_be_unlimited_without_configuration() {
+    when(context.config()).thenReturn(null);
+    budget.load(context);
+
+    assertThat(budget.admit(Long.MAX_VALUE)).isTrue();
+  }
+
+  @Test
+  void should_skip_entries_above_entry_budget() {
+    settings.setProperty(CacheBudget.MAX_ENTRY_SIZE, "1");
+    budget.load(context);
+    var small = mock(CacheSerialization.class);
+    var big = mock(CacheSerialization.class);
+
+    assertThat(budget.admit(1024)).isTrue();
+    assertThat(budget.admit(1025)).isFalse();
+    budget.copyFromPrevious(small, 100);
+    budget.copyFromPrevious(big, 2048);
+    verify(small).copyFromPrevious();
+    verify(big, never()).copyFromPrevious();
+
+    budget.flush();
+    assertThat(logTester.logs()).containsExactly(
+      "Skipped 2 cache entries (3 KB) exceeding the cache size budget, their files will be analyzed again");
+  }
+
+  @Test
+  void should_prefer_new_entries_within_total_budget() {
+    settings.setProperty(CacheBudget.MAX_SIZE, "2");
+    budget.load(context);
+    var first = mock(CacheSerialization.class);
+    var second = mock(CacheSerialization.class);
+
+    budget.copyFromPrevious(first, 512);
+    budget.copyFromPrevious(second, 1024);
+    verify(first, never()).copyFromPrevious();
+    verify(second, never()).copyFromPrevious();
+
+    // entries of the analyzed files are stored before the deferred copies of the cache hits
+    assertThat(budget.admit(1024)).isTrue();
+    assertThat(budget.admit(2048)).isFalse();
+
+    budget.flush();
+    verify(first).copyFromPrevious();
+    verify(second, never()).copyFromPrevious();
+    assertThat(logTester.logs()).containsExactly(
+      "Skipped 2 cache entries (3 KB) exceeding the cache size budget, their files will be analyzed again");
+  }
+
+  @Test
+  void should_ignore_non_positive_budgets() {
+    settings.setProperty(CacheBudget.MAX_ENTRY_SIZE, "0");
+    settings.setProperty(CacheBudget.MAX_SIZE, "-1");
+    budget.load(context);
+
+    assertThat(budget.admit(Long.MAX_VALUE / 2)).isTrue();
+  }
+
+  @Test
+  void should_share_budget_between_sensors_of_analysis() {
+    var nextCache = mock(WriteCache.class);
+    when(context.nextCache()).thenReturn(nextCache);
+    settings.setProperty(CacheBudget.MAX_SIZE, "2");
+    budget.load(context);
+    assertThat(budget.admit(1024)).isTrue();
+
+    // the next sensor of the same analysis
+    budget.reset();
+    settings.setProperty(CacheBudget.MAX_SIZE, "4");
+    budget.load(context);
+    assertThat(budget.admit(1025)).isFalse();
+    assertThat(budget.admit(1024)).isTrue();
+
+    // another analysis
+    var otherContext = mock(SensorContext.class);
+    when(otherContext.config()).thenReturn(settings.asConfig());
+    when(otherContext.nextCache()).thenReturn(mock(WriteCache.class));
+    budget.reset();
+    budget.load(otherContext);
+    assertThat(budget.admit(4096)).isTrue();
+  }
+
+  @Test
+  void should_charge_entries_stored_regardless_of_budget() {
+    settings.setProperty(CacheBudget.MAX_SIZE, "2");
+    budget.load(context);
+    var serialization = mock(CacheSerialization.class);
+    budget.copyFromPrevious(serialization, 1024);
+
+    budget.charge(1536);
+    budget.flush();
+
+    verify(serialization, never()).copyFromPrevious();
+    assertThat(budget.admit(512)).isTrue();
+    assertThat(budget.admit(1)).isFalse();
+  }
+}
@@ -40,17 +40,18 @@ class CacheKeyTest {
   @Test
   void test_no_ucfg_version_in_key() {
     PluginInfo.setUcfgPluginVersion(null);
-    assertThat(CacheKey.forFile(inputFile, null).forUcfg()).hasToString("jssecurity:ucfgs:fileKey");
+    assertThat(CacheKey.forFile(inputFile, null).forAnalysis()).hasToString("js:analysis:fileKey");
   }
 
   @Test
-  void test_cpd_data_key() {
-    assertThat(CacheKey.forFile(inputFile, null).forCpd()).hasToString("js:cpd:fileKey");
+  void test_plugin_version_in_key() {
+    PluginInfo.setUcfgPluginVersion(null);
+    assertThat(CacheKey.forFile(inputFile, "1.0.0").forAnalysis()).hasToString("js:analysis:1.0.0:fileKey");
   }
 
   @Test
   void test_ucfg_version_in_key() {
     PluginInfo.setUcfgPluginVersion("ucfg_version");
-    assertThat(CacheKey.forFile(inputFile, null).forUcfg()).hasToString("jssecurity:ucfgs:ucfg_version:fileKey");
+    assertThat(CacheKey.forFile(inputFile, null).forAnalysis()).hasToString("js:analysis:ucfg_version:fileKey");
   }
 }
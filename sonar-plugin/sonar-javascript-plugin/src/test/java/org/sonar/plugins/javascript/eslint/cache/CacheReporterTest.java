@@ -30,6 +30,7 @@ import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.sonar.plugins.javascript.eslint.cache.CacheStrategy.noCache;
@@ -79,10 +80,23 @@ class CacheReporterTest {
       "Hit the cache for 1 out of 7",
       "Miss the cache for 6 out of 7: ANALYSIS_MODE_INELIGIBLE [1/7], CACHE_CORRUPTED [1/7], CACHE_DISABLED [1/7], FILE_CHANGED [1/7], " +
         "FILE_NOT_IN_CACHE [1/7], RUNTIME_API_INCOMPATIBLE [1/7]");
+    assertThat(cacheReporter.getStatistics())
+      .extracting(CacheStatistics::getComponent, CacheStatistics::getStrategy, CacheStatistics::getMissReason)
+      .containsExactly(
+        tuple("file-01.js", "NO_CACHE", "RUNTIME_API_INCOMPATIBLE"),
+        tuple("file-02.js", "NO_CACHE", "CACHE_DISABLED"),
+        tuple("file-03.js", "WRITE_ONLY", "ANALYSIS_MODE_INELIGIBLE"),
+        tuple("file-04.js", "WRITE_ONLY", "FILE_CHANGED"),
+        tuple("file-05.js", "WRITE_ONLY", "FILE_NOT_IN_CACHE"),
+        tuple("file-06.js", "WRITE_ONLY", "CACHE_CORRUPTED"),
+        tuple("file-07.js", "READ_AND_WRITE", null));
+
+    cacheReporter.reset();
+    assertThat(cacheReporter.getStatistics()).isEmpty();
   }
 
   private CacheStrategy createReadAndWrite() {
-    return CacheStrategy.readAndWrite(CacheAnalysis.fromCache(new EslintBridgeServer.CpdToken[0]), createSerialization());
+    return CacheStrategy.readAndWrite(CacheAnalysis.fromCache(new EslintBridgeServer.CpdToken[0], new byte[0]), createSerialization());
   }
 
   private CacheAnalysisSerialization createSerialization() {
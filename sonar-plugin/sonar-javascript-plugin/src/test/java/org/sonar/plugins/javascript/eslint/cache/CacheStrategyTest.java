@@ -20,19 +20,18 @@
 package org.sonar.plugins.javascript.eslint.cache;
 
 import com.google.gson.Gson;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.stream.IntStream;
-import org.apache.commons.compress.utils.CountingInputStream;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.input.InfiniteCircularInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -47,11 +46,14 @@ import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.cache.ReadCache;
 import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.Version;
 import org.sonar.api.utils.log.LogTesterJUnit5;
+import org.sonar.plugins.javascript.eslint.AnalysisMode;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer;
 import org.sonar.plugins.javascript.eslint.PluginInfo;
+import org.sonar.plugins.javascript.eslint.cache.PackedCacheEntry.Section;
 
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
@@ -60,14 +62,14 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.sonar.plugins.javascript.eslint.cache.CacheTestUtils.inputStream;
 import static org.sonar.plugins.javascript.eslint.cache.CacheStrategy.readAndWrite;
 import static org.sonar.plugins.javascript.eslint.cache.CacheStrategy.writeOnly;
 
@@ -76,13 +78,12 @@ class CacheStrategyTest {
 
   static final List<EslintBridgeServer.CpdToken> CPD_TOKENS = CacheTestUtils.getCpdTokens();
   static final String PLUGIN_VERSION = "1.0.0";
+  static final byte[] RESULTS = { 1, 2, 3 };
+  static final String LINTER_ID = "default";
 
   CacheAnalysisSerialization serialization;
-  String jsonCacheKey;
-  String seqCacheKey;
-  String cpdDataCacheKey;
-  String cpdStringTableCacheKey;
-  String metadataCacheKey;
+  String cacheKey;
+  byte[] cacheEntry;
   @TempDir
   Path baseDir;
   @TempDir
@@ -99,8 +100,9 @@ class CacheStrategyTest {
 
   @BeforeEach
   void setUp() throws Exception {
-    // reset is required as this static value might be set by another test
+    // reset is required as these static values might be set by another test
     PluginInfo.setUcfgPluginVersion(null);
+    CacheStrategies.reset();
     workDir = baseDir.resolve(".scannerwork");
 
     fileSystem = mock(FileSystem.class);
@@ -113,37 +115,25 @@ class CacheStrategyTest {
     when(inputFile.key()).thenReturn(baseDir.relativize(testFile).toString().replace(File.separator, "/"));
     doReturn("Hello World!").when(inputFile).contents();
     when(inputFile.charset()).thenReturn(StandardCharsets.UTF_8);
+    doAnswer(invocation -> new ByteArrayInputStream(inputFile.contents().getBytes(inputFile.charset()))).when(inputFile).inputStream();
 
     previousCache = mock(ReadCache.class);
     nextCache = mock(WriteCache.class);
     context = mock(SensorContext.class);
     serialization = new CacheAnalysisSerialization(context, CacheKey.forFile(inputFile, PLUGIN_VERSION));
-
-    jsonCacheKey = CacheKey.forFile(inputFile, PLUGIN_VERSION).forUcfg().withPrefix(UCFGFilesSerialization.JSON_PREFIX).toString();
-    seqCacheKey = CacheKey.forFile(inputFile, PLUGIN_VERSION).forUcfg().withPrefix(UCFGFilesSerialization.SEQ_PREFIX).toString();
-    cpdDataCacheKey = CacheKey.forFile(inputFile, PLUGIN_VERSION).forCpd().withPrefix(CpdSerialization.DATA_PREFIX).toString();
-    cpdStringTableCacheKey = CacheKey.forFile(inputFile, PLUGIN_VERSION).forCpd().withPrefix(CpdSerialization.STRING_TABLE_PREFIX).toString();
-    metadataCacheKey = CacheKey.forFile(inputFile, PLUGIN_VERSION).forFileMetadata().toString();
+    cacheKey = CacheKey.forFile(inputFile, PLUGIN_VERSION).forAnalysis().toString();
 
     when(context.getSonarQubeVersion()).thenReturn(Version.create(9, 6));
     when(context.runtime()).thenReturn(SonarRuntimeImpl.forSonarQube(Version.create(9, 6), SonarQubeSide.SCANNER, SonarEdition.ENTERPRISE));
     when(context.previousCache()).thenReturn(previousCache);
     when(context.nextCache()).thenReturn(nextCache);
     when(context.fileSystem()).thenReturn(fileSystem);
-
-    when(previousCache.contains(metadataCacheKey)).thenReturn(true);
-    var metadata = inputStream(new Gson().toJson(FileMetadata.from(inputFile)));
-    when(previousCache.read(metadataCacheKey)).thenReturn(metadata);
   }
 
   @Test
   void should_generate_cache_keys() {
-    assertThat(CacheKey.forFile(inputFile, null).forUcfg().withPrefix(UCFGFilesSerialization.JSON_PREFIX)).hasToString("jssecurity:ucfgs:JSON:src/test.js");
-    assertThat(CacheKey.forFile(inputFile, null).forUcfg().withPrefix(UCFGFilesSerialization.SEQ_PREFIX)).hasToString("jssecurity:ucfgs:SEQ:src/test.js");
-    assertThat(jsonCacheKey).isEqualTo("jssecurity:ucfgs:JSON:1.0.0:src/test.js");
-    assertThat(seqCacheKey).isEqualTo("jssecurity:ucfgs:SEQ:1.0.0:src/test.js");
-    assertThat(cpdDataCacheKey).isEqualTo("js:cpd:DATA:1.0.0:src/test.js");
-    assertThat(cpdStringTableCacheKey).isEqualTo("js:cpd:STRING_TABLE:1.0.0:src/test.js");
+    assertThat(CacheKey.forFile(inputFile, null).forAnalysis()).hasToString("js:analysis:src/test.js");
+    assertThat(cacheKey).isEqualTo("js:analysis:1.0.0:src/test.js");
   }
 
   @Test
@@ -177,9 +167,6 @@ class CacheStrategyTest {
       .map(Path::toAbsolutePath)
       .map(Path::toString)
       .collect(toList());
-    long bytesRead;
-
-    when(previousCache.contains(anyString())).thenReturn(false);
 
     when(context.canSkipUnchangedFiles()).thenReturn(true);
 
@@ -187,39 +174,33 @@ class CacheStrategyTest {
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
 
-    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgFiles, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new)), inputFile);
+    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgFiles, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID), inputFile);
 
-    var sequenceCaptor = ArgumentCaptor.forClass(InputStream.class);
-    verify(nextCache).write(eq(seqCacheKey), sequenceCaptor.capture());
-    try (var counting = new CountingInputStream(sequenceCaptor.getValue())) {
-      counting.transferTo(OutputStream.nullOutputStream());
-      bytesRead = counting.getBytesRead();
-    }
+    var entryCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(nextCache).write(eq(cacheKey), entryCaptor.capture());
+    verify(nextCache, times(1)).write(anyString(), any(byte[].class));
+    verify(nextCache, never()).write(anyString(), any(InputStream.class));
+    var entry = PackedCacheEntry.unpack(entryCaptor.getValue());
 
-    var jsonCaptor = ArgumentCaptor.forClass(byte[].class);
-    verify(nextCache).write(eq(jsonCacheKey), jsonCaptor.capture());
-    var manifest = new Gson().fromJson(new String(jsonCaptor.getValue(), StandardCharsets.UTF_8), FilesManifest.class);
+    var manifest = new Gson().fromJson(new String(entry.get(Section.UCFG_MANIFEST), StandardCharsets.UTF_8), FilesManifest.class);
     var totalSize = manifest.getFileSizes().stream().reduce(0L, (n, size) -> n + size.getSize(), Long::sum);
-    assertThat(totalSize).isEqualTo(bytesRead);
+    assertThat(totalSize).isEqualTo(entry.get(Section.UCFG_FILES).length);
     assertThat(manifest.getFileSizes())
       .hasSize(3)
       .extracting(FilesManifest.FileSize::getName)
       .containsExactly("ucfg/file_js_1.ucfg", "ucfg/file_js_2.ucfg", "ucfg/d/file_js_3.ucfg");
 
-    var cpdDataCaptor = ArgumentCaptor.forClass(byte[].class);
-    var cpdStringTableCaptor = ArgumentCaptor.forClass(byte[].class);
-    verify(nextCache).write(eq(cpdDataCacheKey), cpdDataCaptor.capture());
-    verify(nextCache).write(eq(cpdStringTableCacheKey), cpdStringTableCaptor.capture());
-
-    var cpdData = CpdDeserializer.fromBinary(cpdDataCaptor.getValue(), cpdStringTableCaptor.getValue());
+    var cpdData = CpdDeserializer.fromBinary(entry.get(Section.CPD_DATA), entry.get(Section.CPD_STRING_TABLE), new CpdDictionary());
     assertThat(cpdData.getCpdTokens()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(CPD_TOKENS);
+
+    assertThat(entry.get(Section.RESULTS)).containsExactly(RESULTS);
+    var fileMetadata = new Gson().fromJson(new String(entry.get(Section.FILE_METADATA), StandardCharsets.UTF_8), FileMetadata.class);
+    assertThat(fileMetadata.compareTo(FileMetadata.from(inputFile))).isTrue();
   }
 
   @Test
   void should_handle_missing_files() throws Exception {
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
-
-    when(previousCache.contains(anyString())).thenReturn(false);
     when(context.canSkipUnchangedFiles()).thenReturn(true);
 
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
@@ -227,50 +208,34 @@ class CacheStrategyTest {
     assertThat(strategy.isAnalysisRequired()).isTrue();
 
     var generatedFiles = List.of("inexistent.ucfg");
-    var cacheAnalysis = new CacheAnalysis(generatedFiles, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new));
+    var cacheAnalysis = new CacheAnalysis(generatedFiles, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID);
     assertThatThrownBy(() -> strategy.writeAnalysisToCache(cacheAnalysis, inputFile)).isInstanceOf(UncheckedIOException.class);
-    verify(nextCache, never()).write(eq(jsonCacheKey), any(byte[].class));
-    verify(nextCache, never()).write(eq(seqCacheKey), any(InputStream.class));
-    verify(nextCache, never()).write(eq(cpdDataCacheKey), any(byte[].class));
-    verify(nextCache, never()).write(eq(cpdStringTableCacheKey), any(byte[].class));
+    verify(nextCache, never()).write(anyString(), any(byte[].class));
   }
 
   @Test
   void should_write_an_empty_archive_in_cache() throws IOException {
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
-
-    when(previousCache.contains(anyString())).thenReturn(false);
-
-    doAnswer(invocation -> {
-      var inputStream = invocation.getArgument(1, InputStream.class);
-      try (var counting = new CountingInputStream(inputStream)) {
-        counting.transferTo(OutputStream.nullOutputStream());
-        assertThat(counting.getBytesRead()).isZero();
-      }
-      return null;
-    }).when(nextCache).write(eq(seqCacheKey), any(InputStream.class));
-    doAnswer(invocation -> {
-      var bytes = invocation.getArgument(1, byte[].class);
-      assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("{\"fileSizes\":[]}");
-      return null;
-    }).when(nextCache).write(eq(jsonCacheKey), any(byte[].class));
-
     when(context.canSkipUnchangedFiles()).thenReturn(true);
 
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
 
-    strategy.writeAnalysisToCache(CacheAnalysis.fromResponse(null, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new)), inputFile);
-    verify(nextCache).write(eq(jsonCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(seqCacheKey), any(InputStream.class));
-    verify(nextCache).write(eq(cpdDataCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(cpdStringTableCacheKey), any(byte[].class));
+    strategy.writeAnalysisToCache(CacheAnalysis.fromResponse(null, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID), inputFile);
+    var entryCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(nextCache).write(eq(cacheKey), entryCaptor.capture());
+    var entry = PackedCacheEntry.unpack(entryCaptor.getValue());
+    assertThat(new String(entry.get(Section.UCFG_MANIFEST), StandardCharsets.UTF_8)).isEqualTo("{\"fileSizes\":[]}");
+    assertThat(entry.get(Section.UCFG_FILES)).isEmpty();
   }
 
   @Test
   void should_read_from_cache() throws IOException {
-    var ucfgFileRelativePaths = createUcfgFilesInCache();
+    var ucfgFileRelativePaths = createCacheEntry();
+    // a stale UCFG file from a previous analysis is overwritten
+    var staleFile = createFile(workDir.resolve(ucfgFileRelativePaths.get(0)));
+    Files.writeString(staleFile, "stale".repeat(100), StandardCharsets.UTF_8);
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
     when(context.canSkipUnchangedFiles()).thenReturn(true);
@@ -279,14 +244,12 @@ class CacheStrategyTest {
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
     assertThat(strategy.isAnalysisRequired()).isFalse();
 
-    verify(previousCache).read(jsonCacheKey);
-    verify(nextCache).copyFromPrevious(jsonCacheKey);
-    verify(previousCache).read(seqCacheKey);
-    verify(nextCache).copyFromPrevious(seqCacheKey);
-    verify(previousCache).read(cpdDataCacheKey);
-    verify(nextCache).copyFromPrevious(cpdDataCacheKey);
-    verify(previousCache).read(cpdStringTableCacheKey);
-    verify(nextCache).copyFromPrevious(cpdStringTableCacheKey);
+    // a single read for the file metadata and the analysis
+    verify(previousCache, times(1)).read(cacheKey);
+    verify(nextCache).copyFromPrevious(cacheKey);
+    var cacheAnalysis = strategy.readAnalysisFromCache();
+    assertThat(cacheAnalysis.getResults()).containsExactly(RESULTS);
+    assertThat(cacheAnalysis.getCpdTokens()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(CPD_TOKENS);
 
     for (var ucfgFileRelativePath : ucfgFileRelativePaths) {
       assertThat(workDir.resolve(ucfgFileRelativePath))
@@ -296,129 +259,292 @@ class CacheStrategyTest {
     }
 
     var ucfgPaths = ucfgFileRelativePaths.stream().map(workDir::resolve).map(Path::toString).collect(toList());
-    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new)), inputFile);
-    verify(nextCache).write(eq(jsonCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(seqCacheKey), any(InputStream.class));
-    verify(nextCache).write(eq(cpdDataCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(cpdStringTableCacheKey), any(byte[].class));
+    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID), inputFile);
+    verify(nextCache).write(eq(cacheKey), any(byte[].class));
+
+    var statistics = CacheStrategies.getStatistics();
+    assertThat(statistics).hasSize(1);
+    assertThat(statistics.get(0).getStrategy()).isEqualTo(CacheStrategy.READ_AND_WRITE);
+    assertThat(statistics.get(0).getMissReason()).isNull();
+    assertThat(statistics.get(0).getBytesRead()).isEqualTo(cacheEntry.length);
+    assertThat(statistics.get(0).getBytesWritten()).isPositive();
   }
 
   @Test
-  void should_handle_null_ucfg_manifest_json() throws IOException {
-    createUcfgFilesInCache();
+  void should_create_ucfg_directories_once_per_sensor() throws IOException {
+    var ucfgFileRelativePaths = createCacheEntry();
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    assertThat(CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION).getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
+    assertThat(workDir.resolve(ucfgFileRelativePaths.get(0))).isRegularFile();
 
+    // the next sensor starts from a clean working directory
+    FileUtils.deleteDirectory(workDir.toFile());
+    CacheStrategies.reset();
+
+    assertThat(CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION).getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
+    for (var ucfgFileRelativePath : ucfgFileRelativePaths) {
+      assertThat(workDir.resolve(ucfgFileRelativePath)).isRegularFile();
+    }
+  }
+
+  @Test
+  void should_not_write_entries_above_budget() throws IOException {
+    when(context.config()).thenReturn(new MapSettings().setProperty(CacheBudget.MAX_ENTRY_SIZE, "1").asConfig());
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+
+    var results = new byte[2048];
+    strategy.writeAnalysisToCache(CacheAnalysis.fromResponse(null, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), results, LINTER_ID), inputFile);
+    verify(nextCache, never()).write(anyString(), any(byte[].class));
+    assertThat(CacheStrategies.getStatistics().get(0).getBytesWritten()).isZero();
+  }
+
+  @Test
+  void should_copy_cache_hits_at_the_end_with_total_budget() throws IOException {
+    createCacheEntry();
+    when(context.config()).thenReturn(new MapSettings().setProperty(CacheBudget.MAX_SIZE, "1024").asConfig());
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
     when(context.canSkipUnchangedFiles()).thenReturn(true);
-    when(previousCache.read(jsonCacheKey)).thenReturn(InputStream.nullInputStream());
 
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
+    verify(nextCache, never()).copyFromPrevious(cacheKey);
+
+    CacheStrategies.flush();
+    verify(nextCache).copyFromPrevious(cacheKey);
+  }
+
+  @Test
+  void should_get_strategies_of_misses_first() throws IOException {
+    createCacheEntry();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+    var firstMiss = mock(InputFile.class);
+    when(firstMiss.key()).thenReturn("src/first.js");
+    var secondMiss = mock(InputFile.class);
+    when(secondMiss.key()).thenReturn("src/second.js");
+
+    var strategies = CacheStrategies.getStrategiesFor(context, List.of(inputFile, firstMiss, secondMiss), PLUGIN_VERSION, 4);
+
+    assertThat(strategies.keySet()).containsExactly(firstMiss, secondMiss, inputFile);
+    assertThat(strategies.get(firstMiss).getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategies.get(secondMiss).getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategies.get(inputFile).getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
+    verify(nextCache).copyFromPrevious(cacheKey);
+
+    CacheStrategies.logReport();
+    assertThat(logTester.logs()).contains("Hit the cache for 1 out of 3", "Miss the cache for 2 out of 3: FILE_NOT_IN_CACHE [2/3]");
+  }
+
+  @Test
+  void should_fail_to_get_strategies_of_unreadable_files() throws IOException {
+    createCacheEntry();
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+    var otherFile = mock(InputFile.class);
+    when(otherFile.key()).thenReturn("src/other.js");
+    when(inputFile.inputStream()).thenThrow(new IOException("unreadable"));
+
+    var files = List.of(otherFile, inputFile);
+    assertThatThrownBy(() -> CacheStrategies.getStrategiesFor(context, files, PLUGIN_VERSION, 2))
+      .isInstanceOf(IOException.class)
+      .hasMessage("unreadable");
+  }
+
+  @Test
+  void should_not_read_results_of_other_linter_config() throws IOException {
+    var ucfgFileRelativePaths = createCacheEntry();
+
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+    CacheStrategies.setLinterConfigDigest("0123456789abcdef");
+
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategy.isAnalysisRequired()).isTrue();
+    assertThat(CacheStrategies.getStatistics().get(0).getMissReason()).isEqualTo("LINTER_CONFIG_CHANGED");
+    // the entry is still found, only its results are not replayed
+    verify(previousCache).read(cacheKey);
+    verify(nextCache, never()).copyFromPrevious(anyString());
+    assertThat(workDir.resolve(ucfgFileRelativePaths.get(0))).doesNotExist();
+
+    strategy.writeAnalysisToCache(CacheAnalysis.fromResponse(null, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID), inputFile);
+    var entryCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(nextCache).write(eq(cacheKey), entryCaptor.capture());
+    var resultsMetadata = PackedCacheEntry.unpack(entryCaptor.getValue()).get(Section.RESULTS_METADATA);
+    assertThat(new String(resultsMetadata, StandardCharsets.UTF_8)).isEqualTo("{\"linterId\":\"default\",\"configDigest\":\"0123456789abcdef\"}");
+
+    CacheStrategies.reset();
+    mockCacheEntry(entryCaptor.getValue());
+    CacheStrategies.setLinterConfigDigest("0123456789abcdef");
+    assertThat(CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION).getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
+  }
+
+  @Test
+  void should_only_read_results_of_same_linter() throws IOException {
+    // results of the linter limited to UCFG generation, cached while the file was unchanged
+    createCacheEntry("unchanged");
+    CacheStrategies.setAnalysisMode(AnalysisMode.SKIP_UNCHANGED);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    when(inputFile.status()).thenReturn(InputFile.Status.CHANGED);
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
+    assertThat(CacheStrategies.getStatistics().get(0).getMissReason()).isEqualTo("LINTER_CHANGED");
+    verify(nextCache, never()).copyFromPrevious(anyString());
+
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    assertThat(CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION).getName()).isEqualTo(CacheStrategy.READ_AND_WRITE);
 
-    verify(previousCache).read(jsonCacheKey);
-    verify(nextCache, never()).copyFromPrevious(jsonCacheKey);
-    verify(previousCache, never()).read(seqCacheKey);
-    verify(nextCache, never()).copyFromPrevious(seqCacheKey);
-    verify(previousCache, never()).read(cpdDataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdDataCacheKey);
-    verify(previousCache, never()).read(cpdStringTableCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdStringTableCacheKey);
+    // the analysis mode is reset along with the other state of the sensor
+    CacheStrategies.reset();
+    assertThat(CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION).getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
   }
 
   @Test
-  void should_handle_invalid_ucfg_manifest_json() throws IOException {
-    createUcfgFilesInCache();
+  void should_not_replay_entries_without_results() throws IOException {
+    var ucfgFileRelativePaths = createCacheEntry();
+    replaceSection(Section.RESULTS, new byte[0]);
+
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategy.isAnalysisRequired()).isTrue();
+    assertThat(CacheStrategies.getStatistics().get(0).getMissReason()).isEqualTo("RESULTS_NOT_CACHED");
+    verify(nextCache, never()).copyFromPrevious(anyString());
+    assertThat(workDir.resolve(ucfgFileRelativePaths.get(0))).doesNotExist();
+
+    var ucfgPaths = ucfgFileRelativePaths.stream().map(workDir::resolve).map(this::createFile).map(Path::toString).collect(toList());
+    strategy.writeAnalysisToCache(CacheAnalysis.fromResponse(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), null, LINTER_ID), inputFile);
+    var entryCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(nextCache).write(eq(cacheKey), entryCaptor.capture());
+    var entry = PackedCacheEntry.unpack(entryCaptor.getValue());
+    assertThat(entry.get(Section.UCFG_FILES)).isNotEmpty();
+    assertThat(entry.get(Section.CPD_DATA)).isNotEmpty();
+    assertThat(entry.get(Section.RESULTS)).isEmpty();
+  }
+
+  @Test
+  void should_handle_unsupported_entry_version() throws IOException {
+    createCacheEntry();
+    var bytes = cacheEntry.clone();
+    bytes[0] = 42;
+    mockCacheEntry(bytes);
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
     when(context.canSkipUnchangedFiles()).thenReturn(true);
-    when(previousCache.read(jsonCacheKey)).thenReturn(inputStream("invalid-json"));
 
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
+    verify(nextCache, never()).copyFromPrevious(anyString());
+  }
 
-    verify(previousCache).read(jsonCacheKey);
-    verify(previousCache, never()).read(seqCacheKey);
-    verify(previousCache, never()).read(cpdDataCacheKey);
-    verify(previousCache, never()).read(cpdStringTableCacheKey);
-    verify(nextCache, never()).copyFromPrevious(jsonCacheKey);
-    verify(nextCache, never()).copyFromPrevious(seqCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdDataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdStringTableCacheKey);
+  @Test
+  void should_handle_null_ucfg_manifest_json() throws IOException {
+    createCacheEntry();
+    replaceSection(Section.UCFG_MANIFEST, new byte[0]);
+
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategy.isAnalysisRequired()).isTrue();
+    verify(nextCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void should_handle_invalid_ucfg_manifest_json() throws IOException {
+    createCacheEntry();
+    replaceSection(Section.UCFG_MANIFEST, "invalid-json".getBytes(StandardCharsets.UTF_8));
+
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
+
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategy.isAnalysisRequired()).isTrue();
+    verify(nextCache, never()).copyFromPrevious(anyString());
   }
 
   @Test
   void should_handle_invalid_cpd_tokens_serialization() throws IOException {
-    createUcfgFilesInCache();
+    createCacheEntry();
+    replaceSection(Section.CPD_DATA, "invalid-cpd-data".getBytes(StandardCharsets.UTF_8));
+    replaceSection(Section.CPD_STRING_TABLE, "invalid-cpd-stringTable".getBytes(StandardCharsets.UTF_8));
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
     when(context.canSkipUnchangedFiles()).thenReturn(true);
-    when(previousCache.read(cpdDataCacheKey)).thenReturn(inputStream("invalid-cpd-data"));
-    when(previousCache.read(cpdStringTableCacheKey)).thenReturn(inputStream("invalid-cpd-stringTable"));
 
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
+    verify(nextCache, never()).copyFromPrevious(anyString());
+  }
+
+  @Test
+  void should_handle_invalid_file_metadata() throws IOException {
+    createCacheEntry();
+    replaceSection(Section.FILE_METADATA, "invalid-json".getBytes(StandardCharsets.UTF_8));
+
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
 
-    verify(previousCache).read(jsonCacheKey);
-    verify(previousCache).read(seqCacheKey);
-    verify(previousCache).read(cpdDataCacheKey);
-    verify(previousCache).read(cpdStringTableCacheKey);
-    verify(nextCache, never()).copyFromPrevious(seqCacheKey);
-    verify(nextCache, never()).copyFromPrevious(jsonCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdDataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdStringTableCacheKey);
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategy.isAnalysisRequired()).isTrue();
+    verify(nextCache, never()).copyFromPrevious(anyString());
   }
 
   @Test
   void should_handle_different_version() throws IOException {
     var pluginVersion = "1.2.3";
 
-    createUcfgFilesInCache();
+    createCacheEntry();
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
     when(context.canSkipUnchangedFiles()).thenReturn(true);
 
-    var serializationResult = CpdSerializer.toBinary(new CpdData(emptyList()));
-    when(previousCache.read(cpdDataCacheKey)).thenReturn(inputStream(serializationResult.getData()));
-    when(previousCache.read(cpdStringTableCacheKey)).thenReturn(inputStream(serializationResult.getStringTable()));
-
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, pluginVersion);
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
 
-    var metadataCacheKey = CacheKey.forFile(inputFile, pluginVersion).forFileMetadata().toString();
-    var jsonCacheKey = CacheKey.forFile(inputFile, pluginVersion).forUcfg().withPrefix(UCFGFilesSerialization.JSON_PREFIX).toString();
-    var seqCacheKey = CacheKey.forFile(inputFile, pluginVersion).forUcfg().withPrefix(UCFGFilesSerialization.SEQ_PREFIX).toString();
-    var cpdDataCacheKey = CacheKey.forFile(inputFile, pluginVersion).forCpd().withPrefix(CpdSerialization.DATA_PREFIX).toString();
-    var cpdStringTableCacheKey = CacheKey.forFile(inputFile, pluginVersion).forCpd().withPrefix(CpdSerialization.STRING_TABLE_PREFIX).toString();
+    var cacheKey = CacheKey.forFile(inputFile, pluginVersion).forAnalysis().toString();
+    verify(previousCache).contains(cacheKey);
+    verify(previousCache, never()).read(anyString());
+    verify(nextCache, never()).copyFromPrevious(anyString());
+  }
 
-    verify(previousCache).contains(metadataCacheKey);
-    verify(previousCache, never()).contains(jsonCacheKey);
-    verify(previousCache, never()).contains(seqCacheKey);
-    verify(previousCache, never()).contains(cpdDataCacheKey);
-    verify(previousCache, never()).contains(cpdStringTableCacheKey);
+  @Test
+  void should_handle_empty_files() throws IOException {
+    createCacheEntry();
+    replaceSection(Section.UCFG_FILES, new byte[0]);
 
-    verify(previousCache, never()).read(metadataCacheKey);
-    verify(previousCache, never()).read(jsonCacheKey);
-    verify(previousCache, never()).read(seqCacheKey);
-    verify(previousCache, never()).read(cpdDataCacheKey);
-    verify(previousCache, never()).read(cpdStringTableCacheKey);
+    when(inputFile.status()).thenReturn(InputFile.Status.SAME);
+    when(context.canSkipUnchangedFiles()).thenReturn(true);
 
-    verify(nextCache, never()).copyFromPrevious(metadataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(seqCacheKey);
-    verify(nextCache, never()).copyFromPrevious(jsonCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdDataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdStringTableCacheKey);
+    var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
+    assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
+    assertThat(strategy.isAnalysisRequired()).isTrue();
+    // the manifest is checked before restoring any file
+    assertThat(workDir.resolve("ucfg")).doesNotExist();
   }
 
   @Test
-  void should_handle_empty_files() throws IOException {
-    createUcfgFilesInCache();
+  void should_handle_too_big_files() throws IOException {
+    createCacheEntry();
+    var files = PackedCacheEntry.unpack(cacheEntry).get(Section.UCFG_FILES);
+    var tooBig = new byte[files.length + 100];
+    System.arraycopy(files, 0, tooBig, 0, files.length);
+    replaceSection(Section.UCFG_FILES, tooBig);
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
-
-    when(previousCache.read(seqCacheKey)).thenReturn(InputStream.nullInputStream());
     when(context.canSkipUnchangedFiles()).thenReturn(true);
 
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
@@ -428,21 +554,23 @@ class CacheStrategyTest {
 
   @Test
   void should_handle_infinite_files() throws IOException {
-    createUcfgFilesInCache();
+    createCacheEntry();
+    var infinite = new InfiniteCircularInputStream(new byte[] {32});
+    when(previousCache.read(cacheKey)).thenReturn(new SequenceInputStream(new ByteArrayInputStream(cacheEntry), infinite));
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
-
-    when(previousCache.read(seqCacheKey)).thenReturn(new InfiniteCircularInputStream(new byte[] { 32 }));
     when(context.canSkipUnchangedFiles()).thenReturn(true);
 
     var strategy = CacheStrategies.getStrategyFor(context, inputFile, PLUGIN_VERSION);
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
+    verify(nextCache, never()).copyFromPrevious(anyString());
+    assertThat(workDir.resolve("ucfg")).doesNotExist();
   }
 
   @Test
   void should_check_file_status() throws IOException {
-    var ucfgFileRelativePaths = createUcfgFilesInCache();
+    var ucfgFileRelativePaths = createCacheEntry();
 
     when(inputFile.contents()).thenReturn("Changed");
 
@@ -452,30 +580,21 @@ class CacheStrategyTest {
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
 
+    verify(previousCache, times(1)).read(cacheKey);
+    verify(nextCache, never()).copyFromPrevious(anyString());
     for (var ucfgFileRelativePath : ucfgFileRelativePaths) {
+      assertThat(workDir.resolve(ucfgFileRelativePath)).doesNotExist();
       createFile(workDir.resolve(ucfgFileRelativePath));
     }
 
-    verify(previousCache, never()).read(jsonCacheKey);
-    verify(nextCache, never()).copyFromPrevious(jsonCacheKey);
-    verify(previousCache, never()).read(seqCacheKey);
-    verify(nextCache, never()).copyFromPrevious(seqCacheKey);
-    verify(previousCache, never()).read(cpdDataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdDataCacheKey);
-    verify(previousCache, never()).read(cpdStringTableCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdStringTableCacheKey);
-
     var ucfgPaths = ucfgFileRelativePaths.stream().map(workDir::resolve).map(Path::toString).collect(toList());
-    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new)), inputFile);
-    verify(nextCache).write(eq(jsonCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(seqCacheKey), any(InputStream.class));
-    verify(nextCache).write(eq(cpdDataCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(cpdStringTableCacheKey), any(byte[].class));
+    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID), inputFile);
+    verify(nextCache).write(eq(cacheKey), any(byte[].class));
   }
 
   @Test
   void should_check_analysis_status() throws IOException {
-    var ucfgFileRelativePaths = createUcfgFilesInCache();
+    var ucfgFileRelativePaths = createCacheEntry();
 
     when(inputFile.status()).thenReturn(InputFile.Status.SAME);
 
@@ -485,47 +604,26 @@ class CacheStrategyTest {
     assertThat(strategy.getName()).isEqualTo(CacheStrategy.WRITE_ONLY);
     assertThat(strategy.isAnalysisRequired()).isTrue();
 
+    verify(previousCache, never()).read(anyString());
+    verify(nextCache, never()).copyFromPrevious(anyString());
+
     for (var ucfgFileRelativePath : ucfgFileRelativePaths) {
       createFile(workDir.resolve(ucfgFileRelativePath));
     }
-
-    verify(previousCache, never()).read(jsonCacheKey);
-    verify(nextCache, never()).copyFromPrevious(jsonCacheKey);
-    verify(previousCache, never()).read(seqCacheKey);
-    verify(nextCache, never()).copyFromPrevious(seqCacheKey);
-    verify(previousCache, never()).read(cpdDataCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdDataCacheKey);
-    verify(previousCache, never()).read(cpdStringTableCacheKey);
-    verify(nextCache, never()).copyFromPrevious(cpdStringTableCacheKey);
-
     var ucfgPaths = ucfgFileRelativePaths.stream().map(workDir::resolve).map(Path::toString).collect(toList());
-    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new)), inputFile);
-    verify(nextCache).write(eq(jsonCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(seqCacheKey), any(InputStream.class));
-    verify(nextCache).write(eq(cpdDataCacheKey), any(byte[].class));
-    verify(nextCache).write(eq(cpdStringTableCacheKey), any(byte[].class));
+    strategy.writeAnalysisToCache(new CacheAnalysis(ucfgPaths, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, LINTER_ID), inputFile);
+    verify(nextCache).write(eq(cacheKey), any(byte[].class));
   }
 
   @Test
   void should_log() {
     when(inputFile.toString()).thenReturn("test.js");
-    assertThat(CacheStrategies.getLogMessage(readAndWrite(CacheAnalysis.fromCache(new EslintBridgeServer.CpdToken[0]), serialization), inputFile, "this is a test"))
+    assertThat(CacheStrategies.getLogMessage(readAndWrite(CacheAnalysis.fromCache(new EslintBridgeServer.CpdToken[0], RESULTS), serialization), inputFile, "this is a test"))
       .isEqualTo("Cache strategy set to 'READ_AND_WRITE' for file 'test.js' as this is a test");
     assertThat(CacheStrategies.getLogMessage(writeOnly(serialization), inputFile, null))
       .isEqualTo("Cache strategy set to 'WRITE_ONLY' for file 'test.js'");
   }
 
-  @Test
-  void should_iterate_files() {
-    var ucfgFiles = createUcfgFiles(tempDir).stream().map(tempDir::resolve).collect(toList());
-    var iterator = new FileIterator(ucfgFiles);
-    IntStream.range(0, ucfgFiles.size()).forEach(i -> {
-      assertThat(iterator.hasNext()).isTrue();
-      assertThat(iterator.next()).isNotNull();
-    });
-    assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
-  }
-
   @Test
   void should_check_file_hash() throws Exception {
     when(context.canSkipUnchangedFiles()).thenReturn(true);
@@ -535,24 +633,29 @@ class CacheStrategyTest {
       .setCharset(StandardCharsets.UTF_8)
       .build();
     var pluginVersion = "1.0.0";
-    var cacheKey = CacheKey.forFile(inputFile, pluginVersion);
-    var metadataKey = cacheKey.forFileMetadata().toString();
+    var cacheKey = CacheKey.forFile(inputFile, pluginVersion).forAnalysis().toString();
 
     var cacheStrategy = CacheStrategies.getStrategyFor(context, inputFile, pluginVersion);
     assertThat(cacheStrategy.getName()).isEqualTo("WRITE_ONLY");
-    verify(previousCache).contains(metadataKey);
-    verify(previousCache, never()).read(metadataKey);
-    verify(previousCache, never()).contains(cacheKey.forUcfg().toString());
+    verify(previousCache).contains(cacheKey);
+    verify(previousCache, never()).read(cacheKey);
 
     reset(previousCache);
-    when(previousCache.contains(metadataKey)).thenReturn(true);
-    when(previousCache.read(metadataKey))
-      .thenReturn(inputStream(new Gson().toJson(FileMetadata.from(inputFile))));
-    CacheStrategies.getStrategyFor(context, inputFile, pluginVersion);
-
-    verify(previousCache).contains(metadataKey);
-    verify(previousCache).read(metadataKey);
-    verify(previousCache).contains(cacheKey.forUcfg().withPrefix(UCFGFilesSerialization.JSON_PREFIX).toString());
+    var sections = new EnumMap<Section, byte[]>(Section.class);
+    sections.put(Section.FILE_METADATA, new Gson().toJson(FileMetadata.from(inputFile)).getBytes(StandardCharsets.UTF_8));
+    sections.put(Section.UCFG_MANIFEST, "{\"fileSizes\":[]}".getBytes(StandardCharsets.UTF_8));
+    var cpdData = CpdSerializer.toBinary(new CpdData(emptyList()), new CpdDictionary());
+    sections.put(Section.CPD_DATA, cpdData.getData());
+    sections.put(Section.CPD_STRING_TABLE, cpdData.getStringTable());
+    sections.put(Section.RESULTS, RESULTS);
+    sections.put(Section.RESULTS_METADATA, "{\"linterId\":\"default\"}".getBytes(StandardCharsets.UTF_8));
+    when(previousCache.contains(cacheKey)).thenReturn(true);
+    when(previousCache.read(cacheKey)).thenReturn(new ByteArrayInputStream(PackedCacheEntry.pack(sections)));
+
+    cacheStrategy = CacheStrategies.getStrategyFor(context, inputFile, pluginVersion);
+    assertThat(cacheStrategy.getName()).isEqualTo("READ_AND_WRITE");
+    verify(previousCache).contains(cacheKey);
+    verify(previousCache).read(cacheKey);
   }
 
   private String readFile(Path file) {
@@ -563,49 +666,51 @@ class CacheStrategyTest {
     }
   }
 
-  private List<String> createUcfgFilesInCache() throws IOException {
+  /**
+   * Writes the analysis of the file, with UCFG files generated in a temporary directory, and serves it as the entry of
+   * the previous cache.
+   */
+  private List<String> createCacheEntry() throws IOException {
+    return createCacheEntry(LINTER_ID);
+  }
+
+  private List<String> createCacheEntry(String linterId) throws IOException {
     var ucfgFileRelativePaths = createUcfgFiles(tempDir);
     var ucfgFiles = ucfgFileRelativePaths.stream()
       .map(tempDir::resolve)
       .map(this::createFile)
       .map(Path::toString)
       .collect(toList());
-    var binFile = Files.createTempFile("ucfgs", ".bin");
-    var jsonFile = Files.createTempFile("ucfgs", ".json");
 
     var tempCache = mock(WriteCache.class);
-    doAnswer(invocation -> {
-      var input = invocation.getArgument(1, InputStream.class);
-      Files.copy(input, binFile, StandardCopyOption.REPLACE_EXISTING);
-      return null;
-    }).when(tempCache).write(eq(seqCacheKey), any(InputStream.class));
-    doAnswer(invocation -> {
-      var bytes = invocation.getArgument(1, byte[].class);
-      Files.deleteIfExists(jsonFile);
-      Files.write(jsonFile, bytes);
-      return null;
-    }).when(tempCache).write(eq(jsonCacheKey), any(byte[].class));
-
     when(fileSystem.workDir()).thenReturn(tempDir.toFile());
     when(context.nextCache()).thenReturn(tempCache);
-    serialization.writeToCache(CacheAnalysis.fromResponse(ucfgFiles, new EslintBridgeServer.CpdToken[0]), inputFile);
+    serialization.writeToCache(CacheAnalysis.fromResponse(ucfgFiles, CPD_TOKENS.toArray(EslintBridgeServer.CpdToken[]::new), RESULTS, linterId), inputFile);
     when(fileSystem.workDir()).thenReturn(workDir.toFile());
     when(context.nextCache()).thenReturn(nextCache);
 
-    when(previousCache.read(jsonCacheKey)).thenReturn(inputStream(jsonFile));
-    when(previousCache.read(seqCacheKey)).thenReturn(inputStream(binFile));
-
-    var serializationResult = CpdSerializer.toBinary(new CpdData(CPD_TOKENS));
-    when(previousCache.read(cpdDataCacheKey)).thenReturn(inputStream(serializationResult.getData()));
-    when(previousCache.read(cpdStringTableCacheKey)).thenReturn(inputStream(serializationResult.getStringTable()));
-    when(previousCache.contains(jsonCacheKey)).thenReturn(true);
-    when(previousCache.contains(seqCacheKey)).thenReturn(true);
-    when(previousCache.contains(cpdDataCacheKey)).thenReturn(true);
-    when(previousCache.contains(cpdStringTableCacheKey)).thenReturn(true);
+    var entryCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(tempCache).write(eq(cacheKey), entryCaptor.capture());
+    mockCacheEntry(entryCaptor.getValue());
 
     return ucfgFileRelativePaths;
   }
 
+  private void mockCacheEntry(byte[] bytes) {
+    cacheEntry = bytes;
+    when(previousCache.contains(cacheKey)).thenReturn(true);
+    when(previousCache.read(cacheKey)).thenAnswer(invocation -> new ByteArrayInputStream(bytes));
+  }
+
+  private void replaceSection(Section replaced, byte[] bytes) throws IOException {
+    var entry = PackedCacheEntry.unpack(cacheEntry);
+    var sections = new EnumMap<Section, byte[]>(Section.class);
+    for (var section : Section.values()) {
+      sections.put(section, section == replaced ? bytes : entry.get(section));
+    }
+    mockCacheEntry(PackedCacheEntry.pack(sections));
+  }
+
   private List<String> createUcfgFiles(Path dir) {
     var ucfgFileRelativePaths = List.of("ucfg/file_js_1.ucfg", "ucfg/file_js_2.ucfg", "ucfg/d/file_js_3.ucfg");
     ucfgFileRelativePaths.stream().map(dir::resolve).forEach(this::createFile);
@@ -22,12 +22,13 @@ package org.sonar.plugins.javascript.eslint.cache;
 import com.google.gson.Gson;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.List;
 import org.sonar.api.SonarEdition;
 import org.sonar.api.SonarQubeSide;
@@ -37,6 +38,7 @@ import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.Version;
 import org.sonar.plugins.javascript.eslint.EslintBridgeServer;
+import org.sonar.plugins.javascript.eslint.cache.PackedCacheEntry.Section;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -49,7 +51,41 @@ public class CacheTestUtils {
   }
 
   public static CpdSerializer.SerializationResult getSerializedCpdTokens(List<EslintBridgeServer.CpdToken> cpdTokens) throws IOException {
-    return CpdSerializer.toBinary(new CpdData(cpdTokens));
+    return CpdSerializer.toBinary(new CpdData(cpdTokens), new CpdDictionary());
+  }
+
+  /**
+   * Analysis results with a keyword highlighted on the first line and 4 lines of code, in the binary encoding of the bridge.
+   */
+  public static byte[] getSerializedResults() throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new VarLengthOutputStream(bytes)) {
+      bytes.write(1);
+      out.writeUTF("{\"issues\":[],\"metrics\":{\"functions\":1}}");
+      // string table
+      out.writeInt(1);
+      out.writeUTF("KEYWORD");
+      // highlights
+      out.writeInt(1);
+      out.writeInt(1);
+      out.writeInt(0);
+      out.writeInt(0);
+      out.writeInt(2);
+      out.writeInt(0);
+      // highlighted symbols
+      out.writeInt(0);
+      // ncloc, commentLines, nosonarLines, executableLines
+      out.writeInt(4);
+      for (var line = 1; line <= 4; line++) {
+        out.writeInt(line);
+      }
+      out.writeInt(0);
+      out.writeInt(0);
+      out.writeInt(0);
+      // CPD tokens
+      out.writeInt(0);
+    }
+    return bytes.toByteArray();
   }
 
   public static List<EslintBridgeServer.CpdToken> getCpdTokens() {
@@ -64,31 +100,32 @@ public class CacheTestUtils {
     context.setPreviousCache(mock(ReadCache.class));
     context.setCanSkipUnchangedFiles(true);
 
+    var key = "js:analysis:moduleKey:" + filePath;
     var cache = context.previousCache();
-    when(cache.contains("jssecurity:ucfgs:JSON:moduleKey:" + filePath)).thenReturn(true);
-    when(cache.read("jssecurity:ucfgs:JSON:moduleKey:" + filePath)).thenReturn(new ByteArrayInputStream("{\"fileSizes\":[]}".getBytes(StandardCharsets.UTF_8)));
-    when(cache.contains("jssecurity:ucfgs:SEQ:moduleKey:" + filePath)).thenReturn(true);
-    when(cache.read("jssecurity:ucfgs:SEQ:moduleKey:" + filePath)).thenReturn(new ByteArrayInputStream(new byte[0]));
-
-    when(cache.contains("js:cpd:DATA:moduleKey:" + filePath)).thenReturn(true);
-    when(cache.contains("js:cpd:STRING_TABLE:moduleKey:" + filePath)).thenReturn(true);
-
-    try {
-      var result = getSerializedCpdTokens(getCpdTokens());
-      when(cache.read("js:cpd:DATA:moduleKey:" + filePath)).thenReturn(new ByteArrayInputStream(result.getData()));
-      when(cache.read("js:cpd:STRING_TABLE:moduleKey:" + filePath)).thenReturn(new ByteArrayInputStream(result.getStringTable()));
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    }
-
-    when(cache.contains("js:filemetadata:moduleKey:" + filePath)).thenReturn(true);
-    when(cache.read("js:filemetadata:moduleKey:" + filePath)).thenReturn(
-      inputStream("{\"size\":34,\"hash\":[-58,-66,77,-102,-13,-49,96,126,-125,-65,-111,109,-34,85,27,97,46,-58,-76,113," +
-        "-97,53,64,108,112,-2,104,-75,-23,-111,119,77]}"));
+    when(cache.contains(key)).thenReturn(true);
+    // the results were produced by the linter of the file, with the linter configuration of the sensor
+    when(cache.read(key)).thenAnswer(invocation -> {
+      var fileSystem = context.fileSystem();
+      var inputFile = fileSystem.inputFile(fileSystem.predicates().hasRelativePath(filePath));
+      var resultsMetadata = new ResultsMetadata(CacheStrategies.getLinterIdFor(inputFile), CacheStrategies.getLinterConfigDigest());
+      return new ByteArrayInputStream(getCacheEntry(resultsMetadata));
+    });
 
     return context;
   }
 
+  private static byte[] getCacheEntry(ResultsMetadata resultsMetadata) throws IOException {
+    var sections = new EnumMap<Section, byte[]>(Section.class);
+    sections.put(Section.FILE_METADATA, "{\"algorithm\":\"CRC32C\",\"size\":34,\"hash\":[-114,-36,27,15]}".getBytes(StandardCharsets.UTF_8));
+    sections.put(Section.UCFG_MANIFEST, "{\"fileSizes\":[]}".getBytes(StandardCharsets.UTF_8));
+    var cpdData = getSerializedCpdTokens(getCpdTokens());
+    sections.put(Section.CPD_DATA, cpdData.getData());
+    sections.put(Section.CPD_STRING_TABLE, cpdData.getStringTable());
+    sections.put(Section.RESULTS, getSerializedResults());
+    sections.put(Section.RESULTS_METADATA, new Gson().toJson(resultsMetadata).getBytes(StandardCharsets.UTF_8));
+    return PackedCacheEntry.pack(sections);
+  }
+
   public static InputStream inputStream(byte[] bytes) {
     return new ByteArrayInputStream(bytes);
   }
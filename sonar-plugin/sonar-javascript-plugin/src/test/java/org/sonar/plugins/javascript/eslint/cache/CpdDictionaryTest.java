@@ -0,0 +1,217 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.utils.log.LogTesterJUnit5;
+import org.sonar.plugins.javascript.eslint.EslintBridgeServer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CpdDictionaryTest {
+
+  static final String KEY = "js:cpd-dictionary:1.0.0:scope";
+
+  @RegisterExtension
+  LogTesterJUnit5 logTester = new LogTesterJUnit5();
+
+  SensorContext context;
+  ReadCache previousCache;
+  WriteCache nextCache;
+
+  @BeforeEach
+  void setUp() {
+    previousCache = mock(ReadCache.class);
+    nextCache = mock(WriteCache.class);
+    context = mock(SensorContext.class);
+    when(context.previousCache()).thenReturn(previousCache);
+    when(context.nextCache()).thenReturn(nextCache);
+  }
+
+  @Test
+  void should_share_strings_seen_in_several_files() throws IOException {
+    var dictionary = newDictionary();
+
+    assertThat(dictionary.indexOf("(")).isEqualTo(-1);
+    assertThat(dictionary.indexOf("foo")).isEqualTo(-1);
+    assertThat(dictionary.indexOf("(")).isZero();
+    assertThat(dictionary.indexOf("(")).isZero();
+    assertThat(dictionary.getString(0)).isEqualTo("(");
+    assertThatThrownBy(() -> dictionary.getString(1))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Invalid index in the CPD dictionary: 1");
+  }
+
+  @Test
+  void should_not_share_strings_without_scope() {
+    var dictionary = new CpdDictionary();
+    dictionary.load(context, "1.0.0");
+
+    assertThat(dictionary.indexOf("(")).isEqualTo(-1);
+    assertThat(dictionary.indexOf("(")).isEqualTo(-1);
+    assertThat(dictionary.getId()).isEmpty();
+
+    assertThat(dictionary.save()).isZero();
+    verify(nextCache, never()).write(anyString(), any(byte[].class));
+  }
+
+  @Test
+  void should_read_tokens_with_shared_and_local_strings() throws IOException {
+    var dictionary = newDictionary();
+    serialize(dictionary, List.of(token("if"), token("(")));
+    var cpdData = serialize(dictionary, List.of(token("("), token("bar"), token("(")));
+
+    assertThat(dictionary.indexOf("(")).isZero();
+    var tokens = CpdDeserializer.fromBinary(cpdData.getData(), cpdData.getStringTable(), dictionary).getCpdTokens();
+    assertThat(tokens).extracting(EslintBridgeServer.CpdToken::getImage).containsExactly("(", "bar", "(");
+  }
+
+  @Test
+  void should_not_read_tokens_of_other_dictionary() throws IOException {
+    var dictionary = newDictionary();
+    var cpdData = serialize(dictionary, List.of(token("(")));
+
+    var other = newDictionary();
+    assertThatThrownBy(() -> CpdDeserializer.fromBinary(cpdData.getData(), cpdData.getStringTable(), other))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Can't deserialize data from the cache")
+      .hasRootCauseMessage("The CPD dictionary " + dictionary.getId() + " is not available");
+  }
+
+  @Test
+  void should_store_and_load_dictionary() throws IOException {
+    var dictionary = newDictionary();
+    dictionary.indexOf("(");
+    dictionary.indexOf("(");
+    var size = dictionary.save();
+
+    var captor = ArgumentCaptor.forClass(byte[].class);
+    verify(nextCache).write(eq(KEY), captor.capture());
+    assertThat(size).isEqualTo(captor.getValue().length);
+    when(previousCache.contains(KEY)).thenReturn(true);
+    when(previousCache.read(KEY)).thenReturn(new ByteArrayInputStream(captor.getValue()));
+
+    var loaded = newDictionary();
+    assertThat(loaded.getId()).isEqualTo(dictionary.getId());
+    assertThat(loaded.getString(0)).isEqualTo("(");
+    assertThat(loaded.indexOf("(")).isZero();
+    assertThat(logTester.logs()).contains("CPD dictionary of 1 string(s) loaded from key '" + KEY + "'");
+
+    assertThat(loaded.save()).isEqualTo(size);
+    verify(nextCache).copyFromPrevious(KEY);
+  }
+
+  @Test
+  void should_free_strings_unused_during_analysis() throws IOException {
+    var dictionary = newDictionary();
+    List.of("(", "(", "foo", "foo").forEach(dictionary::indexOf);
+    saveAndRestore(dictionary);
+
+    var loaded = newDictionary();
+    assertThat(loaded.getString(0)).isEqualTo("(");
+    saveAndRestore(loaded);
+    assertThat(logTester.logs()).contains("CPD dictionary of 1 string(s) stored with key '" + KEY + "', 1 unused string(s) removed");
+
+    var reloaded = newDictionary();
+    assertThat(reloaded.getId()).isEqualTo(dictionary.getId());
+    assertThat(reloaded.indexOf("(")).isZero();
+    assertThat(reloaded.indexOf("foo")).isEqualTo(-1);
+    assertThatThrownBy(() -> reloaded.getString(1))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Invalid index in the CPD dictionary: 1");
+    // the free slot is given to the next new string
+    assertThat(reloaded.indexOf("bar")).isEqualTo(-1);
+    assertThat(reloaded.indexOf("bar")).isEqualTo(1);
+    assertThat(reloaded.getString(1)).isEqualTo("bar");
+  }
+
+  @Test
+  void should_create_new_dictionary_when_corrupted() {
+    when(previousCache.contains(KEY)).thenReturn(true);
+    when(previousCache.read(KEY)).thenReturn(new ByteArrayInputStream(new byte[] { 1 }));
+
+    var dictionary = newDictionary();
+
+    assertThat(dictionary.getId()).isNotEmpty();
+    assertThat(dictionary.indexOf("(")).isEqualTo(-1);
+    assertThat(logTester.logs()).contains("Failure when reading the CPD dictionary from key '" + KEY + "', a new one is created");
+  }
+
+  @Test
+  void should_reset() {
+    var dictionary = newDictionary();
+    dictionary.indexOf("(");
+    dictionary.indexOf("(");
+
+    dictionary.reset();
+
+    assertThat(dictionary.getId()).isEmpty();
+    assertThat(dictionary.indexOf("(")).isEqualTo(-1);
+  }
+
+  private CpdDictionary newDictionary() {
+    var dictionary = new CpdDictionary();
+    dictionary.setScope("scope");
+    dictionary.load(context, "1.0.0");
+    return dictionary;
+  }
+
+  private void saveAndRestore(CpdDictionary dictionary) {
+    dictionary.save();
+    var captor = ArgumentCaptor.forClass(byte[].class);
+    verify(nextCache, atLeastOnce()).write(eq(KEY), captor.capture());
+    when(previousCache.contains(KEY)).thenReturn(true);
+    when(previousCache.read(KEY)).thenReturn(new ByteArrayInputStream(captor.getValue()));
+  }
+
+  private static CpdSerializer.SerializationResult serialize(CpdDictionary dictionary, List<EslintBridgeServer.CpdToken> tokens)
+    throws IOException {
+    return CpdSerializer.toBinary(new CpdData(tokens), dictionary);
+  }
+
+  private static EslintBridgeServer.CpdToken token(String image) {
+    var location = new EslintBridgeServer.Location();
+    location.setStartLine(1);
+    location.setEndLine(1);
+    location.setEndCol(image.length());
+    var token = new EslintBridgeServer.CpdToken();
+    token.setLocation(location);
+    token.setImage(image);
+    return token;
+  }
+}
@@ -19,6 +19,7 @@
  */
 package org.sonar.plugins.javascript.eslint.cache;
 
+import com.google.gson.Gson;
 import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
@@ -26,6 +27,10 @@ import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class FileMetadataTest {
 
@@ -43,19 +48,55 @@ class FileMetadataTest {
       .build();
 
     var metadata = FileMetadata.from(file);
-    assertThat(metadata.compareTo(same)).isTrue();
+    assertThat(metadata.compareTo(FileMetadata.from(same))).isTrue();
 
     var diffSize = TestInputFileBuilder.create("module", "file.ts")
       .setContents("a")
       .setCharset(StandardCharsets.UTF_8)
       .build();
-    assertThat(metadata.compareTo(diffSize)).isFalse();
+    assertThat(metadata.compareTo(FileMetadata.from(diffSize))).isFalse();
 
     var diffContent = TestInputFileBuilder.create("module", "file.ts")
       .setContents("def")
       .setCharset(StandardCharsets.UTF_8)
       .build();
-    assertThat(metadata.compareTo(diffContent)).isFalse();
+    assertThat(metadata.compareTo(FileMetadata.from(diffContent))).isFalse();
+  }
+
+  @Test
+  void should_not_match_metadata_of_other_algorithm() throws Exception {
+    var file = TestInputFileBuilder.create("module", "file.ts")
+      .setContents("abc")
+      .setCharset(StandardCharsets.UTF_8)
+      .build();
+    var metadata = FileMetadata.from(file);
+
+    // entries written before the algorithm was recorded
+    var legacy = new Gson().fromJson("{\"size\":3,\"hash\":[1,2,3,4]}", FileMetadata.class);
+    assertThat(legacy.compareTo(metadata)).isFalse();
+
+    var json = new Gson().toJson(metadata);
+    assertThat(json).contains("\"algorithm\":\"CRC32C\"");
+    assertThat(new Gson().fromJson(json, FileMetadata.class).compareTo(metadata)).isTrue();
+    assertThat(new Gson().fromJson(json.replace("CRC32C", "SHA-256"), FileMetadata.class).compareTo(metadata)).isFalse();
+  }
+
+  @Test
+  void should_read_file_once() throws Exception {
+    var file = spy(TestInputFileBuilder.create("module", "file.ts")
+      .setContents("abc")
+      .setCharset(StandardCharsets.UTF_8)
+      .build());
+
+    var fingerprints = new FileFingerprints();
+    var metadata = fingerprints.of(file);
+    assertThat(fingerprints.of(file)).isSameAs(metadata);
+    assertThat(metadata.compareTo(FileMetadata.from(file))).isTrue();
+    verify(file, times(2)).inputStream();
+    verify(file, never()).contents();
+
+    fingerprints.reset();
+    assertThat(fingerprints.of(file)).isNotSameAs(metadata);
   }
 
 }
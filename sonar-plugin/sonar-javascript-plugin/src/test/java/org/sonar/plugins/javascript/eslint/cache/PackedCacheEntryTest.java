@@ -0,0 +1,138 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.plugins.javascript.eslint.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import org.apache.commons.io.input.InfiniteCircularInputStream;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.javascript.eslint.cache.PackedCacheEntry.Section;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedCacheEntryTest {
+
+  @Test
+  void should_unpack_sections() throws IOException {
+    Map<Section, byte[]> sections = new EnumMap<>(Section.class);
+    sections.put(Section.FILE_METADATA, new byte[] {1, 2, 3});
+    sections.put(Section.RESULTS, new byte[] {4, 5});
+
+    var bytes = PackedCacheEntry.pack(sections);
+    var entry = PackedCacheEntry.unpack(bytes);
+
+    assertThat(entry.size()).isEqualTo(bytes.length);
+
+    assertThat(entry.get(Section.FILE_METADATA)).containsExactly(1, 2, 3);
+    assertThat(entry.get(Section.CPD_DATA)).isEmpty();
+    assertThat(entry.get(Section.UCFG_FILES)).isEmpty();
+    assertThat(entry.get(Section.RESULTS)).containsExactly(4, 5);
+  }
+
+  @Test
+  void should_fail_on_unsupported_version() throws IOException {
+    var bytes = PackedCacheEntry.pack(Map.of());
+    bytes[0] = 42;
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(bytes))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unsupported version of cache entry: 42");
+  }
+
+  @Test
+  void should_fail_on_truncated_entry() throws IOException {
+    var bytes = PackedCacheEntry.pack(Map.of(Section.RESULTS, new byte[] {1, 2, 3}));
+    var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(truncated))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unexpected size of cache entry: " + truncated.length);
+  }
+
+  @Test
+  void should_fail_on_unexpected_section_count() throws IOException {
+    var bytes = PackedCacheEntry.pack(Map.of());
+    bytes[1] = 2;
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(bytes))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unexpected number of sections in cache entry: 2");
+
+    bytes[1] = 8;
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(bytes))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unexpected number of sections in cache entry: 8");
+  }
+
+  @Test
+  void should_fail_on_truncated_offset_table() throws IOException {
+    var bytes = PackedCacheEntry.pack(Map.of(Section.RESULTS, new byte[] {1, 2, 3}));
+    // version, section count and the first 2 offsets
+    var truncated = Arrays.copyOf(bytes, 4);
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(truncated))
+      .isInstanceOf(EOFException.class);
+  }
+
+  @Test
+  void should_fail_on_decreasing_section_offsets() {
+    var bytes = new byte[] {PackedCacheEntry.VERSION, 7, 3, 1, 3, 3, 3, 3, 3, 1, 2, 3};
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(bytes))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Invalid offset of section CPD_DATA in cache entry: 1");
+  }
+
+  @Test
+  void should_fail_on_malformed_section_offset() {
+    var header = new ByteArrayInputStream(new byte[] {PackedCacheEntry.VERSION, 7});
+    var input = new SequenceInputStream(header, new InfiniteCircularInputStream(new byte[] {(byte) 0x80}));
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(input))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Malformed variable length integer");
+  }
+
+  @Test
+  void should_fail_on_trailing_bytes() throws IOException {
+    var bytes = PackedCacheEntry.pack(Map.of(Section.RESULTS, new byte[] {1, 2, 3}));
+    var longer = Arrays.copyOf(bytes, bytes.length + 1);
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(longer))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unexpected size of cache entry: more than " + bytes.length);
+  }
+
+  @Test
+  void should_not_read_unbounded_entry() throws IOException {
+    var bytes = PackedCacheEntry.pack(Map.of(Section.RESULTS, new byte[] {1, 2, 3}));
+    var input = new SequenceInputStream(new ByteArrayInputStream(bytes), new InfiniteCircularInputStream(new byte[] {32}));
+
+    assertThatThrownBy(() -> PackedCacheEntry.unpack(input))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unexpected size of cache entry: more than " + bytes.length);
+  }
+}
@@ -49,6 +49,7 @@ import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -229,6 +230,19 @@ class NodeCommandTest {
       .hasCause(cause);
   }
 
+  @Test
+  void test_destroy() throws Exception {
+    NodeCommand nodeCommand = NodeCommand.builder(mockProcessWrapper)
+      .script(resourceScript(PATH_TO_SCRIPT))
+      .build();
+    // nothing to kill before the process is started
+    nodeCommand.destroy();
+    verify(mockProcessWrapper, never()).destroyForcibly(any());
+    nodeCommand.start();
+    nodeCommand.destroy();
+    verify(mockProcessWrapper).destroyForcibly(any());
+  }
+
   @Test
   void test_interrupted_waitFor() throws Exception {
     when(mockProcessWrapper.waitFor(any(), anyLong(), any())).thenThrow(new InterruptedException());
@@ -295,6 +309,19 @@ class NodeCommandTest {
     assertThat(nodeCommand.toString()).endsWith("node -v script.js arg1 arg2");
   }
 
+  @Test
+  void test_builder_reuse() throws IOException {
+    when(mockProcessWrapper.isMac()).thenReturn(false);
+    NodeCommandBuilder commandBuilder = NodeCommand.builder(mockProcessWrapper)
+      .maxOldSpaceSize(2048)
+      .script("script.js");
+    NodeCommand first = commandBuilder.scriptArgs("arg1").build();
+    NodeCommand second = commandBuilder.maxOldSpaceSize(2048).scriptArgs("arg2").build();
+
+    assertThat(first.toString()).endsWith("node --max-old-space-size=2048 script.js arg1");
+    assertThat(second.toString()).endsWith("node --max-old-space-size=2048 script.js arg2");
+  }
+
   @Test
   void test_command_on_mac() throws Exception {
     if (System.getProperty("os.name").toLowerCase().contains("win")) {
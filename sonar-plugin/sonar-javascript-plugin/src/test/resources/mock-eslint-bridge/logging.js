@@ -26,4 +26,6 @@ server.keepAliveTimeout = 100  // this is used so server disconnects faster
 
 server.listen(port, host, () => {
   console.log(`server is listening on ${host} ${port}`);
+  const address = server.address();
+  console.log(`READY ${typeof address === 'string' ? address : address.port}`);
 })
@@ -0,0 +1,4 @@
+#!/usr/bin/env node
+
+// keeps running without ever telling that it is ready
+setTimeout(() => {}, 5000);
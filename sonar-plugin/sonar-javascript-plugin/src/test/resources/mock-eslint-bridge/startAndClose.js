@@ -21,4 +21,6 @@ server.listen(port, host, (err) => {
   }
 
   console.log(`server is listening on ${host} ${port}`);
+  const address = server.address();
+  console.log(`READY ${typeof address === 'string' ? address : address.port}`);
 });
@@ -36,6 +36,9 @@ const requestHandler = (request, response) => {
       );
     } else if (request.url === "/delete-program") {
       response.end("OK!");
+    } else if (request.url === "/analyze-batch") {
+      const { requests } = JSON.parse(data);
+      response.end(requests.map(() => "{ issues: [] }\n").join(""));
     } else if (request.url === "/create-tsconfig-file") {
       response.end('{"filename":"/path/to/tsconfig.json"}');
     } else {
@@ -57,6 +60,8 @@ server.listen(port, host, (err) => {
   }
 
   console.log(`server is listening on ${host} ${port}`);
+  const address = server.address();
+  console.log(`READY ${typeof address === 'string' ? address : address.port}`);
 });
 
 process.on("exit", () => {
@@ -37,32 +37,42 @@ export function errorMiddleware(
   response: express.Response,
   _next: express.NextFunction,
 ) {
+  response.json(errorOutput(error));
+}
+
+/**
+ * Builds the output sent back for an error
+ *
+ * Parsing errors are reported as regular analysis outputs, while
+ * unexpected errors are logged and only their message is sent back.
+ *
+ * @param error the error that occurred while serving a request
+ * @returns the output to send back to the requester
+ */
+export function errorOutput(error: Error) {
   const { code, message, data } =
     error instanceof APIError ? error : APIError.unexpectedError(error.message);
   switch (code) {
     case ErrorCode.Parsing:
-      response.json({
+      return {
         parsingError: {
           message,
           code,
           line: data?.line,
         },
         ...EMPTY_JSTS_ANALYSIS_OUTPUT,
-      });
-      break;
+      };
     case ErrorCode.FailingTypeScript:
     case ErrorCode.LinterInitialization:
-      response.json({
+      return {
         parsingError: {
           message,
           code,
         },
-      });
-      break;
+      };
     default:
       console.error(error.stack);
-      response.json({ error: error.message });
-      break;
+      return { error: error.message };
   }
 }
 
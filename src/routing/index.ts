@@ -18,6 +18,7 @@
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 import express from 'express';
+import onAnalyzeBatch from './on-analyze-batch';
 import onAnalyzeCss from './on-analyze-css';
 import onAnalyzeHtml from './on-analyze-html';
 import onAnalyzeJs from './on-analyze-js';
@@ -27,12 +28,14 @@ import onCreateProgram from './on-create-program';
 import onDeleteProgram from './on-delete-program';
 import onInitLinter from './on-init-linter';
 import onNewTSConfig from './on-new-tsconfig';
+import onNegotiateProtocol from './on-negotiate-protocol';
 import onStatus from './on-status';
 import onTSConfigFiles from './on-tsconfig-files';
 import onCreateTSConfigFile from './on-create-tsconfig-file';
 
 const router = express.Router();
 
+router.post('/analyze-batch', onAnalyzeBatch);
 router.post('/analyze-css', onAnalyzeCss);
 router.post('/analyze-js', onAnalyzeJs);
 router.post('/analyze-html', onAnalyzeHtml);
@@ -43,6 +46,7 @@ router.post('/create-program', onCreateProgram);
 router.post('/delete-program', onDeleteProgram);
 router.post('/init-linter', onInitLinter);
 router.post('/new-tsconfig', onNewTSConfig);
+router.post('/protocol', onNegotiateProtocol);
 router.get('/status', onStatus);
 router.post('/tsconfig-files', onTSConfigFiles);
 router.post('/create-tsconfig-file', onCreateTSConfigFile);
@@ -0,0 +1,72 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+import express from 'express';
+import { readFile } from 'helpers';
+import { Language } from 'parsing/jsts';
+import { errorOutput } from 'routing/errors';
+import { analyzeJSTS, JsTsAnalysisInput } from 'services/analysis';
+
+/**
+ * A batch of JavaScript / TypeScript analysis inputs
+ *
+ * @param language the language of all the inputs of the batch
+ * @param requests the analysis inputs
+ */
+interface BatchAnalysisInput {
+  language: Language;
+  requests: JsTsAnalysisInput[];
+}
+
+/**
+ * Handles batch analysis requests of JavaScript / TypeScript files
+ *
+ * The analysis outputs are streamed back as newline-delimited JSON, one
+ * line per input in the order of the batch, each line being written as
+ * soon as the corresponding file is analyzed. An analysis failure doesn't
+ * interrupt the batch: the line of the failing file holds the same error
+ * output that a single-file request would have sent back.
+ */
+export default async function onAnalyzeBatch(
+  request: express.Request,
+  response: express.Response,
+  next: express.NextFunction,
+) {
+  try {
+    const { language, requests } = request.body as BatchAnalysisInput;
+    response.setHeader('Content-Type', 'application/x-ndjson');
+    for (const input of requests) {
+      response.write(`${JSON.stringify(await analyze(input, language))}\n`);
+    }
+    response.end();
+  } catch (error) {
+    next(error);
+  }
+}
+
+async function analyze(input: JsTsAnalysisInput, language: Language) {
+  try {
+    if (input.filePath && !input.fileContent) {
+      input.fileContent = await readFile(input.filePath);
+    }
+    return analyzeJSTS(input, language);
+  } catch (error) {
+    return errorOutput(error);
+  }
+}
@@ -17,9 +17,18 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-import { runner, analyzeJSTS, JsTsAnalysisInput } from 'services/analysis';
+import {
+  runner,
+  analyzeJSTS,
+  encodeJsTsOutput,
+  JsTsAnalysisInput,
+  JsTsAnalysisOutput,
+} from 'services/analysis';
 
 /**
  * Handles JavaScript analysis requests
  */
-export default runner(input => Promise.resolve(analyzeJSTS(input as JsTsAnalysisInput, 'js')));
+export default runner(
+  input => Promise.resolve(analyzeJSTS(input as JsTsAnalysisInput, 'js')),
+  output => encodeJsTsOutput(output as JsTsAnalysisOutput),
+);
@@ -17,9 +17,18 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-import { runner, analyzeJSTS, JsTsAnalysisInput } from 'services/analysis';
+import {
+  runner,
+  analyzeJSTS,
+  encodeJsTsOutput,
+  JsTsAnalysisInput,
+  JsTsAnalysisOutput,
+} from 'services/analysis';
 
 /**
  * Handles TypeScript analysis requests
  */
-export default runner(input => Promise.resolve(analyzeJSTS(input as JsTsAnalysisInput, 'ts')));
+export default runner(
+  input => Promise.resolve(analyzeJSTS(input as JsTsAnalysisInput, 'ts')),
+  output => encodeJsTsOutput(output as JsTsAnalysisOutput),
+);
@@ -17,20 +17,16 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.plugins.javascript.eslint;
-
-import java.io.IOException;
-import java.net.ServerSocket;
-
-public class NetUtils {
-
-  private NetUtils() {
-  }
-
-  public static int findOpenPort() throws IOException {
-    try (ServerSocket socket = new ServerSocket(0)) {
-      return socket.getLocalPort();
-    }
-  }
+import express from 'express';
+import { negotiateProtocol } from 'services/analysis';
 
+/**
+ * Handles protocol negotiation requests
+ *
+ * The requester asks for a wire protocol of analysis outputs, and the bridge
+ * answers with the protocol it will use, falling back to JSON for unknown ones.
+ */
+export default function (request: express.Request, response: express.Response) {
+  const { protocol } = request.body as { protocol: string };
+  response.send(negotiateProtocol(protocol));
 }
@@ -51,24 +51,26 @@ const SHUTDOWN_TIMEOUT = 15_000;
  * through a REST API. Once started, the bridge first begins by loading
  * any provided rule bundles and then waits for incoming requests.
  *
- * Communication between two ends is entirely done with the JSON format.
+ * Communication between two ends is done with the JSON format, unless the
+ * requester negotiates the binary encoding of analysis outputs. The bridge
+ * listens either to a loopback port or to a Unix domain socket.
  *
  * Although a web server, the bridge is not exposed to the outside world
  * but rather exclusively communicate either with the JavaScript plugin
  * which embeds it or directly with SonarLint.
  *
- * @param port the port to listen to
+ * @param port the port to listen to, or the path of a Unix domain socket
  * @param host only for usage from outside of NodeJS - Java plugin, SonarLint, ...
  * @param timeout timeout in ms to shut down the server if unresponsive
  * @returns an http server
  */
 export function start(
-  port = 0,
+  port: number | string = 0,
   host = '127.0.0.1',
   timeout = SHUTDOWN_TIMEOUT,
 ): Promise<http.Server> {
   return new Promise(resolve => {
-    debug(`starting eslint-bridge server at port ${port}`);
+    debug(`starting eslint-bridge server at ${describe(port)}`);
 
     const app = express();
     const server = http.createServer(app);
@@ -111,12 +113,24 @@ export function start(
     server.on('listening', () => {
       /**
        * Since we use 0 as the default port, Node.js assigns a random port to the server,
-       * which we get using server.address().
+       * which we get using server.address(). The address of a Unix domain socket is its path.
        */
-      debug(`eslint-bridge server is running at port ${(server.address() as AddressInfo)?.port}`);
+      const address = server.address() as AddressInfo | string;
+      debug(`eslint-bridge server is running at ${describe(address)}`);
       resolve(server);
     });
 
+    /**
+     * Node.js listens to a Unix domain socket when the port is a path,
+     * in which case the host is ignored.
+     */
     server.listen(port, host);
   });
 }
+
+function describe(address: number | string | AddressInfo) {
+  if (typeof address === 'object') {
+    return `port ${address?.port}`;
+  }
+  return isNaN(Number(address)) ? `socket ${address}` : `port ${address}`;
+}
@@ -0,0 +1,191 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+import { CpdToken, Metrics, SymbolHighlight, SyntaxHighlight } from 'linting/eslint';
+import { JsTsAnalysisOutput } from './analysis';
+
+/**
+ * The version of the binary encoding of analysis outputs
+ */
+export const BINARY_OUTPUT_VERSION = 1;
+
+type Location = SyntaxHighlight['location'];
+
+/**
+ * Encodes a JavaScript / TypeScript analysis output using the binary protocol
+ *
+ * Highlights, highlighted symbols, line metrics and CPD tokens make up most of
+ * the output of big files. They are encoded as variable-length integers, with
+ * repeated strings, i.e. highlighting kinds and token images, stored once in
+ * a table local to the output. The remaining properties are small and keep
+ * their JSON representation:
+ *
+ * ```
+ * version          byte
+ * header           string, JSON output without the encoded properties
+ * string table     count, then strings
+ * highlights       count, then location and text type index
+ * symbols          count, then declaration, references count and references
+ * line metrics     ncloc, commentLines, nosonarLines, executableLines:
+ *                  count, then lines
+ * CPD tokens       count, then location and image index
+ * ```
+ *
+ * A string is a length in bytes followed by its UTF-8 bytes, and a location is
+ * its start line, start column, line span and end column.
+ *
+ * @param output the analysis output to encode
+ * @returns the encoded analysis output
+ */
+export function encodeJsTsOutput(output: JsTsAnalysisOutput): Buffer {
+  const { highlights, highlightedSymbols, metrics, cpdTokens, ...rest } = output;
+  const strings = new StringTable();
+  const body = new BinaryWriter();
+  writeHighlights(body, strings, highlights);
+  writeSymbols(body, highlightedSymbols);
+  const { ncloc, commentLines, nosonarLines, executableLines, ...counters } =
+    metrics ?? ({} as Partial<Metrics>);
+  for (const lines of [ncloc, commentLines, nosonarLines, executableLines]) {
+    writeLines(body, lines);
+  }
+  writeCpdTokens(body, strings, cpdTokens);
+
+  const header = metrics === undefined ? rest : { ...rest, metrics: counters };
+  const writer = new BinaryWriter();
+  writer.byte(BINARY_OUTPUT_VERSION);
+  writer.string(JSON.stringify(header));
+  writer.varint(strings.size());
+  strings.forEach(string => writer.string(string));
+  writer.bytes(body.toBuffer());
+  return writer.toBuffer();
+}
+
+function writeHighlights(
+  writer: BinaryWriter,
+  strings: StringTable,
+  highlights?: SyntaxHighlight[],
+) {
+  writer.varint(highlights?.length ?? 0);
+  highlights?.forEach(({ location, textType }) => {
+    writeLocation(writer, location);
+    writer.varint(strings.index(textType));
+  });
+}
+
+function writeSymbols(writer: BinaryWriter, symbols?: SymbolHighlight[]) {
+  writer.varint(symbols?.length ?? 0);
+  symbols?.forEach(({ declaration, references }) => {
+    writeLocation(writer, declaration);
+    writer.varint(references.length);
+    references.forEach(reference => writeLocation(writer, reference));
+  });
+}
+
+function writeLines(writer: BinaryWriter, lines?: number[]) {
+  writer.varint(lines?.length ?? 0);
+  lines?.forEach(line => writer.varint(line));
+}
+
+function writeCpdTokens(writer: BinaryWriter, strings: StringTable, tokens?: CpdToken[]) {
+  writer.varint(tokens?.length ?? 0);
+  tokens?.forEach(({ location, image }) => {
+    writeLocation(writer, location);
+    writer.varint(strings.index(image));
+  });
+}
+
+function writeLocation(writer: BinaryWriter, location: Location) {
+  writer.varint(location.startLine);
+  writer.varint(location.startCol);
+  writer.varint(location.endLine - location.startLine);
+  writer.varint(location.endCol);
+}
+
+/**
+ * A table of the strings of an output, each string being stored once
+ */
+class StringTable {
+  private readonly indexes = new Map<string, number>();
+
+  index(string: string) {
+    let index = this.indexes.get(string);
+    if (index === undefined) {
+      index = this.indexes.size;
+      this.indexes.set(string, index);
+    }
+    return index;
+  }
+
+  size() {
+    return this.indexes.size;
+  }
+
+  forEach(callback: (string: string) => void) {
+    this.indexes.forEach((_index, string) => callback(string));
+  }
+}
+
+/**
+ * A growable buffer encoding integers with a variable length
+ *
+ * _Each byte holds 7 bits of the integer, the high bit telling whether
+ * another byte follows, the same way the scanner encodes its cache entries._
+ */
+class BinaryWriter {
+  private buffer = Buffer.alloc(1024);
+  private length = 0;
+
+  byte(value: number) {
+    this.ensureCapacity(1);
+    this.buffer[this.length++] = value;
+  }
+
+  varint(value: number) {
+    let remaining = value >>> 0;
+    do {
+      const bits = remaining & 0x7f;
+      remaining >>>= 7;
+      this.byte(remaining !== 0 ? bits | 0x80 : bits);
+    } while (remaining !== 0);
+  }
+
+  string(value: string) {
+    const bytes = Buffer.from(value, 'utf8');
+    this.varint(bytes.length);
+    this.bytes(bytes);
+  }
+
+  bytes(bytes: Buffer) {
+    this.ensureCapacity(bytes.length);
+    bytes.copy(this.buffer, this.length);
+    this.length += bytes.length;
+  }
+
+  toBuffer() {
+    return this.buffer.subarray(0, this.length);
+  }
+
+  private ensureCapacity(needed: number) {
+    if (this.length + needed > this.buffer.length) {
+      const buffer = Buffer.alloc(Math.max(this.buffer.length * 2, this.length + needed));
+      this.buffer.copy(buffer, 0, 0, this.length);
+      this.buffer = buffer;
+    }
+  }
+}
@@ -19,3 +19,4 @@
  */
 export * from './analysis';
 export * from './analyzer';
+export * from './encoding';
@@ -19,4 +19,5 @@
  */
 export * from './analyzers';
 export * from './analysis';
+export * from './protocol';
 export * from './runner';
@@ -17,26 +17,33 @@
  * along with this program; if not, write to the Free Software Foundation,
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
-package org.sonar.plugins.javascript.eslint.cache;
 
-import java.util.Enumeration;
-import java.util.Iterator;
-
-@SuppressWarnings("java:S1150")
-class IteratorEnumeration<T> implements Enumeration<T> {
-  private final Iterator<T> iterator;
+/**
+ * A wire protocol for analysis outputs
+ *
+ * Analysis outputs are sent back as JSON by default. The binary protocol is
+ * an optional compact encoding that the requester negotiates once at startup.
+ * Only analyses providing an encoder use it, any other response, including
+ * errors, remains JSON.
+ */
+export type Protocol = 'json' | 'binary';
 
-  IteratorEnumeration(Iterator<T> iterator) {
-    this.iterator = iterator;
-  }
+let protocol: Protocol = 'json';
 
-  @Override
-  public boolean hasMoreElements() {
-    return iterator.hasNext();
-  }
+/**
+ * Negotiates the wire protocol of analysis outputs
+ *
+ * @param requested the protocol requested by the client
+ * @returns the protocol that will be used from now on
+ */
+export function negotiateProtocol(requested: string): Protocol {
+  protocol = requested === 'binary' ? 'binary' : 'json';
+  return protocol;
+}
 
-  @Override
-  public T nextElement() {
-    return iterator.next();
-  }
+/**
+ * Returns the negotiated wire protocol of analysis outputs
+ */
+export function getProtocol(): Protocol {
+  return protocol;
 }
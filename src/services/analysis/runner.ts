@@ -18,9 +18,15 @@
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 import express from 'express';
-import { Analysis } from './analysis';
+import { Analysis, AnalysisOutput } from './analysis';
+import { getProtocol } from './protocol';
 import { readFile } from 'helpers';
 
+/**
+ * An encoder of analysis outputs for the binary protocol
+ */
+export type Encoder = (output: AnalysisOutput) => Buffer;
+
 /**
  * Runs an analysis
  *
@@ -30,9 +36,13 @@ import { readFile } from 'helpers';
  * analysis function, and either return the analysis output or forward back
  * any analysis error to the requester.
  *
+ * The analysis output is encoded with the binary protocol if it was negotiated
+ * and the analysis provides an encoder, and sent back as JSON otherwise.
+ *
  * @param analysis the analysis function to run
+ * @param encode the encoder of the analysis output for the binary protocol
  */
-export function runner(analysis: Analysis): express.RequestHandler {
+export function runner(analysis: Analysis, encode?: Encoder): express.RequestHandler {
   return async (
     request: express.Request,
     response: express.Response,
@@ -44,7 +54,11 @@ export function runner(analysis: Analysis): express.RequestHandler {
         input.fileContent = await readFile(input.filePath);
       }
       const output = await analysis(input);
-      response.json(output);
+      if (encode && getProtocol() === 'binary') {
+        response.type('application/octet-stream').send(encode(output));
+      } else {
+        response.json(output);
+      }
     } catch (error) {
       next(error);
     }
@@ -30,6 +30,7 @@
 
 import path from 'path';
 import ts from 'typescript';
+import v8 from 'v8';
 import { addTsConfigIfDirectory, debug, toUnixPath } from 'helpers';
 
 /**
@@ -39,6 +40,32 @@ import { addTsConfigIfDirectory, debug, toUnixPath } from 'helpers';
  */
 const programs = new Map<string, ts.Program>();
 
+/**
+ * A registry of the source files shared by TypeScript's Program instances
+ *
+ * Programs of a monorepo often include the same files, e.g. type declarations
+ * from `node_modules/@types` or shared packages. Source files are parsed once
+ * and reused by the programs created with compatible compiler options, as long
+ * as a program holds them.
+ */
+const documentRegistry = ts.createDocumentRegistry();
+
+/**
+ * The source files acquired from the registry by each TypeScript's Program instance
+ */
+const programDocuments = new Map<string, AcquiredDocuments>();
+
+/**
+ * The source files of the last deleted program, which are released only once
+ * the next program is created, so that it can reuse them.
+ */
+let retainedDocuments: AcquiredDocuments | undefined;
+
+interface AcquiredDocuments {
+  options: ts.CompilerOptions;
+  sourceFiles: ts.SourceFile[];
+}
+
 /**
  * A counter of created TypeScript's Program instances
  */
@@ -141,17 +168,39 @@ export function createProgramOptions(
  * @returns the identifier of the created TypeScript's Program along with the
  *          resolved files, project references and a boolean 'missingTsConfig'
  *          which is true when an extended tsconfig.json path was not found,
- *          which defaulted to default Typescript configuration
+ *          which defaulted to default Typescript configuration, along with the
+ *          number of source files parsed or reused from previous programs, the
+ *          time spent parsing, and the heap used by the bridge once the program
+ *          is created along with the heap limit
  */
 export async function createProgram(tsConfig: string): Promise<{
   programId: string;
   files: string[];
   projectReferences: string[];
   missingTsConfig: boolean;
+  parsedFiles: number;
+  reusedFiles: number;
+  parseTime: number;
+  heapUsed: number;
+  heapLimit: number;
 }> {
   const programOptions = createProgramOptions(tsConfig);
 
-  const program = ts.createProgram(programOptions);
+  const documents: AcquiredDocuments = { options: programOptions.options, sourceFiles: [] };
+  const stats = { parsedFiles: 0, reusedFiles: 0, parseTime: 0 };
+  let program: ts.Program;
+  try {
+    program = ts.createProgram({
+      ...programOptions,
+      host: createSharedCompilerHost(programOptions.options, documents, stats),
+    });
+  } catch (error) {
+    releaseDocuments(documents);
+    throw error;
+  }
+  releaseDocuments(retainedDocuments);
+  retainedDocuments = undefined;
+
   const inputProjectReferences = program.getProjectReferences() || [];
   const projectReferences: string[] = [];
 
@@ -167,22 +216,126 @@ export async function createProgram(tsConfig: string): Promise<{
 
   const programId = nextId();
   programs.set(programId, program);
-  debug(`program from ${tsConfig} with id ${programId} is created`);
+  programDocuments.set(programId, documents);
+  debug(
+    `program from ${tsConfig} with id ${programId} is created, ` +
+      `${stats.reusedFiles} source file(s) reused and ${stats.parsedFiles} parsed in ${stats.parseTime}ms`,
+  );
 
   return {
     programId,
     files,
     projectReferences,
     missingTsConfig: programOptions.missingTsConfig,
+    ...stats,
+    heapUsed: heapUsed(),
+    heapLimit: v8.getHeapStatistics().heap_size_limit,
   };
 }
 
+/**
+ * Measures the heap used by the bridge
+ *
+ * The source files of the previous program are released before measuring,
+ * but the deleted programs remain in the heap until they are collected. When
+ * the garbage collector is exposed, it runs first so that the measure only
+ * accounts for the programs alive.
+ */
+function heapUsed() {
+  (global as { gc?: () => void }).gc?.();
+  return process.memoryUsage().heapUsed;
+}
+
 /**
  * Deletes an existing TypeScript's Program by its identifier
  * @param programId the identifier of the TypeScript's Program to delete
  */
 export function deleteProgram(programId: string): void {
   programs.delete(programId);
+  const documents = programDocuments.get(programId);
+  programDocuments.delete(programId);
+  if (documents) {
+    releaseDocuments(retainedDocuments);
+    retainedDocuments = documents;
+  }
+}
+
+/**
+ * Creates a compiler host which acquires source files from the shared registry
+ *
+ * The version of a source file is its modification time, so that files changed
+ * between two analyses served by the same bridge are parsed again. The content
+ * of a file is only read when the registry needs to parse it.
+ *
+ * @param options the compiler options of the program
+ * @param documents the source files acquired by the program
+ * @param stats the counters of parsed and reused source files
+ */
+function createSharedCompilerHost(
+  options: ts.CompilerOptions,
+  documents: AcquiredDocuments,
+  stats: { parsedFiles: number; reusedFiles: number; parseTime: number },
+): ts.CompilerHost {
+  const host = ts.createCompilerHost(options);
+  host.getSourceFile = (fileName, languageVersionOrOptions, onError) => {
+    const modifiedTime = host.fileExists(fileName) ? ts.sys.getModifiedTime?.(fileName) : undefined;
+    if (!modifiedTime) {
+      return undefined;
+    }
+    let parsed = false;
+    let text: string | undefined;
+    const snapshot: ts.IScriptSnapshot = {
+      getText: (start, end) => {
+        parsed = true;
+        text ??= host.readFile(fileName) ?? '';
+        return text.substring(start, end);
+      },
+      getLength: () => {
+        parsed = true;
+        text ??= host.readFile(fileName) ?? '';
+        return text.length;
+      },
+      getChangeRange: () => undefined,
+    };
+    const start = Date.now();
+    try {
+      const sourceFile = documentRegistry.acquireDocument(
+        fileName,
+        options,
+        snapshot,
+        modifiedTime.getTime().toString(),
+        undefined,
+        languageVersionOrOptions,
+      );
+      documents.sourceFiles.push(sourceFile);
+      if (parsed) {
+        stats.parsedFiles++;
+        stats.parseTime += Date.now() - start;
+      } else {
+        stats.reusedFiles++;
+      }
+      return sourceFile;
+    } catch (error) {
+      onError?.(error instanceof Error ? error.message : String(error));
+      return undefined;
+    }
+  };
+  return host;
+}
+
+/**
+ * Releases the source files acquired by a program, the registry drops those
+ * which are not held by any other program.
+ */
+function releaseDocuments(documents?: AcquiredDocuments) {
+  for (const sourceFile of documents?.sourceFiles ?? []) {
+    documentRegistry.releaseDocument(
+      sourceFile.fileName,
+      documents!.options,
+      (sourceFile as ts.SourceFile & { scriptKind: ts.ScriptKind }).scriptKind,
+      sourceFile.impliedNodeFormat,
+    );
+  }
 }
 
 function diagnosticToString(diagnostic: ts.Diagnostic): string {
@@ -49,6 +49,30 @@ describe('router', () => {
     await close();
   });
 
+  it('should route /analyze-batch requests', async () => {
+    initializeLinter([
+      { key: 'prefer-regex-literals', configurations: [], fileTypeTarget: ['MAIN'] },
+    ]);
+    const filePath = path.join(__dirname, 'fixtures', 'file.js');
+    const fileType = 'MAIN';
+    const malformed = { filePath, fileType, fileContent: 'if (', tsConfigs: [] };
+    const data = { language: 'js', requests: [{ filePath, fileType, tsConfigs: [] }, malformed] };
+    const response = (await request(server, '/analyze-batch', 'POST', data)) as string;
+    const lines = response.trim().split('\n');
+    expect(lines).toHaveLength(2);
+    const {
+      issues: [issue],
+    } = JSON.parse(lines[0]);
+    expect(issue).toEqual(
+      expect.objectContaining({
+        ruleId: 'prefer-regex-literals',
+        line: 1,
+      }),
+    );
+    const { parsingError } = JSON.parse(lines[1]);
+    expect(parsingError).toEqual(expect.objectContaining({ code: 'PARSING' }));
+  });
+
   it('should route /analyze-css requests', async () => {
     const filePath = path.join(__dirname, 'fixtures', 'file.css');
     const rules = [{ key: 'function-calc-no-invalid', configurations: [] }];
@@ -227,6 +251,11 @@ describe('router', () => {
     expect(response).toEqual('OK!');
   });
 
+  it('should route /protocol requests', async () => {
+    expect(await request(server, '/protocol', 'POST', { protocol: 'binary' })).toEqual('binary');
+    expect(await request(server, '/protocol', 'POST', { protocol: 'unknown' })).toEqual('json');
+  });
+
   it('should route /status requests', async () => {
     const response = await request(server, '/status', 'GET');
     expect(response).toEqual('OK!');
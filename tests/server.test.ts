@@ -24,6 +24,8 @@ import { setContext } from 'helpers';
 import { AddressInfo } from 'net';
 import { request } from './tools';
 import http from 'http';
+import fs from 'fs';
+import os from 'os';
 
 describe('server', () => {
   const port = 0;
@@ -59,6 +61,26 @@ describe('server', () => {
     await close();
   });
 
+  it('should start on a Unix domain socket', async () => {
+    if (process.platform === 'win32') {
+      return;
+    }
+    console.log = jest.fn();
+
+    const dir = fs.mkdtempSync(path.join(os.tmpdir(), 'eslint-bridge-'));
+    const socket = path.join(dir, 'bridge.sock');
+    const server = await start(socket);
+    const close = promisify(server.close.bind(server));
+
+    expect(server.address()).toEqual(socket);
+    expect(console.log).toHaveBeenCalledWith(
+      `DEBUG eslint-bridge server is running at socket ${socket}`,
+    );
+    expect(await request(server, '/status', 'GET')).toEqual('OK!');
+
+    await close();
+  });
+
   it('should fail when linter is not initialized', async () => {
     expect.assertions(3);
 
@@ -0,0 +1,119 @@
+/*
+ * SonarQube JavaScript Plugin
+ * Copyright (C) 2011-2023 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+import { BINARY_OUTPUT_VERSION, encodeJsTsOutput, JsTsAnalysisOutput } from 'services/analysis';
+
+describe('encodeJsTsOutput', () => {
+  it('should encode an analysis output', () => {
+    const location = { startLine: 1, startCol: 0, endLine: 3, endCol: 200 };
+    const output: JsTsAnalysisOutput = {
+      issues: [],
+      highlights: [
+        { location, textType: 'KEYWORD' },
+        { location, textType: 'KEYWORD' },
+      ],
+      highlightedSymbols: [{ declaration: location, references: [location] }],
+      metrics: {
+        ncloc: [1, 2, 3],
+        commentLines: [],
+        nosonarLines: [2],
+        executableLines: [3],
+        functions: 1,
+        statements: 2,
+      },
+      cpdTokens: [{ location, image: 'KEYWORD' }],
+      ucfgPaths: ['ucfg'],
+    };
+
+    const reader = new Reader(encodeJsTsOutput(output));
+    expect(reader.byte()).toEqual(BINARY_OUTPUT_VERSION);
+    expect(JSON.parse(reader.string())).toEqual({
+      issues: [],
+      metrics: { functions: 1, statements: 2 },
+      ucfgPaths: ['ucfg'],
+    });
+    expect(reader.strings()).toEqual(['KEYWORD']);
+    expect(reader.varints(2 * 5 + 1)).toEqual([2, 1, 0, 2, 200, 0, 1, 0, 2, 200, 0]);
+    expect(reader.varints(1 + 4 + 1 + 4)).toEqual([1, 1, 0, 2, 200, 1, 1, 0, 2, 200]);
+    expect(reader.varints(4 + 1 + 1 + 1)).toEqual([3, 1, 2, 3, 0, 1, 2]);
+    expect(reader.varints(2)).toEqual([1, 3]);
+    expect(reader.varints(1 + 5)).toEqual([1, 1, 0, 2, 200, 0]);
+    expect(reader.done()).toBe(true);
+  });
+
+  it('should encode an empty analysis output', () => {
+    const reader = new Reader(encodeJsTsOutput({ issues: [] }));
+    expect(reader.byte()).toEqual(BINARY_OUTPUT_VERSION);
+    expect(JSON.parse(reader.string())).toEqual({ issues: [] });
+    expect(reader.varints(1 + 1 + 1 + 4 + 1)).toEqual([0, 0, 0, 0, 0, 0, 0, 0]);
+    expect(reader.done()).toBe(true);
+  });
+
+  it('should encode large and non-ASCII values', () => {
+    const location = { startLine: 70000, startCol: 128, endLine: 70000, endCol: 16384 };
+    const output = { issues: [], cpdTokens: [{ location, image: '"é"' }] };
+    const reader = new Reader(encodeJsTsOutput(output));
+    reader.byte();
+    reader.string();
+    expect(reader.strings()).toEqual(['"é"']);
+    expect(reader.varints(1 + 1 + 4)).toEqual([0, 0, 0, 0, 0, 0]);
+    expect(reader.varints(1 + 5)).toEqual([1, 70000, 128, 0, 16384, 0]);
+  });
+});
+
+class Reader {
+  private offset = 0;
+
+  constructor(private readonly buffer: Buffer) {}
+
+  byte() {
+    return this.buffer[this.offset++];
+  }
+
+  varint() {
+    let result = 0;
+    let shift = 0;
+    let byte: number;
+    do {
+      byte = this.byte();
+      result |= (byte & 0x7f) << shift;
+      shift += 7;
+    } while (byte & 0x80);
+    return result;
+  }
+
+  varints(count: number) {
+    return Array.from({ length: count }, () => this.varint());
+  }
+
+  string() {
+    const length = this.varint();
+    const string = this.buffer.toString('utf8', this.offset, this.offset + length);
+    this.offset += length;
+    return string;
+  }
+
+  strings() {
+    return Array.from({ length: this.varint() }, () => this.string());
+  }
+
+  done() {
+    return this.offset === this.buffer.length;
+  }
+}
@@ -18,7 +18,7 @@
  * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
  */
 import express from 'express';
-import { AnalysisOutput, runner } from 'services/analysis';
+import { AnalysisOutput, negotiateProtocol, runner } from 'services/analysis';
 
 describe('runner', () => {
   it('should run an analysis', async () => {
@@ -39,6 +39,34 @@ describe('runner', () => {
     expect(response.json).toHaveBeenCalledWith('DONE');
   });
 
+  it('should encode the analysis output with the binary protocol', async () => {
+    const mockRequest = () => ({ body: 'done' } as express.Request);
+    const send = jest.fn();
+    const mockResponse = () =>
+      ({ json: jest.fn(), type: jest.fn(() => ({ send })) } as any as express.Response);
+
+    const analysis = input => Promise.resolve(input.toUpperCase() as AnalysisOutput);
+    const encode = output => Buffer.from(output as string);
+
+    const request = mockRequest();
+    const response = mockResponse();
+
+    const handler = runner(analysis, encode) as (
+      request: express.Request,
+      response: express.Response,
+    ) => Promise<void>;
+    try {
+      negotiateProtocol('binary');
+      await handler(request, response);
+    } finally {
+      negotiateProtocol('json');
+    }
+
+    expect(response.type).toHaveBeenCalledWith('application/octet-stream');
+    expect(send).toHaveBeenCalledWith(Buffer.from('DONE'));
+    expect(response.json).not.toHaveBeenCalled();
+  });
+
   it('should forward the caught runtime error to the next middleware', async () => {
     const mockRequest = () => ({ body: 'whatever' } as express.Request);
     const mockResponse = () =>
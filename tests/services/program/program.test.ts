@@ -46,6 +46,48 @@ describe('program', () => {
     expect(projectReferences).toEqual([path.join(reference, 'tsconfig.json')]);
   });
 
+  it('should report the heap usage of the bridge', async () => {
+    const tsConfig = path.join(__dirname, 'fixtures', 'tsconfig.json');
+
+    const { programId, heapUsed, heapLimit } = await createProgram(tsConfig);
+
+    expect(heapUsed).toBeGreaterThan(0);
+    expect(heapLimit).toBeGreaterThan(heapUsed);
+    deleteProgram(programId);
+  });
+
+  it('should collect garbage before measuring the heap when exposed', async () => {
+    const tsConfig = path.join(__dirname, 'fixtures', 'tsconfig.json');
+    const runtime = global as { gc?: () => void };
+    const exposedGc = runtime.gc;
+    const gc = jest.fn();
+    runtime.gc = gc;
+
+    try {
+      const { programId } = await createProgram(tsConfig);
+      expect(gc).toHaveBeenCalled();
+      deleteProgram(programId);
+    } finally {
+      runtime.gc = exposedGc;
+    }
+  });
+
+  it('should reuse the source files of a deleted program', async () => {
+    const tsConfig = path.join(__dirname, 'fixtures', 'tsconfig.json');
+
+    const first = await createProgram(tsConfig);
+    deleteProgram(first.programId);
+    const second = await createProgram(tsConfig);
+
+    expect(second.files).toEqual(first.files);
+    expect(second.reusedFiles).toEqual(first.parsedFiles + first.reusedFiles);
+    expect(second.parsedFiles).toEqual(0);
+    expect(getProgramById(second.programId).getSourceFiles()).toEqual(
+      expect.arrayContaining([expect.objectContaining({ fileName: first.files[0] })]),
+    );
+    deleteProgram(second.programId);
+  });
+
   it('should skip missing reference of a program', async () => {
     const fixtures = path.join(__dirname, 'fixtures');
     const tsConfig = path.join(fixtures, `tsconfig_missing_reference.json`);
@@ -28,7 +28,7 @@ export function request(server: http.Server, path: string, method: string, data:
     host: '127.0.0.1',
     path,
     method,
-    port: (<AddressInfo>server.address()).port,
+    ...address(server),
     headers: {
       'Content-Type': 'application/json',
     },
@@ -50,3 +50,10 @@ export function request(server: http.Server, path: string, method: string, data:
     request.end();
   });
 }
+
+function address(server: http.Server) {
+  const address = server.address();
+  return typeof address === 'string'
+    ? { socketPath: address }
+    : { port: (<AddressInfo>address).port };
+}